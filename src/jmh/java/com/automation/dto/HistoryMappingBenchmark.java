@@ -0,0 +1,112 @@
+package com.automation.dto;
+
+import com.automation.config.JacksonConfig;
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.AutomationStep;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Entity-to-DTO mapping and JSON serialization of one history page, with the application's ObjectMapper
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    @Param({"10", "50"})
+    private int stepsPerConfig;
+
+    private ObjectMapper objectMapper;
+    private List<AutomationResult> results;
+    private List<AutomationResultDTO> dtoPage;
+    private Map<String, Object> summaryPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new JacksonConfig().objectMapper();
+
+        AutomationConfig config = new AutomationConfig();
+        config.setId(1L);
+        config.setName("Login flow");
+        config.setDescription("Logs in and captures the dashboard");
+        List<AutomationStep> steps = new ArrayList<>();
+        for (int i = 0; i < stepsPerConfig; i++) {
+            AutomationStep step = new AutomationStep();
+            step.setId((long) i);
+            step.setOrder(i);
+            step.setType(AutomationStep.StepType.values()[i % AutomationStep.StepType.values().length]);
+            step.setSelector("#form .field-" + i);
+            step.setValue("value-" + i);
+            step.setWaitSeconds(i % 3);
+            steps.add(step);
+        }
+        config.setSteps(steps);
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        results = new ArrayList<>();
+        List<AutomationResultSummaryDTO> summaries = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            AutomationResult result = new AutomationResult();
+            result.setId((long) i);
+            result.setConfig(config);
+            result.setStatus(i % 7 == 0 ? AutomationResult.Status.FAILED : AutomationResult.Status.SUCCESS);
+            result.setStartTime(start.plusMinutes(i));
+            result.setEndTime(start.plusMinutes(i).plusSeconds(42));
+            result.setErrorMessage(i % 7 == 0 ? "Element not found: #submit" : null);
+            result.setScreenshotPaths(List.of("sha256/" + Integer.toHexString(i * 31) + ".png"));
+            results.add(result);
+            summaries.add(new AutomationResultSummaryDTO(result.getId(), 1L, config.getName(), result.getStatus(),
+                    result.getStartTime(), result.getEndTime(), 42_000L, 1, null, null));
+        }
+        dtoPage = mapPage();
+
+        summaryPage = new LinkedHashMap<>();
+        summaryPage.put("content", summaries);
+        summaryPage.put("size", pageSize);
+        summaryPage.put("hasMore", true);
+        summaryPage.put("nextCursor", new HistoryCursor(start, (long) pageSize).encode());
+    }
+
+    @Benchmark
+    public List<AutomationResultDTO> mapPage() {
+        return results.stream().map(AutomationResultDTO::fromEntity).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeDetailPage() throws Exception {
+        return objectMapper.writeValueAsBytes(dtoPage);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeDetailPage() throws Exception {
+        return objectMapper.writeValueAsBytes(mapPage());
+    }
+
+    @Benchmark
+    public byte[] serializeSummaryPage() throws Exception {
+        return objectMapper.writeValueAsBytes(summaryPage);
+    }
+}
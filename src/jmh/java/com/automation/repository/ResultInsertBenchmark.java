@@ -0,0 +1,90 @@
+package com.automation.repository;
+
+import com.automation.UiAutomationApplication;
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Result rows inserted through the JPA repository into an in-memory H2 database with the real schema
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultInsertBenchmark {
+
+    private static final int BATCH_SIZE = 50;
+
+    private ConfigurableApplicationContext context;
+    private AutomationResultRepository resultRepository;
+    private AutomationConfig config;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UiAutomationApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "automation.driver.backend=SIMULATED",
+                        "automation.driver.pool.min-size=0",
+                        "logging.level.root=WARN")
+                .run();
+        resultRepository = context.getBean(AutomationResultRepository.class);
+
+        AutomationConfig newConfig = new AutomationConfig();
+        newConfig.setName("benchmark");
+        newConfig.setActive(false);
+        config = context.getBean(AutomationConfigRepository.class).save(newConfig);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AutomationResult insertOne() {
+        return resultRepository.save(newResult());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<AutomationResult> insertBatch() {
+        List<AutomationResult> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(newResult());
+        }
+        return resultRepository.saveAll(batch);
+    }
+
+    private AutomationResult newResult() {
+        LocalDateTime now = LocalDateTime.now();
+        AutomationResult result = new AutomationResult();
+        result.setConfig(config);
+        result.setStatus(AutomationResult.Status.SUCCESS);
+        result.setStartTime(now.minusSeconds(30));
+        result.setEndTime(now);
+        result.setScreenshotPaths(new ArrayList<>(List.of("sha256/0000.png")));
+        return result;
+    }
+}
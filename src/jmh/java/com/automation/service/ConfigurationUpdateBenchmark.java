@@ -0,0 +1,77 @@
+package com.automation.service;
+
+import com.automation.dto.AutomationConfigDTO;
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationStep;
+import com.automation.repository.AutomationConfigRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// ConfigurationService.updateConfiguration replacing every step of a config, as an edit from the UI does.
+// The repository and scheduler are stubs that keep no invocation history, so only the update itself is measured.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigurationUpdateBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int stepCount;
+
+    private ConfigurationService configurationService;
+    private AutomationConfigDTO edit;
+
+    @Setup
+    public void setUp() {
+        AutomationConfig config = new AutomationConfig();
+        config.setId(1L);
+        config.setSteps(new ArrayList<>());
+        AutomationConfigRepository configRepository = mock(AutomationConfigRepository.class,
+                withSettings().stubOnly());
+        when(configRepository.findById(1L)).thenReturn(Optional.of(config));
+        when(configRepository.save(any(AutomationConfig.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        configurationService = new ConfigurationService(configRepository, null, null, null,
+                mock(SchedulerService.class, withSettings().stubOnly()), null, null);
+
+        List<AutomationStep> newSteps = new ArrayList<>(stepCount);
+        for (int i = 0; i < stepCount; i++) {
+            AutomationStep step = new AutomationStep();
+            step.setType(i % 2 == 0 ? AutomationStep.StepType.CLICK : AutomationStep.StepType.INPUT);
+            step.setSelector("#field-" + i);
+            step.setValue("value-" + i);
+            step.setCaptureScreenshot(i % 10 == 0);
+            newSteps.add(step);
+        }
+        edit = new AutomationConfigDTO();
+        edit.setName("benchmark");
+        edit.setActive(true);
+        edit.setSteps(newSteps);
+        configurationService.updateConfiguration(1L, edit);
+    }
+
+    @Benchmark
+    public AutomationConfig updateConfiguration() {
+        return configurationService.updateConfiguration(1L, edit);
+    }
+}
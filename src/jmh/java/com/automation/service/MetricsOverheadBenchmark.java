@@ -0,0 +1,66 @@
+package com.automation.service;
+
+import com.automation.model.AutomationStep;
+import com.automation.model.StepExecution;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-step and per-screenshot metric cost on the run threads, with Prometheus histograms enabled as in production.
+// Compare against timestampsOnly, which is what the step loop pays without metrics.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class MetricsOverheadBenchmark {
+
+    private AutomationMetrics metrics;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+            }
+        });
+        metrics = new AutomationMetrics(registry);
+    }
+
+    @Benchmark
+    public long timestampsOnly() {
+        long started = System.nanoTime();
+        return System.nanoTime() - started;
+    }
+
+    @Benchmark
+    public void recordStep() {
+        long started = System.nanoTime();
+        metrics.recordStep(AutomationStep.StepType.CLICK, StepExecution.Outcome.SUCCESS, System.nanoTime() - started);
+    }
+
+    @Benchmark
+    public void recordScreenshotCapture() {
+        long started = System.nanoTime();
+        metrics.recordScreenshotCapture(System.nanoTime() - started);
+    }
+}
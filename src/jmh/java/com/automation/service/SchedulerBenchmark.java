@@ -0,0 +1,48 @@
+package com.automation.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.util.concurrent.TimeUnit;
+
+// Next-fire computation SchedulerService does each time a cron schedule fires
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+
+    @Param({"0 */5 * * * *", "0 0 9 * * MON-FRI", "0 30 2 1 * *"})
+    private String cronExpression;
+
+    @Param({"0", "30000"})
+    private long smearMillis;
+
+    private CronExpression cron;
+    private long after;
+
+    @Setup
+    public void setUp() {
+        cron = CronExpression.parse(cronExpression);
+        after = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public Long nextCronFire() {
+        // Move on a minute per call, so each computation starts from a new point in time
+        after += 60_000;
+        return SchedulerService.nextCronFire(cron, after, smearMillis);
+    }
+}
@@ -0,0 +1,107 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.AutomationStep;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Short runs per millisecond through the driver pool and step dispatch against zero-latency simulated sessions,
+// with as many threads as pooled sessions: the overhead the application adds around every browser command
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class SimulatedRunBenchmark {
+
+    private WebDriverPools pools;
+    private WebDriverPool pool;
+    private AutomationService automationService;
+    private AutomationConfig config;
+    private List<AutomationStep> steps;
+
+    @Setup
+    public void setUp() {
+        AutomationMetrics metrics = new AutomationMetrics(new SimpleMeterRegistry());
+        DriverProvider provider = new DriverProvider() {
+            @Override
+            public AutomationConfig.DriverBackend getBackend() {
+                return AutomationConfig.DriverBackend.SIMULATED;
+            }
+
+            @Override
+            public WebDriver createDriver(PageLoadStrategy pageLoadStrategy) {
+                return new SimulatedWebDriver(Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, 0, 0);
+            }
+        };
+        pools = new WebDriverPools(List.of(provider), AutomationConfig.DriverBackend.SIMULATED, metrics, 0, 16,
+                1000, Duration.ofMinutes(5), Duration.ofSeconds(30));
+        pools.start();
+        pool = pools.forBackend(AutomationConfig.DriverBackend.SIMULATED);
+        // executeStep only reaches the WebDriverService for these step types; no persistence is involved
+        automationService = new AutomationService(new WebDriverService(null, null), null, null, null, null, null,
+                metrics, null);
+
+        steps = List.of(
+                step(0, AutomationStep.StepType.NAVIGATE, "https://example.com/login"),
+                step(1, AutomationStep.StepType.INPUT, "user"),
+                step(2, AutomationStep.StepType.CLICK, null),
+                step(3, AutomationStep.StepType.SCROLL, "400"));
+        config = new AutomationConfig();
+        config.setId(1L);
+        config.setName("benchmark");
+        config.setSteps(steps);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pools.close();
+    }
+
+    @Benchmark
+    public RunContext run() throws Exception {
+        WebDriver driver = pool.lease();
+        try {
+            AutomationResult result = new AutomationResult();
+            result.setId(1L);
+            result.setConfig(config);
+            RunContext context = new RunContext(result);
+            for (int i = 0; i < steps.size(); i++) {
+                automationService.executeStep(driver, steps.get(i), i + 1 < steps.size() ? steps.get(i + 1) : null,
+                        context);
+            }
+            return context;
+        } finally {
+            pool.release(driver);
+        }
+    }
+
+    private static AutomationStep step(int order, AutomationStep.StepType type, String value) {
+        AutomationStep step = new AutomationStep();
+        step.setOrder(order);
+        step.setType(type);
+        step.setSelector("#field-" + order);
+        step.setValue(value);
+        return step;
+    }
+}
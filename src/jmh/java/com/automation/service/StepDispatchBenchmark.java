@@ -0,0 +1,72 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.AutomationStep;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cost of AutomationService.executeStep around the driver calls, against a zero-latency simulated driver
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StepDispatchBenchmark {
+
+    @Param({"NAVIGATE", "CLICK", "INPUT", "SCROLL", "SELECT"})
+    private AutomationStep.StepType type;
+
+    private AutomationService automationService;
+    private WebDriver driver;
+    private AutomationStep step;
+    private RunContext context;
+
+    @Setup
+    public void setUp() {
+        // executeStep only reaches the WebDriverService for these step types; no persistence is involved
+        automationService = new AutomationService(new WebDriverService(null, null), null, null, null, null, null,
+                new AutomationMetrics(new SimpleMeterRegistry()), null);
+        driver = new SimulatedWebDriver(Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, 0, 0);
+
+        AutomationConfig config = new AutomationConfig();
+        config.setId(1L);
+        config.setName("benchmark");
+        config.setSteps(List.of());
+        AutomationResult result = new AutomationResult();
+        result.setId(1L);
+        result.setConfig(config);
+        context = new RunContext(result);
+
+        step = new AutomationStep();
+        step.setOrder(0);
+        step.setType(type);
+        step.setSelector("#field");
+        step.setValue(switch (type) {
+            case NAVIGATE -> "https://example.com/page";
+            case SCROLL -> "400";
+            default -> "value";
+        });
+    }
+
+    @Benchmark
+    public void executeStep() throws Exception {
+        automationService.executeStep(driver, step, null, context);
+    }
+}
@@ -0,0 +1,68 @@
+package com.automation.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Arming and cancelling schedule triggers on the TimingWheel, one at a time and in bulk as at startup
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimingWheelBenchmark {
+
+    private static final int BULK_SIZE = 10_000;
+
+    private TimingWheel<Long> wheel;
+    private Map<Long, Long> bulkDeadlines;
+    private long now;
+    private long nextPayload;
+
+    @Setup
+    public void setUp() {
+        // The ticker is never started, so nothing fires while measuring
+        wheel = new TimingWheel<>(100, 256, expired -> { }, "benchmark-timing-wheel");
+        now = System.currentTimeMillis();
+        bulkDeadlines = new LinkedHashMap<>();
+        for (long i = 0; i < BULK_SIZE; i++) {
+            // Spread over the next hour, so timeouts land on several wheel levels
+            bulkDeadlines.put(i, now + 1000 + i * 997 % 3_600_000);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        wheel.close();
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        long payload = ++nextPayload;
+        TimingWheel.Timeout<Long> timeout = wheel.schedule(now + 1000 + payload % 3_600_000, payload);
+        return timeout.cancel();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public int scheduleAllAndCancel() {
+        List<TimingWheel.Timeout<Long>> timeouts = wheel.scheduleAll(bulkDeadlines);
+        timeouts.forEach(TimingWheel.Timeout::cancel);
+        return timeouts.size();
+    }
+}
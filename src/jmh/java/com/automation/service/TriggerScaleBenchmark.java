@@ -0,0 +1,192 @@
+package com.automation.service;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Trigger lag and CPU with 10k-100k armed schedules, TimingWheel against the ThreadPoolTaskScheduler setup
+// SchedulerService used before it: one recurring trigger and ScheduledFuture per config on a 10-thread pool.
+// Each operation arms every config to fire within the next second, as at the top of a busy minute, waits
+// for all of them to fire and be re-armed an hour ahead, then cancels them. The Footprint counters report
+// how late triggers fired and the process CPU time the round took.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriggerScaleBenchmark {
+
+    public enum Implementation {
+        TIMING_WHEEL, TASK_SCHEDULER
+    }
+
+    private static final long WINDOW_MILLIS = 1000;
+    private static final long LEAD_MILLIS = 200;
+    private static final long REARM_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Param({"10000", "50000", "100000"})
+    private int configs;
+
+    @Param({"TIMING_WHEEL", "TASK_SCHEDULER"})
+    private Implementation implementation;
+
+    private TimingWheel<Long> wheel;
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    // Per round
+    private volatile CountDownLatch fired;
+    private final LongAdder totalLag = new LongAdder();
+    private final LongAccumulator maxLag = new LongAccumulator(Math::max, 0);
+    private final List<TimingWheel.Timeout<Long>> rearmed = new ArrayList<>();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long meanLagMillis;
+        public long maxLagMillis;
+        public long cpuMillis;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            meanLagMillis = 0;
+            maxLagMillis = 0;
+            cpuMillis = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        if (implementation == Implementation.TIMING_WHEEL) {
+            // Same tick and size as the scheduler defaults; re-arming happens on the wheel thread, as in fire()
+            wheel = new TimingWheel<>(100, 256, this::onExpired, "benchmark-timing-wheel");
+            wheel.start();
+        } else {
+            taskScheduler = new ThreadPoolTaskScheduler();
+            taskScheduler.setPoolSize(10);
+            taskScheduler.setThreadNamePrefix("benchmark-scheduler-");
+            taskScheduler.initialize();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (wheel != null) {
+            wheel.close();
+        }
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+    }
+
+    @Benchmark
+    public long fireRound(Footprint footprint) throws InterruptedException {
+        totalLag.reset();
+        maxLag.reset();
+        fired = new CountDownLatch(configs);
+        long cpuBefore = processCpuNanos();
+
+        long start = System.currentTimeMillis() + LEAD_MILLIS;
+        List<Runnable> cancels = implementation == Implementation.TIMING_WHEEL ? armWheel(start) : armScheduler(start);
+        if (!fired.await(WINDOW_MILLIS + LEAD_MILLIS + 30_000, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException(fired.getCount() + " of " + configs + " triggers never fired");
+        }
+        cancels.forEach(Runnable::run);
+
+        footprint.cpuMillis = Math.max(footprint.cpuMillis, (processCpuNanos() - cpuBefore) / 1_000_000);
+        footprint.meanLagMillis = Math.max(footprint.meanLagMillis, totalLag.sum() / configs);
+        footprint.maxLagMillis = Math.max(footprint.maxLagMillis, maxLag.get());
+        return maxLag.get();
+    }
+
+    private List<Runnable> armWheel(long start) {
+        Map<Long, Long> deadlines = new LinkedHashMap<>();
+        for (long config = 0; config < configs; config++) {
+            deadlines.put(config, deadline(start, config));
+        }
+        List<TimingWheel.Timeout<Long>> timeouts = wheel.scheduleAll(deadlines);
+        // Re-armed timeouts are new objects; they are cancelled through the list the consumer fills
+        List<Runnable> cancels = new ArrayList<>(timeouts.size() + 1);
+        timeouts.forEach(timeout -> cancels.add(timeout::cancel));
+        cancels.add(() -> {
+            synchronized (rearmed) {
+                rearmed.forEach(TimingWheel.Timeout::cancel);
+                rearmed.clear();
+            }
+        });
+        return cancels;
+    }
+
+    private void onExpired(List<TimingWheel.Timeout<Long>> expired) {
+        long now = System.currentTimeMillis();
+        List<TimingWheel.Timeout<Long>> next = new ArrayList<>(expired.size());
+        for (TimingWheel.Timeout<Long> timeout : expired) {
+            recordLag(now - timeout.getDeadline());
+            next.add(wheel.schedule(timeout.getDeadline() + REARM_MILLIS, timeout.getPayload()));
+        }
+        synchronized (rearmed) {
+            rearmed.addAll(next);
+        }
+        for (int i = 0; i < expired.size(); i++) {
+            fired.countDown();
+        }
+    }
+
+    private List<Runnable> armScheduler(long start) {
+        List<Runnable> cancels = new ArrayList<>(configs);
+        for (long config = 0; config < configs; config++) {
+            Instant first = Instant.ofEpochMilli(deadline(start, config));
+            // Recurring like the CronTrigger of the old implementation: the scheduler re-arms after each run
+            Trigger trigger = context -> context.lastScheduledExecution() == null
+                    ? first : context.lastScheduledExecution().plus(Duration.ofMillis(REARM_MILLIS));
+            ScheduledFuture<?> future = taskScheduler.schedule(() -> {
+                recordLag(System.currentTimeMillis() - first.toEpochMilli());
+                fired.countDown();
+            }, trigger);
+            cancels.add(() -> future.cancel(false));
+        }
+        return cancels;
+    }
+
+    // Configs spread evenly over the window
+    private long deadline(long start, long config) {
+        return start + config * WINDOW_MILLIS / configs;
+    }
+
+    private void recordLag(long lagMillis) {
+        long lag = Math.max(0, lagMillis);
+        totalLag.add(lag);
+        maxLag.accumulate(lag);
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+}
@@ -0,0 +1,156 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.AutomationStep;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Time for 1k+ simulated runs started at once to finish, one platform thread or one virtual thread per run.
+// Each run executes a few steps through AutomationService.executeStep against a simulated driver whose commands
+// take realistic latency, so the runs overlap. The Footprint counters report how long runs waited to be scheduled
+// onto a thread, and the heap and platform threads in use while all of them were in flight; add -prof gc for
+// allocation. Platform thread stacks live outside the heap: compare them with -XX:NativeMemoryTracking=summary.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadRunBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private RunThreads.Mode threadMode;
+
+    @Param({"1000", "4000"})
+    private int runs;
+
+    private AutomationService automationService;
+    private List<WebDriver> drivers;
+    private List<AutomationStep> steps;
+    private AutomationConfig config;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long meanStartLagMicros;
+        public long maxStartLagMicros;
+        public long peakHeapMb;
+        public long peakPlatformThreads;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            meanStartLagMicros = 0;
+            maxStartLagMicros = 0;
+            peakHeapMb = 0;
+            peakPlatformThreads = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        // executeStep only reaches the WebDriverService for these step types; no persistence is involved
+        automationService = new AutomationService(new WebDriverService(null, null), null, null, null, null, null,
+                new AutomationMetrics(new SimpleMeterRegistry()), null);
+
+        drivers = new ArrayList<>(runs);
+        for (int i = 0; i < runs; i++) {
+            drivers.add(new SimulatedWebDriver(Duration.ofMillis(200), Duration.ofMillis(5), Duration.ZERO, 0.2, 0, 0));
+        }
+
+        config = new AutomationConfig();
+        config.setId(1L);
+        config.setName("benchmark");
+        config.setSteps(List.of());
+        steps = List.of(
+                step(0, AutomationStep.StepType.NAVIGATE, "https://example.com/login"),
+                step(1, AutomationStep.StepType.INPUT, "user"),
+                step(2, AutomationStep.StepType.INPUT, "secret"),
+                step(3, AutomationStep.StepType.CLICK, null),
+                step(4, AutomationStep.StepType.NAVIGATE, "https://example.com/dashboard"),
+                step(5, AutomationStep.StepType.SCROLL, "400"));
+    }
+
+    @Benchmark
+    public int concurrentRuns(Footprint footprint) throws InterruptedException {
+        LongAdder totalLag = new LongAdder();
+        LongAccumulator maxLag = new LongAccumulator(Math::max, 0);
+        AtomicInteger succeeded = new AtomicInteger();
+
+        ExecutorService executor = threadMode == RunThreads.Mode.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newThreadPerTaskExecutor(Thread.ofPlatform().factory());
+        try (executor) {
+            for (int i = 0; i < runs; i++) {
+                WebDriver driver = drivers.get(i);
+                long submitted = System.nanoTime();
+                executor.execute(() -> {
+                    long lag = System.nanoTime() - submitted;
+                    totalLag.add(lag);
+                    maxLag.accumulate(lag);
+                    if (run(driver)) {
+                        succeeded.incrementAndGet();
+                    }
+                });
+            }
+            // Every run is still in its first navigation here
+            footprint.peakHeapMb = Math.max(footprint.peakHeapMb,
+                    ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024));
+            footprint.peakPlatformThreads = Math.max(footprint.peakPlatformThreads,
+                    ManagementFactory.getThreadMXBean().getThreadCount());
+        }
+
+        footprint.meanStartLagMicros = Math.max(footprint.meanStartLagMicros, totalLag.sum() / runs / 1000);
+        footprint.maxStartLagMicros = Math.max(footprint.maxStartLagMicros, maxLag.get() / 1000);
+        return succeeded.get();
+    }
+
+    private boolean run(WebDriver driver) {
+        AutomationResult result = new AutomationResult();
+        result.setId(1L);
+        result.setConfig(config);
+        RunContext context = new RunContext(result);
+        try {
+            for (int i = 0; i < steps.size(); i++) {
+                automationService.executeStep(driver, steps.get(i), i + 1 < steps.size() ? steps.get(i + 1) : null,
+                        context);
+            }
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static AutomationStep step(int order, AutomationStep.StepType type, String value) {
+        AutomationStep step = new AutomationStep();
+        step.setOrder(order);
+        step.setType(type);
+        step.setSelector("#field-" + order);
+        step.setValue(value);
+        return step;
+    }
+}
@@ -0,0 +1,49 @@
+package com.automation.config;
+
+import com.automation.service.ExecutionEngine;
+import com.automation.service.SchedulerService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+// Gauges over the execution queue and the thread pools; the timers live in AutomationMetrics
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder executionMetrics(ExecutionEngine executionEngine, SchedulerService schedulerService) {
+        return registry -> {
+            Gauge.builder("automation.runs.active", executionEngine, ExecutionEngine::getRunningCount)
+                    .description("Runs executing on this node")
+                    .register(registry);
+            Gauge.builder("automation.runs.queued", executionEngine, ExecutionEngine::getQueueDepth)
+                    .description("Runs waiting for a worker")
+                    .register(registry);
+            Gauge.builder("automation.scheduler.pending", schedulerService, SchedulerService::getPendingTriggers)
+                    .description("Schedule triggers armed on the timing wheel")
+                    .register(registry);
+        };
+    }
+
+    // executor.active, executor.queued, executor.pool.size and friends, tagged by pool name
+    @Bean
+    public MeterBinder threadPoolMetrics(TaskScheduler taskScheduler, ThreadPoolTaskExecutor automationExecutor,
+                                         ThreadPoolTaskExecutor fanOutExecutor) {
+        return registry -> {
+            if (taskScheduler instanceof ThreadPoolTaskScheduler scheduler) {
+                new ExecutorServiceMetrics(scheduler.getScheduledThreadPoolExecutor(), "automation-scheduler",
+                        Tags.empty()).bindTo(registry);
+            }
+            new ExecutorServiceMetrics(automationExecutor.getThreadPoolExecutor(), "automation-run",
+                    Tags.empty()).bindTo(registry);
+            new ExecutorServiceMetrics(fanOutExecutor.getThreadPoolExecutor(), "automation-row",
+                    Tags.empty()).bindTo(registry);
+        };
+    }
+}
@@ -1,9 +1,11 @@
 package com.automation.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @Configuration
@@ -20,4 +22,32 @@ public class SchedulerConfig {
         scheduler.initialize();
         return scheduler;
     }
+
+    // Workers that run automations; triggers only enqueue into the ExecutionEngine
+    @Bean
+    public ThreadPoolTaskExecutor automationExecutor(
+            @Value("${automation.execution.concurrency:4}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("automation-run-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    // Row runs of fan-out configs; each run also caps how many of its rows use this pool at once
+    @Bean
+    public ThreadPoolTaskExecutor fanOutExecutor(
+            @Value("${automation.fan-out.max-threads:8}") int maxThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxThreads);
+        executor.setMaxPoolSize(maxThreads);
+        executor.setThreadNamePrefix("automation-row-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
 }
\ No newline at end of file
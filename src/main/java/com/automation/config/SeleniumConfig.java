@@ -1,8 +1,15 @@
 package com.automation.config;
 
+import com.automation.model.AutomationConfig;
+import com.automation.service.AutomationMetrics;
+import com.automation.service.DriverProvider;
+import com.automation.service.WebDriverPools;
 import jakarta.annotation.PreDestroy;
 import org.openqa.selenium.WebDriver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,6 +17,20 @@ import java.util.List;
 public class SeleniumConfig {
     
     private final List<WebDriver> activeDrivers = new ArrayList<>();
+
+    @Bean(destroyMethod = "close")
+    public WebDriverPools webDriverPools(List<DriverProvider> providers, AutomationMetrics metrics,
+                                         @Value("${automation.driver.backend:LOCAL}") AutomationConfig.DriverBackend defaultBackend,
+                                         @Value("${automation.driver.pool.min-size:1}") int minSize,
+                                         @Value("${automation.driver.pool.max-size:4}") int maxSize,
+                                         @Value("${automation.driver.pool.max-uses:50}") int maxUses,
+                                         @Value("${automation.driver.pool.idle-timeout-seconds:300}") long idleTimeoutSeconds,
+                                         @Value("${automation.driver.pool.lease-timeout-seconds:120}") long leaseTimeoutSeconds) {
+        WebDriverPools pools = new WebDriverPools(providers, defaultBackend, metrics, minSize, maxSize, maxUses,
+                Duration.ofSeconds(idleTimeoutSeconds), Duration.ofSeconds(leaseTimeoutSeconds));
+        pools.start();
+        return pools;
+    }
     
     public void registerDriver(WebDriver driver) {
         activeDrivers.add(driver);
@@ -4,19 +4,31 @@ import com.automation.dto.AutomationConfigDTO;
 import com.automation.model.AutomationConfig;
 import com.automation.model.AutomationResult;
 import com.automation.model.AutomationStep;
+import com.automation.model.NavigationProfile;
 import com.automation.model.ScheduleConfig;
 import com.automation.repository.AutomationConfigRepository;
-import com.automation.service.AutomationService;
+import com.automation.repository.AutomationResultRepository;
 import com.automation.service.ConfigurationService;
+import com.automation.service.ExecutionEngine;
+import com.automation.service.NavigationSession;
+import com.automation.service.ParameterRows;
+import com.automation.service.RunEventPublisher;
 import com.automation.service.SchedulerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/automation")
@@ -25,7 +37,9 @@ import java.util.Map;
 public class AutomationController {
 
     private final AutomationConfigRepository configRepository;
-    private final AutomationService automationService;
+    private final AutomationResultRepository resultRepository;
+    private final ExecutionEngine executionEngine;
+    private final RunEventPublisher eventPublisher;
     private final SchedulerService schedulerService;
     private final ConfigurationService configurationService;
 
@@ -53,6 +67,10 @@ public class AutomationController {
         config.setSteps(dto.getSteps());
         config.setSchedule(dto.getSchedule());
         config.setActive(dto.isActive());
+        config.setDriverBackend(dto.getDriverBackend());
+        config.setNavigationProfile(dto.getNavigationProfile());
+        config.setParameterRows(dto.getParameterRows());
+        config.setFanOutParallelism(dto.getFanOutParallelism());
 
         AutomationConfig saved = configRepository.save(config);
 
@@ -90,6 +108,7 @@ public class AutomationController {
         }
 
         // Validate each step
+        int checkpoints = 0;
         for (int i = 0; i < dto.getSteps().size(); i++) {
             AutomationStep step = dto.getSteps().get(i);
             if (step.getType() == null) {
@@ -105,10 +124,41 @@ public class AutomationController {
                 case CLICK:
                 case INPUT:
                 case SELECT:
+                case WAIT_PRESENT:
+                case WAIT_CLICKABLE:
+                case WAIT_VISIBLE:
                     if (step.getSelector() == null || step.getSelector().trim().isEmpty()) {
                         throw new IllegalArgumentException("Step " + (i + 1) + " (" + step.getType() + "): Selector is required");
                     }
                     break;
+                case WAIT_TEXT:
+                case WAIT_URL:
+                    if (step.getValue() == null || step.getValue().isEmpty()) {
+                        throw new IllegalArgumentException("Step " + (i + 1) + " (" + step.getType() + "): Value is required");
+                    }
+                    break;
+                case WAIT_NETWORK_IDLE:
+                    // Quiet period in milliseconds; a ${column} parameter is checked when the row runs
+                    if (step.getValue() != null && !step.getValue().isBlank() && !step.getValue().contains("${")
+                            && !step.getValue().trim().matches("\\d{1,7}")) {
+                        throw new IllegalArgumentException("Step " + (i + 1) + " (WAIT_NETWORK_IDLE): Quiet period must be a number of milliseconds");
+                    }
+                    break;
+                case CHECKPOINT:
+                    if (++checkpoints > 1) {
+                        throw new IllegalArgumentException("Step " + (i + 1) + " (CHECKPOINT): Only one checkpoint is allowed");
+                    }
+                    if (step.getValue() != null && !step.getValue().isBlank() && !step.getValue().trim().matches("[1-9]\\d{0,6}")) {
+                        throw new IllegalArgumentException("Step " + (i + 1) + " (CHECKPOINT): Validity must be a number of minutes");
+                    }
+                    break;
+            }
+
+            if (step.getTimeoutSeconds() != null && step.getTimeoutSeconds() <= 0) {
+                throw new IllegalArgumentException("Step " + (i + 1) + ": Timeout must be greater than 0");
+            }
+            if (step.getPollMillis() != null && step.getPollMillis() <= 0) {
+                throw new IllegalArgumentException("Step " + (i + 1) + ": Polling interval must be greater than 0");
             }
         }
 
@@ -133,6 +183,56 @@ public class AutomationController {
                     break;
             }
         }
+
+        NavigationProfile profile = dto.getNavigationProfile();
+        if (profile != null) {
+            if ((profile.getViewportWidth() == null) != (profile.getViewportHeight() == null)) {
+                throw new IllegalArgumentException("Navigation profile: Viewport needs both a width and a height");
+            }
+            if (profile.getViewportWidth() != null && (profile.getViewportWidth() <= 0 || profile.getViewportHeight() <= 0)) {
+                throw new IllegalArgumentException("Navigation profile: Viewport size must be greater than 0");
+            }
+            NavigationSession.resourceTypes(profile);
+        }
+
+        if (dto.getFanOutParallelism() != null && dto.getFanOutParallelism() <= 0) {
+            throw new IllegalArgumentException("Parameter rows: Parallelism must be greater than 0");
+        }
+        if (ParameterRows.isFanOut(dto.getParameterRows())) {
+            Set<String> missing = ParameterRows.parse(dto.getParameterRows()).missingColumns(dto.getSteps());
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Parameter rows: no column for " + String.join(", ", missing));
+            }
+        }
+    }
+
+    // Replaces the parameter dataset with the CSV request body
+    @PutMapping(path = "/configs/{id}/parameters", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<Map<String, Object>> putParameterRows(@PathVariable Long id,
+                                                                @RequestBody(required = false) String csv) {
+        if (!configRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(parameterSummary(id, configurationService.updateParameterRows(id, csv)));
+    }
+
+    // Same as the PUT, for a CSV file sent from a form
+    @PostMapping(path = "/configs/{id}/parameters", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> uploadParameterRows(@PathVariable Long id,
+                                                                   @RequestParam("file") MultipartFile file) throws IOException {
+        if (!configRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        String csv = new String(file.getBytes(), StandardCharsets.UTF_8);
+        return ResponseEntity.ok(parameterSummary(id, configurationService.updateParameterRows(id, csv)));
+    }
+
+    private Map<String, Object> parameterSummary(Long id, ParameterRows rows) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("configId", id);
+        summary.put("columns", rows != null ? rows.getColumns() : List.of());
+        summary.put("rows", rows != null ? rows.getRows().size() : 0);
+        return summary;
     }
 
     @DeleteMapping("/configs/{id}")
@@ -176,15 +276,89 @@ public class AutomationController {
     }
 
     @PostMapping("/configs/{id}/run")
-    public ResponseEntity<AutomationResult> runNow(@PathVariable Long id) {
+    public ResponseEntity<Map<String, Object>> runNow(@PathVariable Long id) {
         return configRepository.findById(id)
                 .map(config -> {
-                    AutomationResult result = automationService.executeAutomation(config);
-                    return ResponseEntity.ok(result);
+                    AutomationResult result = executionEngine.submitNow(config);
+                    HttpStatus status = result.getStatus() == AutomationResult.Status.RUNNING
+                            ? HttpStatus.ACCEPTED
+                            : HttpStatus.SERVICE_UNAVAILABLE;
+                    return ResponseEntity.status(status).body(runStatus(result));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<Map<String, Object>> getRunStatus(@PathVariable Long runId) {
+        return resultRepository.findById(runId)
+                .map(result -> ResponseEntity.ok(runStatus(result)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/runs/{runId}/cancel")
+    public ResponseEntity<Map<String, Object>> cancelRun(@PathVariable Long runId) {
+        if (!resultRepository.existsById(runId)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ExecutionEngine.CancelOutcome outcome = executionEngine.cancel(runId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("runId", runId);
+        response.put("outcome", outcome);
+
+        if (outcome == ExecutionEngine.CancelOutcome.NOT_ACTIVE) {
+            response.put("message", "Run is not queued or running");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @GetMapping(path = "/runs/{runId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRunEvents(@PathVariable Long runId) {
+        return resultRepository.findById(runId)
+                .map(result -> {
+                    SseEmitter emitter = eventPublisher.subscribe(runId);
+                    if (emitter == null) {
+                        // No live channel: report the stored status and tell the client not to reconnect,
+                        // since EventSource otherwise retries a stream that ended while the run is RUNNING
+                        emitter = new SseEmitter();
+                        Map<String, Object> status = runStatus(result);
+                        status.put("closed", true);
+                        try {
+                            emitter.send(SseEmitter.event().name(RunEventPublisher.STATUS).data(status));
+                            emitter.complete();
+                        } catch (IOException e) {
+                            emitter.completeWithError(e);
+                        }
+                    }
+                    return ResponseEntity.ok(emitter);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private Map<String, Object> runStatus(AutomationResult result) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("runId", result.getId());
+        status.put("configId", result.getConfig().getId());
+        status.put("status", result.getStatus());
+        status.put("queued", executionEngine.isQueued(result.getId()));
+        status.put("startTime", result.getStartTime());
+        status.put("endTime", result.getEndTime());
+        status.put("errorMessage", result.getErrorMessage());
+        if (result.getParentId() != null) {
+            status.put("parentId", result.getParentId());
+            status.put("rowIndex", result.getRowIndex());
+        }
+        if (result.getRowCount() != null) {
+            status.put("rowCount", result.getRowCount());
+            status.put("rowsSucceeded", result.getRowsSucceeded());
+            status.put("rowsFailed", result.getRowsFailed());
+            status.put("rowsUrl", "/api/history?parentId=" + result.getId());
+        }
+        status.put("statusUrl", "/api/automation/runs/" + result.getId());
+        return status;
+    }
+
     @GetMapping("/configs/{id}/toggle")
     public ResponseEntity<Map<String, Object>> getScheduleStatus(@PathVariable Long id) {
         return configRepository.findById(id)
@@ -205,6 +379,7 @@ public class AutomationController {
         return configRepository.findById(id)
                 .map(config -> {
                     config.setActive(!config.isActive());
+                    config.setUpdatedAt(LocalDateTime.now());
                     AutomationConfig saved = configRepository.save(config);
 
                     if (saved.isActive() && saved.getSchedule() != null) {
@@ -1,51 +1,94 @@
 package com.automation.controller;
 
 import com.automation.dto.AutomationResultDTO;
-import com.automation.model.AutomationResult;
+import com.automation.dto.AutomationResultSummaryDTO;
+import com.automation.dto.HistoryCursor;
+import com.automation.dto.HistoryFilter;
+import com.automation.dto.RunLogPage;
+import com.automation.model.StepExecution;
 import com.automation.repository.AutomationResultRepository;
+import com.automation.repository.AutomationResultSpecifications;
+import com.automation.repository.RunLogChunkRepository;
+import com.automation.repository.StepExecutionRepository;
+import com.automation.repository.StepLatencyStats;
+import com.automation.service.RunLogStore;
+import com.automation.service.ScreenshotStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/history")
 @RequiredArgsConstructor
 public class HistoryController {
 
+    private static final int MAX_SUMMARY_PAGE_SIZE = 200;
+    private static final int MAX_LOG_LINES = 10_000;
+    private static final int MAX_LOG_BYTES = 1024 * 1024;
+
     private final AutomationResultRepository resultRepository;
+    private final StepExecutionRepository stepExecutionRepository;
+    private final ScreenshotStore screenshotStore;
+    private final RunLogChunkRepository runLogChunkRepository;
+    private final RunLogStore runLogStore;
 
+    // All filter criteria combine; see HistoryFilter
     @GetMapping
     public Page<AutomationResultDTO> getHistory(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(required = false) Long configId,
-            @RequestParam(required = false) AutomationResult.Status status,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            HistoryFilter filter) {
 
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by("startTime").descending());
-        Page<AutomationResult> results;
-
-        if (configId != null) {
-            results = resultRepository.findByConfigId(configId, pageRequest);
-        } else if (status != null) {
-            results = resultRepository.findByStatus(status, pageRequest);
-        } else if (startDate != null && endDate != null) {
-            results = resultRepository.findByStartTimeBetween(startDate, endDate, pageRequest);
-        } else {
-            results = resultRepository.findAll(pageRequest);
+        return resultRepository.findAll(AutomationResultSpecifications.matching(filter), pageRequest)
+                .map(AutomationResultDTO::fromEntity);
+    }
+
+    // Lightweight history list with keyset pagination; pass nextCursor back to fetch the following page
+    @GetMapping("/summary")
+    public ResponseEntity<Map<String, Object>> getHistorySummary(
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            HistoryFilter filter) {
+
+        int limit = Math.max(1, Math.min(size, MAX_SUMMARY_PAGE_SIZE));
+        HistoryCursor after;
+        try {
+            after = cursor == null || cursor.isBlank() ? null : HistoryCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         }
 
-        return results.map(AutomationResultDTO::fromEntity);
+        // Fetch one extra row to learn whether another page follows
+        List<AutomationResultSummaryDTO> rows = resultRepository.findSummaries(filter, after, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<AutomationResultSummaryDTO> content = hasMore ? rows.subList(0, limit) : rows;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", content);
+        response.put("size", limit);
+        response.put("hasMore", hasMore);
+        response.put("nextCursor", hasMore ? HistoryCursor.of(content.get(limit - 1)).encode() : null);
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/{id}")
@@ -55,32 +98,93 @@ public class HistoryController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Reads part of a run's log: the last `tail` lines by default, `count` lines from line `from`,
+    // or `length` uncompressed bytes from byte `offset`
+    @GetMapping("/{id}/logs")
+    public ResponseEntity<Map<String, Object>> getLogs(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "500") int tail,
+            @RequestParam(required = false) Long from,
+            @RequestParam(defaultValue = "500") int count,
+            @RequestParam(required = false) Long offset,
+            @RequestParam(defaultValue = "65536") int length) {
+        if (!resultRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        if (offset != null) {
+            response.put("offset", offset);
+            response.put("text", runLogStore.range(id, Math.max(0, offset), Math.min(Math.max(0, length), MAX_LOG_BYTES)));
+            response.put("totalBytes", runLogStore.totalBytes(id));
+            return ResponseEntity.ok(response);
+        }
+
+        RunLogPage page = from != null
+                ? runLogStore.lines(id, from, Math.min(Math.max(0, count), MAX_LOG_LINES))
+                : runLogStore.tail(id, Math.min(Math.max(0, tail), MAX_LOG_LINES));
+        response.put("firstLine", page.getFirstLine());
+        response.put("lines", page.getLines());
+        response.put("totalLines", page.getTotalLines());
+        response.put("totalBytes", page.getTotalBytes());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{id}/steps")
+    public List<StepExecution> getStepExecutions(@PathVariable Long id) {
+        return stepExecutionRepository.findByResultIdOrderByStepOrder(id);
+    }
+
+    @GetMapping("/configs/{configId}/step-latency")
+    public List<StepLatencyStats> getStepLatency(
+            @PathVariable Long configId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(7);
+        return stepExecutionRepository.findLatencyStats(configId, start, end);
+    }
+
+    // Streams the file; conditional requests get 304 and Range requests 206 from Spring's Resource handling
     @GetMapping("/{id}/screenshot/{index}")
-    public ResponseEntity<byte[]> getScreenshot(@PathVariable Long id, @PathVariable int index) {
-        return resultRepository.findById(id)
-                .map(result -> {
-                    if (result.getScreenshotPaths() != null &&
-                            index >= 0 &&
-                            index < result.getScreenshotPaths().size()) {
-                        try {
-                            Path path = Paths.get(result.getScreenshotPaths().get(index));
-                            byte[] image = Files.readAllBytes(path);
-                            return ResponseEntity.ok()
-                                    .header("Content-Type", "image/png")
-                                    .body(image);
-                        } catch (IOException e) {
-                            return ResponseEntity.notFound().<byte[]>build();
-                        }
-                    }
-                    return ResponseEntity.notFound().<byte[]>build();
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Resource> getScreenshot(@PathVariable Long id, @PathVariable int index) {
+        List<String> screenshots = resultRepository.findScreenshotPaths(id);
+        if (index < 0 || index >= screenshots.size()) {
+            return ResponseEntity.notFound().build();
+        }
+        String reference = screenshots.get(index);
+        Path path = screenshotStore.resolve(reference).orElse(null);
+        if (path == null || !Files.isReadable(path)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+            // Stored blobs are named by their content hash; older files fall back to size and mtime
+            String etag = ScreenshotStore.isBlobId(reference)
+                    ? reference
+                    : Long.toHexString(Files.size(path)) + "-" + Long.toHexString(lastModified);
+            MediaType contentType = MediaTypeFactory.getMediaType(path.getFileName().toString())
+                    .orElse(MediaType.IMAGE_PNG);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                    .contentType(contentType)
+                    .body(new FileSystemResource(path));
+        } catch (IOException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteResult(@PathVariable Long id) {
         if (resultRepository.existsById(id)) {
+            List<String> screenshots = resultRepository.findScreenshotPaths(id);
+            stepExecutionRepository.deleteByResultId(id);
+            runLogChunkRepository.deleteByResultId(id);
             resultRepository.deleteById(id);
+            screenshotStore.release(screenshots);
             return ResponseEntity.ok().build();
         }
         return ResponseEntity.notFound().build();
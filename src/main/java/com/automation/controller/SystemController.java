@@ -0,0 +1,69 @@
+package com.automation.controller;
+
+import com.automation.service.ExecutionEngine;
+import com.automation.service.RetentionService;
+import com.automation.service.ScreenshotPipeline;
+import com.automation.service.SchedulerService;
+import com.automation.service.ScreenshotStore;
+import com.automation.service.WebDriverPools;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/system")
+@RequiredArgsConstructor
+public class SystemController {
+
+    private final WebDriverPools driverPools;
+    private final ExecutionEngine executionEngine;
+    private final ScreenshotPipeline screenshotPipeline;
+    private final ScreenshotStore screenshotStore;
+    private final RetentionService retentionService;
+    private final SchedulerService schedulerService;
+
+    @GetMapping("/driver-pool")
+    public Map<String, Object> getDriverPoolStats() {
+        return driverPools.getStats();
+    }
+
+    @GetMapping("/scheduler")
+    public Map<String, Object> getSchedulerStats() {
+        return schedulerService.getStats();
+    }
+
+    @GetMapping("/execution")
+    public Map<String, Object> getExecutionStats() {
+        return executionEngine.getStats();
+    }
+
+    @GetMapping("/screenshots")
+    public Map<String, Object> getScreenshotStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(screenshotPipeline.getStats());
+        stats.putAll(screenshotStore.getStats());
+        return stats;
+    }
+
+    @GetMapping("/retention")
+    public Map<String, Object> getRetentionStats() {
+        return retentionService.getStats();
+    }
+
+    @PostMapping("/retention/run")
+    public ResponseEntity<Map<String, Object>> runRetention() {
+        Map<String, Object> response = new HashMap<>();
+        if (!retentionService.trigger()) {
+            response.put("error", "Retention is disabled or a purge is already running");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        response.put("message", "Retention purge started");
+        return ResponseEntity.accepted().body(response);
+    }
+}
@@ -1,6 +1,8 @@
 package com.automation.dto;
 
+import com.automation.model.AutomationConfig;
 import com.automation.model.AutomationStep;
+import com.automation.model.NavigationProfile;
 import com.automation.model.ScheduleConfig;
 import lombok.Data;
 import java.util.List;
@@ -12,4 +14,9 @@ public class AutomationConfigDTO {
     private List<AutomationStep> steps;
     private ScheduleConfig schedule;
     private boolean active;
+    private AutomationConfig.DriverBackend driverBackend;
+    private NavigationProfile navigationProfile;
+    // CSV with a header row; when set each row runs as a child of one parent run
+    private String parameterRows;
+    private Integer fanOutParallelism;
 } 
\ No newline at end of file
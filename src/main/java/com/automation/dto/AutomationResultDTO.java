@@ -14,10 +14,14 @@ public class AutomationResultDTO {
     private AutomationResult.Status status;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
-    private String logs;
     private List<String> screenshotPaths;
     private String errorMessage;
     private List<AutomationStepDTO> steps;
+    private Long parentId;
+    private Integer rowIndex;
+    private Integer rowCount;
+    private Integer rowsSucceeded;
+    private Integer rowsFailed;
 
     public static AutomationResultDTO fromEntity(AutomationResult result) {
         AutomationResultDTO dto = new AutomationResultDTO();
@@ -28,9 +32,13 @@ public class AutomationResultDTO {
         dto.setStatus(result.getStatus());
         dto.setStartTime(result.getStartTime());
         dto.setEndTime(result.getEndTime());
-        dto.setLogs(result.getLogs());
         dto.setScreenshotPaths(result.getScreenshotPaths());
         dto.setErrorMessage(result.getErrorMessage());
+        dto.setParentId(result.getParentId());
+        dto.setRowIndex(result.getRowIndex());
+        dto.setRowCount(result.getRowCount());
+        dto.setRowsSucceeded(result.getRowsSucceeded());
+        dto.setRowsFailed(result.getRowsFailed());
 
         // Convert steps
         if (result.getConfig().getSteps() != null) {
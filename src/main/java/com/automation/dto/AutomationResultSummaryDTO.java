@@ -0,0 +1,37 @@
+package com.automation.dto;
+
+import com.automation.model.AutomationResult;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// History list row: only the columns the table shows, selected in one query without logs or steps
+@Data
+@NoArgsConstructor
+public class AutomationResultSummaryDTO {
+    private Long id;
+    private Long configId;
+    private String configName;
+    private AutomationResult.Status status;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Long durationMs;
+    private int screenshotCount;
+    private Long parentId;
+    private Integer rowCount;
+
+    public AutomationResultSummaryDTO(Long id, Long configId, String configName, AutomationResult.Status status,
+                                      LocalDateTime startTime, LocalDateTime endTime, Long durationMs,
+                                      Integer screenshotCount, Long parentId, Integer rowCount) {
+        this.id = id;
+        this.configId = configId;
+        this.configName = configName;
+        this.status = status;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.durationMs = durationMs;
+        this.screenshotCount = screenshotCount != null ? screenshotCount : 0;
+        this.parentId = parentId;
+        this.rowCount = rowCount;
+    }
+}
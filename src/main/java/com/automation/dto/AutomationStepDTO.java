@@ -13,6 +13,8 @@ public class AutomationStepDTO {
     private int waitSeconds;
     private boolean captureScreenshot;
     private String captureSelector;
+    private Integer timeoutSeconds;
+    private Integer pollMillis;
 
     public static AutomationStepDTO fromEntity(AutomationStep step) {
         AutomationStepDTO dto = new AutomationStepDTO();
@@ -24,6 +26,8 @@ public class AutomationStepDTO {
         dto.setWaitSeconds(step.getWaitSeconds());
         dto.setCaptureScreenshot(step.isCaptureScreenshot());
         dto.setCaptureSelector(step.getCaptureSelector());
+        dto.setTimeoutSeconds(step.getTimeoutSeconds());
+        dto.setPollMillis(step.getPollMillis());
         return dto;
     }
 
@@ -37,6 +41,8 @@ public class AutomationStepDTO {
         step.setWaitSeconds(this.waitSeconds);
         step.setCaptureScreenshot(this.captureScreenshot);
         step.setCaptureSelector(this.captureSelector);
+        step.setTimeoutSeconds(this.timeoutSeconds);
+        step.setPollMillis(this.pollMillis);
         return step;
     }
 }
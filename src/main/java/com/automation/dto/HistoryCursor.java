@@ -0,0 +1,35 @@
+package com.automation.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset position in the history list, which is ordered by (startTime, id) descending
+@Getter
+@RequiredArgsConstructor
+public class HistoryCursor {
+    private final LocalDateTime startTime;
+    private final Long id;
+
+    public static HistoryCursor of(AutomationResultSummaryDTO row) {
+        return new HistoryCursor(row.getStartTime(), row.getId());
+    }
+
+    public static HistoryCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new HistoryCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid history cursor");
+        }
+    }
+
+    public String encode() {
+        String value = startTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
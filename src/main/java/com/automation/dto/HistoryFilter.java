@@ -0,0 +1,30 @@
+package com.automation.dto;
+
+import com.automation.model.AutomationResult;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// History query parameters; every criterion that is set applies, e.g. ?configId=1,2&status=FAILED
+@Data
+public class HistoryFilter {
+    private List<Long> configId;
+    private List<AutomationResult.Status> status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime startDate;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime endDate;
+
+    private Long minDurationMs;
+    private Long maxDurationMs;
+
+    // Case-insensitive substring of the error message
+    private String errorText;
+
+    // Rows of one fan-out run, or (topLevel=true) only runs that are not rows
+    private Long parentId;
+    private Boolean topLevel;
+}
@@ -0,0 +1,15 @@
+package com.automation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+// A window of log lines plus the size of the whole log
+@Data
+@AllArgsConstructor
+public class RunLogPage {
+    private long firstLine;
+    private List<String> lines;
+    private long totalLines;
+    private long totalBytes;
+}
@@ -1,6 +1,8 @@
 package com.automation.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -39,9 +41,33 @@ public class AutomationConfig {
 
     private boolean active = true;
 
+    // Browser backend for this config's runs; null uses automation.driver.backend
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "driver_backend", length = 20)
+    private DriverBackend driverBackend;
+
+    @Embedded
+    private NavigationProfile navigationProfile;
+
+    // CSV with a header row; each data row runs the steps once with its ${column} values substituted
+    @JdbcTypeCode(SqlTypes.LONGVARCHAR)
+    @Column(name = "parameter_rows")
+    private String parameterRows;
+
+    // Rows of one run executing at once; null uses automation.fan-out.parallelism
+    @Column(name = "fan_out_parallelism")
+    private Integer fanOutParallelism;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
-}
\ No newline at end of file
+
+    public enum DriverBackend {
+        LOCAL,      // Chrome on this machine
+        REMOTE,     // RemoteWebDriver against automation.driver.remote.url
+        SIMULATED   // in-process fake browser for load tests
+    }
+}
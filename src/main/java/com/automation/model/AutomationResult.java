@@ -1,7 +1,10 @@
 package com.automation.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import lombok.Data;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -18,6 +21,7 @@ public class AutomationResult {
     private AutomationConfig config;
 
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
     @Column(length = 20)
     private Status status;
 
@@ -27,18 +31,41 @@ public class AutomationResult {
     @Column(name = "end_time")
     private LocalDateTime endTime;
 
-    @Lob
-    @Column(name = "logs")
-    private String logs;
+    // Derived from start and end time so history can be filtered by duration in SQL
+    @Column(name = "duration_ms")
+    private Long durationMs;
 
     @ElementCollection
-    @CollectionTable(name = "result_screenshots")
+    @CollectionTable(name = "result_screenshots", joinColumns = @JoinColumn(name = "automation_result_id"))
+    @Column(name = "screenshot_paths")
     private List<String> screenshotPaths;
 
-    @Lob
+    @JdbcTypeCode(SqlTypes.LONGVARCHAR)
     @Column(name = "error_message")
     private String errorMessage;
 
+    // Fan-out: a row run points at its parent run, which counts its rows as they finish
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    @Column(name = "row_index")
+    private Integer rowIndex; // zero-based row of the config's parameter dataset
+
+    @Column(name = "row_count")
+    private Integer rowCount;
+
+    @Column(name = "rows_succeeded")
+    private Integer rowsSucceeded;
+
+    @Column(name = "rows_failed")
+    private Integer rowsFailed;
+
+    @PrePersist
+    @PreUpdate
+    void updateDuration() {
+        durationMs = startTime != null && endTime != null ? Duration.between(startTime, endTime).toMillis() : null;
+    }
+
     public enum Status {
         RUNNING, SUCCESS, FAILED, CANCELLED
     }
@@ -1,6 +1,8 @@
 package com.automation.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -20,6 +22,7 @@ public class AutomationStep {
     private int order;
 
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
     @Column(length = 20)
     private StepType type;
 
@@ -38,12 +41,26 @@ public class AutomationStep {
     @Column(name = "capture_selector")
     private String captureSelector; // Specific area to capture
 
+    @Column(name = "timeout_seconds")
+    private Integer timeoutSeconds; // Condition waits: give up after this long
+
+    @Column(name = "poll_millis")
+    private Integer pollMillis; // Condition waits: how often to re-check the condition
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "config_id")
     @JsonBackReference
     private AutomationConfig config;
 
     public enum StepType {
-        NAVIGATE, CLICK, INPUT, WAIT, SCREENSHOT, SCROLL, SELECT
+        NAVIGATE, CLICK, INPUT, WAIT, SCREENSHOT, SCROLL, SELECT,
+        // Condition waits; names must fit the 20 character type column
+        WAIT_PRESENT, WAIT_CLICKABLE, WAIT_VISIBLE, WAIT_TEXT, WAIT_URL, WAIT_DOC_READY, WAIT_NETWORK_IDLE,
+        // Saves the login state; later runs restore it and skip the steps before this one
+        CHECKPOINT;
+
+        public boolean isConditionWait() {
+            return name().startsWith("WAIT_");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.automation.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import lombok.Data;
+
+/**
+ * How a config's runs load pages: how long navigation waits, which requests the browser
+ * drops and what viewport it renders at. Unset fields keep the browser defaults.
+ */
+@Embeddable
+@Data
+public class NavigationProfile {
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "page_load_strategy", length = 10)
+    private PageLoad pageLoadStrategy;
+
+    // One URL pattern per line; * matches any run of characters
+    @Column(name = "blocked_url_patterns", length = 2000)
+    private String blockedUrlPatterns;
+
+    // Comma-separated resource types, e.g. "IMAGE,FONT,MEDIA"
+    @Column(name = "blocked_resource_types", length = 200)
+    private String blockedResourceTypes;
+
+    @Column(name = "disable_images", nullable = false)
+    private boolean disableImages;
+
+    @Column(name = "viewport_width")
+    private Integer viewportWidth;
+
+    @Column(name = "viewport_height")
+    private Integer viewportHeight;
+
+    public enum PageLoad {
+        NORMAL, // wait for the load event
+        EAGER,  // return once the DOM is parsed
+        NONE    // return as soon as the response starts arriving
+    }
+
+    public enum ResourceType {
+        STYLESHEET, IMAGE, MEDIA, FONT, SCRIPT, XHR, FETCH, OTHER
+    }
+}
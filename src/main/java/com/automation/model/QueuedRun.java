@@ -0,0 +1,64 @@
+package com.automation.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// A run waiting in, or claimed from, the durable run queue shared by all nodes
+@Entity
+@Data
+@Table(name = "run_queue")
+public class QueuedRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "config_id", nullable = false)
+    private Long configId;
+
+    @Column(name = "result_id")
+    private Long resultId; // Pre-created for on-demand runs; set on first start for scheduled ones
+
+    // "configId@fireTime" of a schedule trigger, so every node firing the same trigger enqueues it once
+    @Column(name = "trigger_key", length = 64, unique = true)
+    private String triggerKey;
+
+    // Config id while a coalescing scheduled run is pending; at most one such run per config
+    @Column(name = "coalesce_key", unique = true)
+    private Long coalesceKey;
+
+    // Config id while claimed; keeps a config from running on two nodes at once
+    @Column(name = "running_key", unique = true)
+    private Long runningKey;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 20, nullable = false)
+    private Status status = Status.PENDING;
+
+    @Column(name = "enqueued_at")
+    private LocalDateTime enqueuedAt = LocalDateTime.now();
+
+    @Column(name = "claimed_by", length = 100)
+    private String claimedBy;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    private int attempts;
+
+    @Column(name = "cancel_requested")
+    private boolean cancelRequested;
+
+    public enum Status {
+        PENDING, CLAIMED, DONE
+    }
+}
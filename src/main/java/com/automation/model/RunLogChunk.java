@@ -0,0 +1,39 @@
+package com.automation.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// A gzip-compressed slice of a run's log. Chunks hold whole lines, in order, so a tail or a
+// byte range only needs the chunks that overlap it.
+@Entity
+@Data
+@Table(name = "run_log_chunks")
+public class RunLogChunk {
+    public static final int MAX_DATA_BYTES = 16 * 1024 * 1024;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "run_log_chunk_seq")
+    @SequenceGenerator(name = "run_log_chunk_seq", sequenceName = "run_log_chunk_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "result_id", nullable = false)
+    private Long resultId;
+
+    @Column(name = "chunk_index")
+    private int chunkIndex;
+
+    @Column(name = "first_line")
+    private long firstLine; // zero-based number of the chunk's first line in the whole log
+
+    @Column(name = "line_count")
+    private int lineCount;
+
+    @Column(name = "byte_offset")
+    private long byteOffset; // position of the chunk in the uncompressed UTF-8 log
+
+    @Column(name = "raw_bytes")
+    private int rawBytes;
+
+    @Column(name = "data", length = MAX_DATA_BYTES)
+    private byte[] data;
+}
@@ -1,6 +1,8 @@
 package com.automation.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import lombok.Data;
 
 @Entity
@@ -12,6 +14,8 @@ public class ScheduleConfig {
     private Long id;
     
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 20)
     private ScheduleType type;
     
     @Column(name = "cron_expression")
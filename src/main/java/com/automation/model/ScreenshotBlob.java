@@ -0,0 +1,26 @@
+package com.automation.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Table(name = "screenshot_blobs")
+public class ScreenshotBlob {
+    @Id
+    @Column(length = 64)
+    private String id; // SHA-256 of the captured image
+
+    @Column(name = "file_path", nullable = false)
+    private String filePath;
+
+    @Column(name = "size_bytes")
+    private long sizeBytes;
+
+    @Column(name = "ref_count")
+    private int refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
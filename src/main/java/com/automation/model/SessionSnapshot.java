@@ -0,0 +1,44 @@
+package com.automation.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Encrypted browser state saved at a config's CHECKPOINT step, one per config and login: fan-out rows
+// whose login steps differ after parameter substitution each keep their own
+@Entity
+@Data
+@IdClass(SessionSnapshot.Key.class)
+@Table(name = "session_snapshots")
+public class SessionSnapshot {
+    public static final int MAX_DATA_BYTES = 1024 * 1024;
+
+    @Id
+    @Column(name = "config_id")
+    private Long configId;
+
+    @Id
+    @Column(name = "prefix_hash", length = 64)
+    private String prefixHash; // steps before the checkpoint; editing them makes runs log in afresh
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "data", length = MAX_DATA_BYTES, nullable = false)
+    private byte[] data; // AES-GCM: 12 byte nonce followed by ciphertext and tag
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long configId;
+        private String prefixHash;
+    }
+}
@@ -0,0 +1,58 @@
+package com.automation.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Table(name = "step_executions")
+public class StepExecution {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "step_execution_seq")
+    @SequenceGenerator(name = "step_execution_seq", sequenceName = "step_execution_seq", allocationSize = 50)
+    private Long id; // Sequence ids let Hibernate batch the inserts
+
+    @Column(name = "result_id", nullable = false)
+    private Long resultId;
+
+    @Column(name = "config_id", nullable = false)
+    private Long configId;
+
+    @Column(name = "step_order")
+    private int stepOrder;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "step_type", length = 20)
+    private AutomationStep.StepType stepType;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "start_nanos")
+    private long startNanos;
+
+    @Column(name = "end_nanos")
+    private long endNanos;
+
+    @Column(name = "duration_ms")
+    private long durationMs;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 20)
+    private Outcome outcome;
+
+    @Column(name = "error_class")
+    private String errorClass;
+
+    @Column(name = "screenshot_path")
+    private String screenshotPath;
+
+    public enum Outcome {
+        SUCCESS, FAILED, CANCELLED
+    }
+}
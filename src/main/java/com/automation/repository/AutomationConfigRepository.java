@@ -2,11 +2,22 @@ package com.automation.repository;
 
 import com.automation.model.AutomationConfig;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface AutomationConfigRepository extends JpaRepository<AutomationConfig, Long> {
     List<AutomationConfig> findByActiveTrue();
     List<AutomationConfig> findByNameContainingIgnoreCase(String name);
+
+    // Ids and last edit times of the active configs, without loading their steps
+    @Query("select c.id as id, c.updatedAt as updatedAt from AutomationConfig c where c.active = true")
+    List<ConfigVersion> findActiveVersions();
+
+    interface ConfigVersion {
+        Long getId();
+        LocalDateTime getUpdatedAt();
+    }
 } 
\ No newline at end of file
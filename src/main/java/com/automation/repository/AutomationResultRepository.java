@@ -1,17 +1,89 @@
 package com.automation.repository;
 
 import com.automation.model.AutomationResult;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface AutomationResultRepository extends JpaRepository<AutomationResult, Long> {
-    Page<AutomationResult> findByConfigId(Long configId, Pageable pageable);
-    Page<AutomationResult> findByStartTimeBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
-    Page<AutomationResult> findByStatus(AutomationResult.Status status, Pageable pageable);
+public interface AutomationResultRepository extends JpaRepository<AutomationResult, Long>,
+        JpaSpecificationExecutor<AutomationResult>, AutomationResultSummaryQueries {
     long countByConfigId(Long configId);
     void deleteByConfigId(Long configId);
-}
\ No newline at end of file
+
+    @Query("select s from AutomationResult r join r.screenshotPaths s where r.id = :resultId")
+    List<String> findScreenshotPaths(@Param("resultId") Long resultId);
+
+    @Query("select s from AutomationResult r join r.screenshotPaths s where r.config.id = :configId")
+    List<String> findScreenshotPathsByConfigId(@Param("configId") Long configId);
+
+    @Query("select s from AutomationResult r join r.screenshotPaths s where r.id in :resultIds")
+    List<String> findScreenshotPathsByResultIds(@Param("resultIds") Collection<Long> resultIds);
+
+    // Retention candidates exclude running results and, optionally, the latest failure of each config
+    @Query("select r.id from AutomationResult r where r.startTime < :cutoff and r.status <> :running " +
+            "and (:keepLastFailure = false or r.id not in " +
+            "(select max(f.id) from AutomationResult f where f.status = :failed group by f.config.id)) " +
+            "order by r.startTime, r.id")
+    List<Long> findPurgeableIdsStartedBefore(@Param("cutoff") LocalDateTime cutoff,
+                                             @Param("keepLastFailure") boolean keepLastFailure,
+                                             @Param("running") AutomationResult.Status running,
+                                             @Param("failed") AutomationResult.Status failed,
+                                             Pageable pageable);
+
+    @Query("select r.id from AutomationResult r where r.config.id = :configId and r.status <> :running " +
+            "and (:keepLastFailure = false or r.id not in " +
+            "(select max(f.id) from AutomationResult f where f.status = :failed and f.config.id = :configId)) " +
+            "order by r.startTime, r.id")
+    List<Long> findPurgeableIdsOldestFirst(@Param("configId") Long configId,
+                                           @Param("keepLastFailure") boolean keepLastFailure,
+                                           @Param("running") AutomationResult.Status running,
+                                           @Param("failed") AutomationResult.Status failed,
+                                           Pageable pageable);
+
+    @Query("select r.config.id as configId, count(r) as resultCount from AutomationResult r " +
+            "group by r.config.id having count(r) > :maxRuns")
+    List<ConfigResultCount> findConfigsWithMoreResultsThan(@Param("maxRuns") long maxRuns);
+
+    // Bulk deletes skip JPA cascades, so the screenshot collection is removed first
+    @Modifying
+    @Query(value = "delete from \"result_screenshots\" where \"automation_result_id\" in (:resultIds)", nativeQuery = true)
+    int deleteScreenshotRowsByResultIds(@Param("resultIds") Collection<Long> resultIds);
+
+    @Modifying
+    @Query("delete from AutomationResult r where r.id in :resultIds")
+    int deleteByIdIn(@Param("resultIds") Collection<Long> resultIds);
+
+    // Ends runs a stopped process left in RUNNING; nothing else would ever finish them
+    @Modifying
+    @Transactional
+    @Query("update AutomationResult r set r.status = :failed, r.errorMessage = :message, r.endTime = :endTime " +
+            "where r.status = :running")
+    int failRunning(@Param("running") AutomationResult.Status running,
+                    @Param("failed") AutomationResult.Status failed,
+                    @Param("message") String message,
+                    @Param("endTime") LocalDateTime endTime);
+
+    @Query("select r.config.id as configId, max(r.startTime) as lastStartTime from AutomationResult r " +
+            "group by r.config.id")
+    List<ConfigLastRun> findLastStartTimes();
+
+    interface ConfigLastRun {
+        Long getConfigId();
+        LocalDateTime getLastStartTime();
+    }
+
+    interface ConfigResultCount {
+        Long getConfigId();
+        Long getResultCount();
+    }
+}
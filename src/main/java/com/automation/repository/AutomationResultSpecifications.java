@@ -0,0 +1,55 @@
+package com.automation.repository;
+
+import com.automation.dto.HistoryFilter;
+import com.automation.model.AutomationResult;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class AutomationResultSpecifications {
+
+    private AutomationResultSpecifications() {
+    }
+
+    // Combines every criterion set on the filter; the indexed columns come first
+    public static Specification<AutomationResult> matching(HistoryFilter filter) {
+        return (root, query, cb) -> {
+            if (filter == null) {
+                return cb.and();
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getConfigId() != null && !filter.getConfigId().isEmpty()) {
+                predicates.add(root.get("config").get("id").in(filter.getConfigId()));
+            }
+            if (filter.getParentId() != null) {
+                predicates.add(cb.equal(root.get("parentId"), filter.getParentId()));
+            }
+            if (Boolean.TRUE.equals(filter.getTopLevel())) {
+                predicates.add(cb.isNull(root.get("parentId")));
+            }
+            if (filter.getStatus() != null && !filter.getStatus().isEmpty()) {
+                predicates.add(root.get("status").in(filter.getStatus()));
+            }
+            if (filter.getStartDate() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<LocalDateTime>get("startTime"), filter.getStartDate()));
+            }
+            if (filter.getEndDate() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<LocalDateTime>get("startTime"), filter.getEndDate()));
+            }
+            if (filter.getMinDurationMs() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<Long>get("durationMs"), filter.getMinDurationMs()));
+            }
+            if (filter.getMaxDurationMs() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<Long>get("durationMs"), filter.getMaxDurationMs()));
+            }
+            if (filter.getErrorText() != null && !filter.getErrorText().isBlank()) {
+                String pattern = "%" + filter.getErrorText().trim().toLowerCase()
+                        .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+                predicates.add(cb.like(cb.lower(root.get("errorMessage")), pattern, '\\'));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.automation.repository;
+
+import com.automation.dto.AutomationResultSummaryDTO;
+import com.automation.dto.HistoryCursor;
+import com.automation.dto.HistoryFilter;
+import java.util.List;
+
+public interface AutomationResultSummaryQueries {
+
+    // Newest first; rows strictly after the cursor when one is given
+    List<AutomationResultSummaryDTO> findSummaries(HistoryFilter filter, HistoryCursor after, int limit);
+
+    // Log text of results recorded before logs moved to RunLogStore; the column is not mapped on the entity
+    String findLogs(Long resultId);
+}
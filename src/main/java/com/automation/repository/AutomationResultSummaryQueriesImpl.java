@@ -0,0 +1,72 @@
+package com.automation.repository;
+
+import com.automation.dto.AutomationResultSummaryDTO;
+import com.automation.dto.HistoryCursor;
+import com.automation.dto.HistoryFilter;
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Keyset-paginated summary query: seeks past the cursor on (start_time, id) instead of using OFFSET
+public class AutomationResultSummaryQueriesImpl implements AutomationResultSummaryQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<AutomationResultSummaryDTO> findSummaries(HistoryFilter filter, HistoryCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AutomationResultSummaryDTO> query = cb.createQuery(AutomationResultSummaryDTO.class);
+        Root<AutomationResult> result = query.from(AutomationResult.class);
+        Join<AutomationResult, AutomationConfig> config = result.join("config");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(AutomationResultSpecifications.matching(filter).toPredicate(result, query, cb));
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(result.<LocalDateTime>get("startTime"), after.getStartTime()),
+                    cb.and(cb.equal(result.get("startTime"), after.getStartTime()),
+                            cb.lessThan(result.<Long>get("id"), after.getId()))));
+        }
+
+        query.select(cb.construct(AutomationResultSummaryDTO.class,
+                        result.get("id"),
+                        config.get("id"),
+                        config.get("name"),
+                        result.get("status"),
+                        result.get("startTime"),
+                        result.get("endTime"),
+                        result.get("durationMs"),
+                        cb.size(result.<List<String>>get("screenshotPaths")),
+                        result.get("parentId"),
+                        result.get("rowCount")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(result.get("startTime")), cb.desc(result.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Read through JDBC as a CLOB (H2) or TEXT (PostgreSQL) string; casting to VARCHAR in SQL
+    // breaks on logs past the 1,000,000 character H2 VARCHAR limit
+    @Override
+    public String findLogs(Long resultId) {
+        return jdbcTemplate.query("select \"logs\" from \"automation_results\" where \"id\" = ?",
+                rs -> rs.next() ? rs.getString(1) : null, resultId);
+    }
+}
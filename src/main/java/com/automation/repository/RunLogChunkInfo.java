@@ -0,0 +1,11 @@
+package com.automation.repository;
+
+// Chunk metadata without the compressed data
+public interface RunLogChunkInfo {
+    Long getId();
+    Integer getChunkIndex();
+    Long getFirstLine();
+    Integer getLineCount();
+    Long getByteOffset();
+    Integer getRawBytes();
+}
@@ -0,0 +1,37 @@
+package com.automation.repository;
+
+import com.automation.model.RunLogChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RunLogChunkRepository extends JpaRepository<RunLogChunk, Long> {
+
+    @Query("select c.id as id, c.chunkIndex as chunkIndex, c.firstLine as firstLine, c.lineCount as lineCount, " +
+            "c.byteOffset as byteOffset, c.rawBytes as rawBytes " +
+            "from RunLogChunk c where c.resultId = :resultId order by c.chunkIndex")
+    List<RunLogChunkInfo> findInfoByResultId(@Param("resultId") Long resultId);
+
+    List<RunLogChunk> findByIdInOrderByChunkIndex(Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RunLogChunk c where c.resultId = :resultId")
+    void deleteByResultId(@Param("resultId") Long resultId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RunLogChunk c where c.resultId in " +
+            "(select r.id from AutomationResult r where r.config.id = :configId)")
+    void deleteByConfigId(@Param("configId") Long configId);
+
+    @Modifying
+    @Query("delete from RunLogChunk c where c.resultId in :resultIds")
+    int deleteByResultIdIn(@Param("resultIds") Collection<Long> resultIds);
+}
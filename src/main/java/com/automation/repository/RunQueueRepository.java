@@ -0,0 +1,44 @@
+package com.automation.repository;
+
+import com.automation.model.QueuedRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RunQueueRepository extends JpaRepository<QueuedRun, Long> {
+
+    // Oldest pending runs of configs not running anywhere; rows another node has locked are skipped
+    @Query(value = "select * from \"run_queue\" q where q.\"status\" = 'PENDING' " +
+            "and q.\"config_id\" not in (select c.\"config_id\" from \"run_queue\" c where c.\"status\" = 'CLAIMED') " +
+            "order by q.\"id\" limit :limit for update skip locked", nativeQuery = true)
+    List<QueuedRun> lockPending(@Param("limit") int limit);
+
+    @Query(value = "select * from \"run_queue\" q where q.\"status\" = 'CLAIMED' and q.\"lease_expires_at\" < :now " +
+            "order by q.\"id\" limit :limit for update skip locked", nativeQuery = true)
+    List<QueuedRun> lockExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update QueuedRun q set q.leaseExpiresAt = :until where q.claimedBy = :node and q.status = :claimed")
+    int renewLeases(@Param("node") String node, @Param("until") LocalDateTime until,
+                    @Param("claimed") QueuedRun.Status claimed);
+
+    @Query("select q.resultId from QueuedRun q where q.claimedBy = :node and q.status = :claimed " +
+            "and q.cancelRequested = true and q.resultId is not null")
+    List<Long> findCancelRequests(@Param("node") String node, @Param("claimed") QueuedRun.Status claimed);
+
+    Optional<QueuedRun> findFirstByResultIdAndStatusNot(Long resultId, QueuedRun.Status status);
+
+    long countByStatus(QueuedRun.Status status);
+
+    boolean existsByConfigIdAndStatusNot(Long configId, QueuedRun.Status status);
+
+    @Modifying
+    @Query("delete from QueuedRun q where q.status = :done and q.finishedAt < :before")
+    int deleteFinishedBefore(@Param("done") QueuedRun.Status done, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,33 @@
+package com.automation.repository;
+
+import com.automation.model.ScreenshotBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+
+@Repository
+public interface ScreenshotBlobRepository extends JpaRepository<ScreenshotBlob, String> {
+
+    @Modifying
+    @Transactional
+    @Query("update ScreenshotBlob b set b.refCount = b.refCount + 1 where b.id = :id")
+    int incrementRefCount(@Param("id") String id);
+
+    @Modifying
+    @Transactional
+    @Query("update ScreenshotBlob b set b.refCount = b.refCount - 1 where b.id = :id and b.refCount > 0")
+    int decrementRefCount(@Param("id") String id);
+
+    @Query("select b.id from ScreenshotBlob b where b.refCount <= 0")
+    List<String> findUnreferencedIds(Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("delete from ScreenshotBlob b where b.id = :id and b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("id") String id);
+}
@@ -0,0 +1,35 @@
+package com.automation.repository;
+
+import com.automation.model.SessionSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SessionSnapshotRepository extends JpaRepository<SessionSnapshot, SessionSnapshot.Key> {
+
+    // Replaces the state of an existing snapshot in place; 0 if there is none to update yet
+    @Modifying
+    @Transactional
+    @Query("update SessionSnapshot s set s.createdAt = :createdAt, s.expiresAt = :expiresAt, s.data = :data " +
+            "where s.configId = :configId and s.prefixHash = :prefixHash")
+    int updateSnapshot(@Param("configId") Long configId, @Param("prefixHash") String prefixHash,
+                       @Param("createdAt") LocalDateTime createdAt, @Param("expiresAt") LocalDateTime expiresAt,
+                       @Param("data") byte[] data);
+
+    @Modifying
+    @Transactional
+    @Query("delete from SessionSnapshot s where s.configId = :configId")
+    void deleteByConfigId(@Param("configId") Long configId);
+
+    // Snapshots of logins the config no longer performs are never read again; they go once expired
+    @Modifying
+    @Transactional
+    @Query("delete from SessionSnapshot s where s.configId = :configId and s.expiresAt < :now")
+    int deleteExpired(@Param("configId") Long configId, @Param("now") LocalDateTime now);
+}
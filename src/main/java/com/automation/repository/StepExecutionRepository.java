@@ -0,0 +1,54 @@
+package com.automation.repository;
+
+import com.automation.model.StepExecution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StepExecutionRepository extends JpaRepository<StepExecution, Long> {
+    List<StepExecution> findByResultIdOrderByStepOrder(Long resultId);
+
+    // Percentiles are computed by the database so results never have to be loaded into the JVM
+    @Query(value = """
+            SELECT s."step_order" AS "stepOrder",
+                   s."step_type" AS "stepType",
+                   COUNT(*) AS "executions",
+                   SUM(CASE WHEN s."outcome" = 'FAILED' THEN 1 ELSE 0 END) AS "failures",
+                   AVG(CAST(s."duration_ms" AS DOUBLE PRECISION)) AS "avgMillis",
+                   PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY s."duration_ms") AS "p50Millis",
+                   PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY s."duration_ms") AS "p90Millis",
+                   PERCENTILE_CONT(0.95) WITHIN GROUP (ORDER BY s."duration_ms") AS "p95Millis",
+                   PERCENTILE_CONT(0.99) WITHIN GROUP (ORDER BY s."duration_ms") AS "p99Millis",
+                   MAX(s."duration_ms") AS "maxMillis"
+            FROM "step_executions" s
+            WHERE s."config_id" = :configId
+              AND s."started_at" >= :from
+              AND s."started_at" < :to
+            GROUP BY s."step_order", s."step_type"
+            ORDER BY s."step_order"
+            """, nativeQuery = true)
+    List<StepLatencyStats> findLatencyStats(@Param("configId") Long configId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Transactional
+    @Query("delete from StepExecution s where s.resultId = :resultId")
+    void deleteByResultId(@Param("resultId") Long resultId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from StepExecution s where s.configId = :configId")
+    void deleteByConfigId(@Param("configId") Long configId);
+
+    @Modifying
+    @Query("delete from StepExecution s where s.resultId in :resultIds")
+    int deleteByResultIdIn(@Param("resultIds") Collection<Long> resultIds);
+}
@@ -0,0 +1,14 @@
+package com.automation.repository;
+
+public interface StepLatencyStats {
+    Integer getStepOrder();
+    String getStepType();
+    Long getExecutions();
+    Long getFailures();
+    Double getAvgMillis();
+    Double getP50Millis();
+    Double getP90Millis();
+    Double getP95Millis();
+    Double getP99Millis();
+    Long getMaxMillis();
+}
@@ -0,0 +1,138 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.AutomationStep;
+import com.automation.model.StepExecution;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openqa.selenium.WebDriver;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer timers for runs, steps, browser sessions and screenshots. Timers recorded once
+ * per step or screenshot are registered up front, so the hot path never looks up a meter.
+ */
+@Component
+public class AutomationMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<AutomationStep.StepType, Map<StepExecution.Outcome, Timer>> stepTimers =
+            new EnumMap<>(AutomationStep.StepType.class);
+    private final Map<AutomationResult.Status, Timer> runTimers = new EnumMap<>(AutomationResult.Status.class);
+    private final Timer scheduledStartLag;
+    private final Timer onDemandStartLag;
+    private final Timer screenshotCapture;
+    private final Timer screenshotWrite;
+    private final Counter blockedRequests;
+    private final Timer pageLoadSaved;
+
+    public AutomationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (AutomationStep.StepType type : AutomationStep.StepType.values()) {
+            Map<StepExecution.Outcome, Timer> byOutcome = new EnumMap<>(StepExecution.Outcome.class);
+            for (StepExecution.Outcome outcome : StepExecution.Outcome.values()) {
+                byOutcome.put(outcome, Timer.builder("automation.step.duration")
+                        .description("Time to execute one automation step")
+                        .tag("type", type.name())
+                        .tag("outcome", outcome.name())
+                        .register(registry));
+            }
+            stepTimers.put(type, byOutcome);
+        }
+        // Carries the percentiles histogram, so it is tagged by status only
+        for (AutomationResult.Status status : AutomationResult.Status.values()) {
+            runTimers.put(status, Timer.builder("automation.run.duration")
+                    .description("Wall time of a whole automation run")
+                    .tag("status", status.name())
+                    .register(registry));
+        }
+        scheduledStartLag = startLagTimer("scheduled");
+        onDemandStartLag = startLagTimer("on_demand");
+        screenshotCapture = Timer.builder("automation.screenshot.capture")
+                .description("Time the browser session spends capturing a screenshot")
+                .register(registry);
+        screenshotWrite = Timer.builder("automation.screenshot.write")
+                .description("Time to encode and write a screenshot in the background")
+                .register(registry);
+        blockedRequests = Counter.builder("automation.navigation.blocked.requests")
+                .description("Requests dropped by a navigation profile")
+                .register(registry);
+        pageLoadSaved = Timer.builder("automation.navigation.load.saved")
+                .description("Page load time a run did not wait for, per run")
+                .register(registry);
+    }
+
+    // Time from the trigger's fire time (or the on-demand request) until a worker started the run
+    public void recordStartLag(boolean scheduled, long lagMillis) {
+        (scheduled ? scheduledStartLag : onDemandStartLag).record(Math.max(0, lagMillis), TimeUnit.MILLISECONDS);
+    }
+
+    // Per-config runs only get count, total and max: a histogram per config would multiply the series by the buckets
+    public void recordRun(AutomationConfig config, AutomationResult.Status status, long nanos) {
+        runTimers.get(status).record(nanos, TimeUnit.NANOSECONDS);
+        Timer.builder("automation.config.run.duration")
+                .description("Wall time of a whole automation run, per config")
+                .tag("config", String.valueOf(config.getId()))
+                .tag("status", status.name())
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordStep(AutomationStep.StepType type, StepExecution.Outcome outcome, long nanos) {
+        if (type != null) {
+            stepTimers.get(type).get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordScreenshotCapture(long nanos) {
+        screenshotCapture.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordScreenshotWrite(long nanos) {
+        screenshotWrite.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordNavigation(NavigationSession navigation) {
+        blockedRequests.increment(navigation.getBlockedRequests());
+        pageLoadSaved.record(navigation.getSavedMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public WebDriver createDriver(AutomationConfig.DriverBackend backend, Supplier<WebDriver> factory) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return factory.get();
+        } finally {
+            sample.stop(driverTimer("automation.driver.create", "Time to start a browser session", backend));
+        }
+    }
+
+    public void quitDriver(AutomationConfig.DriverBackend backend, WebDriver driver) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            driver.quit();
+        } finally {
+            sample.stop(driverTimer("automation.driver.quit", "Time to shut down a browser session", backend));
+        }
+    }
+
+    private Timer startLagTimer(String trigger) {
+        return Timer.builder("automation.run.start.lag")
+                .description("Delay between when a run was due and when it started")
+                .tag("trigger", trigger)
+                .register(registry);
+    }
+
+    private Timer driverTimer(String name, String description, AutomationConfig.DriverBackend backend) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("backend", backend.name())
+                .register(registry);
+    }
+}
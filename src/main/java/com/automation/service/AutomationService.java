@@ -2,73 +2,313 @@ package com.automation.service;
 
 import com.automation.model.*;
 import com.automation.repository.AutomationResultRepository;
+import com.automation.repository.StepExecutionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.openqa.selenium.By;
-import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.support.ui.Select;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AutomationService {
 
+    private static final long DEFAULT_NETWORK_QUIET_MILLIS = 500;
+
     private final WebDriverService webDriverService;
+    private final WebDriverPools driverPools;
     private final AutomationResultRepository resultRepository;
+    private final RunEventPublisher eventPublisher;
+    private final StepExecutionRepository stepExecutionRepository;
+    private final RunLogStore runLogStore;
+    private final AutomationMetrics metrics;
+    private final SessionCheckpointService sessionCheckpoints;
+
+    @Value("${automation.step-records.batch-size:50}")
+    private int stepRecordBatchSize;
+
+    @Value("${automation.screenshot.write-timeout-seconds:60}")
+    private long screenshotWriteTimeoutSeconds;
+
+    @Value("${automation.driver.timeout:30}")
+    private int defaultWaitTimeoutSeconds;
+
+    @Value("${automation.wait.default-poll-millis:250}")
+    private long defaultPollMillis;
+
+    @Value("${automation.wait.legacy-mode:FIXED}")
+    private LegacyWaitMode legacyWaitMode;
+
+    @Value("${automation.fused-steps.enabled:false}")
+    private boolean fusedStepsEnabled;
+
+    @Value("${automation.fused-steps.min-steps:2}")
+    private int fusedMinSteps;
+
+    public enum LegacyWaitMode {
+        // Fixed waitSeconds sleep for the full duration
+        FIXED,
+        // Fixed waitSeconds wait at most that long for the next step's element
+        NEXT_SELECTOR
+    }
 
     public AutomationResult executeAutomation(AutomationConfig config) {
+        return executeAutomation(new RunContext(createRunningResult(config)));
+    }
+
+    // Persists the result up front so the run has an id callers can poll or cancel
+    public AutomationResult createRunningResult(AutomationConfig config) {
         AutomationResult result = new AutomationResult();
         result.setConfig(config);
         result.setStartTime(LocalDateTime.now());
         result.setStatus(AutomationResult.Status.RUNNING);
         result.setScreenshotPaths(new ArrayList<>());
+        return resultRepository.save(result);
+    }
 
-        StringBuilder logs = new StringBuilder();
+    // Result of one fan-out row, linked to the run it belongs to
+    public AutomationResult createRowResult(AutomationConfig config, Long parentId, int rowIndex) {
+        AutomationResult result = new AutomationResult();
+        result.setConfig(config);
+        result.setStartTime(LocalDateTime.now());
+        result.setStatus(AutomationResult.Status.RUNNING);
+        result.setScreenshotPaths(new ArrayList<>());
+        result.setParentId(parentId);
+        result.setRowIndex(rowIndex);
+        return resultRepository.save(result);
+    }
+
+    public AutomationResult executeAutomation(RunContext context) {
+        AutomationConfig config = context.getConfig();
+        AutomationResult result = context.getResult();
+        result.setStartTime(LocalDateTime.now());
+
+        context.setEvents(eventPublisher);
+        context.setLogWriter(runLogStore.openWriter(context.getRunId()));
+        eventPublisher.open(context.getRunId());
+        context.publish(RunEventPublisher.STATUS, Map.of("status", AutomationResult.Status.RUNNING));
+
+        long started = System.nanoTime();
+        WebDriverPool driverPool = null;
         WebDriver driver = null;
+        boolean sessionBroken = false;
 
         try {
-            driver = webDriverService.createDriver();
-            logs.append("Driver initialized\n");
+            context.checkCancelled();
+            driverPool = driverPools.forConfig(config);
+            driver = driverPool.lease();
+            context.log("Driver initialized");
+            NavigationSession navigation = new NavigationSession(driver, config.getNavigationProfile());
+            context.setNavigation(navigation);
+            navigation.apply();
 
-            for (AutomationStep step : config.getSteps()) {
-                executeStep(driver, step, result, logs);
+            List<AutomationStep> steps = context.getSteps();
+            int i = sessionCheckpoints.restore(driver, config, context);
+            while (i < steps.size()) {
+                context.checkCancelled();
+                int batchEnd = fusedStepsEnabled ? FusedDomSteps.batchEnd(steps, i) : i;
+                if (batchEnd - i >= Math.max(2, fusedMinSteps)) {
+                    runFusedSteps(driver, steps.subList(i, batchEnd), context);
+                    i = batchEnd;
+                    continue;
+                }
+                AutomationStep nextStep = i + 1 < steps.size() ? steps.get(i + 1) : null;
+                runStep(driver, steps.get(i), nextStep, context);
+                i++;
             }
 
             result.setStatus(AutomationResult.Status.SUCCESS);
-            logs.append("Automation completed successfully\n");
+            context.log("Automation completed successfully");
 
+        } catch (RunCancelledException e) {
+            result.setStatus(AutomationResult.Status.CANCELLED);
+            context.log("Run cancelled");
+            log.info("Automation cancelled for config: " + config.getName());
         } catch (Exception e) {
+            sessionBroken = e instanceof NoSuchSessionException;
             result.setStatus(AutomationResult.Status.FAILED);
             result.setErrorMessage(e.getMessage());
-            logs.append("Error: ").append(e.getMessage()).append("\n");
+            context.log("Error: " + e.getMessage());
             log.error("Automation failed for config: " + config.getName(), e);
         } finally {
+            NavigationSession navigation = context.getNavigation();
+            if (navigation != null && !navigation.isEmpty()) {
+                // A browser that still blocks requests must not be handed to another config
+                sessionBroken |= !navigation.restore();
+                context.log(navigation.summary());
+                metrics.recordNavigation(navigation);
+            }
             if (driver != null) {
-                driver.quit();
+                if (sessionBroken) {
+                    driverPool.invalidate(driver);
+                } else {
+                    driverPool.release(driver);
+                }
             }
-            result.setEndTime(LocalDateTime.now());
-            result.setLogs(logs.toString());
-            resultRepository.save(result);
+            if (context.getScope() != null) {
+                finishInScope(context, context.getScope());
+            } else {
+                awaitScreenshotWrites(context, TimeUnit.SECONDS.toMillis(screenshotWriteTimeoutSeconds));
+                result.setEndTime(LocalDateTime.now());
+                context.log(context.getElements().summary());
+                context.flushLogs();
+                resultRepository.save(result);
+                flushStepRecords(context);
+            }
+            metrics.recordRun(config, result.getStatus(), System.nanoTime() - started);
+
+            Map<String, Object> finalStatus = new HashMap<>();
+            finalStatus.put("status", result.getStatus());
+            finalStatus.put("errorMessage", result.getErrorMessage());
+            eventPublisher.complete(context.getRunId(), finalStatus);
         }
 
         return result;
     }
 
-    private void executeStep(WebDriver driver, AutomationStep step,
-                             AutomationResult result, StringBuilder logs) throws Exception {
-        logs.append("Executing step: ").append(step.getType()).append("\n");
+    // Executes one step, publishing start/finish events and buffering its StepExecution record
+    private void runStep(WebDriver driver, AutomationStep step, AutomationStep nextStep,
+                         RunContext context) throws Exception {
+        recordStep(step, context, () -> executeStep(driver, step, nextStep, context), null);
+    }
+
+    // Runs a batch of DOM-only steps in one script call. Steps the script completed are recorded with the
+    // time it measured for them; from the first step it did not complete, the rest run step by step.
+    private void runFusedSteps(WebDriver driver, List<AutomationStep> batch, RunContext context) throws Exception {
+        List<FusedDomSteps.StepOutcome> outcomes;
+        try {
+            outcomes = FusedDomSteps.parseResults(webDriverService.javascript(driver)
+                    .executeAsyncScript(FusedDomSteps.SCRIPT, FusedDomSteps.arguments(batch)));
+        } catch (NoSuchSessionException e) {
+            throw e;
+        } catch (Exception e) {
+            if (!FusedDomSteps.isRepeatable(batch)) {
+                // The script may have got as far as the click; running the batch again could click twice
+                AutomationStep click = batch.get(batch.size() - 1);
+                recordStep(click, context, () -> {
+                    throw new IllegalStateException("Fused steps " + batch.get(0).getOrder() + "-" + click.getOrder()
+                            + " failed without reporting whether the click ran, so they are not retried: "
+                            + e.getMessage(), e);
+                }, null);
+            }
+            log.debug("Fused batch of {} steps failed; running them one by one", batch.size(), e);
+            outcomes = List.of();
+        }
+
+        int completed = 0;
+        while (completed < outcomes.size() && outcomes.get(completed).isOk()) {
+            AutomationStep step = batch.get(completed);
+            recordStep(step, context, () -> logFusedStep(step, context), outcomes.get(completed).getNanos());
+            completed++;
+        }
+        if (completed < outcomes.size()) {
+            log.debug("Fused step {} failed in script ({}); retrying it and the rest one by one",
+                    batch.get(completed).getOrder(), outcomes.get(completed).getError());
+        }
+        for (int i = completed; i < batch.size(); i++) {
+            context.checkCancelled();
+            runStep(driver, batch.get(i), i + 1 < batch.size() ? batch.get(i + 1) : null, context);
+        }
+    }
+
+    // The log lines executeStep writes for the step types that can be fused
+    private void logFusedStep(AutomationStep step, RunContext context) {
+        context.log("Executing step: " + step.getType());
+        switch (step.getType()) {
+            case CLICK -> context.log("Clicked element: " + step.getSelector());
+            case INPUT -> context.log("Input text to: " + step.getSelector());
+            case SCROLL -> context.log("Scrolled to position: " + (step.getValue() != null ? step.getValue() : "0"));
+            case SELECT -> context.log("Selected option: " + step.getValue());
+            default -> { }
+        }
+    }
+
+    @FunctionalInterface
+    private interface StepBody {
+        void run() throws Exception;
+    }
+
+    // measuredNanos overrides the wall time for steps that ran inside a fused batch
+    private void recordStep(AutomationStep step, RunContext context, StepBody body, Long measuredNanos)
+            throws Exception {
+        Map<String, Object> stepInfo = Map.of("order", step.getOrder(), "type", String.valueOf(step.getType()));
+        context.publish(RunEventPublisher.STEP_START, stepInfo);
+
+        List<String> screenshots = context.getResult().getScreenshotPaths();
+        int screenshotsBefore = screenshots.size();
+
+        StepExecution record = new StepExecution();
+        record.setResultId(context.getRunId());
+        record.setConfigId(context.getConfig().getId());
+        record.setStepOrder(step.getOrder());
+        record.setStepType(step.getType());
+        record.setStartedAt(LocalDateTime.now());
+        record.setStartNanos(System.nanoTime());
+        record.setOutcome(StepExecution.Outcome.FAILED);
+        try {
+            body.run();
+            record.setOutcome(StepExecution.Outcome.SUCCESS);
+        } catch (RunCancelledException e) {
+            record.setOutcome(StepExecution.Outcome.CANCELLED);
+            throw e;
+        } catch (Exception e) {
+            record.setErrorClass(e.getClass().getName());
+            throw e;
+        } finally {
+            record.setEndNanos(measuredNanos != null ? record.getStartNanos() + measuredNanos : System.nanoTime());
+            record.setDurationMs((record.getEndNanos() - record.getStartNanos()) / 1_000_000);
+            metrics.recordStep(step.getType(), record.getOutcome(), record.getEndNanos() - record.getStartNanos());
+            if (screenshots.size() > screenshotsBefore) {
+                record.setScreenshotPath(screenshots.get(screenshots.size() - 1));
+            }
+            context.recordStep(record);
+            if (context.getPendingStepRecords().size() >= stepRecordBatchSize) {
+                flushStepRecords(context);
+            }
+
+            Map<String, Object> finished = new HashMap<>(stepInfo);
+            finished.put("outcome", record.getOutcome());
+            finished.put("durationMillis", record.getDurationMs());
+            context.publish(RunEventPublisher.STEP_FINISH, finished);
+        }
+    }
+
+    private void flushStepRecords(RunContext context) {
+        List<StepExecution> records = context.drainStepRecords();
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            stepExecutionRepository.saveAll(records);
+        } catch (Exception e) {
+            log.error("Failed to store {} step records for run {}", records.size(), context.getRunId(), e);
+        }
+    }
+
+    // Package-private for tests and the step benchmarks, which share this package
+    void executeStep(WebDriver driver, AutomationStep step, AutomationStep nextStep,
+                             RunContext context) throws Exception {
+        context.log("Executing step: " + step.getType());
 
         // Validate step data
         validateStep(step);
 
         // Get configuration name for screenshot naming
-        String configName = result.getConfig().getName();
+        String configName = context.getConfig().getName();
         int stepIndex = step.getOrder() + 1; // Make it 1-based for user readability
 
         switch (step.getType()) {
@@ -81,17 +321,27 @@ public class AutomationService {
                 if (!url.startsWith("http://") && !url.startsWith("https://")) {
                     url = "https://" + url;
                 }
+                NavigationSession navigation = context.getNavigation();
+                if (navigation != null) {
+                    navigation.leavingPage();
+                }
                 driver.get(url);
-                logs.append("Navigated to: ").append(url).append("\n");
+                if (navigation != null) {
+                    navigation.navigated();
+                }
+                context.getElements().invalidate();
+                context.log("Navigated to: " + url);
                 break;
 
             case CLICK:
                 if (step.getSelector() == null || step.getSelector().trim().isEmpty()) {
                     throw new IllegalArgumentException("Click step requires a selector");
                 }
-                WebElement clickElement = driver.findElement(By.cssSelector(step.getSelector()));
-                clickElement.click();
-                logs.append("Clicked element: ").append(step.getSelector()).append("\n");
+                context.getElements().act(driver, Locators.by(step.getSelector()), element -> {
+                    element.click();
+                    return null;
+                });
+                context.log("Clicked element: " + step.getSelector());
                 break;
 
             case INPUT:
@@ -101,10 +351,13 @@ public class AutomationService {
                 if (step.getValue() == null) {
                     step.setValue(""); // Allow empty input
                 }
-                WebElement inputElement = driver.findElement(By.cssSelector(step.getSelector()));
-                inputElement.clear();
-                inputElement.sendKeys(step.getValue());
-                logs.append("Input text to: ").append(step.getSelector()).append("\n");
+                String inputValue = step.getValue();
+                context.getElements().act(driver, Locators.by(step.getSelector()), element -> {
+                    element.clear();
+                    element.sendKeys(inputValue);
+                    return null;
+                });
+                context.log("Input text to: " + step.getSelector());
                 break;
 
             case WAIT:
@@ -112,21 +365,37 @@ public class AutomationService {
                 if (waitTime <= 0) {
                     waitTime = 1; // Default to 1 second minimum
                 }
-                Thread.sleep(waitTime * 1000L);
-                logs.append("Waited for: ").append(waitTime).append(" seconds\n");
+                if (!waitForNextSelector(driver, waitTime, nextStep, context)) {
+                    context.sleep(waitTime * 1000L);
+                    context.log("Waited for: " + waitTime + " seconds");
+                }
+                break;
+
+            case WAIT_PRESENT:
+            case WAIT_CLICKABLE:
+            case WAIT_VISIBLE:
+            case WAIT_TEXT:
+            case WAIT_URL:
+            case WAIT_DOC_READY:
+            case WAIT_NETWORK_IDLE:
+                waitForCondition(driver, step, context);
                 break;
 
             case SCREENSHOT:
-                String screenshotPath = webDriverService.captureScreenshot(
-                        driver, step.getCaptureSelector(), configName, stepIndex);
-                result.getScreenshotPaths().add(screenshotPath);
-                logs.append("Screenshot captured: ").append(screenshotPath).append("\n");
+                String screenshotPath = addScreenshot(context, webDriverService.captureScreenshot(
+                        driver, step.getCaptureSelector(), configName, stepIndex, context.getElements(),
+                        context.getScope()));
+                context.log("Screenshot captured: " + screenshotPath);
                 break;
 
             case SCROLL:
                 String scrollValue = step.getValue() != null ? step.getValue() : "0";
-                ((JavascriptExecutor) driver).executeScript("window.scrollTo(0, " + scrollValue + ")");
-                logs.append("Scrolled to position: ").append(scrollValue).append("\n");
+                webDriverService.javascript(driver).executeScript("window.scrollTo(0, " + scrollValue + ")");
+                context.log("Scrolled to position: " + scrollValue);
+                break;
+
+            case CHECKPOINT:
+                sessionCheckpoints.capture(driver, context.getConfig(), step, context);
                 break;
 
             case SELECT:
@@ -136,21 +405,178 @@ public class AutomationService {
                 if (step.getValue() == null || step.getValue().trim().isEmpty()) {
                     throw new IllegalArgumentException("Select step requires a value");
                 }
-                Select select = new Select(driver.findElement(By.cssSelector(step.getSelector())));
-                select.selectByValue(step.getValue());
-                logs.append("Selected option: ").append(step.getValue()).append("\n");
+                String optionValue = step.getValue();
+                context.getElements().act(driver, Locators.by(step.getSelector()), element -> {
+                    new Select(element).selectByValue(optionValue);
+                    return null;
+                });
+                context.log("Selected option: " + step.getValue());
                 break;
         }
 
         if (step.isCaptureScreenshot() && step.getType() != AutomationStep.StepType.SCREENSHOT) {
-            String screenshotPath = webDriverService.captureScreenshot(
-                    driver, step.getCaptureSelector(), configName, stepIndex);
-            result.getScreenshotPaths().add(screenshotPath);
-            logs.append("Step screenshot captured: ").append(screenshotPath).append("\n");
+            String screenshotPath = addScreenshot(context, webDriverService.captureScreenshot(
+                    driver, step.getCaptureSelector(), configName, stepIndex, context.getElements(),
+                    context.getScope()));
+            context.log("Step screenshot captured: " + screenshotPath);
+        }
+
+        if (step.getWaitSeconds() > 0 && step.getType() != AutomationStep.StepType.WAIT
+                && !waitForNextSelector(driver, step.getWaitSeconds(), nextStep, context)) {
+            context.sleep(step.getWaitSeconds() * 1000L);
+        }
+    }
+
+    private void waitForCondition(WebDriver driver, AutomationStep step, RunContext context) {
+        Duration timeout = Duration.ofSeconds(step.getTimeoutSeconds() != null
+                ? step.getTimeoutSeconds() : defaultWaitTimeoutSeconds);
+        Duration poll = Duration.ofMillis(step.getPollMillis() != null
+                ? step.getPollMillis() : defaultPollMillis);
+        String selector = step.getSelector();
+        long started = System.nanoTime();
+        String description;
+
+        switch (step.getType()) {
+            case WAIT_PRESENT:
+                webDriverService.waitForElement(driver, selector, timeout, poll);
+                description = "Element present: " + selector;
+                break;
+            case WAIT_CLICKABLE:
+                webDriverService.waitForElementClickable(driver, selector, timeout, poll);
+                description = "Element clickable: " + selector;
+                break;
+            case WAIT_VISIBLE:
+                webDriverService.waitForElementVisible(driver, selector, timeout, poll);
+                description = "Element visible: " + selector;
+                break;
+            case WAIT_TEXT:
+                String textSelector = selector == null || selector.isBlank() ? "body" : selector;
+                webDriverService.waitForText(driver, textSelector, step.getValue(), timeout, poll);
+                description = "Text present in " + textSelector + ": " + step.getValue();
+                break;
+            case WAIT_URL:
+                webDriverService.waitForUrl(driver, step.getValue(), timeout, poll);
+                description = "URL matches: " + step.getValue();
+                break;
+            case WAIT_DOC_READY:
+                webDriverService.waitForDocumentReady(driver, timeout, poll);
+                description = "Document ready";
+                break;
+            case WAIT_NETWORK_IDLE:
+                Duration quietPeriod = networkQuietPeriod(step, context);
+                webDriverService.waitForNetworkIdle(driver, quietPeriod, timeout, poll);
+                description = "Network idle for " + quietPeriod.toMillis() + " ms";
+                break;
+            default:
+                throw new IllegalArgumentException("Not a condition wait: " + step.getType());
+        }
+
+        context.log(description + " (after " + (System.nanoTime() - started) / 1_000_000 + " ms)");
+    }
+
+    // Saves are validated, but configs stored before that and parameter substitutions can still hold anything
+    private static Duration networkQuietPeriod(AutomationStep step, RunContext context) {
+        String value = step.getValue();
+        if (value == null || value.isBlank()) {
+            return Duration.ofMillis(DEFAULT_NETWORK_QUIET_MILLIS);
+        }
+        try {
+            return Duration.ofMillis(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            context.log("Invalid network idle quiet period '" + value + "'; using " + DEFAULT_NETWORK_QUIET_MILLIS + " ms");
+            return Duration.ofMillis(DEFAULT_NETWORK_QUIET_MILLIS);
+        }
+    }
+
+    // In NEXT_SELECTOR mode a legacy fixed wait becomes "wait up to N seconds for the next step's element".
+    // Returns false when the caller should fall back to sleeping.
+    private boolean waitForNextSelector(WebDriver driver, int seconds, AutomationStep nextStep, RunContext context) {
+        String selector = nextStep != null ? targetSelector(nextStep) : null;
+        if (legacyWaitMode != LegacyWaitMode.NEXT_SELECTOR || selector == null) {
+            return false;
+        }
+        long started = System.nanoTime();
+        try {
+            webDriverService.waitForElement(driver, selector, Duration.ofSeconds(seconds), Duration.ofMillis(defaultPollMillis));
+            context.log("Waited " + (System.nanoTime() - started) / 1_000_000 + " ms for next step's element: " + selector);
+        } catch (TimeoutException e) {
+            // Same upper bound as the old sleep; the next step reports the missing element itself
+            context.log("Next step's element not present after " + seconds + " seconds: " + selector);
+        }
+        return true;
+    }
+
+    private String targetSelector(AutomationStep step) {
+        String selector = switch (step.getType()) {
+            case CLICK, INPUT, SELECT, WAIT_PRESENT, WAIT_CLICKABLE, WAIT_VISIBLE -> step.getSelector();
+            case SCREENSHOT -> step.getCaptureSelector();
+            default -> null;
+        };
+        return selector == null || selector.isBlank() ? null : selector;
+    }
+
+    private String addScreenshot(RunContext context, PendingScreenshot screenshot) {
+        List<String> screenshots = context.getResult().getScreenshotPaths();
+        screenshots.add(screenshot.getPath());
+        int index = screenshots.size() - 1;
+        context.trackScreenshotWrite(screenshot.getPersisted());
+        // Announce the screenshot once its file is actually readable
+        screenshot.getPersisted().thenRun(() -> context.publish(RunEventPublisher.SCREENSHOT, Map.of(
+                "index", index,
+                "url", "/api/history/" + context.getRunId() + "/screenshot/" + index)));
+        return screenshot.getPath();
+    }
+
+    // The end of a run in VIRTUAL thread mode: the run's screenshot writes were forked into its scope as they
+    // were captured, so joining it waits for them and a missed deadline interrupts the ones still running. The
+    // log, the result and the step records are then stored by the run's own thread after the join, as on platform
+    // threads; the deadline does not cover them.
+    private void finishInScope(RunContext context, RunScope scope) {
+        AutomationResult result = context.getResult();
+        Instant deadline = Instant.now().plusSeconds(screenshotWriteTimeoutSeconds);
+        boolean interrupted = false;
+        try {
+            scope.joinUntil(deadline);
+        } catch (InterruptedException e) {
+            // Still store the result; the interrupt is restored once it is saved
+            interrupted = true;
+        } catch (java.util.concurrent.TimeoutException e) {
+            context.log("Screenshot writes still running after " + screenshotWriteTimeoutSeconds
+                    + " seconds were interrupted");
+        } catch (ExecutionException e) {
+            log.error("Subtask of run {} failed", context.getRunId(), e.getCause());
+        }
+        if (!interrupted) {
+            // Reports the failed writes; waits only for images another run is still writing
+            awaitScreenshotWrites(context, Math.max(0, deadline.toEpochMilli() - System.currentTimeMillis()));
+        }
+
+        result.setEndTime(LocalDateTime.now());
+        context.log(context.getElements().summary());
+        try {
+            context.flushLogs();
+        } catch (Exception e) {
+            log.error("Failed to store the log of run {}", context.getRunId(), e);
         }
+        resultRepository.save(result);
+        flushStepRecords(context);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-        if (step.getWaitSeconds() > 0 && step.getType() != AutomationStep.StepType.WAIT) {
-            Thread.sleep(step.getWaitSeconds() * 1000L);
+    private void awaitScreenshotWrites(RunContext context, long timeoutMillis) {
+        List<CompletableFuture<Void>> writes = context.getScreenshotWrites();
+        if (writes.isEmpty()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            context.log("Screenshot write failed: " + e.getMessage());
+            log.error("Screenshot write failed for run {}", context.getRunId(), e);
         }
     }
 
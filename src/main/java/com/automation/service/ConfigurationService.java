@@ -6,17 +6,18 @@ import com.automation.model.ScheduleConfig;
 import com.automation.dto.AutomationConfigDTO;
 import com.automation.repository.AutomationConfigRepository;
 import com.automation.repository.AutomationResultRepository;
+import com.automation.repository.RunLogChunkRepository;
+import com.automation.repository.SessionSnapshotRepository;
+import com.automation.repository.StepExecutionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -25,7 +26,11 @@ public class ConfigurationService {
 
     private final AutomationConfigRepository configRepository;
     private final AutomationResultRepository resultRepository;
+    private final StepExecutionRepository stepExecutionRepository;
+    private final RunLogChunkRepository runLogChunkRepository;
     private final SchedulerService schedulerService;
+    private final ScreenshotStore screenshotStore;
+    private final SessionSnapshotRepository sessionSnapshotRepository;
 
     @Transactional
     public AutomationConfig updateConfiguration(Long configId, AutomationConfigDTO dto) {
@@ -36,6 +41,10 @@ public class ConfigurationService {
         config.setName(dto.getName());
         config.setDescription(dto.getDescription());
         config.setActive(dto.isActive());
+        config.setDriverBackend(dto.getDriverBackend());
+        config.setNavigationProfile(dto.getNavigationProfile());
+        config.setParameterRows(dto.getParameterRows());
+        config.setFanOutParallelism(dto.getFanOutParallelism());
         config.setUpdatedAt(LocalDateTime.now());
 
         // Update steps - clear and re-add to avoid orphan removal issue
@@ -53,6 +62,26 @@ public class ConfigurationService {
         return saved;
     }
 
+    // Replaces the config's parameter dataset; blank text turns fan-out off
+    @Transactional
+    public ParameterRows updateParameterRows(Long configId, String csv) {
+        AutomationConfig config = configRepository.findById(configId)
+                .orElseThrow(() -> new IllegalArgumentException("Configuration not found"));
+
+        ParameterRows rows = null;
+        if (ParameterRows.isFanOut(csv)) {
+            rows = ParameterRows.parse(csv);
+            Set<String> missing = rows.missingColumns(config.getSteps());
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Parameter rows: no column for " + String.join(", ", missing));
+            }
+        }
+        config.setParameterRows(rows != null ? csv : null);
+        config.setUpdatedAt(LocalDateTime.now());
+        schedulerService.rescheduleAutomation(configRepository.save(config));
+        return rows;
+    }
+
     private void updateSteps(AutomationConfig config, List<AutomationStep> newSteps) {
         // Clear existing steps
         if (config.getSteps() == null) {
@@ -75,6 +104,8 @@ public class ConfigurationService {
                 step.setWaitSeconds(source.getWaitSeconds());
                 step.setCaptureScreenshot(source.isCaptureScreenshot());
                 step.setCaptureSelector(source.getCaptureSelector());
+                step.setTimeoutSeconds(source.getTimeoutSeconds());
+                step.setPollMillis(source.getPollMillis());
                 step.setConfig(config);
 
                 config.getSteps().add(step);
@@ -105,28 +136,19 @@ public class ConfigurationService {
         schedulerService.unscheduleAutomation(configId);
 
         if (force) {
-            // Delete associated results and their screenshots
-            resultRepository.findAll().stream()
-                    .filter(result -> result.getConfig().getId().equals(configId))
-                    .forEach(result -> {
-                        // Delete screenshot files
-                        if (result.getScreenshotPaths() != null) {
-                            result.getScreenshotPaths().forEach(screenshotPath -> {
-                                try {
-                                    Path path = Paths.get(screenshotPath);
-                                    Files.deleteIfExists(path);
-                                    log.info("Deleted screenshot: " + screenshotPath);
-                                } catch (Exception e) {
-                                    log.error("Failed to delete screenshot: " + screenshotPath, e);
-                                }
-                            });
-                        }
-                    });
-
-            // Delete all results for this config
+            // Release the screenshots of the associated results; shared files are kept until unreferenced
+            List<String> screenshots = resultRepository.findScreenshotPathsByConfigId(configId);
+
+            // Delete all results and their step records for this config
+            stepExecutionRepository.deleteByConfigId(configId);
+            runLogChunkRepository.deleteByConfigId(configId);
             resultRepository.deleteByConfigId(configId);
+            screenshotStore.release(screenshots);
         }
 
+        // Saved login state is useless without the config
+        sessionSnapshotRepository.deleteByConfigId(configId);
+
         // Delete the configuration
         configRepository.deleteById(configId);
         log.info("Deleted configuration: " + config.getName());
@@ -0,0 +1,17 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Creates browser sessions for one driver backend. Every provider bean is picked up by
+ * {@link WebDriverPools}, which keeps a separate session pool per backend.
+ */
+public interface DriverProvider {
+
+    AutomationConfig.DriverBackend getBackend();
+
+    // Starts a new session; drivers handed out must also implement JavascriptExecutor and TakesScreenshot
+    WebDriver createDriver(PageLoadStrategy pageLoadStrategy);
+}
@@ -0,0 +1,62 @@
+package com.automation.service;
+
+import lombok.Getter;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Element handles resolved during one run, valid for the current page. Cleared on navigation;
+ * an action that hits a stale handle clears the cache, looks the element up again and retries once.
+ * Not thread-safe: a run uses its driver from one thread.
+ */
+public class ElementCache {
+
+    @FunctionalInterface
+    public interface ElementAction<T> {
+        T apply(WebElement element);
+    }
+
+    private final Map<By, WebElement> elements = new HashMap<>();
+    @Getter
+    private long lookups;
+    @Getter
+    private long hits;
+    private long staleRetries;
+
+    public WebElement find(WebDriver driver, By by) {
+        WebElement element = elements.get(by);
+        if (element != null) {
+            hits++;
+            return element;
+        }
+        lookups++;
+        element = driver.findElement(by);
+        elements.put(by, element);
+        return element;
+    }
+
+    public <T> T act(WebDriver driver, By by, ElementAction<T> action) {
+        try {
+            return action.apply(find(driver, by));
+        } catch (StaleElementReferenceException e) {
+            staleRetries++;
+            invalidate();
+            return action.apply(find(driver, by));
+        }
+    }
+
+    public void invalidate() {
+        elements.clear();
+    }
+
+    // Element lookups sent to the driver, and lookups served from the cache instead
+    public String summary() {
+        return "Element lookups: " + lookups + " sent to the driver, " + hits + " served from cache"
+                + (staleRetries > 0 ? ", " + staleRetries + " retried after going stale" : "");
+    }
+}
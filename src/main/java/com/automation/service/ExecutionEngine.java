@@ -0,0 +1,684 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.QueuedRun;
+import com.automation.repository.AutomationConfigRepository;
+import com.automation.repository.AutomationResultRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs automations on a dedicated, bounded worker pool. Schedule triggers only enqueue here,
+ * so slow browser sessions never hold up the trigger threads, and a config never runs twice
+ * at the same time.
+ *
+ * <p>With automation.execution.thread-mode VIRTUAL, each run gets its own virtual thread and a
+ * {@link RunScope} for the work it forks instead; the concurrency limit still applies.
+ *
+ * <p>In DATABASE queue mode runs wait in the shared run_queue table instead of memory, so any
+ * number of nodes on the same database split the work and queued runs survive a restart.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExecutionEngine {
+
+    public enum QueueMode {
+        // Queue in this JVM only
+        MEMORY,
+        // Queue in the run_queue table, claimed by every node on the same database
+        DATABASE
+    }
+
+    public enum OverflowPolicy {
+        // Reject when the queue is full, or when the config is already queued or running
+        DROP,
+        // Fold repeated triggers into the one queued run; at most one run waits behind a running one
+        COALESCE,
+        // Like COALESCE, but a full queue makes the trigger wait up to overflow-delay for space
+        DELAY
+    }
+
+    public enum SubmitOutcome {
+        QUEUED, COALESCED, REJECTED
+    }
+
+    public enum CancelOutcome {
+        CANCELLED, CANCELLING, NOT_ACTIVE
+    }
+
+    private final AutomationService automationService;
+    private final ThreadPoolTaskExecutor automationExecutor;
+    private final AutomationResultRepository resultRepository;
+    private final RunEventPublisher eventPublisher;
+    private final RunQueueStore queueStore;
+    private final AutomationConfigRepository configRepository;
+    private final AutomationMetrics metrics;
+    private final FanOutRunner fanOutRunner;
+    private final RunThreads runThreads;
+
+    @Value("${automation.execution.queue-mode:MEMORY}")
+    private QueueMode queueMode;
+
+    @Value("${automation.execution.node-id:}")
+    private String nodeId;
+
+    @Value("${automation.execution.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${automation.execution.poll-millis:1000}")
+    private long pollMillis;
+
+    @Value("${automation.execution.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${automation.execution.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${automation.execution.overflow-policy:COALESCE}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${automation.execution.overflow-delay-seconds:30}")
+    private long overflowDelaySeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition spaceAvailable = lock.newCondition();
+    private final Deque<RunRequest> queue = new ArrayDeque<>();
+    private final Set<Long> queuedConfigs = new HashSet<>();
+    private final Set<Long> runningConfigs = new HashSet<>();
+    private final Map<Long, RunContext> activeRuns = new ConcurrentHashMap<>();
+    // Claims, lease renewal and reclaiming in DATABASE mode; single-threaded so claims never race locally
+    private ScheduledExecutorService queuePoller;
+
+    // Statistics, guarded by lock
+    private long submittedCount;
+    private long completedCount;
+    private long coalescedCount;
+    private long rejectedCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+    private long claimedCount;
+    private long reclaimedCount;
+
+    @PostConstruct
+    public void start() {
+        if (queueMode != QueueMode.DATABASE) {
+            recoverOrphanedRuns();
+            return;
+        }
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = defaultNodeId();
+        }
+        queuePoller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "run-queue-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeatMillis = Math.max(1000, TimeUnit.SECONDS.toMillis(leaseSeconds) / 3);
+        queuePoller.scheduleWithFixedDelay(this::poll, 0, pollMillis, TimeUnit.MILLISECONDS);
+        queuePoller.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        log.info("Durable run queue enabled on node {} (lease={}s, poll={}ms)", nodeId, leaseSeconds, pollMillis);
+    }
+
+    // In MEMORY mode every run lives in this process, so RUNNING results left by the previous one never finish
+    private void recoverOrphanedRuns() {
+        int orphaned = resultRepository.failRunning(AutomationResult.Status.RUNNING, AutomationResult.Status.FAILED,
+                "Interrupted: the application stopped before the run finished", LocalDateTime.now());
+        if (orphaned > 0) {
+            log.warn("Marked {} runs left RUNNING by the previous process as failed", orphaned);
+        }
+    }
+
+    public SubmitOutcome submit(AutomationConfig config) {
+        return submit(config, null);
+    }
+
+    // Queues a scheduled run. fireTimeMillis identifies the trigger, so nodes firing the same
+    // schedule enqueue it only once in DATABASE mode.
+    public SubmitOutcome submit(AutomationConfig config, Long fireTimeMillis) {
+        if (queueMode == QueueMode.DATABASE) {
+            String triggerKey = fireTimeMillis == null ? null : config.getId() + "@" + fireTimeMillis;
+            return enqueueDurable(config, null, triggerKey);
+        }
+        return enqueue(new RunRequest(config, null, null, fireTimeMillis));
+    }
+
+    // Queues an on-demand run. The returned result is already persisted in RUNNING state,
+    // or FAILED if the queue could not take it.
+    public AutomationResult submitNow(AutomationConfig config) {
+        AutomationResult result = automationService.createRunningResult(config);
+        // Open the event channel before a worker can pick the run up, so clients can follow it while
+        // it is still queued and a run that finishes at once still completes its channel
+        eventPublisher.open(result.getId());
+        SubmitOutcome outcome = queueMode == QueueMode.DATABASE
+                ? enqueueDurable(config, result, null)
+                : enqueue(new RunRequest(config, result, null, null));
+        if (outcome == SubmitOutcome.REJECTED) {
+            result.setStatus(AutomationResult.Status.FAILED);
+            result.setErrorMessage("Rejected: the execution queue is full");
+            result.setEndTime(LocalDateTime.now());
+            AutomationResult saved = resultRepository.save(result);
+            eventPublisher.complete(result.getId(), Map.of("status", AutomationResult.Status.FAILED,
+                    "errorMessage", result.getErrorMessage()));
+            return saved;
+        }
+        return result;
+    }
+
+    public CancelOutcome cancel(Long runId) {
+        if (queueMode == QueueMode.DATABASE) {
+            return cancelDurable(runId);
+        }
+        lock.lock();
+        try {
+            Iterator<RunRequest> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                RunRequest request = iterator.next();
+                AutomationResult result = request.getResult();
+                if (result != null && runId.equals(result.getId())) {
+                    iterator.remove();
+                    spaceAvailable.signalAll();
+                    result.setStatus(AutomationResult.Status.CANCELLED);
+                    result.setEndTime(LocalDateTime.now());
+                    resultRepository.save(result);
+                    eventPublisher.complete(runId, Map.of("status", AutomationResult.Status.CANCELLED));
+                    log.info("Cancelled queued run {}", runId);
+                    return CancelOutcome.CANCELLED;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        RunContext context = activeRuns.get(runId);
+        if (context == null) {
+            return CancelOutcome.NOT_ACTIVE;
+        }
+        context.cancel();
+        log.info("Cancellation requested for run {}", runId);
+        return CancelOutcome.CANCELLING;
+    }
+
+    public QueueMode getQueueMode() {
+        return queueMode;
+    }
+
+    public boolean isQueued(Long runId) {
+        if (queueMode == QueueMode.DATABASE) {
+            return queueStore.isPending(runId);
+        }
+        lock.lock();
+        try {
+            return queue.stream()
+                    .anyMatch(request -> request.getResult() != null && runId.equals(request.getResult().getId()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<RunContext> getActiveRun(Long runId) {
+        return Optional.ofNullable(activeRuns.get(runId));
+    }
+
+    public Map<String, Object> getStats() {
+        int depth = getQueueDepth();
+        lock.lock();
+        try {
+            long started = completedCount + runningConfigs.size();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("queueMode", queueMode);
+            if (queueMode == QueueMode.DATABASE) {
+                stats.put("nodeId", nodeId);
+                stats.put("leaseSeconds", leaseSeconds);
+                stats.put("claimed", claimedCount);
+                stats.put("reclaimed", reclaimedCount);
+            }
+            stats.put("concurrency", automationExecutor.getMaxPoolSize());
+            stats.put("threadMode", runThreads.getMode());
+            stats.put("queueCapacity", queueCapacity);
+            stats.put("overflowPolicy", overflowPolicy);
+            stats.put("queueDepth", depth);
+            stats.put("running", runningConfigs.size());
+            stats.put("submitted", submittedCount);
+            stats.put("completed", completedCount);
+            stats.put("coalesced", coalescedCount);
+            stats.put("rejected", rejectedCount);
+            stats.put("avgWaitMillis", started == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / started);
+            stats.put("maxWaitMillis", maxWaitNanos / 1_000_000.0);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // In DATABASE mode this is the depth of the shared queue across all nodes
+    public int getQueueDepth() {
+        if (queueMode == QueueMode.DATABASE) {
+            return (int) queueStore.countPending();
+        }
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs executing on this node
+    public int getRunningCount() {
+        lock.lock();
+        try {
+            return runningConfigs.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isRunning(Long configId) {
+        lock.lock();
+        try {
+            return runningConfigs.contains(configId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (queueMode == QueueMode.DATABASE) {
+            // The durable queue outlives this node; runs still executing here are reclaimed
+            // by another node once their lease expires
+            queuePoller.shutdownNow();
+            return;
+        }
+        lock.lock();
+        try {
+            if (!queue.isEmpty()) {
+                log.info("Discarding {} queued automation runs on shutdown", queue.size());
+            }
+            queue.forEach(request -> {
+                AutomationResult result = request.getResult();
+                if (result != null) {
+                    result.setStatus(AutomationResult.Status.CANCELLED);
+                    result.setEndTime(LocalDateTime.now());
+                    resultRepository.save(result);
+                }
+            });
+            queue.clear();
+            queuedConfigs.clear();
+            spaceAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private SubmitOutcome enqueue(RunRequest request) {
+        Long configId = request.getConfig().getId();
+        lock.lock();
+        try {
+            if (request.isOnDemand()) {
+                // On-demand runs carry their own result, so they are queued individually
+                if (queue.size() >= queueCapacity) {
+                    return reject(request, "queue full");
+                }
+                queue.addLast(request);
+                submittedCount++;
+                dispatch();
+                return SubmitOutcome.QUEUED;
+            }
+            if (queuedConfigs.contains(configId)) {
+                coalescedCount++;
+                log.debug("Coalesced trigger for config {} into queued run", configId);
+                return SubmitOutcome.COALESCED;
+            }
+            if (overflowPolicy == OverflowPolicy.DROP && runningConfigs.contains(configId)) {
+                return reject(request, "already running");
+            }
+            if (queue.size() >= queueCapacity) {
+                if (overflowPolicy != OverflowPolicy.DELAY || !awaitSpace()) {
+                    return reject(request, "queue full");
+                }
+                if (queuedConfigs.contains(configId)) {
+                    coalescedCount++;
+                    return SubmitOutcome.COALESCED;
+                }
+            }
+
+            queue.addLast(request);
+            queuedConfigs.add(configId);
+            submittedCount++;
+            dispatch();
+            return SubmitOutcome.QUEUED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private SubmitOutcome reject(RunRequest request, String reason) {
+        return reject(request.getConfig(), reason);
+    }
+
+    private SubmitOutcome reject(AutomationConfig config, String reason) {
+        lock.lock();
+        try {
+            rejectedCount++;
+        } finally {
+            lock.unlock();
+        }
+        log.warn("Rejected run of '{}': {}", config.getName(), reason);
+        return SubmitOutcome.REJECTED;
+    }
+
+    // DATABASE mode enqueue. Coalescing and duplicate triggers are enforced by unique keys on the
+    // queue table, so they hold across nodes; the DELAY policy coalesces without waiting here.
+    private SubmitOutcome enqueueDurable(AutomationConfig config, AutomationResult result, String triggerKey) {
+        Long configId = config.getId();
+        boolean onDemand = result != null;
+        if (!onDemand && overflowPolicy == OverflowPolicy.DROP && queueStore.hasActiveRun(configId)) {
+            return reject(config, "already queued or running");
+        }
+        if (queueStore.countPending() >= queueCapacity) {
+            return reject(config, "queue full");
+        }
+        try {
+            queueStore.enqueue(configId, onDemand ? result.getId() : null, triggerKey, !onDemand);
+        } catch (DataIntegrityViolationException e) {
+            lock.lock();
+            try {
+                coalescedCount++;
+            } finally {
+                lock.unlock();
+            }
+            log.debug("Coalesced trigger for config {} into queued run", configId);
+            return SubmitOutcome.COALESCED;
+        }
+        lock.lock();
+        try {
+            submittedCount++;
+        } finally {
+            lock.unlock();
+        }
+        queuePoller.execute(this::poll);
+        return SubmitOutcome.QUEUED;
+    }
+
+    private CancelOutcome cancelDurable(Long runId) {
+        RunContext context = activeRuns.get(runId);
+        if (context != null) {
+            context.cancel();
+            log.info("Cancellation requested for run {}", runId);
+            return CancelOutcome.CANCELLING;
+        }
+        CancelOutcome outcome = queueStore.requestCancel(runId);
+        if (outcome == CancelOutcome.CANCELLED) {
+            resultRepository.findById(runId).ifPresent(result -> {
+                result.setStatus(AutomationResult.Status.CANCELLED);
+                result.setEndTime(LocalDateTime.now());
+                resultRepository.save(result);
+            });
+            eventPublisher.complete(runId, Map.of("status", AutomationResult.Status.CANCELLED));
+            log.info("Cancelled queued run {}", runId);
+        } else if (outcome == CancelOutcome.CANCELLING) {
+            log.info("Cancellation of run {} requested from the node running it", runId);
+        }
+        return outcome;
+    }
+
+    // Claims as many queued runs as there are idle workers on this node. Runs on the poller thread.
+    private void poll() {
+        try {
+            int free;
+            lock.lock();
+            try {
+                free = automationExecutor.getMaxPoolSize() - runningConfigs.size();
+            } finally {
+                lock.unlock();
+            }
+            if (free <= 0) {
+                return;
+            }
+            List<QueuedRun> claimed = queueStore.claim(nodeId, free, leaseDeadline());
+            for (QueuedRun queued : claimed) {
+                Optional<AutomationConfig> config = configRepository.findById(queued.getConfigId());
+                if (config.isEmpty()) {
+                    queueStore.complete(queued.getId());
+                    continue;
+                }
+                AutomationResult result = null;
+                if (queued.getResultId() != null) {
+                    result = resultRepository.findById(queued.getResultId()).orElse(null);
+                    if (result != null) {
+                        // Loaded outside a session; point it at the eagerly loaded config
+                        result.setConfig(config.get());
+                    }
+                }
+                // The row was enqueued right when its trigger fired, so that is when it was due
+                long dueAt = queued.getEnqueuedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                RunRequest request = new RunRequest(config.get(), result, queued.getId(), dueAt);
+                lock.lock();
+                try {
+                    claimedCount++;
+                    runningConfigs.add(queued.getConfigId());
+                    if (request.isOnDemand()) {
+                        register(result);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                runThreads.execute(() -> run(request));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to claim queued runs: {}", e.getMessage());
+        }
+    }
+
+    // Keeps this node's leases alive, reclaims runs of dead nodes and applies remote cancel requests
+    private void heartbeat() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            queueStore.renewLeases(nodeId, leaseDeadline());
+            int reclaimed = queueStore.reclaimExpired(now, maxAttempts);
+            if (reclaimed > 0) {
+                lock.lock();
+                try {
+                    reclaimedCount += reclaimed;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            for (Long runId : queueStore.findCancelRequests(nodeId)) {
+                RunContext context = activeRuns.get(runId);
+                if (context != null && !context.isCancelRequested()) {
+                    context.cancel();
+                    log.info("Cancelling run {} on request from another node", runId);
+                }
+            }
+            queueStore.purgeFinished(now.minusHours(1));
+        } catch (Exception e) {
+            log.warn("Run queue heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    private LocalDateTime leaseDeadline() {
+        return LocalDateTime.now().plusSeconds(leaseSeconds);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private boolean awaitSpace() {
+        long remaining = TimeUnit.SECONDS.toNanos(overflowDelaySeconds);
+        try {
+            while (queue.size() >= queueCapacity) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = spaceAvailable.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Hands queued runs to idle workers, skipping configs that are already running. Caller holds lock.
+    private void dispatch() {
+        int concurrency = automationExecutor.getMaxPoolSize();
+        Iterator<RunRequest> iterator = queue.iterator();
+        while (runningConfigs.size() < concurrency && iterator.hasNext()) {
+            RunRequest request = iterator.next();
+            Long configId = request.getConfig().getId();
+            if (runningConfigs.contains(configId)) {
+                continue;
+            }
+            iterator.remove();
+            if (!request.isOnDemand()) {
+                queuedConfigs.remove(configId);
+            }
+            runningConfigs.add(configId);
+            if (request.isOnDemand()) {
+                // Cancellable from the moment it leaves the queue, before a worker has started it
+                register(request.getResult());
+            }
+            spaceAvailable.signalAll();
+            runThreads.execute(() -> run(request));
+        }
+    }
+
+    private RunContext register(AutomationResult result) {
+        return activeRuns.computeIfAbsent(result.getId(), id -> new RunContext(result));
+    }
+
+    private void run(RunRequest request) {
+        long waited = System.nanoTime() - request.getEnqueuedAt();
+        lock.lock();
+        try {
+            totalWaitNanos += waited;
+            maxWaitNanos = Math.max(maxWaitNanos, waited);
+        } finally {
+            lock.unlock();
+        }
+        metrics.recordStartLag(!request.isOnDemand(), System.currentTimeMillis() - request.getDueAtMillisOrEnqueued());
+
+        RunContext context = null;
+        RunScope scope = null;
+        try {
+            log.debug("Starting run of '{}' after waiting {}", request.getConfig().getName(),
+                    Duration.ofNanos(waited));
+            AutomationResult result = request.isOnDemand()
+                    ? request.getResult()
+                    : automationService.createRunningResult(request.getConfig());
+            if (request.getQueueId() != null && !request.isOnDemand()) {
+                queueStore.attachResult(request.getQueueId(), result.getId());
+            }
+            context = register(result);
+            scope = runThreads.openScope(result.getId());
+            context.setScope(scope);
+            if (ParameterRows.isFanOut(request.getConfig().getParameterRows())) {
+                fanOutRunner.execute(context);
+            } else {
+                automationService.executeAutomation(context);
+            }
+        } catch (Exception e) {
+            log.error("Run of '{}' failed unexpectedly", request.getConfig().getName(), e);
+        } finally {
+            if (scope != null) {
+                // Interrupts and waits for anything the run forked and did not join
+                scope.close();
+            }
+            if (context != null) {
+                activeRuns.remove(context.getRunId());
+            } else if (request.isOnDemand()) {
+                activeRuns.remove(request.getResult().getId());
+            }
+            if (request.getQueueId() != null) {
+                completeQueued(request.getQueueId());
+            }
+            lock.lock();
+            try {
+                runningConfigs.remove(request.getConfig().getId());
+                completedCount++;
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+            if (queueMode == QueueMode.DATABASE) {
+                queuePoller.execute(this::poll);
+            }
+        }
+    }
+
+    private void completeQueued(Long queueId) {
+        try {
+            queueStore.complete(queueId);
+        } catch (Exception e) {
+            // The lease then expires and another node re-runs it
+            log.error("Failed to mark queued run {} as done", queueId, e);
+        }
+    }
+
+    @Getter
+    static class RunRequest {
+        private final AutomationConfig config;
+        // Pre-created result of an on-demand run; null for scheduled triggers
+        private final AutomationResult result;
+        // Row in the durable run queue; null in MEMORY mode
+        private final Long queueId;
+        // Epoch millis the run was due: the trigger's fire time, or when the durable row was enqueued
+        private final Long dueAtMillis;
+        private final long enqueuedAt = System.nanoTime();
+        private final long enqueuedAtMillis = System.currentTimeMillis();
+
+        RunRequest(AutomationConfig config, AutomationResult result, Long queueId, Long dueAtMillis) {
+            this.config = config;
+            this.result = result;
+            this.queueId = queueId;
+            this.dueAtMillis = dueAtMillis;
+        }
+
+        long getDueAtMillisOrEnqueued() {
+            return dueAtMillis != null ? dueAtMillis : enqueuedAtMillis;
+        }
+
+        boolean isOnDemand() {
+            return result != null;
+        }
+    }
+}
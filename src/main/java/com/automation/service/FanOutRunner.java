@@ -0,0 +1,251 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.repository.AutomationResultRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a config with parameter rows: the run becomes a parent whose rows each execute as a child
+ * run on the fan-out pool, at most parallelism at a time. Rows also draw on one budget shared by
+ * all running fan-outs, so together they never start more rows than the driver pool can serve.
+ * The parent's row counts and status are updated as each row finishes; cancelling the
+ * parent cancels its running rows and starts no new ones. In VIRTUAL thread mode the rows are
+ * forked into the parent's {@link RunScope} instead of the fan-out pool.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FanOutRunner {
+
+    private static final long WAIT_SLICE_MILLIS = 200;
+
+    private final AutomationService automationService;
+    private final AutomationResultRepository resultRepository;
+    private final RunEventPublisher eventPublisher;
+    private final RunLogStore runLogStore;
+    private final WebDriverPools driverPools;
+    private final AutomationMetrics metrics;
+    private final ThreadPoolTaskExecutor fanOutExecutor;
+
+    @Value("${automation.fan-out.parallelism:4}")
+    private int defaultParallelism;
+
+    // Permits for rows running across all parents, one per browser the driver pool holds
+    private Semaphore rowBudget;
+
+    public AutomationResult execute(RunContext parent) {
+        AutomationConfig config = parent.getConfig();
+        AutomationResult result = parent.getResult();
+        result.setStartTime(LocalDateTime.now());
+
+        parent.setEvents(eventPublisher);
+        parent.setLogWriter(runLogStore.openWriter(parent.getRunId()));
+        eventPublisher.open(parent.getRunId());
+        parent.publish(RunEventPublisher.STATUS, Map.of("status", AutomationResult.Status.RUNNING));
+
+        long started = System.nanoTime();
+        Map<Integer, RunContext> running = new ConcurrentHashMap<>();
+        BlockingQueue<AutomationResult> finished = new LinkedBlockingQueue<>();
+        int submitted = 0;
+        int done = 0;
+        try {
+            ParameterRows rows = ParameterRows.parse(config.getParameterRows());
+            int parallelism = parallelism(config);
+            result.setRowCount(rows.getRows().size());
+            result.setRowsSucceeded(0);
+            result.setRowsFailed(0);
+            resultRepository.save(result);
+            parent.log("Fanning out " + rows.getRows().size() + " rows, " + parallelism + " at a time");
+
+            Semaphore slots = new Semaphore(parallelism);
+            Semaphore budget = rowBudget();
+            for (int i = 0; i < rows.getRows().size(); i++) {
+                while (!slots.tryAcquire(WAIT_SLICE_MILLIS, TimeUnit.MILLISECONDS)) {
+                    done += drain(parent, finished, running);
+                }
+                // Rows of other runs may hold every browser; wait for one of them to finish
+                boolean budgeted = false;
+                while (!budgeted && !parent.isCancelRequested()) {
+                    budgeted = budget.tryAcquire(WAIT_SLICE_MILLIS, TimeUnit.MILLISECONDS);
+                    done += drain(parent, finished, running);
+                }
+                if (parent.isCancelRequested()) {
+                    slots.release();
+                    if (budgeted) {
+                        budget.release();
+                    }
+                    break;
+                }
+                int rowIndex = i;
+                Map<String, String> row = rows.getRows().get(i);
+                AutomationResult child;
+                try {
+                    child = automationService.createRowResult(config, parent.getRunId(), rowIndex);
+                } catch (RuntimeException e) {
+                    // The budget outlives this run, so its permit must not leak with the failure
+                    slots.release();
+                    budget.release();
+                    throw e;
+                }
+                RunContext context = new RunContext(child);
+                running.put(rowIndex, context);
+                submitted++;
+                Runnable task = () -> {
+                    try {
+                        runRow(context, row, parent.getScope() != null);
+                    } finally {
+                        running.remove(rowIndex);
+                        slots.release();
+                        budget.release();
+                        finished.add(context.getResult());
+                    }
+                };
+                try {
+                    if (parent.getScope() != null) {
+                        // VIRTUAL thread mode: rows are subtasks of the parent run
+                        parent.getScope().fork(Executors.callable(task));
+                    } else {
+                        fanOutExecutor.execute(task);
+                    }
+                } catch (RejectedExecutionException e) {
+                    // The pool or the parent's scope is shutting down; the row never started
+                    running.remove(rowIndex);
+                    slots.release();
+                    budget.release();
+                    child.setStatus(AutomationResult.Status.CANCELLED);
+                    child.setEndTime(LocalDateTime.now());
+                    finished.add(resultRepository.save(child));
+                }
+            }
+            while (done < submitted) {
+                AutomationResult child = finished.poll(WAIT_SLICE_MILLIS, TimeUnit.MILLISECONDS);
+                if (child != null) {
+                    recordRow(parent, child);
+                    done++;
+                }
+                done += drain(parent, finished, running);
+            }
+
+            if (parent.isCancelRequested()) {
+                result.setStatus(AutomationResult.Status.CANCELLED);
+                parent.log("Run cancelled after " + done + " of " + rows.getRows().size() + " rows");
+            } else if (result.getRowsFailed() > 0) {
+                result.setStatus(AutomationResult.Status.FAILED);
+                result.setErrorMessage(result.getRowsFailed() + " of " + result.getRowCount() + " rows failed");
+            } else {
+                result.setStatus(AutomationResult.Status.SUCCESS);
+            }
+            parent.log("Rows finished: " + result.getRowsSucceeded() + " succeeded, " + result.getRowsFailed() + " failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running.values().forEach(RunContext::cancel);
+            result.setStatus(AutomationResult.Status.CANCELLED);
+        } catch (Exception e) {
+            result.setStatus(AutomationResult.Status.FAILED);
+            result.setErrorMessage(e.getMessage());
+            parent.log("Error: " + e.getMessage());
+            log.error("Fan-out failed for config: " + config.getName(), e);
+        } finally {
+            result.setEndTime(LocalDateTime.now());
+            parent.flushLogs();
+            resultRepository.save(result);
+            metrics.recordRun(config, result.getStatus(), System.nanoTime() - started);
+
+            Map<String, Object> finalStatus = new HashMap<>();
+            finalStatus.put("status", result.getStatus());
+            finalStatus.put("errorMessage", result.getErrorMessage());
+            finalStatus.put("rowsSucceeded", result.getRowsSucceeded());
+            finalStatus.put("rowsFailed", result.getRowsFailed());
+            eventPublisher.complete(parent.getRunId(), finalStatus);
+        }
+        return result;
+    }
+
+    private synchronized Semaphore rowBudget() {
+        if (rowBudget == null) {
+            rowBudget = new Semaphore(Math.max(1, driverPools.getMaxSize()), true);
+        }
+        return rowBudget;
+    }
+
+    // Capped by the config (or the default) and by how many browsers the config's driver pool holds
+    private int parallelism(AutomationConfig config) {
+        int requested = config.getFanOutParallelism() != null && config.getFanOutParallelism() > 0
+                ? config.getFanOutParallelism() : defaultParallelism;
+        return Math.max(1, Math.min(requested, driverPools.getMaxSize()));
+    }
+
+    private void runRow(RunContext context, Map<String, String> row, boolean scoped) {
+        AutomationResult child = context.getResult();
+        try {
+            context.setSteps(ParameterRows.substitute(context.getConfig().getSteps(), row));
+        } catch (IllegalArgumentException e) {
+            child.setStatus(AutomationResult.Status.FAILED);
+            child.setErrorMessage(e.getMessage());
+            child.setEndTime(LocalDateTime.now());
+            resultRepository.save(child);
+            return;
+        }
+        RunScope scope = scoped ? new RunScope("automation-row-" + child.getId()) : null;
+        context.setScope(scope);
+        try {
+            automationService.executeAutomation(context);
+        } catch (Exception e) {
+            log.error("Row {} of run {} failed unexpectedly", child.getRowIndex(), child.getParentId(), e);
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
+    }
+
+    // Folds in rows that finished since the last call and passes a parent cancel on to running rows
+    private int drain(RunContext parent, BlockingQueue<AutomationResult> finished, Map<Integer, RunContext> running) {
+        List<AutomationResult> batch = new ArrayList<>();
+        finished.drainTo(batch);
+        batch.forEach(child -> recordRow(parent, child));
+        if (parent.isCancelRequested()) {
+            running.values().forEach(RunContext::cancel);
+        }
+        return batch.size();
+    }
+
+    private void recordRow(RunContext parent, AutomationResult child) {
+        AutomationResult result = parent.getResult();
+        if (child.getStatus() == AutomationResult.Status.SUCCESS) {
+            result.setRowsSucceeded(result.getRowsSucceeded() + 1);
+        } else if (child.getStatus() != AutomationResult.Status.CANCELLED) {
+            result.setRowsFailed(result.getRowsFailed() + 1);
+        }
+        resultRepository.save(result);
+        parent.log("Row " + (child.getRowIndex() + 1) + " of " + result.getRowCount() + ": " + child.getStatus()
+                + (child.getErrorMessage() != null ? " (" + child.getErrorMessage() + ")" : ""));
+
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("row", child.getRowIndex());
+        progress.put("runId", child.getId());
+        progress.put("status", child.getStatus());
+        progress.put("rowsSucceeded", result.getRowsSucceeded());
+        progress.put("rowsFailed", result.getRowsFailed());
+        progress.put("rowCount", result.getRowCount());
+        parent.publish(RunEventPublisher.ROW, progress);
+    }
+}
@@ -0,0 +1,165 @@
+package com.automation.service;
+
+import com.automation.model.AutomationStep;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles a run of consecutive DOM-only steps into one executeAsyncScript call, instead of the
+ * several WebDriver round trips per step that step-by-step execution makes. The script stops at
+ * the first step that fails and reports per-step outcomes, so the caller can resume step by step
+ * from there. When the script call itself fails there are no outcomes, and a batch is only run
+ * again step by step if none of its steps is a click.
+ *
+ * <p>Fused steps act through the DOM: clicks are element.click() and input sets the value and
+ * fires input/change events, without Selenium's visibility and interactability checks or key events.
+ */
+public final class FusedDomSteps {
+
+    private static final Set<AutomationStep.StepType> FUSABLE_TYPES = EnumSet.of(
+            AutomationStep.StepType.CLICK, AutomationStep.StepType.INPUT,
+            AutomationStep.StepType.SELECT, AutomationStep.StepType.SCROLL);
+
+    // First line doubles as a marker the simulated driver recognizes
+    static final String SCRIPT_MARKER = "/* fused-dom-steps */";
+
+    static final String SCRIPT = SCRIPT_MARKER + """
+            const steps = arguments[0];
+            const done = arguments[arguments.length - 1];
+            const results = [];
+            const fire = (el, type) => el.dispatchEvent(new Event(type, { bubbles: true }));
+            const find = (step) => {
+              if (step.kind === 'ID') return document.getElementById(step.locator);
+              if (step.kind === 'XPATH') {
+                return document.evaluate(step.locator, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;
+              }
+              return document.querySelector(step.locator);
+            };
+            for (const step of steps) {
+              const started = performance.now();
+              try {
+                if (step.type === 'SCROLL') {
+                  const y = Number(step.value);
+                  if (Number.isNaN(y)) throw new Error('Scroll position is not a number: ' + step.value);
+                  window.scrollTo(0, y);
+                } else {
+                  const el = find(step);
+                  if (!el) throw new Error('No element matches ' + step.kind.toLowerCase() + ' locator: ' + step.locator);
+                  if (step.type === 'CLICK') {
+                    el.click();
+                  } else if (step.type === 'INPUT') {
+                    el.focus();
+                    const proto = el instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;
+                    const setter = Object.getOwnPropertyDescriptor(proto, 'value');
+                    if (setter && setter.set && (el instanceof HTMLInputElement || el instanceof HTMLTextAreaElement)) {
+                      setter.set.call(el, step.value);
+                    } else {
+                      el.value = step.value;
+                    }
+                    fire(el, 'input');
+                    fire(el, 'change');
+                  } else if (step.type === 'SELECT') {
+                    if (!Array.from(el.options || []).some(o => o.value === step.value)) {
+                      throw new Error('Cannot locate option with value: ' + step.value);
+                    }
+                    el.value = step.value;
+                    fire(el, 'input');
+                    fire(el, 'change');
+                  }
+                }
+                results.push({ ok: true, millis: performance.now() - started });
+              } catch (e) {
+                results.push({ ok: false, millis: performance.now() - started, error: String(e && e.message || e) });
+                break;
+              }
+            }
+            done(results);
+            """;
+
+    private FusedDomSteps() {
+    }
+
+    // A step can join a batch if it only touches the DOM and nothing needs to happen between it and the next
+    public static boolean isFusable(AutomationStep step) {
+        if (step.getType() == null || !FUSABLE_TYPES.contains(step.getType())
+                || step.isCaptureScreenshot() || step.getWaitSeconds() > 0) {
+            return false;
+        }
+        if (step.getType() == AutomationStep.StepType.SCROLL) {
+            return true;
+        }
+        if (step.getSelector() == null || step.getSelector().trim().isEmpty()) {
+            return false;
+        }
+        return step.getType() != AutomationStep.StepType.SELECT
+                || (step.getValue() != null && !step.getValue().trim().isEmpty());
+    }
+
+    // Index just past the run of fusable steps starting at from. A click ends the batch: it is the one
+    // fusable step that is not safe to repeat, so a batch holds at most one, as its last step.
+    public static int batchEnd(List<AutomationStep> steps, int from) {
+        int end = from;
+        while (end < steps.size() && isFusable(steps.get(end))) {
+            end++;
+            if (steps.get(end - 1).getType() == AutomationStep.StepType.CLICK) {
+                break;
+            }
+        }
+        return end;
+    }
+
+    // Whether the batch can run again step by step when the script failed without reporting how far it got.
+    // Input, select and scroll set state and give the same page when repeated; a click may submit twice.
+    static boolean isRepeatable(List<AutomationStep> batch) {
+        return batch.stream().noneMatch(step -> step.getType() == AutomationStep.StepType.CLICK);
+    }
+
+    static List<Map<String, Object>> arguments(List<AutomationStep> batch) {
+        List<Map<String, Object>> steps = new ArrayList<>(batch.size());
+        for (AutomationStep step : batch) {
+            Map<String, Object> arg = new LinkedHashMap<>();
+            arg.put("type", step.getType().name());
+            if (step.getType() != AutomationStep.StepType.SCROLL) {
+                Locators.Locator locator = Locators.compile(step.getSelector());
+                arg.put("kind", locator.getKind().name());
+                arg.put("locator", locator.getExpression());
+            }
+            arg.put("value", step.getType() == AutomationStep.StepType.SCROLL && step.getValue() == null
+                    ? "0" : step.getValue() == null ? "" : step.getValue());
+            steps.add(arg);
+        }
+        return steps;
+    }
+
+    // Per-step outcomes in order; shorter than the batch when a step failed or the script gave up
+    static List<StepOutcome> parseResults(Object raw) {
+        List<StepOutcome> outcomes = new ArrayList<>();
+        if (raw instanceof List<?> list) {
+            for (Object item : list) {
+                if (!(item instanceof Map<?, ?> map)) {
+                    break;
+                }
+                boolean ok = Boolean.TRUE.equals(map.get("ok"));
+                double millis = map.get("millis") instanceof Number number ? number.doubleValue() : 0;
+                Object error = map.get("error");
+                outcomes.add(new StepOutcome(ok, (long) (millis * 1_000_000), error != null ? error.toString() : null));
+            }
+        }
+        return outcomes;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static final class StepOutcome {
+        private final boolean ok;
+        private final long nanos;
+        private final String error;
+    }
+}
@@ -0,0 +1,51 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import lombok.RequiredArgsConstructor;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.springframework.stereotype.Component;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Chrome started on this machine, with its driver binary resolved by WebDriverManager
+@Component
+@RequiredArgsConstructor
+public class LocalChromeDriverProvider implements DriverProvider {
+
+    private final WebDriverService webDriverService;
+
+    private volatile boolean driverBinaryResolved = false;
+
+    @Override
+    public AutomationConfig.DriverBackend getBackend() {
+        return AutomationConfig.DriverBackend.LOCAL;
+    }
+
+    @Override
+    public WebDriver createDriver(PageLoadStrategy pageLoadStrategy) {
+        // Suppress CDP version warnings
+        Logger.getLogger("org.openqa.selenium").setLevel(Level.WARNING);
+        System.setProperty("webdriver.chrome.silentOutput", "true");
+
+        // Setup ChromeDriver using WebDriverManager (resolved once per JVM)
+        resolveDriverBinary();
+
+        return new ChromeDriver(webDriverService.chromeOptions(pageLoadStrategy));
+    }
+
+    private void resolveDriverBinary() {
+        if (driverBinaryResolved) {
+            return;
+        }
+        synchronized (this) {
+            if (!driverBinaryResolved) {
+                WebDriverManager.chromedriver().setup();
+                driverBinaryResolved = true;
+            }
+        }
+    }
+}
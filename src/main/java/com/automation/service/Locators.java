@@ -0,0 +1,104 @@
+package com.automation.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.openqa.selenium.By;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a step's selector string into a locator. Selectors may carry an explicit strategy prefix
+ * ({@code css=}, {@code xpath=}, {@code id=}, {@code text=}); without one, paths starting with
+ * {@code /}, {@code ./} or {@code (} are XPath, {@code #name} is an id and anything else is CSS.
+ * Compiled locators are cached, so each distinct selector is parsed once.
+ */
+public final class Locators {
+
+    public enum Kind {
+        CSS, XPATH, ID
+    }
+
+    private static final Pattern SIMPLE_ID = Pattern.compile("#[A-Za-z_][\\w-]*");
+    private static final int MAX_CACHED = 10_000;
+    private static final Map<String, Locator> CACHE = new ConcurrentHashMap<>();
+
+    private Locators() {
+    }
+
+    public static By by(String selector) {
+        return compile(selector).getBy();
+    }
+
+    public static Locator compile(String selector) {
+        if (selector == null || selector.trim().isEmpty()) {
+            throw new IllegalArgumentException("Selector is empty");
+        }
+        Locator cached = CACHE.get(selector);
+        if (cached != null) {
+            return cached;
+        }
+        if (CACHE.size() >= MAX_CACHED) {
+            CACHE.clear();
+        }
+        Locator locator = parse(selector.trim());
+        CACHE.put(selector, locator);
+        return locator;
+    }
+
+    private static Locator parse(String selector) {
+        if (selector.startsWith("css=")) {
+            return css(selector.substring(4));
+        }
+        if (selector.startsWith("xpath=")) {
+            return xpath(selector.substring(6));
+        }
+        if (selector.startsWith("id=")) {
+            return id(selector.substring(3));
+        }
+        if (selector.startsWith("text=")) {
+            // Element with a text node equal to the text, ignoring surrounding whitespace
+            return xpath("//*[text()[normalize-space(.)=" + xpathLiteral(selector.substring(5).trim()) + "]]");
+        }
+        if (selector.startsWith("/") || selector.startsWith("./") || selector.startsWith("../")
+                || selector.startsWith("(")) {
+            return xpath(selector);
+        }
+        if (SIMPLE_ID.matcher(selector).matches()) {
+            return id(selector.substring(1));
+        }
+        return css(selector);
+    }
+
+    private static Locator css(String expression) {
+        return new Locator(Kind.CSS, expression, By.cssSelector(expression));
+    }
+
+    private static Locator xpath(String expression) {
+        return new Locator(Kind.XPATH, expression, By.xpath(expression));
+    }
+
+    private static Locator id(String expression) {
+        return new Locator(Kind.ID, expression, By.id(expression));
+    }
+
+    // XPath 1.0 has no escapes; text with both quote kinds is spliced together with concat()
+    static String xpathLiteral(String text) {
+        if (!text.contains("'")) {
+            return "'" + text + "'";
+        }
+        if (!text.contains("\"")) {
+            return "\"" + text + "\"";
+        }
+        return "concat('" + text.replace("'", "', \"'\", '") + "')";
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Locator {
+        private final Kind kind;
+        private final String expression;
+        private final By by;
+    }
+}
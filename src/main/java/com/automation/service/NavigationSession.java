@@ -0,0 +1,238 @@
+package com.automation.service;
+
+import com.automation.model.NavigationProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A config's navigation profile applied to one leased browser for the length of a run.
+ * URL patterns are blocked with Network.setBlockedURLs and resource types by pausing them in the
+ * Fetch domain and failing them, both over the DevTools protocol; {@link #restore()} undoes all of
+ * it before the browser goes back to the pool.
+ *
+ * <p>With an eager or no-wait page load strategy, the time from a navigation returning until the
+ * page's load event (or until the run left the page, if it never fired) is counted as saved.
+ */
+@Slf4j
+public class NavigationSession {
+
+    private static final Event<Map<String, Object>> LOADING_FAILED =
+            new Event<>("Network.loadingFailed", input -> input.read(Json.MAP_TYPE));
+    private static final Event<Map<String, Object>> REQUEST_PAUSED =
+            new Event<>("Fetch.requestPaused", input -> input.read(Json.MAP_TYPE));
+
+    // Load event of the current document, or now when it has not fired yet
+    private static final String LOAD_END_PROBE = "const n = performance.getEntriesByType('navigation')[0];"
+            + " return n && n.loadEventEnd > 0 ? n.loadEventEnd : performance.now();";
+
+    private final WebDriver driver;
+    private final NavigationProfile.PageLoad pageLoad;
+    private final List<String> urlPatterns;
+    private final Set<NavigationProfile.ResourceType> resourceTypes;
+    private final Integer viewportWidth;
+    private final Integer viewportHeight;
+
+    private final AtomicLong blockedRequests = new AtomicLong();
+    private double savedMillis;
+    private Double returnedAt;
+    private DevTools devTools;
+    private Dimension originalWindowSize;
+
+    public NavigationSession(WebDriver driver, NavigationProfile profile) {
+        this.driver = driver;
+        this.pageLoad = pageLoad(profile);
+        this.urlPatterns = profile != null ? urlPatterns(profile.getBlockedUrlPatterns()) : List.of();
+        this.resourceTypes = resourceTypes(profile);
+        this.viewportWidth = profile != null ? profile.getViewportWidth() : null;
+        this.viewportHeight = profile != null ? profile.getViewportHeight() : null;
+    }
+
+    public static NavigationProfile.PageLoad pageLoad(NavigationProfile profile) {
+        return profile != null && profile.getPageLoadStrategy() != null
+                ? profile.getPageLoadStrategy() : NavigationProfile.PageLoad.NORMAL;
+    }
+
+    // Blocked types named in the profile, plus images when they are disabled
+    public static Set<NavigationProfile.ResourceType> resourceTypes(NavigationProfile profile) {
+        Set<NavigationProfile.ResourceType> types = EnumSet.noneOf(NavigationProfile.ResourceType.class);
+        if (profile == null) {
+            return types;
+        }
+        if (profile.getBlockedResourceTypes() != null) {
+            for (String name : profile.getBlockedResourceTypes().split(",")) {
+                if (!name.isBlank()) {
+                    try {
+                        types.add(NavigationProfile.ResourceType.valueOf(name.trim().toUpperCase()));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Navigation profile: Unknown resource type " + name.trim());
+                    }
+                }
+            }
+        }
+        if (profile.isDisableImages()) {
+            types.add(NavigationProfile.ResourceType.IMAGE);
+        }
+        return types;
+    }
+
+    private static List<String> urlPatterns(String patterns) {
+        List<String> result = new ArrayList<>();
+        if (patterns != null) {
+            for (String line : patterns.split("[\\r\\n]+")) {
+                if (!line.isBlank()) {
+                    result.add(line.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return pageLoad == NavigationProfile.PageLoad.NORMAL && urlPatterns.isEmpty()
+                && resourceTypes.isEmpty() && viewportWidth == null;
+    }
+
+    public void apply() {
+        if (isEmpty()) {
+            return;
+        }
+        boolean blocking = !urlPatterns.isEmpty() || !resourceTypes.isEmpty();
+        if (!(driver instanceof HasDevTools hasDevTools)) {
+            if (blocking) {
+                log.warn("{} has no DevTools connection; request blocking is skipped", driver.getClass().getSimpleName());
+            }
+            if (viewportWidth != null) {
+                try {
+                    originalWindowSize = driver.manage().window().getSize();
+                    driver.manage().window().setSize(new Dimension(viewportWidth, viewportHeight));
+                } catch (UnsupportedOperationException e) {
+                    log.warn("{} cannot resize its window; the viewport is left as is", driver.getClass().getSimpleName());
+                }
+            }
+            return;
+        }
+
+        devTools = hasDevTools.getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        if (!urlPatterns.isEmpty()) {
+            // Requests dropped by setBlockedURLs fail with the "inspector" reason
+            devTools.addListener(LOADING_FAILED, event -> {
+                if ("inspector".equals(event.get("blockedReason"))) {
+                    blockedRequests.incrementAndGet();
+                }
+            });
+            devTools.send(command("Network.enable", Map.of()));
+            devTools.send(command("Network.setBlockedURLs", Map.of("urls", urlPatterns)));
+        }
+        if (!resourceTypes.isEmpty()) {
+            // Only the blocked types are paused, so other requests never wait on this listener
+            devTools.addListener(REQUEST_PAUSED, event -> {
+                blockedRequests.incrementAndGet();
+                devTools.send(command("Fetch.failRequest",
+                        Map.of("requestId", event.get("requestId"), "errorReason", "BlockedByClient")));
+            });
+            List<Map<String, Object>> patterns = new ArrayList<>();
+            for (NavigationProfile.ResourceType type : resourceTypes) {
+                patterns.add(Map.of("urlPattern", "*", "resourceType", cdpResourceType(type), "requestStage", "Request"));
+            }
+            devTools.send(command("Fetch.enable", Map.of("patterns", patterns)));
+        }
+        if (viewportWidth != null) {
+            devTools.send(command("Emulation.setDeviceMetricsOverride", Map.of(
+                    "width", viewportWidth, "height", viewportHeight, "deviceScaleFactor", 0, "mobile", false)));
+        }
+    }
+
+    // Call before a navigation, so time the previous page spent loading in the background is counted
+    public void leavingPage() {
+        if (returnedAt == null) {
+            return;
+        }
+        Double loadEnd = probe(LOAD_END_PROBE);
+        if (loadEnd != null) {
+            savedMillis += Math.max(0, loadEnd - returnedAt);
+        }
+        returnedAt = null;
+    }
+
+    public void navigated() {
+        if (pageLoad != NavigationProfile.PageLoad.NORMAL) {
+            returnedAt = probe("return performance.now();");
+        }
+    }
+
+    public long getBlockedRequests() {
+        return blockedRequests.get();
+    }
+
+    public long getSavedMillis() {
+        return Math.round(savedMillis);
+    }
+
+    public String summary() {
+        return "Navigation profile (" + pageLoad.name().toLowerCase() + " page load): " + blockedRequests.get()
+                + " requests blocked, " + getSavedMillis() + " ms of page load not waited for";
+    }
+
+    // Undoes the profile; false when the browser could not be put back and should not be reused
+    public boolean restore() {
+        try {
+            leavingPage();
+            if (originalWindowSize != null) {
+                driver.manage().window().setSize(originalWindowSize);
+            }
+            if (devTools != null) {
+                devTools.clearListeners();
+                if (!resourceTypes.isEmpty()) {
+                    devTools.send(command("Fetch.disable", Map.of()));
+                }
+                if (!urlPatterns.isEmpty()) {
+                    devTools.send(command("Network.setBlockedURLs", Map.of("urls", List.of())));
+                    devTools.send(command("Network.disable", Map.of()));
+                }
+                if (viewportWidth != null) {
+                    devTools.send(command("Emulation.clearDeviceMetricsOverride", Map.of()));
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            log.debug("Failed to restore navigation profile", e);
+            return false;
+        }
+    }
+
+    private Double probe(String script) {
+        try {
+            Object value = ((JavascriptExecutor) driver).executeScript(script);
+            return value instanceof Number number ? number.doubleValue() : null;
+        } catch (Exception e) {
+            log.debug("Page load probe failed", e);
+            return null;
+        }
+    }
+
+    private static Command<Void> command(String method, Map<String, Object> params) {
+        return new Command<>(method, params);
+    }
+
+    private static String cdpResourceType(NavigationProfile.ResourceType type) {
+        return switch (type) {
+            case XHR -> "XHR";
+            default -> type.name().charAt(0) + type.name().substring(1).toLowerCase();
+        };
+    }
+}
@@ -0,0 +1,186 @@
+package com.automation.service;
+
+import com.automation.model.AutomationStep;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A config's parameter dataset: CSV text whose header names the columns and whose every other
+ * line is one row. Fields may be double-quoted to hold commas, quotes ("") or line breaks.
+ * Steps refer to a column as {@code ${name}} in their value or selector.
+ */
+@Getter
+public final class ParameterRows {
+
+    public static final int MAX_ROWS = 10_000;
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}]+)}");
+
+    private final List<String> columns;
+    private final List<Map<String, String>> rows;
+
+    private ParameterRows(List<String> columns, List<Map<String, String>> rows) {
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    public static boolean isFanOut(String csv) {
+        return csv != null && !csv.isBlank();
+    }
+
+    public static ParameterRows parse(String csv) {
+        List<List<String>> records = records(csv);
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("Parameter rows: a header row is required");
+        }
+        List<String> columns = new ArrayList<>();
+        for (String name : records.get(0)) {
+            String column = name.trim();
+            if (column.isEmpty() || columns.contains(column)) {
+                throw new IllegalArgumentException("Parameter rows: column names must be unique and not empty");
+            }
+            columns.add(column);
+        }
+        if (records.size() - 1 > MAX_ROWS) {
+            throw new IllegalArgumentException("Parameter rows: at most " + MAX_ROWS + " rows are allowed");
+        }
+
+        List<Map<String, String>> rows = new ArrayList<>(records.size() - 1);
+        for (int i = 1; i < records.size(); i++) {
+            List<String> fields = records.get(i);
+            if (fields.size() != columns.size()) {
+                throw new IllegalArgumentException("Parameter rows: row " + i + " has " + fields.size()
+                        + " fields, expected " + columns.size());
+            }
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int c = 0; c < columns.size(); c++) {
+                row.put(columns.get(c), fields.get(c));
+            }
+            rows.add(row);
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Parameter rows: at least one row is required");
+        }
+        return new ParameterRows(columns, rows);
+    }
+
+    // Placeholders the steps use that are not columns of the dataset
+    public Set<String> missingColumns(List<AutomationStep> steps) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (AutomationStep step : steps) {
+            collect(step.getValue(), missing);
+            collect(step.getSelector(), missing);
+        }
+        missing.removeAll(columns);
+        return missing;
+    }
+
+    // Copies of the steps with this row's values substituted; the originals are left untouched
+    public static List<AutomationStep> substitute(List<AutomationStep> steps, Map<String, String> row) {
+        List<AutomationStep> copies = new ArrayList<>(steps.size());
+        for (AutomationStep step : steps) {
+            AutomationStep copy = new AutomationStep();
+            copy.setId(step.getId());
+            copy.setOrder(step.getOrder());
+            copy.setType(step.getType());
+            copy.setSelector(substitute(step.getSelector(), row));
+            copy.setValue(substitute(step.getValue(), row));
+            copy.setWaitSeconds(step.getWaitSeconds());
+            copy.setCaptureScreenshot(step.isCaptureScreenshot());
+            copy.setCaptureSelector(step.getCaptureSelector());
+            copy.setTimeoutSeconds(step.getTimeoutSeconds());
+            copy.setPollMillis(step.getPollMillis());
+            copy.setConfig(step.getConfig());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private static String substitute(String text, Map<String, String> row) {
+        if (text == null || !text.contains("${")) {
+            return text;
+        }
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        StringBuilder out = new StringBuilder();
+        while (matcher.find()) {
+            String value = row.get(matcher.group(1).trim());
+            if (value == null) {
+                throw new IllegalArgumentException("No parameter column named " + matcher.group(1).trim());
+            }
+            matcher.appendReplacement(out, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    private static void collect(String text, Set<String> names) {
+        if (text != null && text.contains("${")) {
+            Matcher matcher = PLACEHOLDER.matcher(text);
+            while (matcher.find()) {
+                names.add(matcher.group(1).trim());
+            }
+        }
+    }
+
+    // RFC 4180 records; blank lines are skipped
+    private static List<List<String>> records(String csv) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        String text = csv.startsWith("\uFEFF") ? csv.substring(1) : csv;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStarted = true;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                endRecord(records, fields, field, fieldStarted);
+                fields = new ArrayList<>();
+                fieldStarted = false;
+            } else {
+                field.append(c);
+                fieldStarted = true;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Parameter rows: unterminated quoted field");
+        }
+        endRecord(records, fields, field, fieldStarted);
+        return records;
+    }
+
+    private static void endRecord(List<List<String>> records, List<String> fields, StringBuilder field,
+                                  boolean fieldStarted) {
+        if (fieldStarted || !field.isEmpty()) {
+            fields.add(field.toString());
+            records.add(fields);
+        }
+        field.setLength(0);
+    }
+}
@@ -0,0 +1,15 @@
+package com.automation.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+
+// A captured screenshot whose file may still be being encoded and written in the background.
+// The path is the ScreenshotStore reference that results record, not a file system path.
+@Getter
+@AllArgsConstructor
+public class PendingScreenshot {
+    private final String path;
+    private final CompletableFuture<Void> persisted;
+}
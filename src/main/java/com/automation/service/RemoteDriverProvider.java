@@ -0,0 +1,43 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import lombok.RequiredArgsConstructor;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+
+// Chrome sessions on a Selenium Grid (or any remote WebDriver endpoint)
+@Component
+@RequiredArgsConstructor
+public class RemoteDriverProvider implements DriverProvider {
+
+    private final WebDriverService webDriverService;
+
+    @Value("${automation.driver.remote.url:}")
+    private String gridUrl;
+
+    @Override
+    public AutomationConfig.DriverBackend getBackend() {
+        return AutomationConfig.DriverBackend.REMOTE;
+    }
+
+    @Override
+    public WebDriver createDriver(PageLoadStrategy pageLoadStrategy) {
+        if (gridUrl == null || gridUrl.isBlank()) {
+            throw new IllegalStateException("automation.driver.remote.url is not set");
+        }
+        try {
+            RemoteWebDriver driver = new RemoteWebDriver(URI.create(gridUrl).toURL(), webDriverService.chromeOptions(pageLoadStrategy));
+            // Adds the CDP and other capability interfaces the remote session supports
+            return new Augmenter().augment(driver);
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid remote driver URL: " + gridUrl, e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.automation.service;
+
+import com.automation.model.AutomationResult;
+import com.automation.repository.AutomationResultRepository;
+import com.automation.repository.RunLogChunkRepository;
+import com.automation.repository.StepExecutionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Purges old results in the background according to the retention policy. Deletes run in small
+ * chunks, each in its own short transaction, on a low-priority thread that pauses between chunks
+ * and backs off while runs are waiting in the execution queue.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RetentionService {
+
+    private static final long BACKOFF_MILLIS = 1000;
+    private static final int MAX_BACKOFF_ROUNDS = 30;
+
+    private final AutomationResultRepository resultRepository;
+    private final StepExecutionRepository stepExecutionRepository;
+    private final RunLogChunkRepository runLogChunkRepository;
+    private final ScreenshotStore screenshotStore;
+    private final ExecutionEngine executionEngine;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${automation.retention.enabled:false}")
+    private boolean enabled;
+
+    // 0 keeps results regardless of age
+    @Value("${automation.retention.max-age-days:30}")
+    private int maxAgeDays;
+
+    // 0 keeps any number of results per config
+    @Value("${automation.retention.max-runs-per-config:0}")
+    private int maxRunsPerConfig;
+
+    @Value("${automation.retention.keep-last-failure:true}")
+    private boolean keepLastFailure;
+
+    @Value("${automation.retention.interval-minutes:60}")
+    private long intervalMinutes;
+
+    @Value("${automation.retention.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${automation.retention.pause-millis:250}")
+    private long pauseMillis;
+
+    private final AtomicBoolean purging = new AtomicBoolean();
+    private ScheduledExecutorService purger;
+    private TransactionTemplate transactionTemplate;
+
+    // Statistics
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunDeleted;
+    private volatile long lastRunMillis;
+    private volatile long totalDeleted;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (!enabled) {
+            log.info("Result retention is disabled");
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("retention-");
+        threadFactory.setDaemon(true);
+        threadFactory.setThreadPriority(Thread.MIN_PRIORITY);
+        purger = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        // Start a little after boot so startup scheduling gets the database first
+        purger.scheduleWithFixedDelay(this::purge, 5, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    // Runs one purge pass now on the purger thread; false if retention is disabled or a pass is running
+    public boolean trigger() {
+        if (purger == null || purging.get()) {
+            return false;
+        }
+        purger.execute(this::purge);
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxAgeDays", maxAgeDays);
+        stats.put("maxRunsPerConfig", maxRunsPerConfig);
+        stats.put("keepLastFailure", keepLastFailure);
+        stats.put("purging", purging.get());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunDeleted", lastRunDeleted);
+        stats.put("lastRunMillis", lastRunMillis);
+        stats.put("totalDeleted", totalDeleted);
+        return stats;
+    }
+
+    private void purge() {
+        if (!purging.compareAndSet(false, true)) {
+            return;
+        }
+        long started = System.nanoTime();
+        long deleted = 0;
+        try {
+            if (maxAgeDays > 0) {
+                deleted += purgeOlderThan(LocalDateTime.now().minusDays(maxAgeDays));
+            }
+            if (maxRunsPerConfig > 0) {
+                deleted += purgeExcessRuns();
+            }
+            if (deleted > 0) {
+                log.info("Retention purged {} results in {} ms", deleted,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Retention purge failed", e);
+        } finally {
+            lastRunAt = LocalDateTime.now();
+            lastRunDeleted = deleted;
+            lastRunMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            totalDeleted += deleted;
+            purging.set(false);
+        }
+    }
+
+    private long purgeOlderThan(LocalDateTime cutoff) throws InterruptedException {
+        long deleted = 0;
+        List<Long> ids;
+        do {
+            ids = resultRepository.findPurgeableIdsStartedBefore(cutoff, keepLastFailure,
+                    AutomationResult.Status.RUNNING, AutomationResult.Status.FAILED, PageRequest.of(0, chunkSize));
+            deleted += deleteChunk(ids);
+        } while (ids.size() == chunkSize);
+        return deleted;
+    }
+
+    private long purgeExcessRuns() throws InterruptedException {
+        long deleted = 0;
+        for (AutomationResultRepository.ConfigResultCount count :
+                resultRepository.findConfigsWithMoreResultsThan(maxRunsPerConfig)) {
+            long excess = count.getResultCount() - maxRunsPerConfig;
+            while (excess > 0) {
+                List<Long> ids = resultRepository.findPurgeableIdsOldestFirst(count.getConfigId(), keepLastFailure,
+                        AutomationResult.Status.RUNNING, AutomationResult.Status.FAILED,
+                        PageRequest.of(0, (int) Math.min(excess, chunkSize)));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                deleted += deleteChunk(ids);
+                excess -= ids.size();
+            }
+        }
+        return deleted;
+    }
+
+    // Deletes one chunk in a short transaction; screenshot files are released after commit
+    private int deleteChunk(List<Long> ids) throws InterruptedException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<String> screenshots = transactionTemplate.execute(status -> {
+            List<String> paths = resultRepository.findScreenshotPathsByResultIds(ids);
+            stepExecutionRepository.deleteByResultIdIn(ids);
+            runLogChunkRepository.deleteByResultIdIn(ids);
+            resultRepository.deleteScreenshotRowsByResultIds(ids);
+            resultRepository.deleteByIdIn(ids);
+            return paths;
+        });
+        screenshotStore.release(screenshots);
+        throttle();
+        return ids.size();
+    }
+
+    private void throttle() throws InterruptedException {
+        Thread.sleep(pauseMillis);
+        // Give way to queued runs for a while: their result writes should not wait behind purge deletes
+        for (int i = 0; i < MAX_BACKOFF_ROUNDS && executionEngine.getQueueDepth() > 0; i++) {
+            Thread.sleep(BACKOFF_MILLIS);
+        }
+    }
+}
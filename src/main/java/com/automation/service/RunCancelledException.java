@@ -0,0 +1,7 @@
+package com.automation.service;
+
+public class RunCancelledException extends RuntimeException {
+    public RunCancelledException(String message) {
+        super(message);
+    }
+}
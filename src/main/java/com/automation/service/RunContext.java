@@ -0,0 +1,139 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.AutomationStep;
+import com.automation.model.StepExecution;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handle for one in-flight automation run, shared between the executing thread and callers
+ * that want to observe or cancel it.
+ */
+@Getter
+public class RunContext {
+
+    private final AutomationResult result;
+    private final List<StepExecution> pendingStepRecords = new ArrayList<>();
+    private final List<CompletableFuture<Void>> screenshotWrites = new ArrayList<>();
+    // Element handles resolved on the current page; cleared whenever the run navigates
+    private final ElementCache elements = new ElementCache();
+    private volatile boolean cancelRequested = false;
+
+    @Setter
+    private RunEventPublisher events;
+
+    @Setter
+    private RunLogWriter logWriter;
+
+    // Steps of a fan-out row with its parameters substituted; null runs the config's own steps
+    @Setter
+    private List<AutomationStep> steps;
+
+    // Navigation profile applied to the leased browser; null until a driver is leased
+    @Setter
+    private NavigationSession navigation;
+
+    // Subtasks of the run in VIRTUAL thread mode; null on platform threads
+    @Setter
+    private RunScope scope;
+
+    // Thread sleeping in a WAIT step, interrupted by cancel()
+    @Getter(AccessLevel.NONE)
+    private Thread sleeper;
+
+    public RunContext(AutomationResult result) {
+        this.result = result;
+    }
+
+    public Long getRunId() {
+        return result.getId();
+    }
+
+    public AutomationConfig getConfig() {
+        return result.getConfig();
+    }
+
+    public List<AutomationStep> getSteps() {
+        return steps != null ? steps : getConfig().getSteps();
+    }
+
+    public void log(String line) {
+        if (logWriter != null) {
+            logWriter.append(line);
+        }
+        publish(RunEventPublisher.LOG, Map.of("line", line));
+    }
+
+    public void publish(String type, Object data) {
+        if (events != null) {
+            events.publish(getRunId(), type, data);
+        }
+    }
+
+    public void recordStep(StepExecution record) {
+        pendingStepRecords.add(record);
+    }
+
+    // Hands back the buffered step records and clears the buffer
+    public List<StepExecution> drainStepRecords() {
+        List<StepExecution> drained = new ArrayList<>(pendingStepRecords);
+        pendingStepRecords.clear();
+        return drained;
+    }
+
+    // Writes out log lines still buffered in memory
+    public void flushLogs() {
+        if (logWriter != null) {
+            logWriter.flush();
+        }
+    }
+
+    public void trackScreenshotWrite(CompletableFuture<Void> write) {
+        screenshotWrites.add(write);
+    }
+
+    public synchronized void cancel() {
+        cancelRequested = true;
+        if (sleeper != null) {
+            sleeper.interrupt();
+        }
+    }
+
+    // Sleeps for a wait step; a cancel ends the sleep at once instead of at the next step
+    public void sleep(long millis) throws InterruptedException {
+        synchronized (this) {
+            checkCancelled();
+            sleeper = Thread.currentThread();
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            if (!cancelRequested) {
+                throw e;
+            }
+        } finally {
+            synchronized (this) {
+                sleeper = null;
+            }
+        }
+        if (cancelRequested) {
+            // Drop an interrupt cancel() may have sent just as the sleep ended
+            Thread.interrupted();
+            checkCancelled();
+        }
+    }
+
+    public void checkCancelled() {
+        if (cancelRequested) {
+            throw new RunCancelledException("Run " + getRunId() + " was cancelled");
+        }
+    }
+}
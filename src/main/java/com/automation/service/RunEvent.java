@@ -0,0 +1,12 @@
+package com.automation.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RunEvent {
+    private final long sequence;
+    private final String type;
+    private final Object data;
+}
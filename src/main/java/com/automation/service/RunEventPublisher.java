@@ -0,0 +1,199 @@
+package com.automation.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans run progress events out to Server-Sent Event subscribers. Publishing never blocks the
+ * executing thread: each subscriber has a small bounded buffer that drops its oldest events
+ * when the client falls behind, and a shared dispatcher pool does the actual writes.
+ */
+@Service
+@Slf4j
+public class RunEventPublisher {
+
+    public static final String STATUS = "status";
+    public static final String LOG = "log";
+    public static final String STEP_START = "step-start";
+    public static final String STEP_FINISH = "step-finish";
+    public static final String SCREENSHOT = "screenshot";
+    public static final String ROW = "row";
+
+    @Value("${automation.events.subscriber-buffer:256}")
+    private int subscriberBuffer;
+
+    @Value("${automation.events.replay-size:200}")
+    private int replaySize;
+
+    @Value("${automation.events.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    private final Map<Long, RunChannel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService dispatcher = Executors.newFixedThreadPool(4, daemonThreads("run-events-"));
+
+    public void open(Long runId) {
+        channels.computeIfAbsent(runId, id -> new RunChannel());
+    }
+
+    public void publish(Long runId, String type, Object data) {
+        RunChannel channel = channels.get(runId);
+        if (channel != null) {
+            channel.publish(type, data);
+        }
+    }
+
+    // Sends the final event and closes every subscriber of the run
+    public void complete(Long runId, Object finalStatus) {
+        RunChannel channel = channels.remove(runId);
+        if (channel != null) {
+            channel.publish(STATUS, finalStatus);
+            channel.subscribers.forEach(Subscriber::finish);
+        }
+    }
+
+    // Subscribes to a run; returns null if the run has no open channel (finished or unknown)
+    public SseEmitter subscribe(Long runId) {
+        RunChannel channel = channels.get(runId);
+        if (channel == null) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber subscriber = new Subscriber(emitter);
+        synchronized (channel) {
+            channel.replay.forEach(subscriber::offer);
+            channel.subscribers.add(subscriber);
+        }
+        subscriberCount.incrementAndGet();
+        Runnable detach = () -> {
+            if (channel.subscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+        };
+        emitter.onCompletion(detach);
+        emitter.onTimeout(detach);
+        emitter.onError(error -> detach.run());
+
+        // The run may have completed while we were attaching
+        if (!channels.containsKey(runId)) {
+            subscriber.finish();
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(channel -> channel.subscribers.forEach(Subscriber::finish));
+        channels.clear();
+        dispatcher.shutdown();
+    }
+
+    private static CustomizableThreadFactory daemonThreads(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private class RunChannel {
+        private final AtomicLong sequence = new AtomicLong();
+        private final ArrayDeque<RunEvent> replay = new ArrayDeque<>();
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+        void publish(String type, Object data) {
+            RunEvent event = new RunEvent(sequence.incrementAndGet(), type, data);
+            synchronized (this) {
+                if (replay.size() >= replaySize) {
+                    replay.pollFirst();
+                }
+                replay.addLast(event);
+            }
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<RunEvent> buffer = new ArrayBlockingQueue<>(subscriberBuffer);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean finished = false;
+        private volatile boolean closed = false;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(RunEvent event) {
+            while (!buffer.offer(event)) {
+                // Slow consumer: make room by dropping the oldest pending event
+                if (buffer.poll() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+            schedule();
+        }
+
+        void finish() {
+            finished = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed && draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                RunEvent event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    SseEmitter.SseEventBuilder builder = SseEmitter.event()
+                            .id(String.valueOf(event.getSequence()))
+                            .name(event.getType())
+                            .data(event.getData());
+                    long skipped = dropped.getAndSet(0);
+                    if (skipped > 0) {
+                        builder.comment("dropped " + skipped + " events");
+                    }
+                    emitter.send(builder);
+                }
+                if (finished && buffer.isEmpty() && !closed) {
+                    closed = true;
+                    emitter.complete();
+                }
+            } catch (Exception e) {
+                closed = true;
+                log.debug("Dropping run event subscriber: {}", e.getMessage());
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && (!buffer.isEmpty() || finished)) {
+                schedule();
+            }
+        }
+    }
+}
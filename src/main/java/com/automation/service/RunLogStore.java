@@ -0,0 +1,178 @@
+package com.automation.service;
+
+import com.automation.dto.RunLogPage;
+import com.automation.model.RunLogChunk;
+import com.automation.repository.AutomationResultRepository;
+import com.automation.repository.RunLogChunkInfo;
+import com.automation.repository.RunLogChunkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Run logs stored out of the result row as gzip-compressed chunks of whole lines. Reads only
+ * decompress the chunks that overlap the requested lines or bytes. Results written before this
+ * store existed keep their log in the result's logs column, which is read as a single chunk.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RunLogStore {
+
+    private final RunLogChunkRepository chunkRepository;
+    private final AutomationResultRepository resultRepository;
+
+    @Value("${automation.logs.chunk-bytes:65536}")
+    private int chunkBytes;
+
+    @Value("${automation.logs.max-line-chars:16384}")
+    private int maxLineChars;
+
+    public RunLogWriter openWriter(Long resultId) {
+        return new RunLogWriter(this, resultId, chunkBytes, maxLineChars);
+    }
+
+    void writeChunk(Long resultId, int chunkIndex, long firstLine, int lineCount, long byteOffset, byte[] raw) {
+        RunLogChunk chunk = new RunLogChunk();
+        chunk.setResultId(resultId);
+        chunk.setChunkIndex(chunkIndex);
+        chunk.setFirstLine(firstLine);
+        chunk.setLineCount(lineCount);
+        chunk.setByteOffset(byteOffset);
+        chunk.setRawBytes(raw.length);
+        chunk.setData(gzip(raw));
+        chunkRepository.save(chunk);
+    }
+
+    public RunLogPage tail(Long resultId, int lineCount) {
+        List<RunLogChunkInfo> infos = chunkRepository.findInfoByResultId(resultId);
+        if (infos.isEmpty()) {
+            return legacyLines(resultId, -1, lineCount);
+        }
+        long totalLines = totalLines(infos);
+        return lines(resultId, infos, Math.max(0, totalLines - lineCount), lineCount);
+    }
+
+    public RunLogPage lines(Long resultId, long fromLine, int lineCount) {
+        List<RunLogChunkInfo> infos = chunkRepository.findInfoByResultId(resultId);
+        if (infos.isEmpty()) {
+            return legacyLines(resultId, fromLine, lineCount);
+        }
+        return lines(resultId, infos, fromLine, lineCount);
+    }
+
+    // Uncompressed UTF-8 bytes [offset, offset + length) of the log; a range may split a character
+    public String range(Long resultId, long offset, int length) {
+        List<RunLogChunkInfo> infos = chunkRepository.findInfoByResultId(resultId);
+        if (infos.isEmpty()) {
+            byte[] legacy = legacyLog(resultId).getBytes(StandardCharsets.UTF_8);
+            return slice(legacy, 0, offset, length);
+        }
+        long end = offset + length;
+        List<Long> ids = infos.stream()
+                .filter(info -> info.getByteOffset() < end && info.getByteOffset() + info.getRawBytes() > offset)
+                .map(RunLogChunkInfo::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return "";
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<RunLogChunk> chunks = chunkRepository.findByIdInOrderByChunkIndex(ids);
+        for (RunLogChunk chunk : chunks) {
+            bytes.writeBytes(gunzip(chunk.getData()));
+        }
+        return slice(bytes.toByteArray(), chunks.get(0).getByteOffset(), offset, length);
+    }
+
+    public long totalBytes(Long resultId) {
+        List<RunLogChunkInfo> infos = chunkRepository.findInfoByResultId(resultId);
+        if (infos.isEmpty()) {
+            return legacyLog(resultId).getBytes(StandardCharsets.UTF_8).length;
+        }
+        RunLogChunkInfo last = infos.get(infos.size() - 1);
+        return last.getByteOffset() + last.getRawBytes();
+    }
+
+    private RunLogPage lines(Long resultId, List<RunLogChunkInfo> infos, long fromLine, int lineCount) {
+        RunLogChunkInfo last = infos.get(infos.size() - 1);
+        long totalLines = totalLines(infos);
+        long totalBytes = last.getByteOffset() + last.getRawBytes();
+        long start = Math.max(0, fromLine);
+        long end = Math.min(totalLines, start + lineCount);
+
+        List<Long> ids = infos.stream()
+                .filter(info -> info.getFirstLine() < end && info.getFirstLine() + info.getLineCount() > start)
+                .map(RunLogChunkInfo::getId)
+                .toList();
+        List<String> lines = new ArrayList<>();
+        if (!ids.isEmpty()) {
+            for (RunLogChunk chunk : chunkRepository.findByIdInOrderByChunkIndex(ids)) {
+                String[] chunkLines = new String(gunzip(chunk.getData()), StandardCharsets.UTF_8).split("\n", -1);
+                // The trailing newline leaves an empty last element
+                for (int i = 0; i < chunk.getLineCount(); i++) {
+                    long lineNumber = chunk.getFirstLine() + i;
+                    if (lineNumber >= start && lineNumber < end) {
+                        lines.add(chunkLines[i]);
+                    }
+                }
+            }
+        }
+        return new RunLogPage(start, lines, totalLines, totalBytes);
+    }
+
+    // fromLine < 0 means the last lineCount lines
+    private RunLogPage legacyLines(Long resultId, long fromLine, int lineCount) {
+        String log = legacyLog(resultId);
+        List<String> all = log.isEmpty() ? List.of() : Arrays.asList(log.split("\n"));
+        long start = fromLine < 0 ? Math.max(0, all.size() - lineCount) : Math.min(fromLine, all.size());
+        long end = Math.min(all.size(), start + lineCount);
+        return new RunLogPage(start, new ArrayList<>(all.subList((int) start, (int) end)), all.size(),
+                log.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private String legacyLog(Long resultId) {
+        String log = resultRepository.findLogs(resultId);
+        return log != null ? log : "";
+    }
+
+    private static long totalLines(List<RunLogChunkInfo> infos) {
+        RunLogChunkInfo last = infos.get(infos.size() - 1);
+        return last.getFirstLine() + last.getLineCount();
+    }
+
+    private static String slice(byte[] bytes, long bytesOffset, long offset, int length) {
+        int from = (int) Math.max(0, Math.min(bytes.length, offset - bytesOffset));
+        int to = (int) Math.max(from, Math.min(bytes.length, offset + length - bytesOffset));
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
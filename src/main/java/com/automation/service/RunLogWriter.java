@@ -0,0 +1,86 @@
+package com.automation.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffers the log lines of one run and spills them to the RunLogStore as a compressed chunk
+ * whenever the buffer reaches the chunk size, so a verbose run never holds its whole log in memory.
+ * A failed write never reaches the caller: the lines stay buffered and go out with the next chunk,
+ * and only if writes keep failing are the oldest buffered lines dropped.
+ */
+@Slf4j
+public class RunLogWriter {
+
+    private static final String TRUNCATED_SUFFIX = " ... [truncated]";
+    // Buffered chunks kept while writes fail, before the buffer is dropped
+    private static final int MAX_PENDING_CHUNKS = 4;
+
+    private final RunLogStore store;
+    private final Long resultId;
+    private final int chunkBytes;
+    private final int maxLineChars;
+
+    private final StringBuilder buffer = new StringBuilder();
+    private int bufferedLines;
+    private int bufferedBytes;
+    private int nextChunkIndex;
+    private long nextLine;
+    private long nextByteOffset;
+    // After a failed write, the buffer size at which the next write is tried
+    private int retryAtBytes;
+    private long droppedLines;
+
+    RunLogWriter(RunLogStore store, Long resultId, int chunkBytes, int maxLineChars) {
+        this.store = store;
+        this.resultId = resultId;
+        this.chunkBytes = chunkBytes;
+        this.maxLineChars = maxLineChars;
+    }
+
+    public synchronized void append(String line) {
+        if (line.length() > maxLineChars) {
+            line = line.substring(0, maxLineChars) + TRUNCATED_SUFFIX;
+        }
+        String entry = line.replace('\n', ' ') + '\n';
+        buffer.append(entry);
+        bufferedLines++;
+        bufferedBytes += entry.getBytes(StandardCharsets.UTF_8).length;
+        if (bufferedBytes >= Math.max(chunkBytes, retryAtBytes)) {
+            flush();
+        }
+    }
+
+    public synchronized void flush() {
+        if (bufferedLines == 0) {
+            return;
+        }
+        byte[] raw = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            store.writeChunk(resultId, nextChunkIndex, nextLine, bufferedLines, nextByteOffset, raw);
+        } catch (RuntimeException e) {
+            if (bufferedBytes < chunkBytes * MAX_PENDING_CHUNKS) {
+                log.warn("Could not write log chunk {} of result {}; keeping {} lines for the next write: {}",
+                        nextChunkIndex, resultId, bufferedLines, e.getMessage());
+                retryAtBytes = bufferedBytes + chunkBytes;
+                return;
+            }
+            droppedLines += bufferedLines;
+            log.error("Could not write log chunk {} of result {}; dropped {} lines ({} so far)",
+                    nextChunkIndex, resultId, bufferedLines, droppedLines, e);
+            buffer.setLength(0);
+            bufferedLines = 0;
+            bufferedBytes = 0;
+            retryAtBytes = 0;
+            return;
+        }
+        retryAtBytes = 0;
+        nextChunkIndex++;
+        nextLine += bufferedLines;
+        nextByteOffset += raw.length;
+        buffer.setLength(0);
+        bufferedLines = 0;
+        bufferedBytes = 0;
+    }
+}
@@ -0,0 +1,196 @@
+package com.automation.service;
+
+import com.automation.model.AutomationResult;
+import com.automation.model.QueuedRun;
+import com.automation.repository.AutomationResultRepository;
+import com.automation.repository.RunQueueRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Durable run queue shared by every node on the same database. Nodes claim pending runs one
+ * by one with SELECT ... FOR UPDATE SKIP LOCKED and hold them under a lease they keep renewing;
+ * runs whose lease runs out, because their node died, go back to pending for another node.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RunQueueStore {
+
+    private static final int RECLAIM_BATCH_SIZE = 100;
+
+    private final RunQueueRepository queueRepository;
+    private final AutomationResultRepository resultRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Unique keys reject duplicate triggers and extra coalesced runs with a DataIntegrityViolationException
+    @Transactional
+    public QueuedRun enqueue(Long configId, Long resultId, String triggerKey, boolean coalesce) {
+        QueuedRun run = new QueuedRun();
+        run.setConfigId(configId);
+        run.setResultId(resultId);
+        run.setTriggerKey(triggerKey);
+        run.setCoalesceKey(coalesce ? configId : null);
+        return queueRepository.saveAndFlush(run);
+    }
+
+    // Claims up to limit runs for this node, at most one per config. Each run is claimed in its own
+    // transaction: when two nodes race for the same config, the loser's running_key insert fails and
+    // only that one claim rolls back, not the runs already claimed.
+    public List<QueuedRun> claim(String nodeId, int limit, LocalDateTime leaseExpiresAt) {
+        List<QueuedRun> claimed = new ArrayList<>();
+        // Every lost race is followed by a retry, which no longer sees the config the other node claimed
+        int attempts = 0;
+        while (claimed.size() < limit && attempts++ < limit * 2) {
+            QueuedRun run;
+            try {
+                run = transactionTemplate.execute(status -> claimNext(nodeId, leaseExpiresAt));
+            } catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+                log.debug("Another node claimed a run of the same config first: {}", e.getMessage());
+                continue;
+            }
+            if (run == null) {
+                break;
+            }
+            claimed.add(run);
+        }
+        return claimed;
+    }
+
+    // Caller holds a transaction
+    private QueuedRun claimNext(String nodeId, LocalDateTime leaseExpiresAt) {
+        List<QueuedRun> pending = queueRepository.lockPending(1);
+        if (pending.isEmpty()) {
+            return null;
+        }
+        QueuedRun run = pending.get(0);
+        run.setStatus(QueuedRun.Status.CLAIMED);
+        run.setClaimedBy(nodeId);
+        run.setClaimedAt(LocalDateTime.now());
+        run.setLeaseExpiresAt(leaseExpiresAt);
+        run.setCoalesceKey(null);
+        run.setRunningKey(run.getConfigId());
+        run.setAttempts(run.getAttempts() + 1);
+        return queueRepository.saveAndFlush(run);
+    }
+
+    @Transactional
+    public void attachResult(Long queueId, Long resultId) {
+        queueRepository.findById(queueId).ifPresent(run -> run.setResultId(resultId));
+    }
+
+    @Transactional
+    public void complete(Long queueId) {
+        queueRepository.findById(queueId).ifPresent(run -> {
+            run.setStatus(QueuedRun.Status.DONE);
+            run.setRunningKey(null);
+            run.setCoalesceKey(null);
+            run.setFinishedAt(LocalDateTime.now());
+        });
+    }
+
+    @Transactional
+    public int renewLeases(String nodeId, LocalDateTime leaseExpiresAt) {
+        return queueRepository.renewLeases(nodeId, leaseExpiresAt, QueuedRun.Status.CLAIMED);
+    }
+
+    // Returns runs whose node stopped renewing their lease to the queue, or gives up after maxAttempts.
+    // The lost attempt's result is failed either way; a retried run records into a fresh result.
+    @Transactional
+    public int reclaimExpired(LocalDateTime now, int maxAttempts) {
+        List<QueuedRun> expired = queueRepository.lockExpired(now, RECLAIM_BATCH_SIZE);
+        for (QueuedRun run : expired) {
+            boolean retry = run.getAttempts() < maxAttempts;
+            log.warn("Lease of queued run {} held by {} expired; {}", run.getId(), run.getClaimedBy(),
+                    retry ? "re-queueing it" : "giving up after " + run.getAttempts() + " attempts");
+            failResult(run.getResultId(), retry
+                    ? "Lost: the node running it stopped responding; the run was re-queued"
+                    : "Lost: the node running it stopped responding");
+            run.setClaimedBy(null);
+            run.setRunningKey(null);
+            run.setLeaseExpiresAt(null);
+            if (retry) {
+                run.setStatus(QueuedRun.Status.PENDING);
+                run.setResultId(null);
+            } else {
+                run.setStatus(QueuedRun.Status.DONE);
+                run.setFinishedAt(now);
+            }
+        }
+        return expired.size();
+    }
+
+    public List<Long> findCancelRequests(String nodeId) {
+        return queueRepository.findCancelRequests(nodeId, QueuedRun.Status.CLAIMED);
+    }
+
+    // Removes a pending run, or flags a claimed one so its node cancels it
+    @Transactional
+    public ExecutionEngine.CancelOutcome requestCancel(Long resultId) {
+        Optional<QueuedRun> queued = queueRepository.findFirstByResultIdAndStatusNot(resultId, QueuedRun.Status.DONE);
+        if (queued.isEmpty()) {
+            return ExecutionEngine.CancelOutcome.NOT_ACTIVE;
+        }
+        QueuedRun run = queued.get();
+        if (run.getStatus() == QueuedRun.Status.PENDING) {
+            run.setStatus(QueuedRun.Status.DONE);
+            run.setCoalesceKey(null);
+            run.setFinishedAt(LocalDateTime.now());
+            return ExecutionEngine.CancelOutcome.CANCELLED;
+        }
+        run.setCancelRequested(true);
+        return ExecutionEngine.CancelOutcome.CANCELLING;
+    }
+
+    public boolean isPending(Long resultId) {
+        return queueRepository.findFirstByResultIdAndStatusNot(resultId, QueuedRun.Status.DONE)
+                .map(run -> run.getStatus() == QueuedRun.Status.PENDING)
+                .orElse(false);
+    }
+
+    public boolean hasActiveRun(Long configId) {
+        return queueRepository.existsByConfigIdAndStatusNot(configId, QueuedRun.Status.DONE);
+    }
+
+    public long countPending() {
+        return queueRepository.countByStatus(QueuedRun.Status.PENDING);
+    }
+
+    // Finished rows are kept a while so late duplicate triggers still hit their trigger key
+    @Transactional
+    public int purgeFinished(LocalDateTime before) {
+        return queueRepository.deleteFinishedBefore(QueuedRun.Status.DONE, before);
+    }
+
+    private void failResult(Long resultId, String message) {
+        if (resultId == null) {
+            return;
+        }
+        resultRepository.findById(resultId).ifPresent(result -> {
+            if (result.getStatus() == AutomationResult.Status.RUNNING) {
+                result.setStatus(AutomationResult.Status.FAILED);
+                result.setErrorMessage(message);
+                result.setEndTime(LocalDateTime.now());
+            }
+        });
+    }
+}
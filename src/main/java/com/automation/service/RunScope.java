@@ -0,0 +1,92 @@
+package com.automation.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Structured scope for the work one run forks: every subtask runs on its own virtual thread,
+ * join waits for all of them, and the first failure, a missed deadline or closing the scope
+ * interrupts whatever is still running. Closing waits for the interrupted subtasks to end, so
+ * nothing a run started outlives it.
+ *
+ * <p>Same contract as {@code StructuredTaskScope.ShutdownOnFailure}, which is still a preview
+ * API in Java 24 and would need --enable-preview on every build and JVM.
+ */
+public final class RunScope implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final List<Future<?>> subtasks = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    public RunScope(String name) {
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
+    // Throws RejectedExecutionException once the scope has shut down
+    public <T> Future<T> fork(Callable<T> task) {
+        Future<T> subtask = executor.submit(() -> {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                if (failure.compareAndSet(null, e)) {
+                    shutdown();
+                }
+                throw e;
+            }
+        });
+        subtasks.add(subtask);
+        return subtask;
+    }
+
+    public void join() throws InterruptedException, ExecutionException {
+        try {
+            joinUntil(Instant.MAX);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Waits for every subtask forked so far; on timeout the unfinished ones are interrupted
+    public void joinUntil(Instant deadline) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            for (Future<?> subtask : subtasks) {
+                long remaining = Instant.MAX.equals(deadline)
+                        ? Long.MAX_VALUE : Math.max(0, deadline.toEpochMilli() - System.currentTimeMillis());
+                try {
+                    subtask.get(remaining, TimeUnit.MILLISECONDS);
+                } catch (CancellationException | ExecutionException e) {
+                    // Reported below as the first failure, whichever subtask it came from
+                }
+            }
+        } catch (InterruptedException | TimeoutException e) {
+            shutdown();
+            throw e;
+        }
+        Exception first = failure.get();
+        if (first != null) {
+            throw new ExecutionException(first);
+        }
+    }
+
+    // Starts no more subtasks and interrupts the running ones
+    public void shutdown() {
+        executor.shutdownNow();
+        subtasks.forEach(subtask -> subtask.cancel(true));
+    }
+
+    @Override
+    public void close() {
+        shutdown();
+        executor.close();
+    }
+}
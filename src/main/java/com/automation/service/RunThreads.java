@@ -0,0 +1,59 @@
+package com.automation.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Threads automation runs execute on. PLATFORM mode uses the bounded automationExecutor pool;
+ * VIRTUAL mode starts each run on its own virtual thread and gives it a {@link RunScope} for the
+ * work it forks. How many runs execute at once is still capped by automation.execution.concurrency
+ * and the driver pools in both modes, since browsers, not threads, are the scarce resource.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RunThreads {
+
+    public enum Mode {
+        PLATFORM, VIRTUAL
+    }
+
+    private final ThreadPoolTaskExecutor automationExecutor;
+    private final ExecutorService virtualRuns =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("automation-run-v", 0).factory());
+
+    @Getter
+    @Value("${automation.execution.thread-mode:PLATFORM}")
+    private Mode mode;
+
+    public void execute(Runnable run) {
+        if (mode == Mode.VIRTUAL) {
+            virtualRuns.execute(run);
+        } else {
+            automationExecutor.execute(run);
+        }
+    }
+
+    // Scope for the subtasks of one run; null in PLATFORM mode, where runs do that work inline
+    public RunScope openScope(Long runId) {
+        return mode == Mode.VIRTUAL ? new RunScope("automation-run-" + runId) : null;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        virtualRuns.shutdown();
+        if (!virtualRuns.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Virtual-thread runs still active after 30s; interrupting them");
+            virtualRuns.shutdownNow();
+        }
+    }
+}
@@ -3,46 +3,147 @@ package com.automation.service;
 import com.automation.model.AutomationConfig;
 import com.automation.model.ScheduleConfig;
 import com.automation.repository.AutomationConfigRepository;
+import com.automation.repository.AutomationResultRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.support.CronExpression;
-import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Fires schedule triggers from a hierarchical timing wheel. Scheduling and cancelling a config
+ * are O(1), identical cron expressions are parsed once, and triggers that fall due together are
+ * re-armed on the wheel thread and handed to the ExecutionEngine as one batch.
+ *
+ * To avoid load spikes, each config gets a deterministic offset derived from its id: interval
+ * schedules run at a fixed phase within their interval, cron fire times are smeared over a short
+ * window, and runs due at startup are staggered. Offsets shift fire times, not frequency.
+ *
+ * Every trigger is identified by its fire time, which only depends on the schedule, the config and
+ * shared state (its last edit and last run), never on when this node started. In DATABASE queue
+ * mode every node arms every schedule, the run queue admits each fire time once, and a periodic
+ * reconciliation against updated_at picks up configs created, edited or removed on other nodes.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SchedulerService {
 
     private final TaskScheduler taskScheduler;
-    private final AutomationService automationService;
+    private final ExecutionEngine executionEngine;
     private final AutomationConfigRepository configRepository;
+    private final AutomationResultRepository resultRepository;
 
-    // Map to store scheduled tasks
-    private final Map<Long, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
+    @Value("${automation.scheduler.tick-millis:100}")
+    private long tickMillis;
+
+    @Value("${automation.scheduler.wheel-size:256}")
+    private int wheelSize;
+
+    @Value("${automation.scheduler.interval-phase:HASHED}")
+    private IntervalPhase intervalPhase;
+
+    @Value("${automation.scheduler.cron-smear-seconds:30}")
+    private long cronSmearSeconds;
+
+    @Value("${automation.scheduler.startup-stagger-seconds:60}")
+    private long startupStaggerSeconds;
+
+    @Value("${automation.scheduler.misfire-policy:FIRE_ONCE}")
+    private MisfirePolicy misfirePolicy;
+
+    @Value("${automation.scheduler.reconcile-seconds:30}")
+    private long reconcileSeconds;
+
+    public enum IntervalPhase {
+        // First run when the config is saved, then every interval from that edit
+        IMMEDIATE,
+        // Runs at a fixed per-config phase within the interval, spreading configs evenly
+        HASHED
+    }
+
+    public enum MisfirePolicy {
+        // Runs missed while the application was down are dropped
+        SKIP,
+        // At most one catch-up run per config, staggered over the startup window
+        FIRE_ONCE
+    }
+
+    // Armed schedule per config
+    private final Map<Long, ScheduledEntry> scheduledTasks = new ConcurrentHashMap<>();
+    // updated_at of every active config this node has taken into account, armed or not
+    private final Map<Long, LocalDateTime> knownVersions = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> reconciler;
+    private final Map<String, CronExpression> cronCache = new ConcurrentHashMap<>();
+    private TimingWheel<ScheduledEntry> wheel;
+    private final AtomicLong misfiresFired = new AtomicLong();
+    private final AtomicLong misfiresSkipped = new AtomicLong();
+    private Clock clock = Clock.systemDefaultZone();
 
     @PostConstruct
     public void init() {
         log.info("Initializing scheduler service");
+        wheel = new TimingWheel<>(tickMillis, wheelSize, this::fire, "automation-timing-wheel");
+        wheel.start();
         scheduleActiveAutomations();
+        if (reconcileSeconds > 0 && executionEngine.getQueueMode() == ExecutionEngine.QueueMode.DATABASE) {
+            reconciler = taskScheduler.scheduleWithFixedDelay(this::reconcile, Duration.ofSeconds(reconcileSeconds));
+        }
     }
 
     @PreDestroy
     public void cleanup() {
         log.info("Cleaning up scheduled tasks");
-        scheduledTasks.values().forEach(task -> task.cancel(false));
+        if (reconciler != null) {
+            reconciler.cancel(false);
+        }
+        wheel.close();
         scheduledTasks.clear();
     }
 
     public void scheduleActiveAutomations() {
-        configRepository.findByActiveTrue().forEach(this::scheduleAutomation);
+        long now = clock.millis();
+        Map<Long, LocalDateTime> lastRuns = new HashMap<>();
+        resultRepository.findLastStartTimes().forEach(run -> lastRuns.put(run.getConfigId(), run.getLastStartTime()));
+
+        // Arm all configs on the wheel in one batch
+        Map<ScheduledEntry, Long> deadlines = new LinkedHashMap<>();
+        for (AutomationConfig config : configRepository.findByActiveTrue()) {
+            knownVersions.put(config.getId(), versionOf(config));
+            ScheduledEntry entry = prepare(config, now);
+            if (entry == null || !applyMisfirePolicy(entry, lastRuns.get(config.getId()), now)) {
+                continue;
+            }
+            // Whatever is due right away is spread over the startup window; it keeps its fire time
+            if (entry.nextDeadline <= now) {
+                entry.nextDeadline = now + offset(config.getId(), TimeUnit.SECONDS.toMillis(startupStaggerSeconds));
+            }
+            ScheduledEntry previous = scheduledTasks.put(config.getId(), entry);
+            if (previous != null) {
+                previous.cancel();
+            }
+            deadlines.put(entry, entry.nextDeadline);
+        }
+        for (TimingWheel.Timeout<ScheduledEntry> timeout : wheel.scheduleAll(deadlines)) {
+            timeout.getPayload().timeout = timeout;
+        }
+        log.info("Scheduled {} active automations", deadlines.size());
     }
 
     public void scheduleAutomation(AutomationConfig config) {
@@ -52,92 +153,359 @@ public class SchedulerService {
 
         // Cancel existing schedule if any
         unscheduleAutomation(config.getId());
+        knownVersions.put(config.getId(), versionOf(config));
+
+        ScheduledEntry entry = prepare(config, clock.millis());
+        if (entry == null) {
+            return;
+        }
+        scheduledTasks.put(config.getId(), entry);
+        entry.timeout = wheel.schedule(entry.nextDeadline, entry);
+    }
+
+    public void unscheduleAutomation(Long configId) {
+        knownVersions.remove(configId);
+        ScheduledEntry entry = scheduledTasks.remove(configId);
+        if (entry != null) {
+            entry.cancel();
+            log.info("Unscheduled automation with id: " + configId);
+        }
+    }
+
+    public void rescheduleAutomation(AutomationConfig config) {
+        unscheduleAutomation(config.getId());
+        if (config.isActive() && config.getSchedule() != null) {
+            scheduleAutomation(config);
+        } else if (config.isActive()) {
+            knownVersions.put(config.getId(), versionOf(config));
+        }
+    }
 
+    // Brings this node's schedules in line with configs created, edited, deactivated or deleted
+    // through other nodes, which only re-armed their own wheel
+    void reconcile() {
         try {
-            ScheduledFuture<?> scheduledTask = null;
-            ScheduleConfig schedule = config.getSchedule();
+            Map<Long, LocalDateTime> active = new HashMap<>();
+            configRepository.findActiveVersions().forEach(version ->
+                    active.put(version.getId(), truncate(version.getUpdatedAt())));
+            for (Long configId : new ArrayList<>(knownVersions.keySet())) {
+                if (!active.containsKey(configId)) {
+                    unscheduleAutomation(configId);
+                }
+            }
+            int rearmed = 0;
+            for (Map.Entry<Long, LocalDateTime> version : active.entrySet()) {
+                Long configId = version.getKey();
+                if (knownVersions.containsKey(configId)
+                        && Objects.equals(knownVersions.get(configId), version.getValue())) {
+                    continue;
+                }
+                Optional<AutomationConfig> config = configRepository.findById(configId);
+                if (config.isEmpty()) {
+                    continue;
+                }
+                rescheduleAutomation(config.get());
+                rearmed++;
+            }
+            if (rearmed > 0) {
+                log.info("Re-armed {} schedules changed on other nodes", rearmed);
+            }
+        } catch (Exception e) {
+            log.warn("Schedule reconciliation failed: {}", e.getMessage());
+        }
+    }
 
-            Runnable task = () -> {
-                log.info("Executing scheduled automation: " + config.getName());
-                automationService.executeAutomation(config);
-            };
+    public boolean isScheduled(Long configId) {
+        ScheduledEntry entry = scheduledTasks.get(configId);
+        return entry != null && !entry.cancelled;
+    }
+
+    public Map<Long, Boolean> getScheduledStatus() {
+        Map<Long, Boolean> status = new ConcurrentHashMap<>();
+        scheduledTasks.forEach((configId, entry) -> status.put(configId, !entry.cancelled));
+        return status;
+    }
+
+    // When the wheel fires a config's next run; null if it is not scheduled
+    Long getNextDeadline(Long configId) {
+        ScheduledEntry entry = scheduledTasks.get(configId);
+        return entry != null && !entry.cancelled ? entry.nextDeadline : null;
+    }
+
+    // Fire time identifying a config's next run, the same on every node; null if it is not scheduled
+    Long getNextFireTime(Long configId) {
+        ScheduledEntry entry = scheduledTasks.get(configId);
+        return entry != null && !entry.cancelled ? entry.fireTime : null;
+    }
+
+    // Fire times of a config's schedule before `until`, for a node scheduling it at `from`
+    List<Long> fireTimes(AutomationConfig config, long from, long until) {
+        List<Long> fires = new ArrayList<>();
+        ScheduledEntry entry = prepare(config, from);
+        Long fireTime = entry != null ? entry.fireTime : null;
+        while (fireTime != null && fireTime < until) {
+            fires.add(fireTime);
+            entry.fireTime = fireTime;
+            fireTime = entry.followingDeadline(fireTime);
+        }
+        return fires;
+    }
+
+    public int getPendingTriggers() {
+        return wheel.getPending();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(wheel.getStats());
+        stats.put("scheduledConfigs", scheduledTasks.size());
+        stats.put("cachedCronExpressions", cronCache.size());
+        stats.put("misfiresFired", misfiresFired.get());
+        stats.put("misfiresSkipped", misfiresSkipped.get());
+        return stats;
+    }
+
+    // Computes the first deadline of a config's schedule; null if it cannot be scheduled
+    private ScheduledEntry prepare(AutomationConfig config, long now) {
+        if (!config.isActive() || config.getSchedule() == null) {
+            return null;
+        }
+        try {
+            ScheduleConfig schedule = config.getSchedule();
+            ScheduledEntry entry = new ScheduledEntry(config);
 
             switch (schedule.getType()) {
                 case ONCE:
                     LocalDateTime runTime = LocalDateTime.parse(schedule.getRunOnceAt());
-                    Instant instant = runTime.atZone(ZoneId.systemDefault()).toInstant();
-                    scheduledTask = taskScheduler.schedule(task, instant);
+                    entry.fireTime = runTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
                     log.info("Scheduled one-time automation '{}' at {}", config.getName(), runTime);
                     break;
 
                 case INTERVAL:
-                    Duration interval = Duration.ofMinutes(schedule.getIntervalMinutes());
-                    scheduledTask = taskScheduler.scheduleAtFixedRate(task, Instant.now(), interval);
-                    log.info("Scheduled interval automation '{}' every {} minutes",
+                    long interval = Duration.ofMinutes(schedule.getIntervalMinutes()).toMillis();
+                    if (interval <= 0) {
+                        log.error("Invalid interval for config {}: {} minutes",
+                                config.getName(), schedule.getIntervalMinutes());
+                        return null;
+                    }
+                    entry.intervalMillis = interval;
+                    if (intervalPhase == IntervalPhase.HASHED) {
+                        entry.phaseMillis = offset(config.getId(), interval);
+                        entry.fireTime = entry.nextIntervalDeadline(now);
+                    } else {
+                        // Phased from the config's last edit, so every node counts intervals from the same point;
+                        // the interval time at or before now is due right away
+                        entry.phaseMillis = Math.floorMod(toMillis(config.getUpdatedAt()), interval);
+                        entry.fireTime = entry.nextIntervalDeadline(now) - interval;
+                    }
+                    log.debug("Scheduled interval automation '{}' every {} minutes",
                             config.getName(), schedule.getIntervalMinutes());
                     break;
 
                 case CRON:
-                    if (isValidCronExpression(schedule.getCronExpression())) {
-                        CronTrigger cronTrigger = new CronTrigger(schedule.getCronExpression());
-                        scheduledTask = taskScheduler.schedule(task, cronTrigger);
-                        log.info("Scheduled cron automation '{}' with expression: {}",
-                                config.getName(), schedule.getCronExpression());
-                    } else {
+                    CronExpression cron = parseCron(schedule.getCronExpression());
+                    if (cron == null) {
                         log.error("Invalid cron expression for config {}: {}",
                                 config.getName(), schedule.getCronExpression());
-                        return;
+                        return null;
                     }
+                    entry.cron = cron;
+                    entry.smearMillis = offset(config.getId(), TimeUnit.SECONDS.toMillis(cronSmearSeconds));
+                    Long next = entry.nextCronDeadline(now);
+                    if (next == null) {
+                        log.warn("Cron expression for config {} never fires: {}",
+                                config.getName(), schedule.getCronExpression());
+                        return null;
+                    }
+                    entry.fireTime = next;
+                    log.debug("Scheduled cron automation '{}' with expression: {}",
+                            config.getName(), schedule.getCronExpression());
                     break;
 
                 default:
                     log.warn("Unknown schedule type: " + schedule.getType());
-                    return;
-            }
-
-            if (scheduledTask != null) {
-                scheduledTasks.put(config.getId(), scheduledTask);
+                    return null;
             }
+            entry.nextDeadline = entry.fireTime;
+            return entry;
 
         } catch (Exception e) {
             log.error("Failed to schedule automation: " + config.getName(), e);
+            return null;
         }
     }
 
-    public void unscheduleAutomation(Long configId) {
-        ScheduledFuture<?> scheduledTask = scheduledTasks.remove(configId);
-        if (scheduledTask != null) {
-            scheduledTask.cancel(false);
-            log.info("Unscheduled automation with id: " + configId);
+    // Detects runs missed while the application was down; false if the entry should not be armed
+    private boolean applyMisfirePolicy(ScheduledEntry entry, LocalDateTime lastRun, long now) {
+        AutomationConfig config = entry.config;
+        long lastRunMillis = lastRun != null ? toMillis(lastRun) : -1;
+
+        boolean missed;
+        if (entry.intervalMillis > 0) {
+            // An interval time due right away that already ran, before a restart, is not run again
+            if (lastRunMillis >= entry.fireTime) {
+                entry.fireTime = entry.nextIntervalDeadline(lastRunMillis);
+                entry.nextDeadline = entry.fireTime;
+            }
+            missed = lastRunMillis >= 0 && lastRunMillis + entry.intervalMillis < now;
+        } else if (entry.cron != null) {
+            ZonedDateTime dueAfterLastRun = lastRunMillis < 0 ? null
+                    : entry.cron.next(Instant.ofEpochMilli(lastRunMillis).atZone(ZoneId.systemDefault()));
+            missed = dueAfterLastRun != null && dueAfterLastRun.toInstant().toEpochMilli() < now;
+        } else {
+            if (entry.nextDeadline > now) {
+                return true;
+            }
+            // A one-time run that already happened is not repeated on restart
+            if (lastRunMillis >= entry.nextDeadline) {
+                return false;
+            }
+            missed = true;
+        }
+
+        if (!missed) {
+            return true;
+        }
+        if (misfirePolicy == MisfirePolicy.SKIP) {
+            misfiresSkipped.incrementAndGet();
+            log.info("Skipping run of '{}' missed while the application was down", config.getName());
+            return entry.intervalMillis > 0 || entry.cron != null;
+        }
+        misfiresFired.incrementAndGet();
+        log.info("Catching up run of '{}' missed while the application was down", config.getName());
+        // Identified by the first fire time after the last run, which every node derives alike
+        if (entry.intervalMillis > 0) {
+            entry.fireTime = entry.nextIntervalDeadline(lastRunMillis);
+        } else if (entry.cron != null) {
+            Long due = entry.nextCronDeadline(lastRunMillis);
+            if (due != null) {
+                entry.fireTime = due;
+            }
         }
+        entry.nextDeadline = Math.min(entry.fireTime, now);
+        return true;
     }
 
-    public void rescheduleAutomation(AutomationConfig config) {
-        unscheduleAutomation(config.getId());
-        if (config.isActive() && config.getSchedule() != null) {
-            scheduleAutomation(config);
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+    }
+
+    // Edit time as stored, to millisecond precision
+    private static LocalDateTime versionOf(AutomationConfig config) {
+        return truncate(config.getUpdatedAt());
+    }
+
+    private static LocalDateTime truncate(LocalDateTime time) {
+        return time != null ? time.truncatedTo(ChronoUnit.MILLIS) : null;
+    }
+
+    // Deterministic per-config offset in [0, window), stable across restarts
+    static long offset(Long configId, long window) {
+        if (window <= 0 || configId == null) {
+            return 0;
         }
+        // SplitMix64 finalizer spreads consecutive ids evenly
+        long z = configId + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return Math.floorMod(z, window);
     }
 
-    public boolean isScheduled(Long configId) {
-        return scheduledTasks.containsKey(configId) &&
-                !scheduledTasks.get(configId).isCancelled();
+    // Next cron time whose smeared fire time is after `after`; null if the expression never fires again
+    static Long nextCronFire(CronExpression cron, long after, long smearMillis) {
+        ZonedDateTime base = Instant.ofEpochMilli(after - smearMillis).atZone(ZoneId.systemDefault());
+        ZonedDateTime next = cron.next(base);
+        return next != null ? next.toInstant().toEpochMilli() + smearMillis : null;
     }
 
-    public Map<Long, Boolean> getScheduledStatus() {
-        Map<Long, Boolean> status = new ConcurrentHashMap<>();
-        scheduledTasks.forEach((configId, future) -> {
-            status.put(configId, !future.isCancelled() && !future.isDone());
-        });
-        return status;
+    // Runs on the wheel thread: re-arm recurring entries, then submit the batch off-thread
+    private void fire(List<TimingWheel.Timeout<ScheduledEntry>> expired) {
+        List<Map.Entry<AutomationConfig, Long>> triggered = new ArrayList<>(expired.size());
+        long now = clock.millis();
+        for (TimingWheel.Timeout<ScheduledEntry> timeout : expired) {
+            ScheduledEntry entry = timeout.getPayload();
+            if (entry.cancelled || scheduledTasks.get(entry.config.getId()) != entry) {
+                continue;
+            }
+            // The fire time identifies the trigger, so nodes sharing a run queue enqueue it once
+            triggered.add(Map.entry(entry.config, entry.fireTime));
+
+            Long next = entry.followingDeadline(now);
+            if (next != null) {
+                entry.fireTime = next;
+                entry.nextDeadline = next;
+                entry.timeout = wheel.schedule(next, entry);
+            } else {
+                // One-time schedules are done once fired
+                scheduledTasks.remove(entry.config.getId(), entry);
+                entry.cancelled = true;
+            }
+        }
+        if (triggered.isEmpty()) {
+            return;
+        }
+        // Submission can block under the DELAY overflow policy, so it never runs on the wheel thread
+        taskScheduler.schedule(() -> triggered.forEach(trigger -> {
+            log.info("Triggering scheduled automation: " + trigger.getKey().getName());
+            executionEngine.submit(trigger.getKey(), trigger.getValue());
+        }), Instant.now());
     }
 
-    private boolean isValidCronExpression(String cronExpression) {
+    private CronExpression parseCron(String expression) {
+        if (expression == null) {
+            return null;
+        }
         try {
-            CronExpression.parse(cronExpression);
-            return true;
+            return cronCache.computeIfAbsent(expression, CronExpression::parse);
         } catch (IllegalArgumentException e) {
-            return false;
+            return null;
+        }
+    }
+
+    private static final class ScheduledEntry {
+        private final AutomationConfig config;
+        private CronExpression cron;
+        private long smearMillis;
+        private long intervalMillis;
+        private long phaseMillis;
+        // Identifies the next run across nodes; nextDeadline is when this node fires it, later when staggered
+        private long fireTime;
+        private long nextDeadline;
+        private volatile TimingWheel.Timeout<ScheduledEntry> timeout;
+        private volatile boolean cancelled = false;
+
+        private ScheduledEntry(AutomationConfig config) {
+            this.config = config;
+        }
+
+        // Deadline after this one fired; null for one-time schedules
+        private Long followingDeadline(long now) {
+            long after = Math.max(fireTime, now);
+            if (intervalMillis > 0) {
+                return nextIntervalDeadline(after);
+            }
+            if (cron != null) {
+                return nextCronDeadline(after);
+            }
+            return null;
+        }
+
+        // First time strictly after `after` that sits at this entry's phase within the interval
+        private long nextIntervalDeadline(long after) {
+            long next = after + Math.floorMod(phaseMillis - after, intervalMillis);
+            return next > after ? next : next + intervalMillis;
+        }
+
+        private Long nextCronDeadline(long after) {
+            return nextCronFire(cron, after, smearMillis);
+        }
+
+        private void cancel() {
+            cancelled = true;
+            TimingWheel.Timeout<ScheduledEntry> current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,258 @@
+package com.automation.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background stage that re-encodes, downscales and atomically writes captured screenshots,
+ * so the browser session can move on to its next step while the image is persisted. Runs with a
+ * {@link RunScope} fork their writes into it instead of the shared writer pool, so the run's end
+ * can interrupt them: a write stops before its file lands, though encoding only checks between stages.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScreenshotPipeline {
+
+    public enum Format {
+        PNG, JPEG, WEBP
+    }
+
+    private final AutomationMetrics metrics;
+
+    @Value("${automation.screenshot.format:PNG}")
+    private Format format;
+
+    @Value("${automation.screenshot.quality:0.85}")
+    private float quality;
+
+    @Value("${automation.screenshot.max-width:0}")
+    private int maxWidth;
+
+    @Value("${automation.screenshot.writer-threads:2}")
+    private int writerThreads;
+
+    @Value("${automation.screenshot.queue-capacity:32}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor writer;
+
+    private final AtomicLong captureCount = new AtomicLong();
+    private final AtomicLong totalCaptureNanos = new AtomicLong();
+    private final AtomicLong maxCaptureNanos = new AtomicLong();
+    private final AtomicLong persistCount = new AtomicLong();
+    private final AtomicLong totalPersistNanos = new AtomicLong();
+    private final AtomicLong maxPersistNanos = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (format == Format.WEBP && !ImageIO.getImageWritersByFormatName("webp").hasNext()) {
+            log.warn("No WebP ImageIO writer on the classpath; screenshots will be stored as PNG");
+            format = Format.PNG;
+        }
+        // A full queue makes the capturing thread encode the image itself rather than buffer without bound
+        writer = new ThreadPoolExecutor(writerThreads, writerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("screenshot-writer-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.shutdown();
+        if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Screenshot writer did not drain within 30 seconds");
+        }
+    }
+
+    public String getFileExtension() {
+        return switch (format) {
+            case PNG -> ".png";
+            case JPEG -> ".jpg";
+            case WEBP -> ".webp";
+        };
+    }
+
+    public void recordCapture(long nanos) {
+        captureCount.incrementAndGet();
+        totalCaptureNanos.addAndGet(nanos);
+        maxCaptureNanos.accumulateAndGet(nanos, Math::max);
+        metrics.recordScreenshotCapture(nanos);
+    }
+
+    // Queues the PNG bytes captured from the browser for encoding and writing to target
+    public CompletableFuture<Void> persist(byte[] png, Path target) {
+        return persist(png, target, null);
+    }
+
+    // With a scope the write is a subtask of the run; without one it goes to the writer pool
+    public CompletableFuture<Void> persist(byte[] png, Path target, RunScope scope) {
+        if (scope == null) {
+            return CompletableFuture.runAsync(() -> write(png, target), writer);
+        }
+        CompletableFuture<Void> persisted = new CompletableFuture<>();
+        try {
+            // The failure is reported through the future, so it does not shut down the rest of the run's scope
+            scope.fork(() -> {
+                try {
+                    write(png, target);
+                    persisted.complete(null);
+                } catch (RuntimeException e) {
+                    persisted.completeExceptionally(e);
+                }
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            failureCount.incrementAndGet();
+            persisted.completeExceptionally(e);
+        }
+        return persisted;
+    }
+
+    public Map<String, Object> getStats() {
+        long captures = captureCount.get();
+        long persists = persistCount.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("format", format);
+        stats.put("queueDepth", writer.getQueue().size());
+        stats.put("captured", captures);
+        stats.put("persisted", persists);
+        stats.put("failed", failureCount.get());
+        stats.put("avgCaptureMillis", captures == 0 ? 0.0 : totalCaptureNanos.get() / 1_000_000.0 / captures);
+        stats.put("maxCaptureMillis", maxCaptureNanos.get() / 1_000_000.0);
+        stats.put("avgPersistMillis", persists == 0 ? 0.0 : totalPersistNanos.get() / 1_000_000.0 / persists);
+        stats.put("maxPersistMillis", maxPersistNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    private void write(byte[] png, Path target) {
+        long started = System.nanoTime();
+        try {
+            writeAtomically(encode(png), target);
+            long elapsed = System.nanoTime() - started;
+            persistCount.incrementAndGet();
+            totalPersistNanos.addAndGet(elapsed);
+            maxPersistNanos.accumulateAndGet(elapsed, Math::max);
+            metrics.recordScreenshotWrite(elapsed);
+        } catch (IOException e) {
+            failureCount.incrementAndGet();
+            throw new UncheckedIOException("Failed to write screenshot " + target, e);
+        }
+    }
+
+    private byte[] encode(byte[] png) throws IOException {
+        if (format == Format.PNG && maxWidth <= 0) {
+            return png;
+        }
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            throw new IOException("Screenshot is not a readable image");
+        }
+        image = downscale(image);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(png.length);
+        if (format == Format.PNG) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+
+        if (format == Format.JPEG) {
+            image = toRgb(image); // JPEG has no alpha channel
+        }
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format.name().toLowerCase());
+        ImageWriter imageWriter = writers.next();
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            imageWriter.setOutput(imageOut);
+            ImageWriteParam param = imageWriter.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes().length > 0) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            imageWriter.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            imageWriter.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private BufferedImage downscale(BufferedImage image) {
+        if (maxWidth <= 0 || image.getWidth() <= maxWidth) {
+            return image;
+        }
+        int height = Math.max(1, Math.round(image.getHeight() * (maxWidth / (float) image.getWidth())));
+        BufferedImage scaled = new BufferedImage(maxWidth, height,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, maxWidth, height, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    private BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        graphics.dispose();
+        return rgb;
+    }
+
+    // Readers never see a half-written file: write next to the target, then rename over it. An interrupt
+    // aborts the file channel mid-write, and is checked once more before the rename
+    private void writeAtomically(byte[] data, Path target) throws IOException {
+        checkInterrupted(target);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        try {
+            Files.write(temp, data);
+            checkInterrupted(target);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void checkInterrupted(Path target) throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Screenshot write interrupted: " + target);
+        }
+    }
+}
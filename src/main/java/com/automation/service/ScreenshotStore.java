@@ -0,0 +1,234 @@
+package com.automation.service;
+
+import com.automation.model.ScreenshotBlob;
+import com.automation.repository.ScreenshotBlobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed screenshot storage. Identical captures share one file, keyed by the SHA-256
+ * of the image and reference counted; blobs nobody references any more are collected in the
+ * background. Results written before this store existed hold plain file paths, which are still
+ * resolved and deleted as before.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScreenshotStore {
+
+    private static final Pattern BLOB_ID = Pattern.compile("[0-9a-f]{64}");
+    private static final int LOCK_STRIPES = 64;
+    private static final int GC_BATCH_SIZE = 100;
+
+    private final ScreenshotBlobRepository blobRepository;
+    private final ScreenshotPipeline screenshotPipeline;
+
+    @Value("${automation.screenshot.path:screenshots}")
+    private String screenshotPath;
+
+    @Value("${automation.screenshot.gc-interval-seconds:300}")
+    private long gcIntervalSeconds;
+
+    // Serializes acquire and collect of the same blob within this node
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Map<String, CompletableFuture<Void>> inFlightWrites = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweepRequested = new AtomicBoolean();
+    private ScheduledExecutorService collector;
+
+    private final AtomicLong storedCount = new AtomicLong();
+    private final AtomicLong deduplicatedCount = new AtomicLong();
+    private final AtomicLong collectedCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("screenshot-gc-");
+        threadFactory.setDaemon(true);
+        collector = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        collector.scheduleWithFixedDelay(this::collectGarbage, gcIntervalSeconds, gcIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        collector.shutdownNow();
+    }
+
+    public static boolean isBlobId(String reference) {
+        return reference != null && BLOB_ID.matcher(reference).matches();
+    }
+
+    // Adds a reference to the blob holding these bytes, writing it only if it is new
+    public PendingScreenshot store(byte[] image) {
+        return store(image, null);
+    }
+
+    // A new blob is written in the given run scope, or by the writer pool without one
+    public PendingScreenshot store(byte[] image, RunScope scope) {
+        String id = sha256(image);
+        synchronized (lockFor(id)) {
+            if (blobRepository.incrementRefCount(id) > 0) {
+                deduplicatedCount.incrementAndGet();
+                CompletableFuture<Void> write = inFlightWrites.get(id);
+                return new PendingScreenshot(id, write != null ? write : CompletableFuture.completedFuture(null));
+            }
+
+            Path path = blobPath(id);
+            ScreenshotBlob blob = new ScreenshotBlob();
+            blob.setId(id);
+            blob.setFilePath(path.toString());
+            blob.setSizeBytes(image.length);
+            blob.setRefCount(1);
+            blobRepository.save(blob);
+            storedCount.incrementAndGet();
+
+            CompletableFuture<Void> write = screenshotPipeline.persist(image, path, scope);
+            inFlightWrites.put(id, write);
+            write.whenComplete((ignored, error) -> {
+                inFlightWrites.remove(id, write);
+                if (error != null) {
+                    discardFailedBlob(id);
+                }
+            });
+            return new PendingScreenshot(id, write);
+        }
+    }
+
+    public Optional<Path> resolve(String reference) {
+        if (isBlobId(reference)) {
+            return blobRepository.findById(reference).map(blob -> Paths.get(blob.getFilePath()));
+        }
+        return Optional.ofNullable(reference).map(Paths::get);
+    }
+
+    // Drops one reference per entry; files are unlinked by the background collector
+    public void release(Collection<String> references) {
+        if (references == null || references.isEmpty()) {
+            return;
+        }
+        List<String> legacyPaths = references.stream().filter(reference -> !isBlobId(reference)).toList();
+        references.stream().filter(ScreenshotStore::isBlobId).forEach(blobRepository::decrementRefCount);
+
+        // Files go only once the releasing transaction has committed; a rollback keeps them referenced
+        Runnable cleanup = () -> {
+            if (!legacyPaths.isEmpty()) {
+                collector.execute(() -> legacyPaths.forEach(this::deleteFile));
+            }
+            if (sweepRequested.compareAndSet(false, true)) {
+                collector.execute(() -> {
+                    sweepRequested.set(false);
+                    collectGarbage();
+                });
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cleanup.run();
+                }
+            });
+        } else {
+            cleanup.run();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("blobsStored", storedCount.get());
+        stats.put("capturesDeduplicated", deduplicatedCount.get());
+        stats.put("blobsCollected", collectedCount.get());
+        return stats;
+    }
+
+    // The file never made it to disk: drop the row so no capture deduplicates onto it and the next
+    // identical one writes the file again. References already handed out resolve to nothing.
+    private void discardFailedBlob(String id) {
+        synchronized (lockFor(id)) {
+            try {
+                blobRepository.deleteById(id);
+                log.warn("Screenshot {} could not be written; discarded its blob record", id);
+            } catch (Exception e) {
+                log.error("Failed to discard blob record of unwritten screenshot {}", id, e);
+            }
+        }
+    }
+
+    private void collectGarbage() {
+        try {
+            List<String> candidates;
+            do {
+                candidates = blobRepository.findUnreferencedIds(PageRequest.of(0, GC_BATCH_SIZE));
+                for (String id : candidates) {
+                    collect(id);
+                }
+            } while (candidates.size() == GC_BATCH_SIZE);
+        } catch (Exception e) {
+            log.error("Screenshot garbage collection failed", e);
+        }
+    }
+
+    private void collect(String id) {
+        synchronized (lockFor(id)) {
+            Optional<ScreenshotBlob> blob = blobRepository.findById(id);
+            if (blob.isPresent() && blobRepository.deleteIfUnreferenced(id) > 0) {
+                deleteFile(blob.get().getFilePath());
+                collectedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void deleteFile(String path) {
+        try {
+            Files.deleteIfExists(Paths.get(path));
+            log.debug("Deleted screenshot: {}", path);
+        } catch (Exception e) {
+            log.error("Failed to delete screenshot: " + path, e);
+        }
+    }
+
+    private Path blobPath(String id) {
+        return Paths.get(screenshotPath, "blobs", id.substring(0, 2), id + screenshotPipeline.getFileExtension());
+    }
+
+    private Object lockFor(String id) {
+        return locks[Math.floorMod(id.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationStep;
+import com.automation.model.SessionSnapshot;
+import com.automation.repository.SessionSnapshotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Saves a config's login state at its CHECKPOINT step and restores it in later runs, so they can
+ * skip the steps before the checkpoint. The snapshot holds the cookies and local/session storage
+ * of the page the checkpoint ran on, encrypted with AES-GCM. Snapshots are keyed by the config and
+ * a hash of the steps before the checkpoint, so fan-out rows with different logins each keep their
+ * own, and editing those steps makes runs log in afresh. A snapshot is dropped when it expires or
+ * when the checkpoint's selector no longer shows up after a restore; the run then performs the full
+ * login and saves a fresh one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionCheckpointService {
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int NONCE_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private static final String READ_STORAGE = """
+            const dump = s => { const o = {}; for (let i = 0; i < s.length; i++) { const k = s.key(i); o[k] = s.getItem(k); } return o; };
+            return { local: dump(window.localStorage), session: dump(window.sessionStorage) };
+            """;
+    private static final String WRITE_STORAGE = """
+            for (const [k, v] of Object.entries(arguments[0] || {})) window.localStorage.setItem(k, v);
+            for (const [k, v] of Object.entries(arguments[1] || {})) window.sessionStorage.setItem(k, v);
+            """;
+    private static final String CLEAR_STORAGE =
+            "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}";
+
+    private final SessionSnapshotRepository snapshotRepository;
+    private final ObjectMapper objectMapper;
+    private final WebDriverService webDriverService;
+
+    @Value("${automation.session-checkpoint.enabled:true}")
+    private boolean enabled;
+
+    @Value("${automation.session-checkpoint.key:}")
+    private String configuredKey;
+
+    @Value("${automation.session-checkpoint.ttl-minutes:60}")
+    private long defaultTtlMinutes;
+
+    @Value("${automation.driver.timeout:30}")
+    private int verifyTimeoutSeconds;
+
+    private final SecureRandom random = new SecureRandom();
+    private SecretKey key;
+
+    @PostConstruct
+    public void init() throws GeneralSecurityException {
+        if (configuredKey == null || configuredKey.isBlank()) {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(256, random);
+            key = generator.generateKey();
+            log.warn("automation.session-checkpoint.key is not set; session snapshots will not survive a restart");
+            return;
+        }
+        byte[] raw = Base64.getDecoder().decode(configuredKey.trim());
+        if (raw.length != 16 && raw.length != 24 && raw.length != 32) {
+            throw new IllegalStateException("automation.session-checkpoint.key must be a base64 AES key of 16, 24 or 32 bytes");
+        }
+        key = new SecretKeySpec(raw, "AES");
+    }
+
+    public static int checkpointIndex(List<AutomationStep> steps) {
+        for (int i = 0; i < steps.size(); i++) {
+            if (steps.get(i).getType() == AutomationStep.StepType.CHECKPOINT) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Index of the first step the run still has to execute: past the checkpoint when a snapshot was restored
+    public int restore(WebDriver driver, AutomationConfig config, RunContext context) {
+        List<AutomationStep> steps = context.getSteps();
+        int checkpoint = enabled ? checkpointIndex(steps) : -1;
+        if (checkpoint < 0) {
+            return 0;
+        }
+        SessionSnapshot.Key id = new SessionSnapshot.Key(config.getId(), prefixHash(steps.subList(0, checkpoint)));
+        Optional<SessionSnapshot> found = snapshotRepository.findById(id);
+        if (found.isEmpty()) {
+            return 0;
+        }
+        SessionSnapshot snapshot = found.get();
+        if (snapshot.getExpiresAt().isBefore(LocalDateTime.now())) {
+            discard(id, context, "Session checkpoint expired; running the login steps");
+            return 0;
+        }
+
+        SessionState state;
+        try {
+            state = objectMapper.readValue(decrypt(snapshot.getData(), id), SessionState.class);
+        } catch (Exception e) {
+            log.debug("Failed to read session snapshot of config {}", config.getId(), e);
+            discard(id, context, "Session checkpoint could not be decrypted; running the login steps");
+            return 0;
+        }
+
+        AutomationStep checkpointStep = steps.get(checkpoint);
+        try {
+            apply(driver, state, context);
+            if (checkpointStep.getSelector() != null && !checkpointStep.getSelector().isBlank()) {
+                webDriverService.waitForElement(driver, checkpointStep.getSelector(),
+                        Duration.ofSeconds(checkpointStep.getTimeoutSeconds() != null
+                                ? checkpointStep.getTimeoutSeconds() : verifyTimeoutSeconds),
+                        Duration.ofMillis(checkpointStep.getPollMillis() != null ? checkpointStep.getPollMillis() : 250));
+            }
+        } catch (TimeoutException | IllegalArgumentException e) {
+            clearBrowserState(driver);
+            discard(id, context, "Restored session is no longer logged in; running the login steps");
+            return 0;
+        }
+        context.log("Restored session checkpoint from " + snapshot.getCreatedAt() + "; skipped "
+                + checkpoint + " login steps");
+        return checkpoint + 1;
+    }
+
+    // Runs as the CHECKPOINT step: saves the current cookies and storage for later runs
+    public void capture(WebDriver driver, AutomationConfig config, AutomationStep step, RunContext context)
+            throws Exception {
+        if (!enabled) {
+            context.log("Session checkpoints are disabled");
+            return;
+        }
+        List<AutomationStep> steps = context.getSteps();
+        int checkpoint = steps.indexOf(step);
+
+        SessionState state = new SessionState();
+        state.setUrl(driver.getCurrentUrl());
+        for (Cookie cookie : driver.manage().getCookies()) {
+            Map<String, Object> saved = new LinkedHashMap<>();
+            saved.put("name", cookie.getName());
+            saved.put("value", cookie.getValue());
+            saved.put("domain", cookie.getDomain());
+            saved.put("path", cookie.getPath());
+            saved.put("expiry", cookie.getExpiry() != null ? cookie.getExpiry().getTime() : null);
+            saved.put("secure", cookie.isSecure());
+            saved.put("httpOnly", cookie.isHttpOnly());
+            saved.put("sameSite", cookie.getSameSite());
+            state.getCookies().add(saved);
+        }
+        if (webDriverService.javascript(driver).executeScript(READ_STORAGE) instanceof Map<?, ?> storage) {
+            state.setLocalStorage(stringMap(storage.get("local")));
+            state.setSessionStorage(stringMap(storage.get("session")));
+        }
+
+        long ttlMinutes = step.getValue() != null && !step.getValue().isBlank()
+                ? Long.parseLong(step.getValue().trim()) : defaultTtlMinutes;
+        SessionSnapshot snapshot = new SessionSnapshot();
+        snapshot.setConfigId(config.getId());
+        snapshot.setPrefixHash(prefixHash(steps.subList(0, Math.max(0, checkpoint))));
+        snapshot.setCreatedAt(LocalDateTime.now());
+        snapshot.setExpiresAt(snapshot.getCreatedAt().plusMinutes(ttlMinutes));
+        snapshot.setData(encrypt(objectMapper.writeValueAsBytes(state),
+                new SessionSnapshot.Key(snapshot.getConfigId(), snapshot.getPrefixHash())));
+        upsert(snapshot);
+        snapshotRepository.deleteExpired(config.getId(), snapshot.getCreatedAt());
+        context.log("Session checkpoint saved (" + state.getCookies().size() + " cookies, valid for "
+                + ttlMinutes + " minutes)");
+    }
+
+    public void delete(Long configId) {
+        snapshotRepository.deleteByConfigId(configId);
+    }
+
+    // Fan-out rows sharing a login capture it concurrently: update in place, insert if missing, and
+    // update after all when another row inserted it first
+    private void upsert(SessionSnapshot snapshot) {
+        if (update(snapshot) > 0) {
+            return;
+        }
+        try {
+            snapshotRepository.save(snapshot);
+        } catch (DataIntegrityViolationException e) {
+            update(snapshot);
+        }
+    }
+
+    private int update(SessionSnapshot snapshot) {
+        return snapshotRepository.updateSnapshot(snapshot.getConfigId(), snapshot.getPrefixHash(),
+                snapshot.getCreatedAt(), snapshot.getExpiresAt(), snapshot.getData());
+    }
+
+    private void apply(WebDriver driver, SessionState state, RunContext context) {
+        // Cookies and storage can only be set on the page's own origin; robots.txt gets us there cheaply
+        URI url = URI.create(state.getUrl());
+        driver.get(url.getScheme() + "://" + url.getRawAuthority() + "/robots.txt");
+        int skipped = 0;
+        for (Map<String, Object> saved : state.getCookies()) {
+            Cookie.Builder cookie = new Cookie.Builder((String) saved.get("name"), (String) saved.get("value"))
+                    .domain((String) saved.get("domain"))
+                    .path((String) saved.get("path"))
+                    .isSecure(Boolean.TRUE.equals(saved.get("secure")))
+                    .isHttpOnly(Boolean.TRUE.equals(saved.get("httpOnly")))
+                    .sameSite((String) saved.get("sameSite"));
+            if (saved.get("expiry") instanceof Number expiry) {
+                cookie.expiresOn(new Date(expiry.longValue()));
+            }
+            try {
+                driver.manage().addCookie(cookie.build());
+            } catch (Exception e) {
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            context.log("Skipped " + skipped + " saved cookies the browser would not accept");
+        }
+        webDriverService.javascript(driver).executeScript(WRITE_STORAGE, state.getLocalStorage(), state.getSessionStorage());
+        driver.get(state.getUrl());
+        context.getElements().invalidate();
+    }
+
+    private void clearBrowserState(WebDriver driver) {
+        try {
+            driver.manage().deleteAllCookies();
+            webDriverService.javascript(driver).executeScript(CLEAR_STORAGE);
+        } catch (Exception e) {
+            log.debug("Failed to clear restored session state", e);
+        }
+    }
+
+    private void discard(SessionSnapshot.Key id, RunContext context, String reason) {
+        snapshotRepository.deleteById(id);
+        context.log(reason);
+    }
+
+    // Binds the ciphertext to its config and login, so a snapshot copied to another row fails to decrypt
+    private byte[] encrypt(byte[] plain, SessionSnapshot.Key id) throws GeneralSecurityException {
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce));
+        cipher.updateAAD(associatedData(id));
+        byte[] sealed = cipher.doFinal(plain);
+        return ByteBuffer.allocate(nonce.length + sealed.length).put(nonce).put(sealed).array();
+    }
+
+    private byte[] decrypt(byte[] data, SessionSnapshot.Key id) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, data, 0, NONCE_BYTES));
+        cipher.updateAAD(associatedData(id));
+        return cipher.doFinal(data, NONCE_BYTES, data.length - NONCE_BYTES);
+    }
+
+    private static byte[] associatedData(SessionSnapshot.Key id) {
+        return ("session-snapshot:" + id.getConfigId() + ":" + id.getPrefixHash()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String prefixHash(List<AutomationStep> prefix) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (AutomationStep step : prefix) {
+                String line = step.getType() + "\u0000" + step.getSelector() + "\u0000" + step.getValue() + "\n";
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> stringMap(Object raw) {
+        Map<String, String> values = new LinkedHashMap<>();
+        if (raw instanceof Map<?, ?> map) {
+            map.forEach((k, v) -> values.put(String.valueOf(k), v != null ? v.toString() : null));
+        }
+        return values;
+    }
+
+    @Data
+    static class SessionState {
+        private String url;
+        private List<Map<String, Object>> cookies = new ArrayList<>();
+        private Map<String, String> localStorage = new LinkedHashMap<>();
+        private Map<String, String> sessionStorage = new LinkedHashMap<>();
+    }
+}
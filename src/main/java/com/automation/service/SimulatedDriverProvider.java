@@ -0,0 +1,44 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// In-process fake browser for load-testing the scheduler and executor without Chrome
+@Component
+public class SimulatedDriverProvider implements DriverProvider {
+
+    @Value("${automation.driver.simulated.navigate-millis:50}")
+    private long navigateMillis;
+
+    @Value("${automation.driver.simulated.command-millis:2}")
+    private long commandMillis;
+
+    @Value("${automation.driver.simulated.screenshot-millis:10}")
+    private long screenshotMillis;
+
+    @Value("${automation.driver.simulated.jitter:0.2}")
+    private double jitter;
+
+    @Value("${automation.driver.simulated.failure-rate:0.0}")
+    private double failureRate;
+
+    @Value("${automation.driver.simulated.missing-element-rate:0.0}")
+    private double missingElementRate;
+
+    @Override
+    public AutomationConfig.DriverBackend getBackend() {
+        return AutomationConfig.DriverBackend.SIMULATED;
+    }
+
+    // Simulated navigation always takes navigate-millis, whatever the page load strategy
+    @Override
+    public WebDriver createDriver(PageLoadStrategy pageLoadStrategy) {
+        return new SimulatedWebDriver(Duration.ofMillis(navigateMillis), Duration.ofMillis(commandMillis),
+                Duration.ofMillis(screenshotMillis), jitter, failureRate, missingElementRate);
+    }
+}
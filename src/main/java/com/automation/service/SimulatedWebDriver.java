@@ -0,0 +1,510 @@
+package com.automation.service;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.logging.Logs;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WebDriver that talks to no browser. Every command takes a configurable latency, with jitter,
+ * and fails with a configurable probability; element lookups can also miss on purpose. Scripts
+ * answer the probes this application sends (document ready, resource count, fused step batches)
+ * and return null otherwise, and screenshots are a fixed 1x1 PNG.
+ */
+public class SimulatedWebDriver implements WebDriver, JavascriptExecutor, TakesScreenshot {
+
+    private static final int MAX_HISTORY = 50;
+
+    // 1x1 transparent PNG
+    private static final byte[] PNG = Base64.getDecoder().decode(
+            "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAQAAAC1HAwCAAAAC0lEQVR42mNkYAAAAAYAAjCB0C8AAAAASUVORK5CYII=");
+
+    private final Duration navigateLatency;
+    private final Duration commandLatency;
+    private final Duration screenshotLatency;
+    private final double jitter;
+    private final double failureRate;
+    private final double missingElementRate;
+
+    private final Set<String> windowHandles = new LinkedHashSet<>();
+    private final Map<String, Cookie> cookies = new LinkedHashMap<>();
+    private final List<String> history = new ArrayList<>();
+    private String currentWindow;
+    private int historyIndex = -1;
+    private volatile boolean quit = false;
+
+    public SimulatedWebDriver(Duration navigateLatency, Duration commandLatency, Duration screenshotLatency,
+                              double jitter, double failureRate, double missingElementRate) {
+        this.navigateLatency = navigateLatency;
+        this.commandLatency = commandLatency;
+        this.screenshotLatency = screenshotLatency;
+        this.jitter = Math.max(0, jitter);
+        this.failureRate = failureRate;
+        this.missingElementRate = missingElementRate;
+        this.currentWindow = newHandle();
+        windowHandles.add(currentWindow);
+    }
+
+    @Override
+    public synchronized void get(String url) {
+        command(navigateLatency);
+        history.subList(historyIndex + 1, history.size()).clear();
+        history.add(url);
+        if (history.size() > MAX_HISTORY) {
+            history.remove(0);
+        }
+        historyIndex = history.size() - 1;
+    }
+
+    @Override
+    public synchronized String getCurrentUrl() {
+        command(commandLatency);
+        return historyIndex < 0 ? "about:blank" : history.get(historyIndex);
+    }
+
+    @Override
+    public String getTitle() {
+        command(commandLatency);
+        return "Simulated page";
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return List.of(findElement(by));
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        command(commandLatency);
+        if (missingElementRate > 0 && ThreadLocalRandom.current().nextDouble() < missingElementRate) {
+            throw new NoSuchElementException("Simulated missing element: " + by);
+        }
+        return new SimulatedElement(by);
+    }
+
+    @Override
+    public String getPageSource() {
+        command(commandLatency);
+        return "<html><body></body></html>";
+    }
+
+    @Override
+    public synchronized void close() {
+        command(commandLatency);
+        windowHandles.remove(currentWindow);
+        if (windowHandles.isEmpty()) {
+            quit = true;
+        }
+    }
+
+    @Override
+    public void quit() {
+        quit = true;
+    }
+
+    @Override
+    public synchronized Set<String> getWindowHandles() {
+        command(commandLatency);
+        return new LinkedHashSet<>(windowHandles);
+    }
+
+    @Override
+    public synchronized String getWindowHandle() {
+        command(commandLatency);
+        if (!windowHandles.contains(currentWindow)) {
+            throw new NoSuchWindowException("Window was closed: " + currentWindow);
+        }
+        return currentWindow;
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        return new SimulatedTargetLocator();
+    }
+
+    @Override
+    public Navigation navigate() {
+        return new SimulatedNavigation();
+    }
+
+    @Override
+    public Options manage() {
+        return new SimulatedOptions();
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        command(commandLatency);
+        if (script.startsWith(WebDriverService.NETWORK_ACTIVITY_MARKER)) {
+            return "0";
+        }
+        if (script.contains("getEntriesByType")) {
+            return 0L;
+        }
+        if (script.contains("readyState")) {
+            return "complete";
+        }
+        return null;
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        if (script.startsWith(FusedDomSteps.SCRIPT_MARKER) && args.length > 0 && args[0] instanceof List<?> steps) {
+            // One command for the whole batch; each step succeeds unless the lookup misses
+            command(commandLatency);
+            List<Map<String, Object>> results = new ArrayList<>(steps.size());
+            for (Object step : steps) {
+                if (missingElementRate > 0 && ThreadLocalRandom.current().nextDouble() < missingElementRate) {
+                    results.add(Map.of("ok", false, "millis", 0.0, "error", "Simulated missing element"));
+                    break;
+                }
+                results.add(Map.of("ok", true, "millis", 0.0));
+            }
+            return results;
+        }
+        return executeScript(script, args);
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        command(screenshotLatency);
+        return target.convertFromPngBytes(PNG.clone());
+    }
+
+    // Spends the latency of one command, then fails it at the configured rate
+    private void command(Duration latency) {
+        if (quit) {
+            throw new NoSuchSessionException("Simulated session was quit");
+        }
+        long nanos = latency.toNanos();
+        if (nanos > 0) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long spread = (long) (nanos * jitter);
+            long deadline = System.nanoTime() + nanos + (spread > 0 ? random.nextLong(-spread, spread + 1) : 0);
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new WebDriverException("Interrupted during simulated command");
+                }
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new WebDriverException("Simulated command failure");
+        }
+    }
+
+    private static String newHandle() {
+        return UUID.randomUUID().toString();
+    }
+
+    // Every element answers as a <select>, so SELECT steps work; no other step looks at the tag
+    private class SimulatedElement implements WebElement {
+        private final By locator;
+        private final StringBuilder value = new StringBuilder();
+        private boolean selected;
+
+        private SimulatedElement(By locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public void click() {
+            command(commandLatency);
+            selected = true;
+        }
+
+        @Override
+        public void submit() {
+            command(commandLatency);
+        }
+
+        @Override
+        public void sendKeys(CharSequence... keysToSend) {
+            command(commandLatency);
+            for (CharSequence keys : keysToSend) {
+                value.append(keys);
+            }
+        }
+
+        @Override
+        public void clear() {
+            command(commandLatency);
+            value.setLength(0);
+        }
+
+        @Override
+        public String getTagName() {
+            command(commandLatency);
+            return "select";
+        }
+
+        @Override
+        public String getDomProperty(String name) {
+            return getAttribute(name);
+        }
+
+        @Override
+        public String getDomAttribute(String name) {
+            return getAttribute(name);
+        }
+
+        @Override
+        public String getAttribute(String name) {
+            command(commandLatency);
+            return "value".equals(name) ? value.toString() : null;
+        }
+
+        @Override
+        public boolean isSelected() {
+            command(commandLatency);
+            return selected;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            command(commandLatency);
+            return true;
+        }
+
+        // Text waits only match what a previous INPUT step typed into the element
+        @Override
+        public String getText() {
+            command(commandLatency);
+            return value.toString();
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            return SimulatedWebDriver.this.findElements(by);
+        }
+
+        @Override
+        public WebElement findElement(By by) {
+            return SimulatedWebDriver.this.findElement(by);
+        }
+
+        @Override
+        public boolean isDisplayed() {
+            command(commandLatency);
+            return true;
+        }
+
+        @Override
+        public Point getLocation() {
+            return new Point(0, 0);
+        }
+
+        @Override
+        public Dimension getSize() {
+            return new Dimension(1, 1);
+        }
+
+        @Override
+        public Rectangle getRect() {
+            return new Rectangle(getLocation(), getSize());
+        }
+
+        @Override
+        public String getCssValue(String propertyName) {
+            command(commandLatency);
+            return "";
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> target) {
+            return SimulatedWebDriver.this.getScreenshotAs(target);
+        }
+
+        @Override
+        public String toString() {
+            return "SimulatedElement[" + locator + "]";
+        }
+    }
+
+    private class SimulatedTargetLocator implements TargetLocator {
+        @Override
+        public WebDriver frame(int index) {
+            command(commandLatency);
+            return SimulatedWebDriver.this;
+        }
+
+        @Override
+        public WebDriver frame(String nameOrId) {
+            command(commandLatency);
+            return SimulatedWebDriver.this;
+        }
+
+        @Override
+        public WebDriver frame(WebElement frameElement) {
+            command(commandLatency);
+            return SimulatedWebDriver.this;
+        }
+
+        @Override
+        public WebDriver parentFrame() {
+            command(commandLatency);
+            return SimulatedWebDriver.this;
+        }
+
+        @Override
+        public WebDriver window(String nameOrHandle) {
+            command(commandLatency);
+            synchronized (SimulatedWebDriver.this) {
+                if (!windowHandles.contains(nameOrHandle)) {
+                    throw new NoSuchWindowException("No such window: " + nameOrHandle);
+                }
+                currentWindow = nameOrHandle;
+            }
+            return SimulatedWebDriver.this;
+        }
+
+        @Override
+        public WebDriver newWindow(WindowType typeHint) {
+            command(commandLatency);
+            synchronized (SimulatedWebDriver.this) {
+                currentWindow = newHandle();
+                windowHandles.add(currentWindow);
+            }
+            return SimulatedWebDriver.this;
+        }
+
+        @Override
+        public WebDriver defaultContent() {
+            command(commandLatency);
+            return SimulatedWebDriver.this;
+        }
+
+        @Override
+        public WebElement activeElement() {
+            return findElement(By.cssSelector(":focus"));
+        }
+
+        @Override
+        public Alert alert() {
+            throw new UnsupportedOperationException("Alerts are not simulated");
+        }
+    }
+
+    private class SimulatedNavigation implements Navigation {
+        @Override
+        public void back() {
+            command(navigateLatency);
+            synchronized (SimulatedWebDriver.this) {
+                historyIndex = Math.max(historyIndex - 1, history.isEmpty() ? -1 : 0);
+            }
+        }
+
+        @Override
+        public void forward() {
+            command(navigateLatency);
+            synchronized (SimulatedWebDriver.this) {
+                historyIndex = Math.min(historyIndex + 1, history.size() - 1);
+            }
+        }
+
+        @Override
+        public void to(String url) {
+            get(url);
+        }
+
+        @Override
+        public void to(URL url) {
+            get(url.toString());
+        }
+
+        @Override
+        public void refresh() {
+            command(navigateLatency);
+        }
+    }
+
+    private class SimulatedOptions implements Options {
+        @Override
+        public void addCookie(Cookie cookie) {
+            command(commandLatency);
+            synchronized (SimulatedWebDriver.this) {
+                cookies.put(cookie.getName(), cookie);
+            }
+        }
+
+        @Override
+        public void deleteCookieNamed(String name) {
+            command(commandLatency);
+            synchronized (SimulatedWebDriver.this) {
+                cookies.remove(name);
+            }
+        }
+
+        @Override
+        public void deleteCookie(Cookie cookie) {
+            deleteCookieNamed(cookie.getName());
+        }
+
+        @Override
+        public void deleteAllCookies() {
+            command(commandLatency);
+            synchronized (SimulatedWebDriver.this) {
+                cookies.clear();
+            }
+        }
+
+        @Override
+        public Set<Cookie> getCookies() {
+            command(commandLatency);
+            synchronized (SimulatedWebDriver.this) {
+                return new LinkedHashSet<>(cookies.values());
+            }
+        }
+
+        @Override
+        public Cookie getCookieNamed(String name) {
+            command(commandLatency);
+            synchronized (SimulatedWebDriver.this) {
+                return cookies.get(name);
+            }
+        }
+
+        @Override
+        public Timeouts timeouts() {
+            throw new UnsupportedOperationException("Timeouts are not simulated");
+        }
+
+        @Override
+        public Window window() {
+            throw new UnsupportedOperationException("Window management is not simulated");
+        }
+
+        // Left without @Override; logs() is deprecated in Options
+        public Logs logs() {
+            throw new UnsupportedOperationException("Logs are not simulated");
+        }
+    }
+}
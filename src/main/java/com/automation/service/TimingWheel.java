@@ -0,0 +1,297 @@
+package com.automation.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Hierarchical timing wheel. Each level is a ring of buckets holding doubly linked timeouts,
+ * so scheduling and cancelling are O(1). A single ticker thread advances the wheel, cascading
+ * timeouts from coarser levels as their bucket comes up, and hands everything that fell due in
+ * the same pass to the consumer as one batch.
+ */
+@Slf4j
+public class TimingWheel<T> implements AutoCloseable {
+
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final int wheelBits;
+    private final int wheelMask;
+    private final Consumer<List<Timeout<T>>> onExpired;
+    private final LongSupplier clock;
+    private final long startMillis;
+
+    // buckets[level][slot]; a bucket is the sentinel of a circular doubly linked list
+    private final Timeout<T>[][] buckets;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+    private int pending;
+    private final Thread ticker;
+    private volatile boolean closed = false;
+
+    // Statistics
+    private final AtomicLong firedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong totalLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    public TimingWheel(long tickMillis, int wheelSize, Consumer<List<Timeout<T>>> onExpired, String threadName) {
+        this(tickMillis, wheelSize, onExpired, System::currentTimeMillis, threadName);
+    }
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int wheelSize, Consumer<List<Timeout<T>>> onExpired,
+                LongSupplier clock, String threadName) {
+        if (tickMillis <= 0 || wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Tick must be positive and wheel size a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelBits = Integer.numberOfTrailingZeros(wheelSize);
+        this.wheelMask = wheelSize - 1;
+        this.onExpired = onExpired;
+        this.clock = clock;
+        this.startMillis = clock.getAsLong();
+        this.buckets = new Timeout[LEVELS][wheelSize];
+        for (Timeout<T>[] level : buckets) {
+            for (int slot = 0; slot < wheelSize; slot++) {
+                level[slot] = Timeout.sentinel();
+            }
+        }
+        this.ticker = new Thread(this::run, threadName);
+        this.ticker.setDaemon(true);
+    }
+
+    public void start() {
+        ticker.start();
+    }
+
+    public Timeout<T> schedule(long deadlineMillis, T payload) {
+        Timeout<T> timeout = new Timeout<>(this, deadlineMillis, payload);
+        lock.lock();
+        try {
+            insert(timeout);
+        } finally {
+            lock.unlock();
+        }
+        return timeout;
+    }
+
+    // Schedules many timeouts under a single lock acquisition
+    public List<Timeout<T>> scheduleAll(Map<T, Long> deadlines) {
+        List<Timeout<T>> timeouts = new ArrayList<>(deadlines.size());
+        lock.lock();
+        try {
+            deadlines.forEach((payload, deadline) -> {
+                Timeout<T> timeout = new Timeout<>(this, deadline, payload);
+                insert(timeout);
+                timeouts.add(timeout);
+            });
+        } finally {
+            lock.unlock();
+        }
+        return timeouts;
+    }
+
+    public int getPending() {
+        lock.lock();
+        try {
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long fired = firedCount.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tickMillis", tickMillis);
+        stats.put("wheelSize", wheelMask + 1);
+        stats.put("pending", getPending());
+        stats.put("fired", fired);
+        stats.put("batches", batchCount.get());
+        stats.put("avgLagMillis", fired == 0 ? 0.0 : (double) totalLagMillis.get() / fired);
+        stats.put("maxLagMillis", maxLagMillis.get());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        ticker.interrupt();
+    }
+
+    // Caller holds lock
+    private void insert(Timeout<T> timeout) {
+        long deadlineTick = Math.max(0, Math.floorDiv(timeout.deadline - startMillis + tickMillis - 1, tickMillis));
+        long delta = deadlineTick - currentTick;
+        int level = 0;
+        if (delta > 0) {
+            level = (63 - Long.numberOfLeadingZeros(delta)) / wheelBits;
+        }
+        if (level >= LEVELS) {
+            // Beyond the top level: park in the furthest top-level bucket and re-cascade from there
+            level = LEVELS - 1;
+            deadlineTick = currentTick + ((long) wheelMask << (wheelBits * level));
+        }
+        // Already due timeouts go into the current bucket, which is expired on the next pass
+        long tick = Math.max(deadlineTick, currentTick);
+        int slot = (int) ((tick >>> (wheelBits * level)) & wheelMask);
+        timeout.link(buckets[level][slot]);
+        pending++;
+    }
+
+    private void run() {
+        List<Timeout<T>> due = new ArrayList<>();
+        while (!closed) {
+            long targetTick = (clock.getAsLong() - startMillis) / tickMillis;
+            lock.lock();
+            try {
+                expire(currentTick, due);
+                while (currentTick < targetTick) {
+                    currentTick++;
+                    cascade(currentTick);
+                    expire(currentTick, due);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (!due.isEmpty()) {
+                fire(due);
+                due = new ArrayList<>();
+            }
+
+            long sleep = startMillis + (currentTick + 1) * tickMillis - clock.getAsLong();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Moves the timeouts of coarser buckets that start at this tick down the hierarchy. Caller holds lock.
+    private void cascade(long tick) {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((tick & ((1L << (wheelBits * level)) - 1)) != 0) {
+                return;
+            }
+            int slot = (int) ((tick >>> (wheelBits * level)) & wheelMask);
+            Timeout<T> bucket = buckets[level][slot];
+            Timeout<T> timeout = bucket.next;
+            while (timeout != bucket) {
+                Timeout<T> next = timeout.next;
+                timeout.unlink();
+                pending--;
+                insert(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    // Caller holds lock
+    private void expire(long tick, List<Timeout<T>> due) {
+        Timeout<T> bucket = buckets[0][(int) (tick & wheelMask)];
+        Timeout<T> timeout = bucket.next;
+        while (timeout != bucket) {
+            Timeout<T> next = timeout.next;
+            timeout.unlink();
+            pending--;
+            due.add(timeout);
+            timeout = next;
+        }
+    }
+
+    private void fire(List<Timeout<T>> due) {
+        long now = clock.getAsLong();
+        for (Timeout<T> timeout : due) {
+            long lag = Math.max(0, now - timeout.deadline);
+            totalLagMillis.addAndGet(lag);
+            maxLagMillis.accumulateAndGet(lag, Math::max);
+        }
+        firedCount.addAndGet(due.size());
+        batchCount.incrementAndGet();
+        try {
+            onExpired.accept(due);
+        } catch (Exception e) {
+            log.error("Timing wheel consumer failed for a batch of {} timeouts", due.size(), e);
+        }
+    }
+
+    public static final class Timeout<T> {
+        private final TimingWheel<T> wheel;
+        private final long deadline;
+        private final T payload;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(TimingWheel<T> wheel, long deadline, T payload) {
+            this.wheel = wheel;
+            this.deadline = deadline;
+            this.payload = payload;
+        }
+
+        private static <T> Timeout<T> sentinel() {
+            Timeout<T> sentinel = new Timeout<>(null, 0, null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        // True if the timeout was still pending; it will not be handed to the consumer
+        public boolean cancel() {
+            wheel.lock.lock();
+            try {
+                if (prev == null) {
+                    return false;
+                }
+                unlink();
+                wheel.pending--;
+                return true;
+            } finally {
+                wheel.lock.unlock();
+            }
+        }
+
+        public boolean isPending() {
+            wheel.lock.lock();
+            try {
+                return prev != null;
+            } finally {
+                wheel.lock.unlock();
+            }
+        }
+
+        private void link(Timeout<T> bucket) {
+            prev = bucket.prev;
+            next = bucket;
+            bucket.prev.next = this;
+            bucket.prev = this;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
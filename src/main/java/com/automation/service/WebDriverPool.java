@@ -0,0 +1,273 @@
+package com.automation.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of warm WebDriver sessions. Drivers are reset to a blank page between leases
+ * and recycled after a number of uses or when idle for too long.
+ */
+@Slf4j
+public class WebDriverPool implements AutoCloseable {
+
+    private final Supplier<WebDriver> driverFactory;
+    private final Consumer<WebDriver> driverCloser;
+    private final int minSize;
+    private final int maxSize;
+    private final int maxUses;
+    private final Duration idleTimeout;
+    private final Duration leaseTimeout;
+
+    // Leasable slots; a permit is held for as long as a driver is leased
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledDriver> idle = new LinkedBlockingDeque<>();
+    private final Map<WebDriver, PooledDriver> leased = new ConcurrentHashMap<>();
+    private final AtomicInteger totalDrivers = new AtomicInteger();
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean closed = false;
+
+    // Statistics
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicLong reuseCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong failedHealthChecks = new AtomicLong();
+    private final AtomicLong totalLeaseNanos = new AtomicLong();
+    private final AtomicLong maxLeaseNanos = new AtomicLong();
+
+    public WebDriverPool(Supplier<WebDriver> driverFactory, Consumer<WebDriver> driverCloser, int minSize,
+                         int maxSize, int maxUses, Duration idleTimeout, Duration leaseTimeout) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Driver pool max size must be greater than 0");
+        }
+        this.driverFactory = driverFactory;
+        this.driverCloser = driverCloser;
+        this.minSize = Math.max(0, Math.min(minSize, maxSize));
+        this.maxSize = maxSize;
+        this.maxUses = Math.max(1, maxUses);
+        this.idleTimeout = idleTimeout;
+        this.leaseTimeout = leaseTimeout;
+        this.permits = new Semaphore(maxSize, true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "driver-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        long period = Math.max(1, Math.min(idleTimeout.toSeconds(), 30));
+        maintenance.execute(this::replenish);
+        maintenance.scheduleWithFixedDelay(this::maintain, period, period, TimeUnit.SECONDS);
+        log.info("Driver pool started (min={}, max={}, maxUses={}, idleTimeout={})",
+                minSize, maxSize, maxUses, idleTimeout);
+    }
+
+    public WebDriver lease() throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Driver pool is closed");
+        }
+        long started = System.nanoTime();
+        if (!permits.tryAcquire(leaseTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Timed out after " + leaseTimeout.toSeconds()
+                    + " seconds waiting for a browser session");
+        }
+
+        try {
+            PooledDriver pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isHealthy(pooled)) {
+                    reuseCount.incrementAndGet();
+                    break;
+                }
+                failedHealthChecks.incrementAndGet();
+                destroy(pooled);
+            }
+            if (pooled == null) {
+                pooled = create();
+            }
+            pooled.uses++;
+            leased.put(pooled.driver, pooled);
+            recordLease(System.nanoTime() - started);
+            return pooled.driver;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void release(WebDriver driver) {
+        PooledDriver pooled = leased.remove(driver);
+        if (pooled == null) {
+            return;
+        }
+        try {
+            if (closed || pooled.uses >= maxUses || !reset(pooled)) {
+                destroy(pooled);
+            } else {
+                pooled.lastReturned = System.nanoTime();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Drops a driver whose session is known to be broken instead of returning it to the pool
+    public void invalidate(WebDriver driver) {
+        PooledDriver pooled = leased.remove(driver);
+        if (pooled == null) {
+            return;
+        }
+        try {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long leases = leaseCount.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("minSize", minSize);
+        stats.put("maxSize", maxSize);
+        stats.put("size", totalDrivers.get());
+        stats.put("idle", idle.size());
+        stats.put("leased", leased.size());
+        stats.put("waiting", permits.getQueueLength());
+        stats.put("leases", leases);
+        stats.put("reused", reuseCount.get());
+        stats.put("hitRate", leases == 0 ? 0.0 : (double) reuseCount.get() / leases);
+        stats.put("created", createdCount.get());
+        stats.put("destroyed", destroyedCount.get());
+        stats.put("failedHealthChecks", failedHealthChecks.get());
+        stats.put("avgLeaseMillis", leases == 0 ? 0.0 : totalLeaseNanos.get() / 1_000_000.0 / leases);
+        stats.put("maxLeaseMillis", maxLeaseNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        maintenance.shutdownNow();
+        PooledDriver pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        // Leased drivers are quit when their runs hand them back
+        log.info("Driver pool closed ({} drivers still leased)", leased.size());
+    }
+
+    private PooledDriver create() {
+        WebDriver driver = driverFactory.get();
+        totalDrivers.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PooledDriver(driver);
+    }
+
+    private void destroy(PooledDriver pooled) {
+        try {
+            driverCloser.accept(pooled.driver);
+        } catch (Exception e) {
+            log.debug("Failed to quit pooled driver", e);
+        }
+        totalDrivers.decrementAndGet();
+        destroyedCount.incrementAndGet();
+    }
+
+    private boolean isHealthy(PooledDriver pooled) {
+        try {
+            pooled.driver.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            log.debug("Pooled driver failed health check", e);
+            return false;
+        }
+    }
+
+    // Clears everything a previous run may have left behind: extra tabs, cookies and web storage
+    private boolean reset(PooledDriver pooled) {
+        WebDriver driver = pooled.driver;
+        try {
+            List<String> handles = new ArrayList<>(driver.getWindowHandles());
+            String keep = handles.get(0);
+            for (String handle : handles.subList(1, handles.size())) {
+                driver.switchTo().window(handle);
+                driver.close();
+            }
+            driver.switchTo().window(keep);
+            driver.manage().deleteAllCookies();
+            if (driver instanceof JavascriptExecutor js) {
+                js.executeScript("try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            }
+            driver.get("about:blank");
+            return true;
+        } catch (Exception e) {
+            log.debug("Failed to reset pooled driver", e);
+            return false;
+        }
+    }
+
+    private void maintain() {
+        if (closed) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (PooledDriver pooled : List.copyOf(idle)) {
+            boolean expired = now - pooled.lastReturned > idleTimeout.toNanos();
+            if (expired && totalDrivers.get() > minSize && idle.remove(pooled)) {
+                log.debug("Evicting idle driver after {}", idleTimeout);
+                destroy(pooled);
+            }
+        }
+        replenish();
+    }
+
+    private void replenish() {
+        while (!closed && totalDrivers.get() < minSize && permits.tryAcquire()) {
+            try {
+                PooledDriver pooled = create();
+                pooled.lastReturned = System.nanoTime();
+                idle.offerLast(pooled);
+            } catch (Exception e) {
+                log.warn("Failed to pre-start browser session: {}", e.getMessage());
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private void recordLease(long nanos) {
+        leaseCount.incrementAndGet();
+        totalLeaseNanos.addAndGet(nanos);
+        maxLeaseNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static final class PooledDriver {
+        private final WebDriver driver;
+        private int uses;
+        private long lastReturned = System.nanoTime();
+
+        private PooledDriver(WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+}
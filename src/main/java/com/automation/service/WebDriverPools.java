@@ -0,0 +1,106 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.NavigationProfile;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.PageLoadStrategy;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One {@link WebDriverPool} per driver backend and page load strategy, since the strategy is fixed
+ * when a session starts. The default backend's normal-load pool is started up front; the others
+ * are started on first use and keep no warm sessions.
+ */
+@Slf4j
+public class WebDriverPools implements AutoCloseable {
+
+    private final Map<AutomationConfig.DriverBackend, DriverProvider> providers =
+            new EnumMap<>(AutomationConfig.DriverBackend.class);
+    // Keyed by backend name, suffixed with the strategy for anything but normal page loads
+    private final Map<String, WebDriverPool> pools = new LinkedHashMap<>();
+    @Getter
+    private final AutomationConfig.DriverBackend defaultBackend;
+    private final AutomationMetrics metrics;
+    private final int minSize;
+    @Getter
+    private final int maxSize;
+    private final int maxUses;
+    private final Duration idleTimeout;
+    private final Duration leaseTimeout;
+    private boolean closed = false;
+
+    public WebDriverPools(List<DriverProvider> providers, AutomationConfig.DriverBackend defaultBackend,
+                          AutomationMetrics metrics, int minSize, int maxSize, int maxUses, Duration idleTimeout,
+                          Duration leaseTimeout) {
+        providers.forEach(provider -> this.providers.put(provider.getBackend(), provider));
+        this.defaultBackend = defaultBackend;
+        this.metrics = metrics;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.maxUses = maxUses;
+        this.idleTimeout = idleTimeout;
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    public void start() {
+        forBackend(defaultBackend);
+    }
+
+    // The config's own backend (or the default one) with the page load strategy of its navigation profile
+    public WebDriverPool forConfig(AutomationConfig config) {
+        return forBackend(config.getDriverBackend() != null ? config.getDriverBackend() : defaultBackend,
+                NavigationSession.pageLoad(config.getNavigationProfile()));
+    }
+
+    public WebDriverPool forBackend(AutomationConfig.DriverBackend backend) {
+        return forBackend(backend, NavigationProfile.PageLoad.NORMAL);
+    }
+
+    public synchronized WebDriverPool forBackend(AutomationConfig.DriverBackend backend,
+                                                 NavigationProfile.PageLoad pageLoad) {
+        if (closed) {
+            throw new IllegalStateException("Driver pools are closed");
+        }
+        String name = pageLoad == NavigationProfile.PageLoad.NORMAL ? backend.name() : backend.name() + "/" + pageLoad;
+        return pools.computeIfAbsent(name, key -> {
+            DriverProvider provider = providers.get(backend);
+            if (provider == null) {
+                throw new IllegalStateException("No driver provider for backend " + backend);
+            }
+            PageLoadStrategy strategy = PageLoadStrategy.fromString(pageLoad.name().toLowerCase());
+            int warmSessions = pageLoad == NavigationProfile.PageLoad.NORMAL ? minSize : 0;
+            WebDriverPool pool = new WebDriverPool(() -> metrics.createDriver(backend, () -> provider.createDriver(strategy)),
+                    driver -> metrics.quitDriver(backend, driver), warmSessions, maxSize, maxUses, idleTimeout, leaseTimeout);
+            pool.start();
+            log.info("Started driver pool {}", key);
+            return pool;
+        });
+    }
+
+    // Stats of the default backend's pool, plus a per-backend breakdown of every started pool
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("defaultBackend", defaultBackend);
+        WebDriverPool defaultPool = pools.get(defaultBackend.name());
+        if (defaultPool != null) {
+            stats.putAll(defaultPool.getStats());
+        }
+        Map<String, Object> backends = new LinkedHashMap<>();
+        pools.forEach((name, pool) -> backends.put(name, pool.getStats()));
+        stats.put("backends", backends);
+        return stats;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        pools.values().forEach(WebDriverPool::close);
+        pools.clear();
+    }
+}
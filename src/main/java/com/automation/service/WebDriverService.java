@@ -1,46 +1,60 @@
 package com.automation.service;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.*;
-import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.Duration;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class WebDriverService {
 
-    @Value("${automation.screenshot.path:screenshots}")
-    private String screenshotPath;
+    private final ScreenshotPipeline screenshotPipeline;
+    private final ScreenshotStore screenshotStore;
 
     @Value("${automation.driver.headless:false}")
     private boolean headless;
 
-    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
-
-    public WebDriver createDriver() {
-        // Suppress CDP version warnings
-        Logger.getLogger("org.openqa.selenium").setLevel(Level.WARNING);
-        System.setProperty("webdriver.chrome.silentOutput", "true");
+    static final String NETWORK_ACTIVITY_MARKER = "/* network-activity */";
+
+    // Finished request count as a string, or null while the document loads or a fetch/XHR is in flight
+    static final String NETWORK_ACTIVITY = NETWORK_ACTIVITY_MARKER + """
+            const w = window;
+            if (!w.__automationNetwork) {
+                const n = w.__automationNetwork = { inFlight: 0, finished: 0 };
+                const end = () => { n.inFlight = Math.max(0, n.inFlight - 1); n.finished++; };
+                if (w.fetch) {
+                    const fetch = w.fetch;
+                    w.fetch = function () { n.inFlight++; return fetch.apply(this, arguments).finally(end); };
+                }
+                const send = XMLHttpRequest.prototype.send;
+                XMLHttpRequest.prototype.send = function () {
+                    n.inFlight++;
+                    this.addEventListener('loadend', end, { once: true });
+                    return send.apply(this, arguments);
+                };
+                try {
+                    new PerformanceObserver(list => { n.finished += list.getEntries().length; })
+                            .observe({ type: 'resource', buffered: true });
+                } catch (e) {}
+            }
+            const n = w.__automationNetwork;
+            return document.readyState === 'complete' && n.inFlight === 0 ? String(n.finished) : null;
+            """;
 
-        // Setup ChromeDriver using WebDriverManager
-        WebDriverManager.chromedriver().setup();
+    private static final Duration DEFAULT_POLL = Duration.ofMillis(250);
 
+    // Chrome settings shared by the local and remote backends
+    public ChromeOptions chromeOptions(PageLoadStrategy pageLoadStrategy) {
         ChromeOptions options = new ChromeOptions();
 
         if (headless) {
@@ -67,81 +81,135 @@ public class WebDriverService {
         prefs.put("profile.default_content_setting_values.notifications", 2);
         options.setExperimentalOption("prefs", prefs);
 
-        // Set page load strategy
-        options.setPageLoadStrategy(PageLoadStrategy.NORMAL);
+        // Fixed for the session's lifetime, so pools keep sessions of each strategy apart
+        options.setPageLoadStrategy(pageLoadStrategy);
 
         // Disable logs
         options.addArguments("--log-level=3");
         options.addArguments("--silent");
 
-        return new ChromeDriver(options);
+        return options;
     }
 
-    public String captureScreenshot(WebDriver driver, String selector, String configName) throws Exception {
-        return captureScreenshot(driver, selector, configName, null);
+    // Script access to the driver, whichever backend created it
+    public JavascriptExecutor javascript(WebDriver driver) {
+        if (driver instanceof JavascriptExecutor js) {
+            return js;
+        }
+        throw new UnsupportedOperationException(driver.getClass().getSimpleName() + " cannot execute scripts");
     }
 
-    public String captureScreenshot(WebDriver driver, String selector, String configName, Integer stepNumber) throws Exception {
-        // Sanitize config name for filename and directory
-        String sanitizedConfigName = configName.replaceAll("[^a-zA-Z0-9-_]", "_");
-
-        // Generate timestamp
-        String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
-
-        // Build filename
-        StringBuilder fileNameBuilder = new StringBuilder();
-        fileNameBuilder.append(sanitizedConfigName);
-        fileNameBuilder.append("_");
-        fileNameBuilder.append(timestamp);
-
-        if (stepNumber != null) {
-            fileNameBuilder.append("_step");
-            fileNameBuilder.append(stepNumber);
+    public TakesScreenshot screenshots(WebDriver driver) {
+        if (driver instanceof TakesScreenshot screenshots) {
+            return screenshots;
         }
+        throw new UnsupportedOperationException(driver.getClass().getSimpleName() + " cannot take screenshots");
+    }
 
-        fileNameBuilder.append(".png");
-
-        String fileName = fileNameBuilder.toString();
+    public PendingScreenshot captureScreenshot(WebDriver driver, String selector, String configName) throws Exception {
+        return captureScreenshot(driver, selector, configName, null);
+    }
 
-        // Create subdirectory for the configuration
-        Path configDir = Paths.get(screenshotPath, sanitizedConfigName);
-        Files.createDirectories(configDir);
+    // Captures the image on the calling thread; identical images are stored once by the ScreenshotStore,
+    // and encoding and writing happen in the ScreenshotPipeline
+    public PendingScreenshot captureScreenshot(WebDriver driver, String selector, String configName, Integer stepNumber) throws Exception {
+        return captureScreenshot(driver, selector, configName, stepNumber, new ElementCache());
+    }
 
-        Path path = configDir.resolve(fileName);
+    // Element captures reuse handles the run already resolved on this page
+    public PendingScreenshot captureScreenshot(WebDriver driver, String selector, String configName, Integer stepNumber,
+                                               ElementCache elements) throws Exception {
+        return captureScreenshot(driver, selector, configName, stepNumber, elements, null);
+    }
 
+    // A run's scope, when it has one, owns the write of the captured image
+    public PendingScreenshot captureScreenshot(WebDriver driver, String selector, String configName, Integer stepNumber,
+                                               ElementCache elements, RunScope scope) throws Exception {
+        long started = System.nanoTime();
+        byte[] image;
         if (selector != null && !selector.isEmpty()) {
             try {
-                WebElement element = driver.findElement(By.cssSelector(selector));
-                // Scroll element into view before taking screenshot
-                ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", element);
-                Thread.sleep(500); // Small delay to ensure element is in view
-
-                File screenshot = element.getScreenshotAs(OutputType.FILE);
-                Files.copy(screenshot.toPath(), path);
+                image = elements.act(driver, Locators.by(selector), element -> {
+                    // Scroll element into view and let the next frame paint instead of sleeping
+                    javascript(driver).executeScript("arguments[0].scrollIntoView({block: 'center', behavior: 'instant'});", element);
+                    waitForNextFrame(driver);
+                    return element.getScreenshotAs(OutputType.BYTES);
+                });
             } catch (NoSuchElementException e) {
                 // If element not found, take full page screenshot
                 log.warn("Element not found with selector: {}. Taking full page screenshot.", selector);
-                TakesScreenshot takesScreenshot = (TakesScreenshot) driver;
-                File screenshot = takesScreenshot.getScreenshotAs(OutputType.FILE);
-                Files.copy(screenshot.toPath(), path);
+                image = screenshots(driver).getScreenshotAs(OutputType.BYTES);
             }
         } else {
-            TakesScreenshot takesScreenshot = (TakesScreenshot) driver;
-            File screenshot = takesScreenshot.getScreenshotAs(OutputType.FILE);
-            Files.copy(screenshot.toPath(), path);
+            image = screenshots(driver).getScreenshotAs(OutputType.BYTES);
         }
+        screenshotPipeline.recordCapture(System.nanoTime() - started);
 
-        log.info("Screenshot saved: {}", path);
-        return path.toString();
+        PendingScreenshot screenshot = screenshotStore.store(image, scope);
+        log.info("Screenshot captured for '{}' step {}: {}", configName, stepNumber, screenshot.getPath());
+        return screenshot;
     }
 
     public void waitForElement(WebDriver driver, String selector, int timeout) {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeout));
-        wait.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector(selector)));
+        waitForElement(driver, selector, Duration.ofSeconds(timeout), DEFAULT_POLL);
+    }
+
+    public void waitForElement(WebDriver driver, String selector, Duration timeout, Duration poll) {
+        waitUntil(driver, timeout, poll, ExpectedConditions.presenceOfElementLocated(Locators.by(selector)));
     }
 
     public void waitForElementClickable(WebDriver driver, String selector, int timeout) {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeout));
-        wait.until(ExpectedConditions.elementToBeClickable(By.cssSelector(selector)));
+        waitForElementClickable(driver, selector, Duration.ofSeconds(timeout), DEFAULT_POLL);
+    }
+
+    public void waitForElementClickable(WebDriver driver, String selector, Duration timeout, Duration poll) {
+        waitUntil(driver, timeout, poll, ExpectedConditions.elementToBeClickable(Locators.by(selector)));
+    }
+
+    public void waitForElementVisible(WebDriver driver, String selector, Duration timeout, Duration poll) {
+        waitUntil(driver, timeout, poll, ExpectedConditions.visibilityOfElementLocated(Locators.by(selector)));
+    }
+
+    public void waitForText(WebDriver driver, String selector, String text, Duration timeout, Duration poll) {
+        waitUntil(driver, timeout, poll, ExpectedConditions.textToBePresentInElementLocated(Locators.by(selector), text));
+    }
+
+    public void waitForUrl(WebDriver driver, String urlPattern, Duration timeout, Duration poll) {
+        waitUntil(driver, timeout, poll, ExpectedConditions.urlMatches(urlPattern));
+    }
+
+    public void waitForDocumentReady(WebDriver driver, Duration timeout, Duration poll) {
+        waitUntil(driver, timeout, poll, d -> "complete".equals(
+                javascript(d).executeScript("return document.readyState")));
+    }
+
+    // Network is quiet once the document is loaded, no fetch/XHR is in flight and no request has finished for
+    // quietPeriod. The probe wraps fetch and XMLHttpRequest to count requests in flight and counts finished
+    // resources with a PerformanceObserver, which unlike getEntriesByType is not capped by the timing buffer.
+    public void waitForNetworkIdle(WebDriver driver, Duration quietPeriod, Duration timeout, Duration poll) {
+        String[] lastFinished = {null};
+        long[] lastChange = {System.nanoTime()};
+        waitUntil(driver, timeout, poll, d -> {
+            Object state = javascript(d).executeScript(NETWORK_ACTIVITY);
+            String finished = state != null ? state.toString() : null;
+            long now = System.nanoTime();
+            if (finished == null || !finished.equals(lastFinished[0])) {
+                lastFinished[0] = finished;
+                lastChange[0] = now;
+                return false;
+            }
+            return now - lastChange[0] >= quietPeriod.toNanos();
+        });
+    }
+
+    private void waitUntil(WebDriver driver, Duration timeout, Duration poll, ExpectedCondition<?> condition) {
+        WebDriverWait wait = new WebDriverWait(driver, timeout, poll);
+        wait.until(condition);
+    }
+
+    private void waitForNextFrame(WebDriver driver) {
+        javascript(driver).executeAsyncScript(
+                "const done = arguments[arguments.length - 1];"
+                        + "requestAnimationFrame(() => requestAnimationFrame(() => done()));");
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+-- One snapshot per config and login (hash of the steps before the checkpoint), so fan-out rows logging in
+-- with different parameters keep separate sessions. Snapshots are a cache: runs log in again without them.
+DROP TABLE IF EXISTS "session_snapshots";
+CREATE TABLE "session_snapshots" (
+    "config_id" BIGINT NOT NULL,
+    "prefix_hash" VARCHAR(64) NOT NULL,
+    "created_at" TIMESTAMP NOT NULL,
+    "expires_at" TIMESTAMP NOT NULL,
+    "data" VARBINARY(1048576) NOT NULL,
+    PRIMARY KEY ("config_id", "prefix_hash")
+);
@@ -0,0 +1,48 @@
+-- Core schema as previously created by Hibernate (ddl-auto: update). Existing databases are
+-- baselined at this version, so this only runs against an empty database. Hibernate declared the
+-- enum columns as native H2 enums of the values they had then; V9 widens them to VARCHAR.
+
+CREATE TABLE IF NOT EXISTS "schedule_configs" (
+    "id" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    "type" ENUM('ONCE', 'INTERVAL', 'CRON'),
+    "cron_expression" VARCHAR(255),
+    "interval_minutes" INTEGER,
+    "run_once_at" VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS "automation_configs" (
+    "id" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    "name" VARCHAR(255) NOT NULL,
+    "description" VARCHAR(255),
+    "schedule_id" BIGINT UNIQUE REFERENCES "schedule_configs" ("id"),
+    "active" BOOLEAN NOT NULL,
+    "created_at" TIMESTAMP(6),
+    "updated_at" TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS "automation_steps" (
+    "id" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    "config_id" BIGINT REFERENCES "automation_configs" ("id"),
+    "step_order" INTEGER NOT NULL,
+    "type" ENUM('NAVIGATE', 'CLICK', 'INPUT', 'WAIT', 'SCREENSHOT', 'SCROLL', 'SELECT'),
+    "selector" VARCHAR(255),
+    "input_value" VARCHAR(255),
+    "wait_seconds" INTEGER NOT NULL,
+    "capture_screenshot" BOOLEAN NOT NULL,
+    "capture_selector" VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS "automation_results" (
+    "id" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    "config_id" BIGINT NOT NULL REFERENCES "automation_configs" ("id"),
+    "status" ENUM('RUNNING', 'SUCCESS', 'FAILED', 'CANCELLED'),
+    "start_time" TIMESTAMP(6),
+    "end_time" TIMESTAMP(6),
+    "logs" CLOB,
+    "error_message" CLOB
+);
+
+CREATE TABLE IF NOT EXISTS "result_screenshots" (
+    "automation_result_id" BIGINT NOT NULL REFERENCES "automation_results" ("id"),
+    "screenshot_paths" VARCHAR(255)
+);
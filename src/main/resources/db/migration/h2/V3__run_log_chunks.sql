@@ -0,0 +1,15 @@
+-- Run logs stored out of the result row as compressed chunks
+CREATE SEQUENCE IF NOT EXISTS "run_log_chunk_seq" START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS "run_log_chunks" (
+    "id" BIGINT PRIMARY KEY,
+    "result_id" BIGINT NOT NULL,
+    "chunk_index" INTEGER NOT NULL,
+    "first_line" BIGINT NOT NULL,
+    "line_count" INTEGER NOT NULL,
+    "byte_offset" BIGINT NOT NULL,
+    "raw_bytes" INTEGER NOT NULL,
+    "data" VARBINARY(16777216)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS "idx_run_log_chunks_result_chunk" ON "run_log_chunks" ("result_id", "chunk_index");
@@ -0,0 +1,7 @@
+-- Per-config navigation profile; null columns keep the browser defaults
+ALTER TABLE "automation_configs" ADD COLUMN IF NOT EXISTS "page_load_strategy" VARCHAR(10);
+ALTER TABLE "automation_configs" ADD COLUMN IF NOT EXISTS "blocked_url_patterns" VARCHAR(2000);
+ALTER TABLE "automation_configs" ADD COLUMN IF NOT EXISTS "blocked_resource_types" VARCHAR(200);
+ALTER TABLE "automation_configs" ADD COLUMN IF NOT EXISTS "disable_images" BOOLEAN DEFAULT FALSE NOT NULL;
+ALTER TABLE "automation_configs" ADD COLUMN IF NOT EXISTS "viewport_width" INTEGER;
+ALTER TABLE "automation_configs" ADD COLUMN IF NOT EXISTS "viewport_height" INTEGER;
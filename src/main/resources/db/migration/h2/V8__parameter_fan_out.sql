@@ -0,0 +1,11 @@
+-- Data-driven fan-out: a config's parameter rows, and row runs grouped under a parent run
+ALTER TABLE "automation_configs" ADD COLUMN IF NOT EXISTS "parameter_rows" CLOB;
+ALTER TABLE "automation_configs" ADD COLUMN IF NOT EXISTS "fan_out_parallelism" INTEGER;
+
+ALTER TABLE "automation_results" ADD COLUMN IF NOT EXISTS "parent_id" BIGINT;
+ALTER TABLE "automation_results" ADD COLUMN IF NOT EXISTS "row_index" INTEGER;
+ALTER TABLE "automation_results" ADD COLUMN IF NOT EXISTS "row_count" INTEGER;
+ALTER TABLE "automation_results" ADD COLUMN IF NOT EXISTS "rows_succeeded" INTEGER;
+ALTER TABLE "automation_results" ADD COLUMN IF NOT EXISTS "rows_failed" INTEGER;
+
+CREATE INDEX IF NOT EXISTS "idx_results_parent_row" ON "automation_results" ("parent_id", "row_index");
@@ -0,0 +1,8 @@
+-- Condition wait steps: how long to wait for the condition and how often to poll it
+ALTER TABLE "automation_steps" ADD COLUMN IF NOT EXISTS "timeout_seconds" INTEGER;
+ALTER TABLE "automation_steps" ADD COLUMN IF NOT EXISTS "poll_millis" INTEGER;
+
+-- The baseline enum columns only accept the values that existed then; store them as text like the rest
+ALTER TABLE "schedule_configs" ALTER COLUMN "type" SET DATA TYPE VARCHAR(20);
+ALTER TABLE "automation_steps" ALTER COLUMN "type" SET DATA TYPE VARCHAR(20);
+ALTER TABLE "automation_results" ALTER COLUMN "status" SET DATA TYPE VARCHAR(20);
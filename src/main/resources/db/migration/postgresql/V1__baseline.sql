@@ -0,0 +1,47 @@
+-- Core schema as previously created by Hibernate (ddl-auto: update). PostgreSQL was not supported
+-- before migrations existed, so this only ever runs against an empty database.
+
+CREATE TABLE IF NOT EXISTS "schedule_configs" (
+    "id" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    "type" VARCHAR(20),
+    "cron_expression" VARCHAR(255),
+    "interval_minutes" INTEGER,
+    "run_once_at" VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS "automation_configs" (
+    "id" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    "name" VARCHAR(255) NOT NULL,
+    "description" VARCHAR(255),
+    "schedule_id" BIGINT UNIQUE REFERENCES "schedule_configs" ("id"),
+    "active" BOOLEAN NOT NULL,
+    "created_at" TIMESTAMP(6),
+    "updated_at" TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS "automation_steps" (
+    "id" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    "config_id" BIGINT REFERENCES "automation_configs" ("id"),
+    "step_order" INTEGER NOT NULL,
+    "type" VARCHAR(20),
+    "selector" VARCHAR(255),
+    "input_value" VARCHAR(255),
+    "wait_seconds" INTEGER NOT NULL,
+    "capture_screenshot" BOOLEAN NOT NULL,
+    "capture_selector" VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS "automation_results" (
+    "id" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    "config_id" BIGINT NOT NULL REFERENCES "automation_configs" ("id"),
+    "status" VARCHAR(20),
+    "start_time" TIMESTAMP(6),
+    "end_time" TIMESTAMP(6),
+    "logs" TEXT,
+    "error_message" TEXT
+);
+
+CREATE TABLE IF NOT EXISTS "result_screenshots" (
+    "automation_result_id" BIGINT NOT NULL REFERENCES "automation_results" ("id"),
+    "screenshot_paths" VARCHAR(255)
+);
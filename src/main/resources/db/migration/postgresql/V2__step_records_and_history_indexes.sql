@@ -0,0 +1,44 @@
+-- Step records and screenshot blobs; databases baselined before these existed get them here
+CREATE SEQUENCE IF NOT EXISTS "step_execution_seq" START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS "step_executions" (
+    "id" BIGINT PRIMARY KEY,
+    "result_id" BIGINT NOT NULL,
+    "config_id" BIGINT NOT NULL,
+    "step_order" INTEGER NOT NULL,
+    "step_type" VARCHAR(20),
+    "started_at" TIMESTAMP(6),
+    "start_nanos" BIGINT NOT NULL,
+    "end_nanos" BIGINT NOT NULL,
+    "duration_ms" BIGINT NOT NULL,
+    "outcome" VARCHAR(20),
+    "error_class" VARCHAR(255),
+    "screenshot_path" VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS "screenshot_blobs" (
+    "id" VARCHAR(64) PRIMARY KEY,
+    "file_path" VARCHAR(255) NOT NULL,
+    "size_bytes" BIGINT NOT NULL,
+    "ref_count" INTEGER NOT NULL,
+    "created_at" TIMESTAMP(6)
+);
+
+-- Stored run duration, so history can be filtered and sorted by it in SQL
+ALTER TABLE "automation_results" ADD COLUMN IF NOT EXISTS "duration_ms" BIGINT;
+
+UPDATE "automation_results"
+SET "duration_ms" = CAST(EXTRACT(EPOCH FROM ("end_time" - "start_time")) * 1000 AS BIGINT)
+WHERE "duration_ms" IS NULL AND "start_time" IS NOT NULL AND "end_time" IS NOT NULL;
+
+-- History list: newest first, optionally narrowed by config or status, seeking on (start_time, id)
+CREATE INDEX IF NOT EXISTS "idx_results_start_time_id" ON "automation_results" ("start_time", "id");
+CREATE INDEX IF NOT EXISTS "idx_results_config_start_time" ON "automation_results" ("config_id", "start_time");
+CREATE INDEX IF NOT EXISTS "idx_results_status_start_time" ON "automation_results" ("status", "start_time");
+
+CREATE INDEX IF NOT EXISTS "idx_result_screenshots_result" ON "result_screenshots" ("automation_result_id");
+
+CREATE INDEX IF NOT EXISTS "idx_step_executions_result" ON "step_executions" ("result_id", "step_order");
+CREATE INDEX IF NOT EXISTS "idx_step_executions_config_started" ON "step_executions" ("config_id", "started_at");
+
+CREATE INDEX IF NOT EXISTS "idx_screenshot_blobs_ref_count" ON "screenshot_blobs" ("ref_count");
@@ -0,0 +1,24 @@
+-- Durable run queue shared by all nodes on this database
+CREATE TABLE IF NOT EXISTS "run_queue" (
+    "id" BIGSERIAL PRIMARY KEY,
+    "config_id" BIGINT NOT NULL,
+    "result_id" BIGINT,
+    "trigger_key" VARCHAR(64),
+    "coalesce_key" BIGINT,
+    "running_key" BIGINT,
+    "status" VARCHAR(20) NOT NULL,
+    "enqueued_at" TIMESTAMP,
+    "claimed_by" VARCHAR(100),
+    "claimed_at" TIMESTAMP,
+    "lease_expires_at" TIMESTAMP,
+    "finished_at" TIMESTAMP,
+    "attempts" INTEGER NOT NULL DEFAULT 0,
+    "cancel_requested" BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT "uk_run_queue_trigger_key" UNIQUE ("trigger_key"),
+    CONSTRAINT "uk_run_queue_coalesce_key" UNIQUE ("coalesce_key"),
+    CONSTRAINT "uk_run_queue_running_key" UNIQUE ("running_key")
+);
+
+CREATE INDEX IF NOT EXISTS "idx_run_queue_status_id" ON "run_queue" ("status", "id");
+CREATE INDEX IF NOT EXISTS "idx_run_queue_claimed_by" ON "run_queue" ("claimed_by");
+CREATE INDEX IF NOT EXISTS "idx_run_queue_result_id" ON "run_queue" ("result_id");
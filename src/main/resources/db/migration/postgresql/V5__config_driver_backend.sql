@@ -0,0 +1,2 @@
+-- Per-config browser backend; null uses the global default
+ALTER TABLE "automation_configs" ADD COLUMN IF NOT EXISTS "driver_backend" VARCHAR(20);
@@ -0,0 +1,8 @@
+-- Encrypted login state captured at CHECKPOINT steps
+CREATE TABLE IF NOT EXISTS "session_snapshots" (
+    "config_id" BIGINT PRIMARY KEY,
+    "prefix_hash" VARCHAR(64) NOT NULL,
+    "created_at" TIMESTAMP NOT NULL,
+    "expires_at" TIMESTAMP NOT NULL,
+    "data" BYTEA NOT NULL
+);
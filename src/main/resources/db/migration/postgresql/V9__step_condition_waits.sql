@@ -0,0 +1,3 @@
+-- Condition wait steps: how long to wait for the condition and how often to poll it
+ALTER TABLE "automation_steps" ADD COLUMN IF NOT EXISTS "timeout_seconds" INTEGER;
+ALTER TABLE "automation_steps" ADD COLUMN IF NOT EXISTS "poll_millis" INTEGER;
@@ -38,6 +38,8 @@ let currentPage = 0;
 let pageSize = 20;
 let totalPages = 0;
 let totalElements = 0;
+// Cursor for each history page reached so far; page 0 has none
+let pageCursors = [null];
 
 // Load history with pagination
 async function loadHistory(page = 0) {
@@ -248,6 +250,7 @@ function getStatusColor(status) {
         case 'SUCCESS': return 'success';
         case 'FAILED': return 'danger';
         case 'RUNNING': return 'primary';
+        case 'CANCELLED': return 'warning';
         default: return 'secondary';
     }
 }
@@ -340,10 +343,21 @@ function updatePaginationControls() {
 // Load history with pagination and filters
 async function loadHistory(page = 0) {
     try {
+        // Pages are fetched by cursor; page 0 starts over, e.g. after a filter change
+        if (page === 0) {
+            pageCursors = [null];
+        }
+        if (page >= pageCursors.length) {
+            return;
+        }
         currentPage = page;
 
         // Build query parameters
-        let queryParams = `page=${page}&size=${pageSize}`;
+        // Rows of a fan-out run are listed in its details instead
+        let queryParams = `size=${pageSize}&topLevel=true`;
+        if (pageCursors[page]) {
+            queryParams += `&cursor=${encodeURIComponent(pageCursors[page])}`;
+        }
 
         const statusFilter = document.getElementById('statusFilter');
         if (statusFilter && statusFilter.value) {
@@ -357,7 +371,7 @@ async function loadHistory(page = 0) {
 
         console.log('Loading history with params:', queryParams);
 
-        const response = await fetch(`/api/history?${queryParams}`);
+        const response = await fetch(`/api/history/summary?${queryParams}`);
         const data = await response.json();
 
         console.log('History data:', data);
@@ -365,16 +379,22 @@ async function loadHistory(page = 0) {
         const tbody = document.getElementById('historyTable');
         tbody.innerHTML = '';
 
-        // Update pagination info
-        totalPages = data.totalPages || 0;
-        totalElements = data.totalElements || 0;
-        updatePaginationInfo(data);
+        // Only pages reached so far are known, so link up to the next one
+        pageCursors.length = page + 1;
+        if (data.hasMore) {
+            pageCursors.push(data.nextCursor);
+        }
+        totalPages = pageCursors.length;
+        const rowCount = data.content ? data.content.length : 0;
+        document.getElementById('historyInfo').textContent = rowCount > 0
+            ? `Showing ${page * pageSize + 1} to ${page * pageSize + rowCount}${data.hasMore ? '' : ` of ${page * pageSize + rowCount}`} entries`
+            : 'Showing 0 entries';
 
         if (!data.content || data.content.length === 0) {
             tbody.innerHTML = '<tr><td colspan="5" class="text-center">No results found</td></tr>';
         } else {
             data.content.forEach(result => {
-                let duration = 'Running...';
+                let duration = result.durationMs != null ? formatDuration(result.durationMs) : 'Running...';
                 let startTimeStr = 'N/A';
 
                 if (result.startTime) {
@@ -410,21 +430,27 @@ async function loadHistory(page = 0) {
                 }
 
                 const row = `
-                    <tr>
+                    <tr data-run-id="${result.id}">
                         <td>${result.configName || 'Unknown'}</td>
                         <td>
                             <span class="badge bg-${getStatusColor(result.status)}">
                                 ${result.status}
                             </span>
+                            ${result.rowCount ? `<small class="text-muted">${result.rowCount} rows</small>` : ''}
                         </td>
                         <td>${startTimeStr}</td>
                         <td>${duration}</td>
                         <td>
                             <button class="btn btn-sm btn-info" onclick="viewDetails(${result.id})">Details</button>
+                            ${result.status === 'RUNNING' ? `<button class="btn btn-sm btn-outline-danger" onclick="cancelRun(${result.id})">Cancel</button>` : ''}
                         </td>
                     </tr>
                 `;
                 tbody.innerHTML += row;
+
+                if (result.status === 'RUNNING') {
+                    watchRun(result.id);
+                }
             });
         }
 
@@ -532,8 +558,17 @@ async function viewDetails(resultId) {
                     <p><strong>Start Time:</strong> ${startTimeStr}</p>
                     <p><strong>End Time:</strong> ${endTimeStr}</p>
                     <p><strong>Duration:</strong> ${duration}</p>
+                    ${result.rowCount ? `<p><strong>Rows:</strong> ${result.rowsSucceeded || 0} succeeded, ${result.rowsFailed || 0} failed of ${result.rowCount}</p>` : ''}
+                    ${result.parentId ? `<p><strong>Row:</strong> ${result.rowIndex + 1} of <a href="#" onclick="event.preventDefault(); viewDetails(${result.parentId})">run #${result.parentId}</a></p>` : ''}
                 </div>
             </div>
+
+            ${result.rowCount ? `
+                <div class="mb-4">
+                    <h6>Rows:</h6>
+                    <div id="resultRows">Loading rows...</div>
+                </div>
+            ` : ''}
             
             ${result.errorMessage ? `
                 <div class="alert alert-danger">
@@ -545,8 +580,9 @@ async function viewDetails(resultId) {
             <div class="mb-4">
                 <h6>Execution Logs:</h6>
                 <div class="bg-light p-3 rounded" style="max-height: 300px; overflow-y: auto;">
-                    <pre class="mb-0">${escapeHtml(result.logs || 'No logs available')}</pre>
+                    <pre class="mb-0" id="resultLogs">Loading logs...</pre>
                 </div>
+                <small class="text-muted" id="resultLogsInfo"></small>
             </div>
             
             ${screenshotsHtml}
@@ -585,12 +621,67 @@ async function viewDetails(resultId) {
         document.getElementById('detailsContent').innerHTML = detailsHtml;
         const modal = new bootstrap.Modal(document.getElementById('detailsModal'));
         modal.show();
+        loadResultLogs(resultId);
+        if (result.rowCount) {
+            loadResultRows(resultId);
+        }
 
     } catch (error) {
         alert('Failed to load details: ' + error.message);
     }
 }
 
+// Fetch only the tail of a run's log; the whole log may be much larger
+async function loadResultLogs(resultId, tail = 500) {
+    const logs = document.getElementById('resultLogs');
+    const info = document.getElementById('resultLogsInfo');
+    try {
+        const response = await fetch(`/api/history/${resultId}/logs?tail=${tail}`);
+        if (!response.ok) throw new Error('Failed to fetch logs');
+
+        const data = await response.json();
+        logs.textContent = data.lines.length > 0 ? data.lines.join('\n') : 'No logs available';
+        if (data.firstLine > 0) {
+            info.innerHTML = `Showing the last ${data.lines.length} of ${data.totalLines} lines.
+                <a href="#" onclick="event.preventDefault(); loadResultLogs(${resultId}, ${tail * 4})">Show more</a>`;
+        } else {
+            info.textContent = '';
+        }
+    } catch (error) {
+        logs.textContent = 'Failed to load logs: ' + error.message;
+    }
+}
+
+// List the row runs of a fan-out parent, failed rows first
+async function loadResultRows(resultId) {
+    const container = document.getElementById('resultRows');
+    try {
+        const response = await fetch(`/api/history?parentId=${resultId}&size=200`);
+        if (!response.ok) throw new Error('Failed to fetch rows');
+
+        const data = await response.json();
+        const rows = data.content.sort((a, b) =>
+            (a.status === 'FAILED') === (b.status === 'FAILED') ? a.rowIndex - b.rowIndex : (a.status === 'FAILED' ? -1 : 1));
+        container.innerHTML = rows.length === 0 ? 'No rows have started yet' : `
+            <table class="table table-sm">
+                <tbody>
+                    ${rows.map(row => `
+                        <tr>
+                            <td>Row ${row.rowIndex + 1}</td>
+                            <td><span class="badge bg-${getStatusColor(row.status)}">${row.status}</span></td>
+                            <td>${row.errorMessage ? escapeHtml(row.errorMessage) : ''}</td>
+                            <td><a href="#" onclick="event.preventDefault(); viewDetails(${row.id})">Details</a></td>
+                        </tr>
+                    `).join('')}
+                </tbody>
+            </table>
+            ${data.totalElements > rows.length ? `<small class="text-muted">Showing ${rows.length} of ${data.totalElements} rows</small>` : ''}
+        `;
+    } catch (error) {
+        container.textContent = 'Failed to load rows: ' + error.message;
+    }
+}
+
 function escapeHtml(text) {
     const div = document.createElement('div');
     div.textContent = text;
@@ -615,6 +706,16 @@ async function editConfig(configId) {
         document.getElementById('configName').value = config.name;
         document.getElementById('configDescription').value = config.description || '';
         document.getElementById('configActive').checked = config.active;
+        document.getElementById('configDriverBackend').value = config.driverBackend || '';
+        const profile = config.navigationProfile || {};
+        document.getElementById('navPageLoadStrategy').value = profile.pageLoadStrategy || '';
+        document.getElementById('navBlockedUrlPatterns').value = profile.blockedUrlPatterns || '';
+        document.getElementById('navBlockedResourceTypes').value = profile.blockedResourceTypes || '';
+        document.getElementById('navViewportWidth').value = profile.viewportWidth || '';
+        document.getElementById('navViewportHeight').value = profile.viewportHeight || '';
+        document.getElementById('navDisableImages').checked = !!profile.disableImages;
+        document.getElementById('configParameterRows').value = config.parameterRows || '';
+        document.getElementById('configFanOutParallelism').value = config.fanOutParallelism || '';
 
         // Clear and rebuild steps
         document.getElementById('stepsContainer').innerHTML = '';
@@ -682,6 +783,14 @@ function addStepWithData(stepData) {
                         <option value="SCREENSHOT" ${stepData.type === 'SCREENSHOT' ? 'selected' : ''}>Screenshot</option>
                         <option value="SCROLL" ${stepData.type === 'SCROLL' ? 'selected' : ''}>Scroll</option>
                         <option value="SELECT" ${stepData.type === 'SELECT' ? 'selected' : ''}>Select</option>
+                        <option value="WAIT_PRESENT" ${stepData.type === 'WAIT_PRESENT' ? 'selected' : ''}>Wait: element present</option>
+                        <option value="WAIT_CLICKABLE" ${stepData.type === 'WAIT_CLICKABLE' ? 'selected' : ''}>Wait: element clickable</option>
+                        <option value="WAIT_VISIBLE" ${stepData.type === 'WAIT_VISIBLE' ? 'selected' : ''}>Wait: element visible</option>
+                        <option value="WAIT_TEXT" ${stepData.type === 'WAIT_TEXT' ? 'selected' : ''}>Wait: text present</option>
+                        <option value="WAIT_URL" ${stepData.type === 'WAIT_URL' ? 'selected' : ''}>Wait: URL matches</option>
+                        <option value="WAIT_DOC_READY" ${stepData.type === 'WAIT_DOC_READY' ? 'selected' : ''}>Wait: document ready</option>
+                        <option value="WAIT_NETWORK_IDLE" ${stepData.type === 'WAIT_NETWORK_IDLE' ? 'selected' : ''}>Wait: network idle</option>
+                        <option value="CHECKPOINT" ${stepData.type === 'CHECKPOINT' ? 'selected' : ''}>Session checkpoint</option>
                     </select>
                 </div>
                 <div class="col-md-8" id="stepFields-${stepCount}">
@@ -765,6 +874,14 @@ function updateStepFieldsWithData(stepId, stepData) {
                        data-field="value" value="${stepData.value || ''}" required>
             `;
             break;
+        case 'CHECKPOINT':
+            fields = checkpointFields(stepData);
+            break;
+        default:
+            if (stepType.startsWith('WAIT_')) {
+                fields = conditionWaitFields(stepType, stepData);
+            }
+            break;
     }
     fieldsContainer.innerHTML = fields;
 }
@@ -783,6 +900,20 @@ document.addEventListener('DOMContentLoaded', () => {
     });
 });
 
+// Load a CSV file into the parameter rows field
+function loadParameterFile(input) {
+    const file = input.files[0];
+    if (!file) {
+        return;
+    }
+    const reader = new FileReader();
+    reader.onload = () => {
+        document.getElementById('configParameterRows').value = reader.result;
+        formChanged = true;
+    };
+    reader.readAsText(file);
+}
+
 // Cancel edit mode
 function cancelEdit() {
     if (formChanged && !confirm('You have unsaved changes. Are you sure you want to cancel?')) {
@@ -804,15 +935,63 @@ function getStatusColor(status) {
         case 'SUCCESS': return 'success';
         case 'FAILED': return 'danger';
         case 'RUNNING': return 'primary';
+        case 'CANCELLED': return 'warning';
         default: return 'secondary';
     }
 }
 
 async function runNow(configId) {
     const response = await fetch(`/api/automation/configs/${configId}/run`, { method: 'POST' });
-    if (response.ok) {
-        alert('Automation started!');
+    const run = await response.json().catch(() => ({}));
+    if (response.status === 202) {
+        alert(`Automation queued (run #${run.runId})`);
         loadHistory();
+        watchRun(run.runId);
+    } else {
+        alert('Failed to start automation: ' + (run.errorMessage || response.statusText));
+    }
+}
+
+// Follow a run over Server-Sent Events: steps update its row in place, and the history table is
+// refreshed once when it finishes
+const watchedRuns = new Map();
+
+function watchRun(runId) {
+    if (watchedRuns.has(runId) || !window.EventSource) {
+        return;
+    }
+    const source = new EventSource(`/api/automation/runs/${runId}/events`);
+    watchedRuns.set(runId, source);
+
+    source.addEventListener('step-finish', (event) => {
+        const step = JSON.parse(event.data);
+        const duration = document.querySelector(`#historyTable tr[data-run-id="${runId}"] td:nth-child(4)`);
+        if (duration) {
+            duration.textContent = `Running... step ${step.order + 1} (${step.type})`;
+        }
+    });
+    source.addEventListener('status', (event) => {
+        const data = JSON.parse(event.data);
+        if (data.status && data.status !== 'RUNNING') {
+            source.close();
+            watchedRuns.delete(runId);
+            loadHistory(currentPage);
+        } else if (data.closed) {
+            // No live events for this run here (left by a crash, or running on another node). Stop, and keep it
+            // marked so the next table refresh does not reconnect; the periodic refresh shows its outcome.
+            source.close();
+            watchedRuns.set(runId, null);
+        }
+    });
+}
+
+async function cancelRun(runId) {
+    const response = await fetch(`/api/automation/runs/${runId}/cancel`, { method: 'POST' });
+    if (response.ok) {
+        loadHistory(currentPage);
+    } else {
+        const data = await response.json().catch(() => ({}));
+        alert('Failed to cancel: ' + (data.message || response.statusText));
     }
 }
 
@@ -882,6 +1061,14 @@ function addStep() {
                         <option value="SCREENSHOT">Screenshot</option>
                         <option value="SCROLL">Scroll</option>
                         <option value="SELECT">Select</option>
+                        <option value="WAIT_PRESENT">Wait: element present</option>
+                        <option value="WAIT_CLICKABLE">Wait: element clickable</option>
+                        <option value="WAIT_VISIBLE">Wait: element visible</option>
+                        <option value="WAIT_TEXT">Wait: text present</option>
+                        <option value="WAIT_URL">Wait: URL matches</option>
+                        <option value="WAIT_DOC_READY">Wait: document ready</option>
+                        <option value="WAIT_NETWORK_IDLE">Wait: network idle</option>
+                        <option value="CHECKPOINT">Session checkpoint</option>
                     </select>
                 </div>
                 <div class="col-md-8" id="stepFields-${stepCount}">
@@ -915,6 +1102,50 @@ function addStep() {
     stepCount++;
 }
 
+// Fields for the session checkpoint step: how long the saved login stays valid and how to verify it
+function checkpointFields(stepData = {}) {
+    return `
+        <input type="number" class="form-control mb-2" placeholder="Valid for (minutes, default 60)" data-field="value" value="${stepData.value || ''}" min="1">
+        <input type="text" class="form-control mb-2" placeholder="Selector only shown when logged in (optional)" data-field="selector" value="${stepData.selector || ''}">
+    `;
+}
+
+// Fields for condition-based wait steps (WAIT_*)
+function conditionWaitFields(stepType, stepData = {}) {
+    const selector = stepData.selector || '';
+    const value = stepData.value || '';
+    let fields = '';
+    switch (stepType) {
+        case 'WAIT_PRESENT':
+        case 'WAIT_CLICKABLE':
+        case 'WAIT_VISIBLE':
+            fields = `<input type="text" class="form-control mb-2" placeholder="CSS Selector to wait for" data-field="selector" value="${selector}" required>`;
+            break;
+        case 'WAIT_TEXT':
+            fields = `
+                <input type="text" class="form-control mb-2" placeholder="CSS Selector (optional, defaults to body)" data-field="selector" value="${selector}">
+                <input type="text" class="form-control mb-2" placeholder="Text to wait for" data-field="value" value="${value}" required>
+            `;
+            break;
+        case 'WAIT_URL':
+            fields = `<input type="text" class="form-control mb-2" placeholder="URL regular expression (e.g., /dashboard)" data-field="value" value="${value}" required>`;
+            break;
+        case 'WAIT_NETWORK_IDLE':
+            fields = `<input type="number" class="form-control mb-2" placeholder="Quiet period in ms (default 500)" data-field="value" value="${value}" min="0">`;
+            break;
+    }
+    return fields + `
+        <div class="row">
+            <div class="col">
+                <input type="number" class="form-control form-control-sm" placeholder="Timeout (seconds)" data-field="timeoutSeconds" value="${stepData.timeoutSeconds || ''}" min="1">
+            </div>
+            <div class="col">
+                <input type="number" class="form-control form-control-sm" placeholder="Poll every (ms)" data-field="pollMillis" value="${stepData.pollMillis || ''}" min="1">
+            </div>
+        </div>
+    `;
+}
+
 function updateStepFields(stepId) {
     const stepDiv = document.getElementById(`step-${stepId}`);
     const stepType = stepDiv.querySelector('.step-type').value;
@@ -961,6 +1192,14 @@ function updateStepFields(stepId) {
                 <input type="text" class="form-control" placeholder="Option value to select" data-field="value" required>
             `;
             break;
+        case 'CHECKPOINT':
+            fields = checkpointFields(existingValues);
+            break;
+        default:
+            if (stepType.startsWith('WAIT_')) {
+                fields = conditionWaitFields(stepType, existingValues);
+            }
+            break;
     }
 
     fieldsContainer.innerHTML = fields;
@@ -1036,6 +1275,8 @@ document.getElementById('configForm').addEventListener('submit', async (e) => {
         stepDiv.querySelectorAll('[data-field]').forEach(input => {
             if (input.type === 'checkbox') {
                 step[input.dataset.field] = input.checked;
+            } else if (input.type === 'number' && ['timeoutSeconds', 'pollMillis'].includes(input.dataset.field)) {
+                step[input.dataset.field] = parseInt(input.value) || null;
             } else if (input.type === 'number') {
                 step[input.dataset.field] = parseInt(input.value) || 0;
             } else {
@@ -1069,6 +1310,19 @@ document.getElementById('configForm').addEventListener('submit', async (e) => {
                     error = `Step ${index + 1} (Select): Option value is required`;
                 }
                 break;
+            case 'WAIT_PRESENT':
+            case 'WAIT_CLICKABLE':
+            case 'WAIT_VISIBLE':
+                if (!step.selector || !step.selector.trim()) {
+                    error = `Step ${index + 1} (${type}): CSS Selector is required`;
+                }
+                break;
+            case 'WAIT_TEXT':
+            case 'WAIT_URL':
+                if (!step.value) {
+                    error = `Step ${index + 1} (${type}): Value is required`;
+                }
+                break;
             case 'WAIT':
                 // For WAIT step, ensure waitSeconds has a valid value
                 if (!step.waitSeconds || step.waitSeconds <= 0) {
@@ -1122,7 +1376,18 @@ document.getElementById('configForm').addEventListener('submit', async (e) => {
         description: document.getElementById('configDescription').value,
         steps: steps,
         schedule: schedule,
-        active: document.getElementById('configActive').checked
+        active: document.getElementById('configActive').checked,
+        driverBackend: document.getElementById('configDriverBackend').value || null,
+        navigationProfile: {
+            pageLoadStrategy: document.getElementById('navPageLoadStrategy').value || null,
+            blockedUrlPatterns: document.getElementById('navBlockedUrlPatterns').value.trim() || null,
+            blockedResourceTypes: document.getElementById('navBlockedResourceTypes').value.trim() || null,
+            viewportWidth: parseInt(document.getElementById('navViewportWidth').value) || null,
+            viewportHeight: parseInt(document.getElementById('navViewportHeight').value) || null,
+            disableImages: document.getElementById('navDisableImages').checked
+        },
+        parameterRows: document.getElementById('configParameterRows').value.trim() || null,
+        fanOutParallelism: parseInt(document.getElementById('configFanOutParallelism').value) || null
     };
 
     try {
@@ -1156,8 +1421,8 @@ document.addEventListener('DOMContentLoaded', function() {
     loadHistory();
     populateConfigFilter();
 
-    // Auto-refresh history every 10 seconds
+    // Running rows are followed over SSE; this slower refresh only picks up newly scheduled runs
     setInterval(() => {
         loadHistory(currentPage); // Maintain current page
-    }, 10000);
+    }, 60000);
 });
\ No newline at end of file
@@ -0,0 +1,231 @@
+package com.automation.repository;
+
+import com.automation.dto.AutomationResultSummaryDTO;
+import com.automation.dto.HistoryFilter;
+import com.automation.model.AutomationResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// History queries against a million seeded results: the SQL the repository and its Specifications generate must be
+// served by the V2 indexes, not table scans. Statements are captured with their bound parameters as Hibernate sends
+// them and explained as-is. The rows are seeded once per class, outside the per-test transactions.
+@DataJpaTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HistoryQueryPlanTest {
+
+    private static final int RESULTS = 1_000_000;
+    private static final int CONFIGS = 100;
+
+    // Queries on automation_results sent through the data source, oldest first
+    private static final List<CapturedStatement> captured = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AutomationResultRepository resultRepository;
+
+    private JdbcTemplate jdbc;
+    private long firstConfigId;
+
+    @BeforeAll
+    void seed() {
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO \"automation_configs\" (\"name\", \"active\") "
+                + "SELECT 'config-' || X, TRUE FROM SYSTEM_RANGE(1, " + CONFIGS + ")");
+        firstConfigId = jdbc.queryForObject("SELECT MIN(\"id\") FROM \"automation_configs\"", Long.class);
+        // One result a second from 2025-01-01; 1% failed and 1% cancelled
+        jdbc.update("INSERT INTO \"automation_results\" (\"config_id\", \"status\", \"start_time\", \"end_time\", "
+                + "\"duration_ms\") "
+                + "SELECT MOD(X, " + CONFIGS + ") + " + firstConfigId + ", "
+                + "CASE MOD(X, 100) WHEN 0 THEN 'FAILED' WHEN 1 THEN 'CANCELLED' ELSE 'SUCCESS' END, "
+                + "DATEADD('SECOND', X, TIMESTAMP '2025-01-01 00:00:00'), "
+                + "DATEADD('SECOND', X + 30, TIMESTAMP '2025-01-01 00:00:00'), "
+                + "30000 FROM SYSTEM_RANGE(1, " + RESULTS + ")");
+        jdbc.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void clear() {
+        jdbc.update("DELETE FROM \"automation_results\"");
+        jdbc.update("DELETE FROM \"automation_configs\"");
+    }
+
+    @BeforeEach
+    void forgetStatements() {
+        captured.clear();
+    }
+
+    @Test
+    void configFilterUsesConfigStartTimeIndex() throws Exception {
+        HistoryFilter filter = new HistoryFilter();
+        filter.setConfigId(List.of(firstConfigId + 7));
+
+        resultRepository.findSummaries(filter, null, 21);
+
+        assertThat(planOfFirstStatement()).contains("idx_results_config_start_time");
+    }
+
+    @Test
+    void statusFilterUsesStatusStartTimeIndex() throws Exception {
+        HistoryFilter filter = new HistoryFilter();
+        filter.setStatus(List.of(AutomationResult.Status.FAILED));
+        filter.setStartDate(LocalDateTime.of(2025, 1, 5, 0, 0));
+
+        resultRepository.findSummaries(filter, null, 21);
+
+        assertThat(planOfFirstStatement()).contains("idx_results_status_start_time");
+    }
+
+    @Test
+    void dateRangeUsesStartTimeIndex() throws Exception {
+        HistoryFilter filter = new HistoryFilter();
+        filter.setStartDate(LocalDateTime.of(2025, 1, 3, 0, 0));
+        filter.setEndDate(LocalDateTime.of(2025, 1, 3, 1, 0));
+
+        // The paged history list, as HistoryController asks for it
+        resultRepository.findAll(AutomationResultSpecifications.matching(filter),
+                PageRequest.of(0, 20, Sort.by("startTime").descending()));
+
+        assertThat(planOfFirstStatement()).contains("idx_results_start_time_id");
+    }
+
+    @Test
+    void combinedFiltersReturnOnlyMatchingRowsNewestFirst() {
+        HistoryFilter filter = new HistoryFilter();
+        filter.setConfigId(List.of(firstConfigId + 7, firstConfigId + 8));
+        filter.setStatus(List.of(AutomationResult.Status.FAILED));
+        filter.setStartDate(LocalDateTime.of(2025, 1, 2, 0, 0));
+
+        long started = System.nanoTime();
+        List<AutomationResultSummaryDTO> page = resultRepository.findSummaries(filter, null, 20);
+        long millis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(page).hasSize(20);
+        assertThat(page).allSatisfy(row -> {
+            assertThat(row.getConfigId()).isIn(firstConfigId + 7, firstConfigId + 8);
+            assertThat(row.getStatus()).isEqualTo(AutomationResult.Status.FAILED);
+            assertThat(row.getStartTime()).isAfterOrEqualTo(filter.getStartDate());
+        });
+        assertThat(page).isSortedAccordingTo((a, b) -> b.getStartTime().compareTo(a.getStartTime()));
+        // Generous bound: an indexed lookup takes milliseconds, a scan of a million rows far longer
+        assertThat(millis).isLessThan(2_000);
+    }
+
+    // EXPLAIN of the first query the test sent, with the parameters Hibernate bound to it
+    private String planOfFirstStatement() throws Exception {
+        assertThat(captured).isNotEmpty();
+        CapturedStatement statement = captured.get(0);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql)) {
+            for (Binding binding : statement.bindings) {
+                binding.method.invoke(explain, binding.args);
+            }
+            try (ResultSet plan = explain.executeQuery()) {
+                assertThat(plan.next()).isTrue();
+                return plan.getString(1);
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCapture {
+
+        @Bean
+        static BeanPostProcessor capturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource target ? proxy(DataSource.class, target) : bean;
+                }
+            };
+        }
+    }
+
+    // Passes every call through, wrapping the connections and prepared statements it hands out
+    private static <T> T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(HistoryQueryPlanTest.class.getClassLoader(), new Class<?>[]{type},
+                (self, method, args) -> {
+                    Object value = invoke(target, method, args);
+                    if (value instanceof Connection connection) {
+                        return proxy(Connection.class, connection);
+                    }
+                    if (value instanceof PreparedStatement prepared && method.getName().equals("prepareStatement")) {
+                        return capturing((String) args[0], prepared);
+                    }
+                    return value;
+                }));
+    }
+
+    private static PreparedStatement capturing(String sql, PreparedStatement target) {
+        Map<Integer, Binding> bindings = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(HistoryQueryPlanTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (self, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        bindings.put(index, new Binding(method, args));
+                    } else if (name.equals("clearParameters")) {
+                        bindings.clear();
+                    } else if ((name.equals("executeQuery") || name.equals("execute")) && args == null
+                            && sql.toLowerCase().startsWith("select") && sql.contains("automation_results")) {
+                        captured.add(new CapturedStatement(sql, new ArrayList<>(bindings.values())));
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class CapturedStatement {
+        final String sql;
+        final List<Binding> bindings;
+
+        CapturedStatement(String sql, List<Binding> bindings) {
+            this.sql = sql;
+            this.bindings = bindings;
+        }
+    }
+
+    private static class Binding {
+        final Method method;
+        final Object[] args;
+
+        Binding(Method method, Object[] args) {
+            this.method = method;
+            this.args = args;
+        }
+    }
+}
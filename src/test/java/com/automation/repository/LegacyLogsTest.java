@@ -0,0 +1,32 @@
+package com.automation.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Logs of results written before RunLogStore live in the unmapped logs column
+@DataJpaTest
+class LegacyLogsTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private AutomationResultRepository resultRepository;
+
+    @Test
+    void logsLongerThanTheVarcharLimitAreReadWhole() {
+        jdbc.update("INSERT INTO \"automation_configs\" (\"name\", \"active\") VALUES ('legacy', TRUE)");
+        Long configId = jdbc.queryForObject("SELECT MAX(\"id\") FROM \"automation_configs\"", Long.class);
+        String log = "step finished\n".repeat(100_000);
+        jdbc.update("INSERT INTO \"automation_results\" (\"config_id\", \"status\", \"logs\") VALUES (?, 'SUCCESS', ?)",
+                configId, log);
+        Long resultId = jdbc.queryForObject("SELECT MAX(\"id\") FROM \"automation_results\"", Long.class);
+
+        assertThat(resultRepository.findLogs(resultId)).hasSize(1_400_000).isEqualTo(log);
+        assertThat(resultRepository.findLogs(resultId + 1)).isNull();
+    }
+}
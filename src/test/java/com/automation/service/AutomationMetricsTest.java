@@ -0,0 +1,32 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutomationMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AutomationMetrics metrics = new AutomationMetrics(registry);
+
+    @Test
+    void runHistogramTimerIsNotTaggedPerConfig() {
+        for (long id = 1; id <= 50; id++) {
+            AutomationConfig config = new AutomationConfig();
+            config.setId(id);
+            metrics.recordRun(config, AutomationResult.Status.SUCCESS, 1_000_000);
+        }
+
+        // One series per status however many configs run
+        assertThat(registry.find("automation.run.duration").timers())
+                .hasSize(AutomationResult.Status.values().length)
+                .allSatisfy(timer -> assertThat(timer.getId().getTag("config")).isNull());
+        Timer succeeded = registry.get("automation.run.duration").tag("status", "SUCCESS").timer();
+        assertThat(succeeded.count()).isEqualTo(50);
+        assertThat(registry.find("automation.config.run.duration").timers()).hasSize(50);
+    }
+}
@@ -0,0 +1,113 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.AutomationStep;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ElementCacheTest {
+
+    private final WebDriver driver = mock(WebDriver.class);
+    private final By button = By.id("button");
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() {
+        WebElement element = mock(WebElement.class);
+        when(driver.findElement(button)).thenReturn(element);
+        ElementCache cache = new ElementCache();
+
+        assertThat(cache.find(driver, button)).isSameAs(element);
+        assertThat(cache.find(driver, button)).isSameAs(element);
+
+        verify(driver, times(1)).findElement(button);
+        assertThat(cache.getLookups()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateForcesAFreshLookup() {
+        WebElement before = mock(WebElement.class);
+        WebElement after = mock(WebElement.class);
+        when(driver.findElement(button)).thenReturn(before, after);
+        ElementCache cache = new ElementCache();
+
+        cache.find(driver, button);
+        cache.invalidate();
+
+        assertThat(cache.find(driver, button)).isSameAs(after);
+        verify(driver, times(2)).findElement(button);
+    }
+
+    @Test
+    void staleHandleIsLookedUpAgainAndRetriedOnce() {
+        WebElement stale = mock(WebElement.class);
+        WebElement fresh = mock(WebElement.class);
+        doThrow(new StaleElementReferenceException("gone")).when(stale).click();
+        when(driver.findElement(button)).thenReturn(stale, fresh);
+        ElementCache cache = new ElementCache();
+
+        cache.act(driver, button, element -> {
+            element.click();
+            return null;
+        });
+
+        verify(fresh).click();
+        assertThat(cache.find(driver, button)).isSameAs(fresh);
+        assertThat(cache.summary()).contains("1 retried after going stale");
+    }
+
+    @Test
+    void staleAgainAfterTheRetryIsReported() {
+        WebElement stale = mock(WebElement.class);
+        doThrow(new StaleElementReferenceException("gone")).when(stale).click();
+        when(driver.findElement(button)).thenReturn(stale);
+        ElementCache cache = new ElementCache();
+
+        assertThatThrownBy(() -> cache.act(driver, button, element -> {
+            element.click();
+            return null;
+        })).isInstanceOf(StaleElementReferenceException.class);
+        verify(driver, times(2)).findElement(button);
+    }
+
+    @Test
+    void navigateStepInvalidatesTheRunsCache() throws Exception {
+        AutomationService automationService = new AutomationService(new WebDriverService(null, null), null, null,
+                null, null, null, new AutomationMetrics(new SimpleMeterRegistry()), null);
+        AutomationConfig config = new AutomationConfig();
+        config.setId(1L);
+        config.setName("cache");
+        config.setSteps(List.of());
+        AutomationResult result = new AutomationResult();
+        result.setId(1L);
+        result.setConfig(config);
+        RunContext context = new RunContext(result);
+        WebElement before = mock(WebElement.class);
+        WebElement after = mock(WebElement.class);
+        when(driver.findElement(button)).thenReturn(before, after);
+
+        context.getElements().find(driver, button);
+        AutomationStep navigate = new AutomationStep();
+        navigate.setType(AutomationStep.StepType.NAVIGATE);
+        navigate.setValue("https://example.com/next");
+        automationService.executeStep(driver, navigate, null, context);
+
+        verify(driver).get("https://example.com/next");
+        assertThat(context.getElements().find(driver, button)).isSameAs(after);
+    }
+}
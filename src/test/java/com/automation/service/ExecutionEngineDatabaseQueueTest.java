@@ -0,0 +1,188 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.NavigationProfile;
+import com.automation.model.QueuedRun;
+import com.automation.repository.AutomationConfigRepository;
+import com.automation.repository.AutomationResultRepository;
+import com.automation.repository.RunQueueRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Several ExecutionEngines in DATABASE queue mode sharing one H2 database, as the nodes of a cluster would.
+// Not transactional: every queue and result write commits, as on a real node.
+@DataJpaTest
+@Import(RunQueueStore.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExecutionEngineDatabaseQueueTest {
+
+    private static final int CONFIGS = 10;
+    private static final long FIRE_TIME = 1_000_000L;
+
+    @Autowired
+    private RunQueueStore queueStore;
+
+    @Autowired
+    private RunQueueRepository queueRepository;
+
+    @Autowired
+    private AutomationConfigRepository configRepository;
+
+    @Autowired
+    private AutomationResultRepository resultRepository;
+
+    private final List<ExecutionEngine> nodes = new ArrayList<>();
+    private final List<ThreadPoolTaskExecutor> executors = new ArrayList<>();
+    // "node:configId" of every run that executed
+    private final Queue<String> executions = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        nodes.forEach(ExecutionEngine::shutdown);
+        executors.forEach(ThreadPoolTaskExecutor::shutdown);
+        queueRepository.deleteAll();
+        resultRepository.deleteAll();
+        configRepository.deleteAll();
+    }
+
+    @Test
+    void triggerFiredOnEveryNodeRunsOnce() {
+        ExecutionEngine nodeA = node("node-a", null, 60);
+        ExecutionEngine nodeB = node("node-b", null, 60);
+        List<ExecutionEngine.SubmitOutcome> outcomes = new ArrayList<>();
+
+        for (int i = 0; i < CONFIGS; i++) {
+            AutomationConfig config = savedConfig("config-" + i);
+            // Both nodes' schedulers fire the same trigger
+            outcomes.add(nodeA.submit(config, FIRE_TIME));
+            outcomes.add(nodeB.submit(config, FIRE_TIME));
+        }
+        awaitQueueDone(CONFIGS);
+
+        assertThat(outcomes).filteredOn(outcome -> outcome == ExecutionEngine.SubmitOutcome.QUEUED).hasSize(CONFIGS);
+        assertThat(executions).hasSize(CONFIGS);
+        assertThat(executions).extracting(execution -> execution.substring(execution.indexOf(':') + 1))
+                .doesNotHaveDuplicates();
+        assertThat(resultRepository.findAll()).hasSize(CONFIGS)
+                .allSatisfy(result -> assertThat(result.getStatus()).isEqualTo(AutomationResult.Status.SUCCESS));
+    }
+
+    @Test
+    void runOfAKilledNodeIsReclaimedByAnother() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutionEngine nodeA = node("node-a", started, 2);
+        AutomationConfig config = savedConfig("config-1");
+        nodeA.submit(config, FIRE_TIME);
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // The node dies mid-run: its poller, and with it the lease renewals, stop
+        nodeA.shutdown();
+        node("node-b", null, 2);
+        awaitQueueDone(1);
+
+        assertThat(executions).containsExactly("node-a:" + config.getId(), "node-b:" + config.getId());
+        QueuedRun run = queueRepository.findAll().get(0);
+        assertThat(run.getAttempts()).isEqualTo(2);
+        assertThat(run.getClaimedBy()).isEqualTo("node-b");
+        assertThat(resultRepository.findAll()).extracting(AutomationResult::getStatus)
+                .containsExactlyInAnyOrder(AutomationResult.Status.FAILED, AutomationResult.Status.SUCCESS);
+    }
+
+    // A node whose runs take a moment, or block until the test ends once `started` is given
+    private ExecutionEngine node(String nodeId, CountDownLatch started, long leaseSeconds) {
+        AutomationService service = mock(AutomationService.class);
+        when(service.createRunningResult(any(AutomationConfig.class))).thenAnswer(invocation -> {
+            AutomationResult result = new AutomationResult();
+            result.setConfig(invocation.getArgument(0));
+            result.setStatus(AutomationResult.Status.RUNNING);
+            result.setStartTime(LocalDateTime.now());
+            return resultRepository.save(result);
+        });
+        when(service.executeAutomation(any(RunContext.class))).thenAnswer(invocation -> {
+            AutomationResult result = invocation.<RunContext>getArgument(0).getResult();
+            executions.add(nodeId + ":" + result.getConfig().getId());
+            if (started != null) {
+                started.countDown();
+                release.await();
+                return result;
+            }
+            Thread.sleep(20);
+            result.setStatus(AutomationResult.Status.SUCCESS);
+            result.setEndTime(LocalDateTime.now());
+            return resultRepository.save(result);
+        });
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.initialize();
+        executors.add(executor);
+        ExecutionEngine engine = new ExecutionEngine(service, executor, resultRepository,
+                mock(RunEventPublisher.class), queueStore, configRepository,
+                new AutomationMetrics(new SimpleMeterRegistry()), mock(FanOutRunner.class), new RunThreads(executor));
+        ReflectionTestUtils.setField(engine, "queueMode", ExecutionEngine.QueueMode.DATABASE);
+        ReflectionTestUtils.setField(engine, "nodeId", nodeId);
+        ReflectionTestUtils.setField(engine, "leaseSeconds", leaseSeconds);
+        ReflectionTestUtils.setField(engine, "pollMillis", 50L);
+        ReflectionTestUtils.setField(engine, "maxAttempts", 3);
+        ReflectionTestUtils.setField(engine, "queueCapacity", 100);
+        ReflectionTestUtils.setField(engine, "overflowPolicy", ExecutionEngine.OverflowPolicy.COALESCE);
+        engine.start();
+        nodes.add(engine);
+        return engine;
+    }
+
+    private AutomationConfig savedConfig(String name) {
+        AutomationConfig config = new AutomationConfig();
+        config.setName(name);
+        config.setSteps(new ArrayList<>());
+        config.setNavigationProfile(new NavigationProfile());
+        return configRepository.save(config);
+    }
+
+    private void awaitQueueDone(int rows) {
+        await(() -> {
+            List<QueuedRun> queued = queueRepository.findAll();
+            return queued.size() == rows && queued.stream().allMatch(run -> run.getStatus() == QueuedRun.Status.DONE);
+        });
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("waiting for the nodes").isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.repository.AutomationResultRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExecutionEngineTest {
+
+    private final AutomationService automationService = mock(AutomationService.class);
+    private final AutomationResultRepository resultRepository = mock(AutomationResultRepository.class);
+    private final RunThreads runThreads = mock(RunThreads.class);
+    // Runs handed to a worker but not started yet
+    private final List<Runnable> handedOff = new ArrayList<>();
+    private ExecutionEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        ThreadPoolTaskExecutor automationExecutor = new ThreadPoolTaskExecutor();
+        automationExecutor.setMaxPoolSize(2);
+        doAnswer(invocation -> handedOff.add(invocation.getArgument(0))).when(runThreads).execute(any(Runnable.class));
+        when(automationService.createRunningResult(any(AutomationConfig.class))).thenAnswer(invocation -> {
+            AutomationResult result = new AutomationResult();
+            result.setId(42L);
+            result.setConfig(invocation.getArgument(0));
+            result.setStatus(AutomationResult.Status.RUNNING);
+            return result;
+        });
+        when(automationService.executeAutomation(any(RunContext.class))).thenAnswer(invocation -> {
+            RunContext context = invocation.getArgument(0);
+            context.getResult().setStatus(context.isCancelRequested()
+                    ? AutomationResult.Status.CANCELLED : AutomationResult.Status.SUCCESS);
+            return context.getResult();
+        });
+        engine = new ExecutionEngine(automationService, automationExecutor, resultRepository,
+                mock(RunEventPublisher.class), mock(RunQueueStore.class), null,
+                new AutomationMetrics(new SimpleMeterRegistry()), mock(FanOutRunner.class), runThreads);
+        ReflectionTestUtils.setField(engine, "queueMode", ExecutionEngine.QueueMode.MEMORY);
+        ReflectionTestUtils.setField(engine, "queueCapacity", 10);
+        ReflectionTestUtils.setField(engine, "overflowPolicy", ExecutionEngine.OverflowPolicy.COALESCE);
+    }
+
+    @Test
+    void runIsCancellableBetweenDispatchAndItsWorkerStarting() {
+        AutomationResult result = engine.submitNow(config());
+        assertThat(handedOff).hasSize(1);
+        assertThat(engine.isQueued(result.getId())).isFalse();
+
+        assertThat(engine.cancel(result.getId())).isEqualTo(ExecutionEngine.CancelOutcome.CANCELLING);
+        handedOff.get(0).run();
+
+        ArgumentCaptor<RunContext> context = ArgumentCaptor.forClass(RunContext.class);
+        verify(automationService).executeAutomation(context.capture());
+        assertThat(context.getValue().isCancelRequested()).isTrue();
+        assertThat(result.getStatus()).isEqualTo(AutomationResult.Status.CANCELLED);
+        assertThat(engine.getActiveRun(result.getId())).isEmpty();
+    }
+
+    @Test
+    void startFailsRunsLeftRunningByThePreviousProcess() {
+        when(resultRepository.failRunning(eq(AutomationResult.Status.RUNNING), eq(AutomationResult.Status.FAILED),
+                anyString(), any(LocalDateTime.class))).thenReturn(3);
+
+        engine.start();
+
+        verify(resultRepository).failRunning(eq(AutomationResult.Status.RUNNING), eq(AutomationResult.Status.FAILED),
+                anyString(), any(LocalDateTime.class));
+    }
+
+    private static AutomationConfig config() {
+        AutomationConfig config = new AutomationConfig();
+        config.setId(1L);
+        config.setName("config-1");
+        config.setSteps(new ArrayList<>());
+        return config;
+    }
+}
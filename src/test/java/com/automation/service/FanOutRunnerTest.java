@@ -0,0 +1,213 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.AutomationStep;
+import com.automation.repository.AutomationResultRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FanOutRunnerTest {
+
+    private final AutomationService automationService = mock(AutomationService.class);
+    private final AutomationResultRepository resultRepository = mock(AutomationResultRepository.class);
+    private final WebDriverPools driverPools = mock(WebDriverPools.class);
+    private final ThreadPoolTaskExecutor fanOutExecutor = new ThreadPoolTaskExecutor();
+    private FanOutRunner runner;
+
+    // Rows running at once, the most seen, and how many started
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicLong ids = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        fanOutExecutor.setCorePoolSize(16);
+        fanOutExecutor.initialize();
+        when(resultRepository.save(any(AutomationResult.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(automationService.createRowResult(any(AutomationConfig.class), anyLong(), anyInt()))
+                .thenAnswer(invocation -> {
+                    AutomationResult child = new AutomationResult();
+                    child.setId(ids.incrementAndGet());
+                    child.setConfig(invocation.getArgument(0));
+                    child.setParentId(invocation.getArgument(1));
+                    child.setRowIndex(invocation.getArgument(2));
+                    child.setStatus(AutomationResult.Status.RUNNING);
+                    return child;
+                });
+        runner = new FanOutRunner(automationService, resultRepository, mock(RunEventPublisher.class),
+                mock(RunLogStore.class), driverPools, new AutomationMetrics(new SimpleMeterRegistry()), fanOutExecutor);
+        ReflectionTestUtils.setField(runner, "defaultParallelism", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fanOutExecutor.shutdown();
+    }
+
+    @Test
+    void parallelismIsCappedByTheDriverPool() {
+        when(driverPools.getMaxSize()).thenReturn(3);
+        rowsTake(50);
+        AutomationConfig config = config(12);
+        config.setFanOutParallelism(10);
+
+        AutomationResult result = runner.execute(parent(config));
+
+        assertThat(peak.get()).isEqualTo(3);
+        assertThat(result.getStatus()).isEqualTo(AutomationResult.Status.SUCCESS);
+        assertThat(result.getRowsSucceeded()).isEqualTo(12);
+        assertThat(result.getRowsFailed()).isZero();
+    }
+
+    @Test
+    void concurrentFanOutsShareTheDriverPoolBudget() throws Exception {
+        when(driverPools.getMaxSize()).thenReturn(3);
+        rowsTake(50);
+        AutomationConfig config = config(6);
+        config.setFanOutParallelism(3);
+        RunContext first = parent(config);
+        RunContext second = parent(config);
+        second.getResult().setId(2L);
+
+        Thread other = new Thread(() -> runner.execute(second));
+        other.start();
+        AutomationResult result = runner.execute(first);
+        other.join(TimeUnit.SECONDS.toMillis(10));
+
+        // Each parent alone may run three rows; together they still hold no more browsers than the pool
+        assertThat(peak.get()).isLessThanOrEqualTo(3);
+        assertThat(started.get()).isEqualTo(12);
+        assertThat(result.getRowsSucceeded()).isEqualTo(6);
+        assertThat(second.getResult().getRowsSucceeded()).isEqualTo(6);
+    }
+
+    @Test
+    void defaultParallelismAppliesWithoutAConfigValue() {
+        when(driverPools.getMaxSize()).thenReturn(8);
+        rowsTake(50);
+
+        AutomationResult result = runner.execute(parent(config(10)));
+
+        assertThat(peak.get()).isEqualTo(4);
+        assertThat(result.getRowsSucceeded()).isEqualTo(10);
+    }
+
+    @Test
+    void failedRowsFailTheParent() {
+        when(driverPools.getMaxSize()).thenReturn(8);
+        when(automationService.executeAutomation(any(RunContext.class))).thenAnswer(invocation -> {
+            RunContext context = invocation.getArgument(0);
+            AutomationResult child = context.getResult();
+            boolean fail = "fail".equals(context.getSteps().get(0).getValue());
+            child.setStatus(fail ? AutomationResult.Status.FAILED : AutomationResult.Status.SUCCESS);
+            child.setErrorMessage(fail ? "Element not found" : null);
+            return child;
+        });
+        AutomationConfig config = config(0);
+        AutomationStep input = new AutomationStep();
+        input.setType(AutomationStep.StepType.INPUT);
+        input.setSelector("#user");
+        input.setValue("${user}");
+        config.getSteps().add(input);
+        config.setParameterRows("user\nalice\nfail\nbob\n");
+
+        AutomationResult result = runner.execute(parent(config));
+
+        assertThat(result.getStatus()).isEqualTo(AutomationResult.Status.FAILED);
+        assertThat(result.getRowsSucceeded()).isEqualTo(2);
+        assertThat(result.getRowsFailed()).isEqualTo(1);
+        assertThat(result.getErrorMessage()).isEqualTo("1 of 3 rows failed");
+    }
+
+    @Test
+    void cancellingTheParentCancelsRunningRowsAndStartsNoMore() throws Exception {
+        when(driverPools.getMaxSize()).thenReturn(8);
+        CountDownLatch rowsRunning = new CountDownLatch(2);
+        when(automationService.executeAutomation(any(RunContext.class))).thenAnswer(invocation -> {
+            RunContext context = invocation.getArgument(0);
+            AutomationResult child = context.getResult();
+            started.incrementAndGet();
+            rowsRunning.countDown();
+            try {
+                context.sleep(TimeUnit.SECONDS.toMillis(30));
+                child.setStatus(AutomationResult.Status.SUCCESS);
+            } catch (RunCancelledException e) {
+                child.setStatus(AutomationResult.Status.CANCELLED);
+            }
+            return child;
+        });
+        AutomationConfig config = config(20);
+        config.setFanOutParallelism(2);
+        RunContext parent = parent(config);
+
+        Thread canceller = new Thread(() -> {
+            try {
+                rowsRunning.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            parent.cancel();
+        });
+        canceller.start();
+        long begin = System.nanoTime();
+        AutomationResult result = runner.execute(parent);
+        canceller.join();
+
+        assertThat(result.getStatus()).isEqualTo(AutomationResult.Status.CANCELLED);
+        assertThat(started.get()).isEqualTo(2);
+        assertThat(result.getRowsSucceeded()).isZero();
+        assertThat(result.getRowsFailed()).isZero();
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - begin)).isLessThan(10);
+    }
+
+    private void rowsTake(long millis) {
+        when(automationService.executeAutomation(any(RunContext.class))).thenAnswer(invocation -> {
+            RunContext context = invocation.getArgument(0);
+            started.incrementAndGet();
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(millis);
+            } finally {
+                active.decrementAndGet();
+            }
+            context.getResult().setStatus(AutomationResult.Status.SUCCESS);
+            return context.getResult();
+        });
+    }
+
+    private static RunContext parent(AutomationConfig config) {
+        AutomationResult result = new AutomationResult();
+        result.setId(1L);
+        result.setConfig(config);
+        result.setStatus(AutomationResult.Status.RUNNING);
+        return new RunContext(result);
+    }
+
+    private static AutomationConfig config(int rows) {
+        AutomationConfig config = new AutomationConfig();
+        config.setId(1L);
+        config.setName("fan-out");
+        config.setSteps(new ArrayList<>());
+        config.setParameterRows("user\n" + "someone\n".repeat(rows));
+        return config;
+    }
+}
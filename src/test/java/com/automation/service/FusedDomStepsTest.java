@@ -0,0 +1,194 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.AutomationStep;
+import com.automation.repository.AutomationResultRepository;
+import com.automation.repository.StepExecutionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FusedDomStepsTest {
+
+    private final ScriptedDriver driver = new ScriptedDriver();
+    private final WebDriverPools pools = new WebDriverPools(List.of(new DriverProvider() {
+        @Override
+        public AutomationConfig.DriverBackend getBackend() {
+            return AutomationConfig.DriverBackend.SIMULATED;
+        }
+
+        @Override
+        public WebDriver createDriver(PageLoadStrategy pageLoadStrategy) {
+            return driver;
+        }
+    }), AutomationConfig.DriverBackend.SIMULATED, new AutomationMetrics(new SimpleMeterRegistry()), 0, 1, 50,
+            Duration.ofMinutes(5), Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        pools.close();
+    }
+
+    @Test
+    void batchEndsAtAClick() {
+        List<AutomationStep> steps = List.of(
+                step(0, AutomationStep.StepType.INPUT, "user"),
+                step(1, AutomationStep.StepType.CLICK, null),
+                step(2, AutomationStep.StepType.SCROLL, "400"),
+                step(3, AutomationStep.StepType.NAVIGATE, "https://example.com/"));
+
+        assertThat(FusedDomSteps.batchEnd(steps, 0)).isEqualTo(2);
+        assertThat(FusedDomSteps.batchEnd(steps, 2)).isEqualTo(3);
+        assertThat(FusedDomSteps.isRepeatable(steps.subList(0, 2))).isFalse();
+        assertThat(FusedDomSteps.isRepeatable(steps.subList(2, 3))).isTrue();
+    }
+
+    @Test
+    void consecutiveDomStepsRunAsOneScriptCallPerBatch() {
+        AutomationResult result = run(
+                step(0, AutomationStep.StepType.INPUT, "user"),
+                step(1, AutomationStep.StepType.INPUT, "secret"),
+                step(2, AutomationStep.StepType.CLICK, null),
+                step(3, AutomationStep.StepType.INPUT, "query"),
+                step(4, AutomationStep.StepType.SCROLL, "400"));
+
+        assertThat(result.getStatus()).isEqualTo(AutomationResult.Status.SUCCESS);
+        assertThat(driver.batches).containsExactly(List.of("INPUT", "INPUT", "CLICK"), List.of("INPUT", "SCROLL"));
+        assertThat(driver.lookups).isEmpty();
+    }
+
+    @Test
+    void stepFailingInTheScriptAndTheRestRunOneByOne() {
+        // The script gets through the first input and stops at the second
+        driver.answers.add(1);
+
+        AutomationResult result = run(
+                step(0, AutomationStep.StepType.INPUT, "user"),
+                step(1, AutomationStep.StepType.INPUT, "secret"),
+                step(2, AutomationStep.StepType.CLICK, null));
+
+        assertThat(result.getStatus()).isEqualTo(AutomationResult.Status.SUCCESS);
+        assertThat(driver.batches).hasSize(1);
+        assertThat(driver.lookups).containsExactly(Locators.by("#field-1"), Locators.by("#field-2"));
+    }
+
+    @Test
+    void failedScriptCallIsNotRepeatedWhenItMayHaveClicked() {
+        driver.answers.add(new JavascriptException("script timeout"));
+
+        AutomationResult result = run(
+                step(0, AutomationStep.StepType.INPUT, "user"),
+                step(1, AutomationStep.StepType.CLICK, null),
+                step(2, AutomationStep.StepType.INPUT, "query"),
+                step(3, AutomationStep.StepType.SCROLL, "400"));
+
+        assertThat(result.getStatus()).isEqualTo(AutomationResult.Status.FAILED);
+        assertThat(result.getErrorMessage()).contains("not retried").contains("script timeout");
+        assertThat(driver.batches).hasSize(1);
+        assertThat(driver.lookups).isEmpty();
+    }
+
+    @Test
+    void failedScriptCallWithoutClicksFallsBackToOneByOne() {
+        driver.answers.add(new JavascriptException("script timeout"));
+
+        AutomationResult result = run(
+                step(0, AutomationStep.StepType.INPUT, "user"),
+                step(1, AutomationStep.StepType.INPUT, "secret"),
+                step(2, AutomationStep.StepType.SCROLL, "400"));
+
+        assertThat(result.getStatus()).isEqualTo(AutomationResult.Status.SUCCESS);
+        assertThat(driver.lookups).containsExactly(Locators.by("#field-0"), Locators.by("#field-1"));
+    }
+
+    private AutomationResult run(AutomationStep... steps) {
+        AutomationResultRepository resultRepository = mock(AutomationResultRepository.class);
+        when(resultRepository.save(any(AutomationResult.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        AutomationService automationService = new AutomationService(new WebDriverService(null, null), pools,
+                resultRepository, mock(RunEventPublisher.class), mock(StepExecutionRepository.class),
+                mock(RunLogStore.class), new AutomationMetrics(new SimpleMeterRegistry()),
+                mock(SessionCheckpointService.class));
+        ReflectionTestUtils.setField(automationService, "stepRecordBatchSize", 50);
+        ReflectionTestUtils.setField(automationService, "defaultWaitTimeoutSeconds", 1);
+        ReflectionTestUtils.setField(automationService, "defaultPollMillis", 50L);
+        ReflectionTestUtils.setField(automationService, "legacyWaitMode", AutomationService.LegacyWaitMode.FIXED);
+        ReflectionTestUtils.setField(automationService, "fusedStepsEnabled", true);
+        ReflectionTestUtils.setField(automationService, "fusedMinSteps", 2);
+
+        AutomationConfig config = new AutomationConfig();
+        config.setId(1L);
+        config.setName("fused");
+        config.setSteps(List.of(steps));
+        AutomationResult result = new AutomationResult();
+        result.setId(1L);
+        result.setConfig(config);
+        result.setScreenshotPaths(new ArrayList<>());
+        return automationService.executeAutomation(new RunContext(result));
+    }
+
+    private static AutomationStep step(int order, AutomationStep.StepType type, String value) {
+        AutomationStep step = new AutomationStep();
+        step.setOrder(order);
+        step.setType(type);
+        step.setSelector("#field-" + order);
+        step.setValue(value);
+        return step;
+    }
+
+    // Simulated session that remembers the fused batches and single lookups it served. Each script call takes the
+    // next answer: the index of the step that fails in the script, or an exception the call throws.
+    private static class ScriptedDriver extends SimulatedWebDriver {
+        private final Deque<Object> answers = new ArrayDeque<>();
+        private final List<List<String>> batches = new ArrayList<>();
+        private final List<By> lookups = new ArrayList<>();
+
+        ScriptedDriver() {
+            super(Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, 0, 0);
+        }
+
+        @Override
+        public Object executeAsyncScript(String script, Object... args) {
+            if (!script.startsWith(FusedDomSteps.SCRIPT_MARKER)) {
+                return super.executeAsyncScript(script, args);
+            }
+            List<?> steps = (List<?>) args[0];
+            batches.add(steps.stream().map(step -> String.valueOf(((Map<?, ?>) step).get("type"))).toList());
+            Object answer = answers.poll();
+            if (answer instanceof RuntimeException failure) {
+                throw failure;
+            }
+            int failAt = answer instanceof Integer index ? index : steps.size();
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (int i = 0; i < steps.size() && i <= failAt; i++) {
+                results.add(i < failAt ? Map.of("ok", true, "millis", 1.0)
+                        : Map.of("ok", false, "millis", 1.0, "error", "No element matches"));
+            }
+            return results;
+        }
+
+        @Override
+        public WebElement findElement(By by) {
+            lookups.add(by);
+            return super.findElement(by);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.automation.service;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocatorsTest {
+
+    @Test
+    void explicitPrefixesPickTheStrategy() {
+        assertLocator("css=div > a", Locators.Kind.CSS, "div > a");
+        assertLocator("xpath=//a[@href]", Locators.Kind.XPATH, "//a[@href]");
+        assertLocator("id=login-button", Locators.Kind.ID, "login-button");
+    }
+
+    @Test
+    void unprefixedSelectorsAreInferred() {
+        assertLocator("//form//input", Locators.Kind.XPATH, "//form//input");
+        assertLocator("./span", Locators.Kind.XPATH, "./span");
+        assertLocator("../div", Locators.Kind.XPATH, "../div");
+        assertLocator("(//li)[2]", Locators.Kind.XPATH, "(//li)[2]");
+        assertLocator("#username", Locators.Kind.ID, "username");
+        assertLocator("  #username  ", Locators.Kind.ID, "username");
+        // Only a bare id is turned into By.id; anything more stays CSS
+        assertLocator("#form input", Locators.Kind.CSS, "#form input");
+        assertLocator("#a.b", Locators.Kind.CSS, "#a.b");
+        assertLocator(".btn-primary", Locators.Kind.CSS, ".btn-primary");
+    }
+
+    @Test
+    void textSelectorMatchesTrimmedText() {
+        assertThat(Locators.by("text=  Sign in ")).isEqualTo(By.xpath("//*[text()[normalize-space(.)='Sign in']]"));
+    }
+
+    @Test
+    void xpathLiteralQuotesAnyText() {
+        assertThat(Locators.xpathLiteral("plain")).isEqualTo("'plain'");
+        assertThat(Locators.xpathLiteral("it's")).isEqualTo("\"it's\"");
+        assertThat(Locators.xpathLiteral("say \"it's\"")).isEqualTo("concat('say \"it', \"'\", 's\"')");
+    }
+
+    @Test
+    void compiledLocatorsAreCached() {
+        assertThat(Locators.compile("#cached-id")).isSameAs(Locators.compile("#cached-id"));
+    }
+
+    @Test
+    void emptySelectorIsRejected() {
+        assertThatThrownBy(() -> Locators.compile(" ")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Locators.compile(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertLocator(String selector, Locators.Kind kind, String expression) {
+        Locators.Locator locator = Locators.compile(selector);
+        assertThat(locator.getKind()).as(selector).isEqualTo(kind);
+        assertThat(locator.getExpression()).as(selector).isEqualTo(expression);
+    }
+}
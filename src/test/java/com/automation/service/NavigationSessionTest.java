@@ -0,0 +1,214 @@
+package com.automation.service;
+
+import com.automation.model.NavigationProfile;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentCaptor;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class NavigationSessionTest {
+
+    // Static site the Chrome tests load: one page pulling an image, a stylesheet and a tracking script
+    private static final String PAGE = "<html><head><link rel=\"stylesheet\" href=\"/style.css\">"
+            + "<script src=\"/ads/tracker.js\"></script></head>"
+            + "<body><h1>Fixture</h1><img src=\"/pixel.png\"></body></html>";
+
+    private HttpServer server;
+    private final Queue<String> served = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            served.add(path);
+            String type = path.endsWith(".css") ? "text/css" : path.endsWith(".js") ? "text/javascript"
+                    : path.endsWith(".png") ? "image/png" : "text/html";
+            byte[] body = path.endsWith(".html") ? PAGE.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().add("Content-Type", type);
+            exchange.getResponseHeaders().add("Cache-Control", "no-store");
+            exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void resourceTypesCombineTheListAndDisableImages() {
+        NavigationProfile profile = new NavigationProfile();
+        profile.setBlockedResourceTypes(" font, media ,");
+        profile.setDisableImages(true);
+
+        assertThat(NavigationSession.resourceTypes(profile)).containsExactlyInAnyOrder(
+                NavigationProfile.ResourceType.FONT, NavigationProfile.ResourceType.MEDIA,
+                NavigationProfile.ResourceType.IMAGE);
+
+        profile.setBlockedResourceTypes("IMAGE,VIDEO");
+        assertThatThrownBy(() -> NavigationSession.resourceTypes(profile))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("VIDEO");
+    }
+
+    @Test
+    void emptyProfileTouchesNothing() {
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(HasDevTools.class));
+        NavigationSession session = new NavigationSession(driver, new NavigationProfile());
+
+        assertThat(session.isEmpty()).isTrue();
+        session.apply();
+
+        verify((HasDevTools) driver, never()).getDevTools();
+    }
+
+    @Test
+    void driverWithoutDevToolsSkipsBlockingAndKeepsItsViewport() {
+        SimulatedWebDriver driver = new SimulatedWebDriver(Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, 0, 0);
+        NavigationProfile profile = new NavigationProfile();
+        profile.setDisableImages(true);
+        profile.setViewportWidth(800);
+        profile.setViewportHeight(600);
+        NavigationSession session = new NavigationSession(driver, profile);
+
+        session.apply();
+
+        assertThat(session.getBlockedRequests()).isZero();
+        assertThat(session.restore()).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void blockingIsSentOverDevToolsAndUndoneOnRestore() {
+        DevTools devTools = mock(DevTools.class);
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(HasDevTools.class, JavascriptExecutor.class));
+        when(((HasDevTools) driver).getDevTools()).thenReturn(devTools);
+        NavigationProfile profile = new NavigationProfile();
+        profile.setBlockedUrlPatterns("*/ads/*\n\n  *.doubleclick.net/*  ");
+        profile.setDisableImages(true);
+        NavigationSession session = new NavigationSession(driver, profile);
+
+        session.apply();
+
+        ArgumentCaptor<Command> commands = ArgumentCaptor.forClass(Command.class);
+        verify(devTools, atLeastOnce()).send(commands.capture());
+        assertThat(commands.getAllValues()).extracting(Command::getMethod)
+                .containsExactly("Network.enable", "Network.setBlockedURLs", "Fetch.enable");
+        assertThat(commands.getAllValues().get(1).getParams())
+                .containsEntry("urls", List.of("*/ads/*", "*.doubleclick.net/*"));
+        assertThat(commands.getAllValues().get(2).getParams().get("patterns").toString()).contains("resourceType=Image");
+
+        // Both DevTools events count a blocked request; paused ones are also failed
+        ArgumentCaptor<Event> events = ArgumentCaptor.forClass(Event.class);
+        ArgumentCaptor<Consumer> listeners = ArgumentCaptor.forClass(Consumer.class);
+        verify(devTools, atLeastOnce()).addListener(events.capture(), listeners.capture());
+        for (int i = 0; i < events.getAllValues().size(); i++) {
+            String method = events.getAllValues().get(i).getMethod();
+            Consumer<Map<String, Object>> listener = listeners.getAllValues().get(i);
+            if (method.equals("Fetch.requestPaused")) {
+                listener.accept(Map.of("requestId", "42"));
+            } else {
+                listener.accept(Map.of("blockedReason", "inspector"));
+                listener.accept(Map.of("blockedReason", "other"));
+            }
+        }
+        assertThat(session.getBlockedRequests()).isEqualTo(2);
+
+        assertThat(session.restore()).isTrue();
+        commands = ArgumentCaptor.forClass(Command.class);
+        verify(devTools, atLeastOnce()).send(commands.capture());
+        assertThat(commands.getAllValues()).extracting(Command::getMethod)
+                .contains("Fetch.failRequest", "Fetch.disable", "Network.disable");
+        verify(devTools).clearListeners();
+    }
+
+    @Test
+    void eagerLoadsCountTheLoadTimeNotWaitedFor() {
+        JavascriptExecutor driver = mock(JavascriptExecutor.class, withSettings().extraInterfaces(WebDriver.class));
+        // performance.now() when navigation returned, then the load event of that page
+        when(driver.executeScript(any(String.class))).thenReturn(100.0, 350.0);
+        NavigationProfile profile = new NavigationProfile();
+        profile.setPageLoadStrategy(NavigationProfile.PageLoad.EAGER);
+        NavigationSession session = new NavigationSession((WebDriver) driver, profile);
+
+        session.navigated();
+        session.leavingPage();
+
+        assertThat(session.getSavedMillis()).isEqualTo(250);
+        assertThat(session.summary()).contains("eager page load", "250 ms");
+    }
+
+    // Real request blocking needs Chrome: run with -Dautomation.test.chrome=true where one is installed
+    @Test
+    @EnabledIfSystemProperty(named = "automation.test.chrome", matches = "true")
+    void chromeNeverRequestsBlockedResources() {
+        NavigationProfile profile = new NavigationProfile();
+        profile.setBlockedUrlPatterns("*/ads/*");
+        profile.setDisableImages(true);
+        WebDriver driver = chrome(PageLoadStrategy.NORMAL);
+        try {
+            NavigationSession session = new NavigationSession(driver, profile);
+            session.apply();
+            driver.get(server() + "/page.html");
+
+            assertThat(served).contains("/page.html", "/style.css").doesNotContain("/pixel.png", "/ads/tracker.js");
+            assertThat(session.getBlockedRequests()).isEqualTo(2);
+
+            // Restored, the same browser loads everything again
+            assertThat(session.restore()).isTrue();
+            served.clear();
+            driver.get(server() + "/page.html");
+            assertThat(served).contains("/pixel.png", "/ads/tracker.js");
+        } finally {
+            driver.quit();
+        }
+    }
+
+    private WebDriver chrome(PageLoadStrategy strategy) {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless=new", "--no-sandbox", "--disable-dev-shm-usage");
+        options.setPageLoadStrategy(strategy);
+        return new ChromeDriver(options);
+    }
+
+    private String server() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,91 @@
+package com.automation.service;
+
+import com.automation.model.AutomationStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParameterRowsTest {
+
+    @Test
+    void quotedFieldsHoldCommasQuotesAndLineBreaks() {
+        ParameterRows rows = ParameterRows.parse("name,note\n\"Smith, J\",\"said \"\"hi\"\"\nthen left\"\n");
+
+        assertThat(rows.getRows()).containsExactly(
+                Map.of("name", "Smith, J", "note", "said \"hi\"\nthen left"));
+    }
+
+    @Test
+    void byteOrderMarkAndCrlfAreNotPartOfTheValues() {
+        ParameterRows rows = ParameterRows.parse("\uFEFFuser,password\r\nalice,one\r\nbob,two\r\n");
+
+        assertThat(rows.getColumns()).containsExactly("user", "password");
+        assertThat(rows.getRows()).containsExactly(
+                Map.of("user", "alice", "password", "one"),
+                Map.of("user", "bob", "password", "two"));
+    }
+
+    @Test
+    void blankLinesAreSkippedButEmptyFieldsKept() {
+        ParameterRows rows = ParameterRows.parse(" a , b \n\n,x\n\"\",\n");
+
+        assertThat(rows.getColumns()).containsExactly("a", "b");
+        assertThat(rows.getRows()).containsExactly(Map.of("a", "", "b", "x"), Map.of("a", "", "b", ""));
+    }
+
+    @Test
+    void rowsWithTheWrongFieldCountAreRejected() {
+        assertThatThrownBy(() -> ParameterRows.parse("a,b\n1,2\n1,2,3\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("row 2 has 3 fields, expected 2");
+        assertThatThrownBy(() -> ParameterRows.parse("a,b\n1\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("row 1 has 1 fields, expected 2");
+    }
+
+    @Test
+    void malformedDatasetsAreRejected() {
+        assertThatThrownBy(() -> ParameterRows.parse("a,a\n1,2"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("unique");
+        assertThatThrownBy(() -> ParameterRows.parse("a,,c\n1,2,3"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("not empty");
+        assertThatThrownBy(() -> ParameterRows.parse("a,b\n"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("at least one row");
+        assertThatThrownBy(() -> ParameterRows.parse("a\n\"open"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("unterminated");
+        assertThatThrownBy(() -> ParameterRows.parse("a\n" + "1\n".repeat(ParameterRows.MAX_ROWS + 1)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("at most");
+    }
+
+    @Test
+    void substituteFillsPlaceholdersInCopies() {
+        AutomationStep step = new AutomationStep();
+        step.setType(AutomationStep.StepType.INPUT);
+        step.setSelector("#${ field }");
+        step.setValue("${user}:${user}");
+        Map<String, String> row = Map.of("field", "login", "user", "a$1\\b");
+
+        List<AutomationStep> copies = ParameterRows.substitute(List.of(step), row);
+
+        assertThat(copies.get(0).getSelector()).isEqualTo("#login");
+        assertThat(copies.get(0).getValue()).isEqualTo("a$1\\b:a$1\\b");
+        assertThat(step.getValue()).isEqualTo("${user}:${user}");
+        assertThatThrownBy(() -> ParameterRows.substitute(List.of(step), Map.of("field", "login")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("user");
+    }
+
+    @Test
+    void missingColumnsListsUnknownPlaceholders() {
+        AutomationStep step = new AutomationStep();
+        step.setSelector("#${field}");
+        step.setValue("${user} ${password}");
+
+        assertThat(ParameterRows.parse("user,field\nalice,login").missingColumns(List.of(step)))
+                .containsExactly("password");
+    }
+}
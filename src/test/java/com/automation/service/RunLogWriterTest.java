@@ -0,0 +1,89 @@
+package com.automation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+class RunLogWriterTest {
+
+    // Records written chunks and fails while `failing` is set
+    private static class FlakyStore extends RunLogStore {
+        final List<String> chunks = new ArrayList<>();
+        final List<Long> firstLines = new ArrayList<>();
+        boolean failing;
+        int attempts;
+
+        FlakyStore() {
+            super(null, null);
+        }
+
+        @Override
+        void writeChunk(Long resultId, int chunkIndex, long firstLine, int lineCount, long byteOffset, byte[] raw) {
+            attempts++;
+            if (failing) {
+                throw new IllegalStateException("database unavailable");
+            }
+            assertThat(chunkIndex).isEqualTo(chunks.size());
+            chunks.add(new String(raw, StandardCharsets.UTF_8));
+            firstLines.add(firstLine);
+        }
+    }
+
+    @Test
+    void failedWriteKeepsLinesForTheNextWrite() {
+        FlakyStore store = new FlakyStore();
+        RunLogWriter writer = new RunLogWriter(store, 1L, 1024, 16384);
+
+        store.failing = true;
+        assertThatCode(() -> {
+            writer.append("first");
+            writer.flush();
+        }).doesNotThrowAnyException();
+        assertThat(store.chunks).isEmpty();
+
+        store.failing = false;
+        writer.append("second");
+        writer.flush();
+
+        assertThat(store.chunks).containsExactly("first\nsecond\n");
+        assertThat(store.firstLines).containsExactly(0L);
+    }
+
+    @Test
+    void failingStoreIsNotRetriedOnEveryLine() {
+        FlakyStore store = new FlakyStore();
+        RunLogWriter writer = new RunLogWriter(store, 1L, 100, 16384);
+        store.failing = true;
+
+        for (int i = 0; i < 20; i++) {
+            writer.append("line " + i + " of a run whose log store is down");
+        }
+
+        // A write is tried each time another chunk's worth of lines has been buffered
+        assertThat(store.attempts).isLessThan(10);
+    }
+
+    @Test
+    void linesAreDroppedOnlyOnceTooManyChunksArePending() {
+        FlakyStore store = new FlakyStore();
+        RunLogWriter writer = new RunLogWriter(store, 1L, 100, 16384);
+        store.failing = true;
+        for (int i = 0; i < 40; i++) {
+            writer.append("old line " + i);
+        }
+
+        store.failing = false;
+        writer.append("new line");
+        writer.flush();
+
+        String written = String.join("", store.chunks);
+        assertThat(written).contains("new line").doesNotContain("old line 0\n");
+        // Line numbering stays that of the lines actually written
+        assertThat(store.firstLines.get(0)).isZero();
+    }
+}
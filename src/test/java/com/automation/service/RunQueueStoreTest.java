@@ -0,0 +1,182 @@
+package com.automation.service;
+
+import com.automation.model.QueuedRun;
+import com.automation.repository.RunQueueRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Several nodes sharing one H2 run queue. Not transactional: each store call commits, as on a real node.
+@DataJpaTest
+@Import(RunQueueStore.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RunQueueStoreTest {
+
+    private static final int CONFIGS = 10;
+
+    @Autowired
+    private RunQueueStore store;
+
+    @Autowired
+    private RunQueueRepository queueRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void clear() {
+        queueRepository.deleteAll();
+    }
+
+    @Test
+    void nodesClaimingAtOnceNeverShareARunOrAConfig() throws Exception {
+        for (long config = 1; config <= CONFIGS; config++) {
+            store.enqueue(config, null, config + "@1000", false);
+            store.enqueue(config, null, config + "@2000", false);
+        }
+
+        int nodes = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(nodes);
+        List<Future<List<QueuedRun>>> claims = new ArrayList<>();
+        try {
+            for (int i = 0; i < nodes; i++) {
+                String nodeId = "node-" + i;
+                claims.add(executor.submit(() -> {
+                    start.await();
+                    return store.claim(nodeId, CONFIGS, lease(60));
+                }));
+            }
+            start.countDown();
+
+            List<QueuedRun> claimed = new ArrayList<>();
+            for (Future<List<QueuedRun>> claim : claims) {
+                claimed.addAll(claim.get(30, TimeUnit.SECONDS));
+            }
+            // Every config claimed exactly once, by whichever node got there first
+            assertThat(claimed).extracting(QueuedRun::getConfigId)
+                    .doesNotHaveDuplicates()
+                    .hasSize(CONFIGS);
+            assertThat(claimed).extracting(QueuedRun::getId).doesNotHaveDuplicates();
+            assertThat(store.countPending()).isEqualTo(CONFIGS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void claimSkipsRowsAnotherNodeHasLocked() throws Exception {
+        store.enqueue(1L, null, "1@1000", false);
+        store.enqueue(2L, null, "2@1000", false);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Another node is between locking the oldest pending row and updating it
+        CompletableFuture<Long> holder = CompletableFuture.supplyAsync(() -> transaction.execute(status -> {
+            Long id = queueRepository.lockPending(1).get(0).getId();
+            locked.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return id;
+        }));
+        try {
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+            List<QueuedRun> claimed = CompletableFuture.supplyAsync(() -> store.claim("node-b", 5, lease(60)))
+                    .get(10, TimeUnit.SECONDS);
+
+            assertThat(claimed).extracting(QueuedRun::getConfigId).containsExactly(2L);
+        } finally {
+            release.countDown();
+        }
+        Long lockedId = holder.get(10, TimeUnit.SECONDS);
+        assertThat(queueRepository.findById(lockedId)).get()
+                .extracting(QueuedRun::getStatus).isEqualTo(QueuedRun.Status.PENDING);
+    }
+
+    @Test
+    void expiredLeaseGoesBackToTheQueueForAnotherNode() {
+        store.enqueue(1L, null, "1@1000", false);
+        List<QueuedRun> first = store.claim("node-a", 5, lease(-1));
+        assertThat(first).hasSize(1);
+
+        // Still claimed by node-a, so no other node may start the config
+        assertThat(store.claim("node-b", 5, lease(60))).isEmpty();
+
+        assertThat(store.reclaimExpired(LocalDateTime.now(), 3)).isEqualTo(1);
+        List<QueuedRun> second = store.claim("node-b", 5, lease(60));
+
+        assertThat(second).singleElement().satisfies(run -> {
+            assertThat(run.getId()).isEqualTo(first.get(0).getId());
+            assertThat(run.getClaimedBy()).isEqualTo("node-b");
+            assertThat(run.getAttempts()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void expiredLeaseGivesUpAfterMaxAttempts() {
+        store.enqueue(1L, null, "1@1000", false);
+        Long id = store.claim("node-a", 5, lease(-1)).get(0).getId();
+
+        assertThat(store.reclaimExpired(LocalDateTime.now(), 1)).isEqualTo(1);
+
+        QueuedRun run = queueRepository.findById(id).orElseThrow();
+        assertThat(run.getStatus()).isEqualTo(QueuedRun.Status.DONE);
+        assertThat(run.getRunningKey()).isNull();
+        assertThat(store.claim("node-b", 5, lease(60))).isEmpty();
+    }
+
+    @Test
+    void triggerKeyAdmitsEachTriggerOnce() {
+        store.enqueue(1L, null, "1@1000", false);
+
+        assertThatThrownBy(() -> store.enqueue(1L, null, "1@1000", false))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        store.enqueue(1L, null, "1@2000", false);
+        assertThat(store.countPending()).isEqualTo(2);
+    }
+
+    @Test
+    void coalesceKeyAllowsOnePendingCoalescedRunPerConfig() {
+        store.enqueue(1L, null, "1@1000", true);
+
+        assertThatThrownBy(() -> store.enqueue(1L, null, "1@2000", true))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        // Runs that do not coalesce, and other configs, are unaffected
+        store.enqueue(1L, null, "1@3000", false);
+        store.enqueue(2L, null, "2@1000", true);
+
+        // Once claimed, the run no longer holds the key
+        store.claim("node-a", 1, lease(60));
+        store.enqueue(1L, null, "1@4000", true);
+        assertThat(store.countPending()).isEqualTo(3);
+    }
+
+    private static LocalDateTime lease(long seconds) {
+        return LocalDateTime.now().plusSeconds(seconds);
+    }
+}
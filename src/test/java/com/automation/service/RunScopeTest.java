@@ -0,0 +1,116 @@
+package com.automation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RunScopeTest {
+
+    @Test
+    void joinWaitsForEverySubtask() throws Exception {
+        try (RunScope scope = new RunScope("test")) {
+            Future<String> first = scope.fork(() -> {
+                Thread.sleep(50);
+                return "first";
+            });
+            Future<String> second = scope.fork(() -> "second");
+
+            scope.join();
+
+            assertThat(first.resultNow()).isEqualTo("first");
+            assertThat(second.resultNow()).isEqualTo("second");
+        }
+    }
+
+    @Test
+    void firstFailureInterruptsSiblingsAndFailsJoin() throws Exception {
+        CountDownLatch siblingRunning = new CountDownLatch(1);
+        AtomicBoolean siblingInterrupted = new AtomicBoolean();
+        try (RunScope scope = new RunScope("test")) {
+            scope.fork(() -> {
+                siblingRunning.countDown();
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    siblingInterrupted.set(true);
+                    throw e;
+                }
+                return null;
+            });
+            assertThat(siblingRunning.await(5, TimeUnit.SECONDS)).isTrue();
+            scope.fork(() -> {
+                throw new IllegalStateException("boom");
+            });
+
+            long started = System.nanoTime();
+            assertThatThrownBy(scope::join)
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("boom");
+            assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started)).isLessThan(5);
+            // Shut down by the failure: nothing new starts
+            assertThatThrownBy(() -> scope.fork(() -> null)).isInstanceOf(RejectedExecutionException.class);
+        }
+        assertThat(siblingInterrupted).isTrue();
+    }
+
+    @Test
+    void missedDeadlineInterruptsUnfinishedSubtasks() throws Exception {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        try (RunScope scope = new RunScope("test")) {
+            Future<String> quick = scope.fork(() -> "done");
+            Future<Object> stuck = scope.fork(() -> {
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                    throw e;
+                }
+                return null;
+            });
+
+            assertThatThrownBy(() -> scope.joinUntil(Instant.now().plusMillis(100)))
+                    .isInstanceOf(TimeoutException.class);
+            assertThat(quick.resultNow()).isEqualTo("done");
+            assertThat(stuck.isCancelled()).isTrue();
+            assertThatThrownBy(() -> scope.fork(() -> null)).isInstanceOf(RejectedExecutionException.class);
+        }
+        assertThat(interrupted).isTrue();
+    }
+
+    @Test
+    void closeWaitsForInterruptedSubtasksToEnd() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        AtomicBoolean cleanedUp = new AtomicBoolean();
+        RunScope scope = new RunScope("test");
+        scope.fork(() -> {
+            running.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } finally {
+                // Cleanup that takes a while after the interrupt, like releasing a browser
+                long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait();
+                }
+                cleanedUp.set(true);
+            }
+            return null;
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        scope.close();
+
+        assertThat(cleanedUp).isTrue();
+    }
+}
@@ -0,0 +1,347 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.ScheduleConfig;
+import com.automation.repository.AutomationConfigRepository;
+import com.automation.repository.AutomationResultRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SchedulerServiceTest {
+
+    private static final int INTERVAL_CONFIGS = 1000;
+    private static final int CRON_CONFIGS = 1000;
+    private static final long INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long RUN_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final ExecutionEngine executionEngine = mock(ExecutionEngine.class);
+    private final AutomationConfigRepository configRepository = mock(AutomationConfigRepository.class);
+    private final AutomationResultRepository resultRepository = mock(AutomationResultRepository.class);
+    private SchedulerService scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.cleanup();
+        }
+    }
+
+    // An hour after a restart at the top of the hour: 1000 configs every 5 minutes and 1000 every-minute crons,
+    // each run taking 10s. Before, intervals were all saved together on the hour and crons all start on the minute.
+    @Test
+    void jitterFlattensPeakConcurrencyWithoutChangingFrequency() {
+        long restart = LocalDateTime.of(2026, 3, 2, 12, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        List<AutomationConfig> configs = new ArrayList<>();
+        for (long id = 1; id <= INTERVAL_CONFIGS; id++) {
+            AutomationConfig config = intervalConfig(id, 5);
+            config.setUpdatedAt(dateTime(restart - 1));
+            configs.add(config);
+        }
+        for (long id = INTERVAL_CONFIGS + 1; id <= INTERVAL_CONFIGS + CRON_CONFIGS; id++) {
+            configs.add(cronConfig(id, "0 * * * * *"));
+        }
+
+        List<Long> before = fireTimes(unstarted(SchedulerService.IntervalPhase.IMMEDIATE, 0), configs, restart);
+        List<Long> after = fireTimes(unstarted(SchedulerService.IntervalPhase.HASHED, 30), configs, restart);
+
+        int peakBefore = peakConcurrency(before);
+        int peakAfter = peakConcurrency(after);
+
+        assertThat(before).hasSize(INTERVAL_CONFIGS * 12 + CRON_CONFIGS * 60);
+        assertThat(after).hasSameSizeAs(before);
+        assertThat(peakBefore).isEqualTo(INTERVAL_CONFIGS + CRON_CONFIGS);
+        // Ideal spreading gives about 1000 * 10s/30s + 1000 * 10s/5min, roughly 370
+        assertThat(peakAfter).isLessThan(peakBefore / 4);
+    }
+
+    @Test
+    void hashedPhaseKeepsTheSameFireTimesAcrossRestarts() {
+        SchedulerService service = unstarted(SchedulerService.IntervalPhase.HASHED, 30);
+        long start = LocalDateTime.of(2026, 3, 2, 12, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long restart = start + TimeUnit.MINUTES.toMillis(17) + 123;
+        for (AutomationConfig config : List.of(intervalConfig(1L, 5), intervalConfig(2L, 60), cronConfig(3L, "0 * * * * *"))) {
+            List<Long> fires = service.fireTimes(config, start, start + 2 * HOUR);
+            List<Long> afterRestart = service.fireTimes(config, restart, start + 2 * HOUR);
+
+            assertThat(afterRestart).isNotEmpty();
+            assertThat(fires).endsWith(afterRestart.toArray(new Long[0]));
+        }
+    }
+
+    // Two nodes sharing a run queue only run a trigger once if they give it the same fire time
+    @Test
+    void nodesStartingApartAgreeOnFireTimes() {
+        Instant restart = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        AutomationConfig edited = intervalConfig(1L, 60);
+        edited.setUpdatedAt(dateTime(restart.toEpochMilli() - TimeUnit.MINUTES.toMillis(10)));
+        AutomationConfig missed = intervalConfig(2L, 60);
+        List<AutomationConfig> configs = List.of(edited, missed);
+        AutomationResultRepository.ConfigLastRun lastRun =
+                lastRun(2L, dateTime(restart.toEpochMilli() - TimeUnit.HOURS.toMillis(3)));
+
+        List<Long> nodeA = armedFireTimes(configs, restart, lastRun);
+        List<Long> nodeB = armedFireTimes(configs, restart.plusSeconds(40), lastRun);
+
+        assertThat(nodeB).isEqualTo(nodeA);
+        // The edited config's interval counts from its edit; the catch-up run is the first one after the last run
+        assertThat(nodeA.get(0)).isEqualTo(restart.toEpochMilli() - TimeUnit.MINUTES.toMillis(10));
+        assertThat(nodeA.get(1)).isBetween(restart.toEpochMilli() - TimeUnit.HOURS.toMillis(3),
+                restart.toEpochMilli() - TimeUnit.HOURS.toMillis(2));
+    }
+
+    @Test
+    void reconcileArmsConfigsChangedOnOtherNodes() {
+        AutomationConfig first = intervalConfig(1L);
+        startScheduler(SchedulerService.MisfirePolicy.FIRE_ONCE, List.of(first));
+        AutomationConfig created = intervalConfig(2L);
+        AutomationConfig edited = intervalConfig(1L, 30);
+        edited.setUpdatedAt(first.getUpdatedAt().plusMinutes(1));
+        when(configRepository.findActiveVersions()).thenReturn(List.of(version(edited), version(created)));
+        when(configRepository.findById(1L)).thenReturn(Optional.of(edited));
+        when(configRepository.findById(2L)).thenReturn(Optional.of(created));
+
+        scheduler.reconcile();
+        scheduler.reconcile();
+
+        assertThat(scheduler.isScheduled(2L)).isTrue();
+        // Re-armed from the edited schedule, and only loaded again once it changes
+        assertThat(scheduler.getNextDeadline(1L) - System.currentTimeMillis())
+                .isLessThanOrEqualTo(TimeUnit.MINUTES.toMillis(30));
+        verify(configRepository, times(1)).findById(1L);
+        verify(configRepository, times(1)).findById(2L);
+
+        // Deactivated or deleted elsewhere
+        when(configRepository.findActiveVersions()).thenReturn(List.of(version(created)));
+        scheduler.reconcile();
+
+        assertThat(scheduler.isScheduled(1L)).isFalse();
+        assertThat(scheduler.isScheduled(2L)).isTrue();
+    }
+
+    // IMMEDIATE-phase configs are due the moment the application starts
+    @Test
+    void startupStaggerSpreadsRunsDueAtStartup() {
+        // A day ahead, so nothing falls due on the wheel while the test reads the deadlines
+        Instant restart = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        List<AutomationConfig> configs = new ArrayList<>();
+        for (long id = 1; id <= INTERVAL_CONFIGS; id++) {
+            configs.add(intervalConfig(id, 60));
+        }
+
+        List<Long> before = armedDeadlines(configs, restart, 0);
+        List<Long> after = armedDeadlines(configs, restart, 60);
+
+        assertThat(before).containsOnly(restart.toEpochMilli());
+        assertThat(after).allSatisfy(deadline -> assertThat(deadline)
+                .isBetween(restart.toEpochMilli(), restart.toEpochMilli() + TimeUnit.SECONDS.toMillis(60)));
+        assertThat(peakConcurrency(before)).isEqualTo(INTERVAL_CONFIGS);
+        // About 1000 * 10s/60s
+        assertThat(peakConcurrency(after)).isLessThan(INTERVAL_CONFIGS / 4);
+    }
+
+    @Test
+    void offsetIsStableAndWithinWindow() {
+        for (long id = 1; id <= 1000; id++) {
+            assertThat(SchedulerService.offset(id, 30_000)).isBetween(0L, 29_999L)
+                    .isEqualTo(SchedulerService.offset(id, 30_000));
+        }
+        assertThat(SchedulerService.offset(7L, 0)).isZero();
+        assertThat(SchedulerService.offset(null, 30_000)).isZero();
+    }
+
+    @Test
+    void fireOncePolicyCatchesUpAMissedRunOnce() {
+        AutomationConfig missed = intervalConfig(1L);
+        AutomationConfig onTime = intervalConfig(2L);
+        startScheduler(SchedulerService.MisfirePolicy.FIRE_ONCE, List.of(missed, onTime),
+                lastRun(1L, LocalDateTime.now().minusHours(3)), lastRun(2L, LocalDateTime.now().minusMinutes(1)));
+
+        assertThat(scheduler.getStats()).containsEntry("misfiresFired", 1L).containsEntry("misfiresSkipped", 0L);
+        ArgumentCaptor<Runnable> batch = ArgumentCaptor.forClass(Runnable.class);
+        // Staggered over the one-second startup window
+        verify(taskScheduler, timeout(3000)).schedule(batch.capture(), any(Instant.class));
+        batch.getValue().run();
+        verify(executionEngine).submit(eq(missed), anyLong());
+        verify(executionEngine, never()).submit(eq(onTime), anyLong());
+    }
+
+    @Test
+    void skipPolicyDropsAMissedRun() {
+        AutomationConfig missed = intervalConfig(1L);
+        startScheduler(SchedulerService.MisfirePolicy.SKIP, List.of(missed),
+                lastRun(1L, LocalDateTime.now().minusHours(3)));
+
+        assertThat(scheduler.getStats()).containsEntry("misfiresFired", 0L).containsEntry("misfiresSkipped", 1L);
+        // Still armed for its next regular run, which is up to an hour away
+        assertThat(scheduler.isScheduled(1L)).isTrue();
+        verify(taskScheduler, after(1500).never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    private void startScheduler(SchedulerService.MisfirePolicy policy, List<AutomationConfig> configs,
+                                AutomationResultRepository.ConfigLastRun... lastRuns) {
+        when(configRepository.findByActiveTrue()).thenReturn(configs);
+        when(resultRepository.findLastStartTimes()).thenReturn(Arrays.asList(lastRuns));
+        scheduler = unstarted(SchedulerService.IntervalPhase.HASHED, 0);
+        ReflectionTestUtils.setField(scheduler, "startupStaggerSeconds", 1L);
+        ReflectionTestUtils.setField(scheduler, "misfirePolicy", policy);
+        scheduler.init();
+    }
+
+    private SchedulerService unstarted(SchedulerService.IntervalPhase phase, long cronSmearSeconds) {
+        SchedulerService service = new SchedulerService(taskScheduler, executionEngine, configRepository, resultRepository);
+        ReflectionTestUtils.setField(service, "tickMillis", 10L);
+        ReflectionTestUtils.setField(service, "wheelSize", 256);
+        ReflectionTestUtils.setField(service, "intervalPhase", phase);
+        ReflectionTestUtils.setField(service, "cronSmearSeconds", cronSmearSeconds);
+        ReflectionTestUtils.setField(service, "misfirePolicy", SchedulerService.MisfirePolicy.FIRE_ONCE);
+        return service;
+    }
+
+    // Every fire in the hour from `restart`, as the scheduler computes them; cron times strictly
+    // follow the time they are computed from, so start just before the top of the hour
+    private static List<Long> fireTimes(SchedulerService service, List<AutomationConfig> configs, long restart) {
+        List<Long> fires = new ArrayList<>();
+        for (AutomationConfig config : configs) {
+            fires.addAll(service.fireTimes(config, restart - 1, restart + HOUR));
+        }
+        return fires;
+    }
+
+    // Deadlines the scheduler arms when it starts at `restart` with these configs and no run history
+    private List<Long> armedDeadlines(List<AutomationConfig> configs, Instant restart, long staggerSeconds) {
+        startAt(restart, staggerSeconds, configs);
+        try {
+            List<Long> deadlines = new ArrayList<>();
+            configs.forEach(config -> deadlines.add(scheduler.getNextDeadline(config.getId())));
+            return deadlines;
+        } finally {
+            scheduler.cleanup();
+            scheduler = null;
+        }
+    }
+
+    // Fire times a node starting at `restart` gives the next run of each config
+    private List<Long> armedFireTimes(List<AutomationConfig> configs, Instant restart,
+                                      AutomationResultRepository.ConfigLastRun... lastRuns) {
+        startAt(restart, 60, configs, lastRuns);
+        try {
+            List<Long> fireTimes = new ArrayList<>();
+            configs.forEach(config -> fireTimes.add(scheduler.getNextFireTime(config.getId())));
+            return fireTimes;
+        } finally {
+            scheduler.cleanup();
+            scheduler = null;
+        }
+    }
+
+    private void startAt(Instant restart, long staggerSeconds, List<AutomationConfig> configs,
+                         AutomationResultRepository.ConfigLastRun... lastRuns) {
+        when(configRepository.findByActiveTrue()).thenReturn(configs);
+        when(resultRepository.findLastStartTimes()).thenReturn(Arrays.asList(lastRuns));
+        scheduler = unstarted(SchedulerService.IntervalPhase.IMMEDIATE, 0);
+        ReflectionTestUtils.setField(scheduler, "startupStaggerSeconds", staggerSeconds);
+        ReflectionTestUtils.setField(scheduler, "clock", Clock.fixed(restart, ZoneId.systemDefault()));
+        scheduler.init();
+    }
+
+    private static LocalDateTime dateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static AutomationConfigRepository.ConfigVersion version(AutomationConfig config) {
+        return new AutomationConfigRepository.ConfigVersion() {
+            @Override
+            public Long getId() {
+                return config.getId();
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return config.getUpdatedAt();
+            }
+        };
+    }
+
+    private static AutomationConfig intervalConfig(Long id) {
+        // Hourly, so the regular runs are very unlikely to fall due while a test waits
+        return intervalConfig(id, 60);
+    }
+
+    private static AutomationConfig intervalConfig(Long id, int minutes) {
+        ScheduleConfig schedule = new ScheduleConfig();
+        schedule.setType(ScheduleConfig.ScheduleType.INTERVAL);
+        schedule.setIntervalMinutes(minutes);
+        return config(id, schedule);
+    }
+
+    private static AutomationConfig cronConfig(Long id, String expression) {
+        ScheduleConfig schedule = new ScheduleConfig();
+        schedule.setType(ScheduleConfig.ScheduleType.CRON);
+        schedule.setCronExpression(expression);
+        return config(id, schedule);
+    }
+
+    private static AutomationConfig config(Long id, ScheduleConfig schedule) {
+        AutomationConfig config = new AutomationConfig();
+        config.setId(id);
+        config.setName("config-" + id);
+        config.setSchedule(schedule);
+        return config;
+    }
+
+    private static AutomationResultRepository.ConfigLastRun lastRun(Long configId, LocalDateTime startTime) {
+        return new AutomationResultRepository.ConfigLastRun() {
+            @Override
+            public Long getConfigId() {
+                return configId;
+            }
+
+            @Override
+            public LocalDateTime getLastStartTime() {
+                return startTime;
+            }
+        };
+    }
+
+    // Most runs in flight at once, each lasting RUN_MILLIS from its fire time
+    private static int peakConcurrency(List<Long> fires) {
+        long[] starts = fires.stream().mapToLong(Long::longValue).sorted().toArray();
+        int peak = 0;
+        int oldest = 0;
+        for (int i = 0; i < starts.length; i++) {
+            while (starts[oldest] + RUN_MILLIS <= starts[i]) {
+                oldest++;
+            }
+            peak = Math.max(peak, i - oldest + 1);
+        }
+        return peak;
+    }
+}
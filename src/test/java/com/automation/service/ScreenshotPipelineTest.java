@@ -0,0 +1,88 @@
+package com.automation.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScreenshotPipelineTest {
+
+    private static final byte[] IMAGE = {(byte) 0x89, 'P', 'N', 'G'};
+
+    @TempDir
+    Path dir;
+
+    private ScreenshotPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new ScreenshotPipeline(new AutomationMetrics(new SimpleMeterRegistry()));
+        // PNG at full size is written as captured, without decoding
+        ReflectionTestUtils.setField(pipeline, "format", ScreenshotPipeline.Format.PNG);
+        ReflectionTestUtils.setField(pipeline, "writerThreads", 1);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 4);
+        pipeline.init();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void scopedWriteIsASubtaskOfTheRun() throws Exception {
+        Path target = dir.resolve("shots/one.png");
+        try (RunScope scope = new RunScope("test")) {
+            CompletableFuture<Void> write = pipeline.persist(IMAGE, target, scope);
+
+            scope.join();
+
+            assertThat(write).isCompleted();
+            assertThat(Files.readAllBytes(target)).isEqualTo(IMAGE);
+        }
+    }
+
+    @Test
+    void failedScopedWriteDoesNotShutDownTheRunsScope() throws Exception {
+        // The target's directory cannot be created under a regular file
+        Files.writeString(dir.resolve("blocked"), "");
+        CountDownLatch release = new CountDownLatch(1);
+        try (RunScope scope = new RunScope("test")) {
+            Future<Boolean> sibling = scope.fork(() -> release.await(10, TimeUnit.SECONDS));
+            CompletableFuture<Void> write = pipeline.persist(IMAGE, dir.resolve("blocked/one.png"), scope);
+
+            assertThatThrownBy(() -> write.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+            release.countDown();
+            scope.join();
+
+            assertThat(sibling.resultNow()).isTrue();
+            assertThat(pipeline.getStats()).containsEntry("failed", 1L);
+        }
+    }
+
+    @Test
+    void writeForAScopeThatHasEndedFailsWithoutWriting() {
+        Path target = dir.resolve("late.png");
+        RunScope scope = new RunScope("test");
+        scope.close();
+
+        CompletableFuture<Void> write = pipeline.persist(IMAGE, target, scope);
+
+        assertThatThrownBy(write::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(target).doesNotExist();
+    }
+}
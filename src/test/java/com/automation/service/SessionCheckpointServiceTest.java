@@ -0,0 +1,289 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.AutomationStep;
+import com.automation.model.SessionSnapshot;
+import com.automation.repository.SessionSnapshotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.Cookie;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionCheckpointServiceTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String TOKEN = "secret-token";
+
+    // Snapshot table kept in memory, one row per config and login
+    private final Map<SessionSnapshot.Key, SessionSnapshot> snapshots = new HashMap<>();
+    private final SessionSnapshotRepository snapshotRepository = mock(SessionSnapshotRepository.class);
+    private SessionCheckpointService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(snapshotRepository.save(any(SessionSnapshot.class))).thenAnswer(invocation -> {
+            SessionSnapshot snapshot = invocation.getArgument(0);
+            snapshots.put(new SessionSnapshot.Key(snapshot.getConfigId(), snapshot.getPrefixHash()), snapshot);
+            return snapshot;
+        });
+        when(snapshotRepository.updateSnapshot(anyLong(), anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            SessionSnapshot snapshot = snapshots.get(
+                    new SessionSnapshot.Key(invocation.getArgument(0), invocation.getArgument(1)));
+            if (snapshot == null) {
+                return 0;
+            }
+            snapshot.setCreatedAt(invocation.getArgument(2));
+            snapshot.setExpiresAt(invocation.getArgument(3));
+            snapshot.setData(invocation.getArgument(4));
+            return 1;
+        });
+        when(snapshotRepository.findById(any(SessionSnapshot.Key.class)))
+                .thenAnswer(invocation -> Optional.ofNullable(snapshots.get(invocation.getArgument(0))));
+        doAnswer(invocation -> snapshots.remove(invocation.getArgument(0)))
+                .when(snapshotRepository).deleteById(any(SessionSnapshot.Key.class));
+        when(snapshotRepository.deleteExpired(anyLong(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            Long configId = invocation.getArgument(0);
+            LocalDateTime now = invocation.getArgument(1);
+            int before = snapshots.size();
+            snapshots.values().removeIf(snapshot -> snapshot.getConfigId().equals(configId)
+                    && snapshot.getExpiresAt().isBefore(now));
+            return before - snapshots.size();
+        });
+        service = service(KEY);
+    }
+
+    @Test
+    void capturedSessionIsEncryptedAndRestoredIntoANewBrowser() {
+        AutomationConfig config = config(1L);
+        SimulatedWebDriver loggedIn = loggedIn();
+        capture(loggedIn, config);
+
+        SessionSnapshot snapshot = snapshotOf(1L);
+        assertThat(snapshot.getExpiresAt()).isEqualTo(snapshot.getCreatedAt().plusMinutes(60));
+        assertThat(new String(snapshot.getData(), StandardCharsets.ISO_8859_1)).doesNotContain(TOKEN, "example.com");
+
+        SimulatedWebDriver fresh = browser();
+        assertThat(service.restore(fresh, config, context(config))).isEqualTo(3);
+        assertThat(fresh.manage().getCookieNamed("session").getValue()).isEqualTo(TOKEN);
+        assertThat(fresh.getCurrentUrl()).isEqualTo("https://example.com/account");
+    }
+
+    @Test
+    void checkpointValueOverridesTheTtl() {
+        AutomationConfig config = config(1L);
+        config.getSteps().get(2).setValue("5");
+        capture(loggedIn(), config);
+
+        SessionSnapshot snapshot = snapshotOf(1L);
+        assertThat(snapshot.getExpiresAt()).isEqualTo(snapshot.getCreatedAt().plusMinutes(5));
+    }
+
+    @Test
+    void expiredSnapshotIsDiscarded() {
+        AutomationConfig config = config(1L);
+        capture(loggedIn(), config);
+        snapshotOf(1L).setExpiresAt(LocalDateTime.now().minusSeconds(1));
+
+        SimulatedWebDriver fresh = browser();
+        assertThat(service.restore(fresh, config, context(config))).isZero();
+        assertThat(snapshotsOf(1L)).isEmpty();
+        assertThat(fresh.manage().getCookies()).isEmpty();
+    }
+
+    @Test
+    void editingTheLoginStepsInvalidatesTheSnapshot() {
+        AutomationConfig config = config(1L);
+        capture(loggedIn(), config);
+        config.getSteps().get(1).setValue("other-user");
+
+        assertThat(service.restore(browser(), config, context(config))).isZero();
+        // The old login's snapshot is never read again and goes once it has expired
+        SessionSnapshot old = snapshotOf(1L);
+        old.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        capture(loggedIn(), config);
+        assertThat(snapshotsOf(1L)).hasSize(1).doesNotContain(old);
+    }
+
+    @Test
+    void fanOutRowsWithDifferentLoginsKeepTheirOwnSnapshots() {
+        AutomationConfig config = config(1L);
+        RunContext alice = row(config, "alice");
+        RunContext bob = row(config, "bob");
+        captureRow(loggedIn(), config, alice);
+        captureRow(loggedIn(), config, bob);
+
+        assertThat(snapshotsOf(1L)).hasSize(2);
+        assertThat(service.restore(browser(), config, row(config, "alice"))).isEqualTo(3);
+        assertThat(service.restore(browser(), config, row(config, "bob"))).isEqualTo(3);
+        assertThat(service.restore(browser(), config, row(config, "carol"))).isZero();
+        assertThat(snapshotsOf(1L)).hasSize(2);
+    }
+
+    @Test
+    void recapturingTheSameLoginReplacesItsSnapshot() {
+        AutomationConfig config = config(1L);
+        capture(loggedIn(), config);
+        SessionSnapshot first = snapshotOf(1L);
+        byte[] firstData = first.getData();
+
+        capture(loggedIn(), config);
+
+        assertThat(snapshotsOf(1L)).containsExactly(first);
+        assertThat(first.getData()).isNotEqualTo(firstData);
+        verify(snapshotRepository, times(1)).save(any(SessionSnapshot.class));
+    }
+
+    @Test
+    void snapshotOnlyDecryptsForItsOwnConfigAndKey() throws Exception {
+        AutomationConfig first = config(1L);
+        AutomationConfig second = config(2L);
+        capture(loggedIn(), first);
+
+        // Same login steps, but the ciphertext is bound to config 1
+        SessionSnapshot original = snapshotOf(1L);
+        SessionSnapshot copied = new SessionSnapshot();
+        copied.setConfigId(2L);
+        copied.setPrefixHash(original.getPrefixHash());
+        copied.setCreatedAt(original.getCreatedAt());
+        copied.setExpiresAt(original.getExpiresAt());
+        copied.setData(original.getData());
+        snapshots.put(new SessionSnapshot.Key(2L, copied.getPrefixHash()), copied);
+        assertThat(service.restore(browser(), second, context(second))).isZero();
+        assertThat(snapshotsOf(2L)).isEmpty();
+
+        byte[] otherKey = new byte[32];
+        otherKey[0] = 1;
+        SessionCheckpointService restarted = service(Base64.getEncoder().encodeToString(otherKey));
+        assertThat(restarted.restore(browser(), first, context(first))).isZero();
+        assertThat(snapshotsOf(1L)).isEmpty();
+    }
+
+    @Test
+    void restoreThatIsNoLongerLoggedInClearsTheBrowser() {
+        AutomationConfig config = config(1L);
+        capture(loggedIn(), config);
+
+        // The checkpoint's selector never shows up
+        SimulatedWebDriver loggedOut = new SimulatedWebDriver(Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, 0, 1.0);
+        assertThat(service.restore(loggedOut, config, context(config))).isZero();
+        assertThat(loggedOut.manage().getCookies()).isEmpty();
+        assertThat(snapshotsOf(1L)).isEmpty();
+    }
+
+    @Test
+    void configuredKeyMustBeAnAesKey() {
+        assertThatThrownBy(() -> service(Base64.getEncoder().encodeToString(new byte[20])))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("16, 24 or 32 bytes");
+    }
+
+    private SessionCheckpointService service(String key) throws Exception {
+        SessionCheckpointService created = new SessionCheckpointService(snapshotRepository, new ObjectMapper(),
+                new WebDriverService(null, null));
+        ReflectionTestUtils.setField(created, "enabled", true);
+        ReflectionTestUtils.setField(created, "configuredKey", key);
+        ReflectionTestUtils.setField(created, "defaultTtlMinutes", 60L);
+        ReflectionTestUtils.setField(created, "verifyTimeoutSeconds", 30);
+        created.init();
+        return created;
+    }
+
+    private void capture(SimulatedWebDriver driver, AutomationConfig config) {
+        captureRow(driver, config, context(config));
+    }
+
+    private void captureRow(SimulatedWebDriver driver, AutomationConfig config, RunContext context) {
+        AutomationStep checkpoint = context.getSteps().get(2);
+        try {
+            service.capture(driver, config, checkpoint, context);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<SessionSnapshot> snapshotsOf(Long configId) {
+        return snapshots.values().stream().filter(snapshot -> snapshot.getConfigId().equals(configId)).toList();
+    }
+
+    private SessionSnapshot snapshotOf(Long configId) {
+        List<SessionSnapshot> found = snapshotsOf(configId);
+        assertThat(found).hasSize(1);
+        return found.get(0);
+    }
+
+    private static SimulatedWebDriver loggedIn() {
+        SimulatedWebDriver driver = browser();
+        driver.get("https://example.com/account");
+        driver.manage().addCookie(new Cookie.Builder("session", TOKEN)
+                .domain("example.com").path("/").isHttpOnly(true).isSecure(true).sameSite("Lax").build());
+        return driver;
+    }
+
+    private static SimulatedWebDriver browser() {
+        return new SimulatedWebDriver(Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, 0, 0);
+    }
+
+    private static RunContext context(AutomationConfig config) {
+        AutomationResult result = new AutomationResult();
+        result.setId(1L);
+        result.setConfig(config);
+        return new RunContext(result);
+    }
+
+    // A fan-out row of the config, logging in as the given user
+    private static RunContext row(AutomationConfig config, String user) {
+        RunContext context = context(config);
+        List<AutomationStep> steps = new ArrayList<>(config.getSteps());
+        steps.set(1, step(1, AutomationStep.StepType.INPUT, "#user", user));
+        context.setSteps(steps);
+        return context;
+    }
+
+    // Two login steps, then the checkpoint waiting for the page only a logged-in user sees
+    private static AutomationConfig config(Long id) {
+        List<AutomationStep> steps = new ArrayList<>();
+        steps.add(step(0, AutomationStep.StepType.NAVIGATE, null, "https://example.com/login"));
+        steps.add(step(1, AutomationStep.StepType.INPUT, "#user", "user"));
+        AutomationStep checkpoint = step(2, AutomationStep.StepType.CHECKPOINT, "#dashboard", null);
+        checkpoint.setTimeoutSeconds(1);
+        checkpoint.setPollMillis(50);
+        steps.add(checkpoint);
+        AutomationConfig config = new AutomationConfig();
+        config.setId(id);
+        config.setName("config-" + id);
+        config.setSteps(steps);
+        return config;
+    }
+
+    private static AutomationStep step(int order, AutomationStep.StepType type, String selector, String value) {
+        AutomationStep step = new AutomationStep();
+        step.setOrder(order);
+        step.setType(type);
+        step.setSelector(selector);
+        step.setValue(value);
+        return step;
+    }
+}
@@ -0,0 +1,181 @@
+package com.automation.service;
+
+import com.automation.model.AutomationConfig;
+import com.automation.model.AutomationResult;
+import com.automation.model.AutomationStep;
+import com.automation.repository.AutomationResultRepository;
+import com.automation.repository.StepExecutionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SimulatedWebDriverTest {
+
+    @Test
+    void commandsTakeTheirConfiguredLatency() {
+        SimulatedWebDriver driver = new SimulatedWebDriver(Duration.ofMillis(50), Duration.ZERO, Duration.ZERO, 0, 0, 0);
+
+        long started = System.nanoTime();
+        driver.get("https://example.com/");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+        assertThat(driver.getCurrentUrl()).isEqualTo("https://example.com/");
+    }
+
+    @Test
+    void failureRatesApply() {
+        SimulatedWebDriver failing = new SimulatedWebDriver(Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, 1.0, 0);
+        SimulatedWebDriver missing = new SimulatedWebDriver(Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, 0, 1.0);
+
+        assertThatThrownBy(() -> failing.get("https://example.com/")).isInstanceOf(WebDriverException.class);
+        assertThatThrownBy(() -> missing.findElement(By.id("field"))).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void quitSessionRejectsCommands() {
+        SimulatedWebDriver driver = zeroLatency();
+        driver.quit();
+
+        assertThatThrownBy(driver::getWindowHandle).isInstanceOf(NoSuchSessionException.class);
+    }
+
+    @Test
+    void navigationKeepsHistory() {
+        SimulatedWebDriver driver = zeroLatency();
+        driver.get("https://example.com/a");
+        driver.get("https://example.com/b");
+
+        driver.navigate().back();
+        assertThat(driver.getCurrentUrl()).isEqualTo("https://example.com/a");
+        driver.navigate().forward();
+        assertThat(driver.getCurrentUrl()).isEqualTo("https://example.com/b");
+    }
+
+    @Test
+    void answersTheProbesTheApplicationSends() {
+        SimulatedWebDriver driver = zeroLatency();
+
+        assertThat(driver.executeScript("return document.readyState")).isEqualTo("complete");
+        byte[] png = driver.getScreenshotAs(OutputType.BYTES);
+        assertThat(png).startsWith((byte) 0x89, (byte) 'P', (byte) 'N', (byte) 'G');
+    }
+
+    // Hundreds of on-demand runs through the execution engine, the driver pool and step dispatch, with no browser
+    // involved. How fast they go is measured by SimulatedRunBenchmark; this checks that every run completes.
+    @Test
+    void runsThroughTheEngineShareTheDriverPool() throws Exception {
+        int runs = 200;
+        int concurrency = 4;
+        AutomationMetrics metrics = new AutomationMetrics(new SimpleMeterRegistry());
+        AutomationResultRepository resultRepository = mock(AutomationResultRepository.class);
+        AtomicLong ids = new AtomicLong();
+        when(resultRepository.save(any(AutomationResult.class))).thenAnswer(invocation -> {
+            AutomationResult result = invocation.getArgument(0);
+            if (result.getId() == null) {
+                result.setId(ids.incrementAndGet());
+            }
+            return result;
+        });
+        StepExecutionRepository stepExecutionRepository = mock(StepExecutionRepository.class);
+        AtomicInteger stepRecords = new AtomicInteger();
+        when(stepExecutionRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            stepRecords.addAndGet(invocation.<List<?>>getArgument(0).size());
+            return invocation.getArgument(0);
+        });
+
+        DriverProvider provider = new DriverProvider() {
+            @Override
+            public AutomationConfig.DriverBackend getBackend() {
+                return AutomationConfig.DriverBackend.SIMULATED;
+            }
+
+            @Override
+            public WebDriver createDriver(PageLoadStrategy pageLoadStrategy) {
+                return zeroLatency();
+            }
+        };
+        List<AutomationStep> steps = List.of(
+                step(0, AutomationStep.StepType.NAVIGATE, "https://example.com/login"),
+                step(1, AutomationStep.StepType.INPUT, "user"),
+                step(2, AutomationStep.StepType.CLICK, null),
+                step(3, AutomationStep.StepType.SCROLL, "400"));
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.initialize();
+        try (WebDriverPools pools = new WebDriverPools(List.of(provider), AutomationConfig.DriverBackend.SIMULATED,
+                metrics, 0, concurrency, 1000, Duration.ofMinutes(5), Duration.ofSeconds(30))) {
+            AutomationService automationService = new AutomationService(new WebDriverService(null, null), pools,
+                    resultRepository, mock(RunEventPublisher.class), stepExecutionRepository, mock(RunLogStore.class),
+                    metrics, mock(SessionCheckpointService.class));
+            ReflectionTestUtils.setField(automationService, "stepRecordBatchSize", 50);
+            ReflectionTestUtils.setField(automationService, "defaultWaitTimeoutSeconds", 30);
+            ReflectionTestUtils.setField(automationService, "defaultPollMillis", 250L);
+            ReflectionTestUtils.setField(automationService, "legacyWaitMode", AutomationService.LegacyWaitMode.FIXED);
+            ExecutionEngine engine = new ExecutionEngine(automationService, executor, resultRepository,
+                    mock(RunEventPublisher.class), mock(RunQueueStore.class), null, metrics,
+                    mock(FanOutRunner.class), new RunThreads(executor));
+            ReflectionTestUtils.setField(engine, "queueMode", ExecutionEngine.QueueMode.MEMORY);
+            ReflectionTestUtils.setField(engine, "queueCapacity", runs);
+            ReflectionTestUtils.setField(engine, "overflowPolicy", ExecutionEngine.OverflowPolicy.COALESCE);
+
+            List<AutomationResult> results = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                AutomationConfig config = new AutomationConfig();
+                config.setId((long) (i % 20));
+                config.setName("load-" + (i % 20));
+                config.setSteps(steps);
+                results.add(engine.submitNow(config));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (((Number) engine.getStats().get("completed")).intValue() < runs && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertThat(engine.getStats()).containsEntry("completed", (long) runs).containsEntry("rejected", 0L);
+            assertThat(results).extracting(AutomationResult::getStatus).containsOnly(AutomationResult.Status.SUCCESS);
+            assertThat(stepRecords).hasValue(runs * steps.size());
+            // Sessions are reused, not created per run
+            WebDriverPool pool = pools.forBackend(AutomationConfig.DriverBackend.SIMULATED);
+            assertThat(((Number) pool.getStats().get("created")).intValue()).isLessThanOrEqualTo(concurrency);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static SimulatedWebDriver zeroLatency() {
+        return new SimulatedWebDriver(Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, 0, 0);
+    }
+
+    private static AutomationStep step(int order, AutomationStep.StepType type, String value) {
+        AutomationStep step = new AutomationStep();
+        step.setOrder(order);
+        step.setType(type);
+        step.setSelector("#field-" + order);
+        step.setValue(value);
+        return step;
+    }
+}
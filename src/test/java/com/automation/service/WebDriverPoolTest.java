@@ -0,0 +1,143 @@
+package com.automation.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WindowType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebDriverPoolTest {
+
+    // Stub factory: zero-latency simulated sessions, remembering what it created and what the pool quit
+    private final Queue<WebDriver> created = new ConcurrentLinkedQueue<>();
+    private final Queue<WebDriver> quit = new ConcurrentLinkedQueue<>();
+    private final Supplier<WebDriver> factory = () -> {
+        WebDriver driver = new SimulatedWebDriver(Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, 0, 0);
+        created.add(driver);
+        return driver;
+    };
+    private WebDriverPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void startPreStartsTheMinimumSize() throws Exception {
+        pool = pool(2, 4, 50, Duration.ofMinutes(5));
+        pool.start();
+
+        awaitStat("size", 2);
+        assertThat(created).hasSize(2);
+        assertThat(pool.getStats()).containsEntry("idle", 2);
+    }
+
+    @Test
+    void leasesBeyondMaxSizeTimeOut() throws Exception {
+        pool = pool(0, 2, 50, Duration.ofMinutes(5));
+        pool.lease();
+        pool.lease();
+
+        assertThatThrownBy(pool::lease)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("waiting for a browser session");
+        assertThat(created).hasSize(2);
+    }
+
+    @Test
+    void releasedDriverIsResetAndReused() throws Exception {
+        pool = pool(0, 1, 50, Duration.ofMinutes(5));
+        WebDriver driver = pool.lease();
+        driver.get("https://example.com/account");
+        driver.manage().addCookie(new Cookie("session", "token"));
+        driver.switchTo().newWindow(WindowType.TAB);
+
+        pool.release(driver);
+
+        assertThat(driver.getWindowHandles()).hasSize(1);
+        assertThat(driver.manage().getCookies()).isEmpty();
+        assertThat(driver.getCurrentUrl()).isEqualTo("about:blank");
+        assertThat(pool.lease()).isSameAs(driver);
+        assertThat(pool.getStats()).containsEntry("reused", 1L).containsEntry("created", 1L);
+    }
+
+    @Test
+    void driverIsRecycledAfterMaxUses() throws Exception {
+        pool = pool(0, 1, 2, Duration.ofMinutes(5));
+        WebDriver first = pool.lease();
+        pool.release(first);
+        assertThat(pool.lease()).isSameAs(first);
+        pool.release(first);
+
+        assertThat(quit).containsExactly(first);
+        assertThat(pool.lease()).isNotSameAs(first);
+    }
+
+    @Test
+    void unhealthyIdleDriverIsReplaced() throws Exception {
+        pool = pool(0, 1, 50, Duration.ofMinutes(5));
+        WebDriver driver = pool.lease();
+        pool.release(driver);
+        // The browser died while idle
+        driver.quit();
+
+        WebDriver replacement = pool.lease();
+
+        assertThat(replacement).isNotSameAs(driver);
+        assertThat(pool.getStats()).containsEntry("failedHealthChecks", 1L).containsEntry("size", 1);
+    }
+
+    @Test
+    void invalidatedDriverIsQuitAndFreesItsSlot() throws Exception {
+        pool = pool(0, 1, 50, Duration.ofMinutes(5));
+        WebDriver driver = pool.lease();
+
+        pool.invalidate(driver);
+
+        assertThat(quit).containsExactly(driver);
+        assertThat(pool.lease()).isNotSameAs(driver);
+    }
+
+    @Test
+    void idleDriversAboveMinSizeAreEvicted() throws Exception {
+        pool = pool(1, 3, 50, Duration.ofSeconds(1));
+        pool.start();
+        List<WebDriver> leased = List.of(pool.lease(), pool.lease(), pool.lease());
+        leased.forEach(pool::release);
+        assertThat(pool.getStats()).containsEntry("size", 3);
+
+        // Maintenance runs every second and keeps the minimum size warm
+        awaitStat("size", 1);
+        assertThat(quit).hasSize(2);
+    }
+
+    private WebDriverPool pool(int minSize, int maxSize, int maxUses, Duration idleTimeout) {
+        return new WebDriverPool(factory, driver -> {
+            quit.add(driver);
+            driver.quit();
+        }, minSize, maxSize, maxUses, idleTimeout, Duration.ofMillis(100));
+    }
+
+    private void awaitStat(String name, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        Map<String, Object> stats = pool.getStats();
+        while (!Integer.valueOf(expected).equals(stats.get(name)) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            stats = pool.getStats();
+        }
+        assertThat(stats).containsEntry(name, expected);
+    }
+}